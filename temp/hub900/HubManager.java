@@ -4,16 +4,21 @@ import java.util.*;
 import com.hub900.callback.*;
 import com.hub900.a.*;
 import com.hub900.entity.*;
+import com.hub900.ble.*;
+import com.hub900.filter.*;
+import com.hub900.metrics.*;
+import com.hub900.jfr.*;
 
 public final class HubManager
 {
     private int perimeter;
-    private long lastTime;
+    private volatile long lastTime;
     private boolean isIdle;
     private int idleDuration;
     private static Timer timer;
     private static HubManager instance;
-    private static final StringBuffer messageCache;
+    private static final SampleListener[] NO_LISTENERS;
+    private final StringBuffer messageCache;
     private BleSOSCallback bleSOSCallback;
     private RawDataCallback rawDataCallback;
     private DataErrorCallback dataErrorCallback;
@@ -26,13 +31,35 @@ public final class HubManager
     private BleHeartRateDataCallback bleHeartRateDataCallback;
     private BleBoxingDataCallback bleBoxingDataCallback;
     private BleBoxingHeartRateDataCallback bleBoxingHeartRateDataCallback;
+    private volatile SampleListener[] sampleListeners;
     private final DataIdleCallback mDataIdleCallback;
+    private HubMetrics metrics;
+    private HubCounters metricsHub;
+    private int metricsHubId;
+    private int frameHubId;
+    private HubDescriptor frameHub;
+    private HubRegistry hubRegistry;
+    private boolean entityPooling;
+    private DeviceFilter deviceFilter;
+    private AdvertisementCache advertisementCache;
+    private BleDecoderRegistry bleDecoders;
+    private AntBeatTracker antBeatTracker;
+    private final BleRecord bleRecord;
+    private long slowCallbackThreshold;
+    private HubManager parent;
     
     public HubManager() {
+        this.messageCache = new StringBuffer();
         this.perimeter = 2340;
         this.lastTime = 0L;
         this.isIdle = false;
         this.idleDuration = 10000;
+        this.slowCallbackThreshold = 10000000L;
+        this.hubRegistry = new HubRegistry();
+        this.bleDecoders = BleDecoderRegistry.shared();
+        this.bleRecord = new BleRecord();
+        this.antBeatTracker = new AntBeatTracker(1024);
+        this.sampleListeners = HubManager.NO_LISTENERS;
         this.mDataIdleCallback = new DataIdleCallback() {
             @Override
             public void onDataIdle() {
@@ -79,37 +106,74 @@ public final class HubManager
         return this;
     }
     
+    public HubManager newSession() {
+        final HubManager session = new HubManager();
+        session.parent = (this.parent != null) ? this.parent : this;
+        session.perimeter = this.perimeter;
+        session.slowCallbackThreshold = this.slowCallbackThreshold;
+        session.metrics = this.metrics;
+        session.hubRegistry = this.hubRegistry;
+        session.entityPooling = this.entityPooling;
+        session.deviceFilter = this.deviceFilter;
+        session.bleDecoders = this.bleDecoders;
+        session.antBeatTracker = ((this.antBeatTracker != null) ? this.antBeatTracker.fork() : null);
+        session.advertisementCache = ((this.advertisementCache != null) ? this.advertisementCache.fork() : null);
+        session.bleSOSCallback = this.bleSOSCallback;
+        session.rawDataCallback = this.rawDataCallback;
+        session.dataErrorCallback = this.dataErrorCallback;
+        session.heartBeatDataCallback = this.heartBeatDataCallback;
+        session.antHeartRateDataCallback = this.antHeartRateDataCallback;
+        session.antCadenceDataCallback = this.antCadenceDataCallback;
+        session.bleCadenceDataCallback = this.bleCadenceDataCallback;
+        session.antSpeedDataCallback = this.antSpeedDataCallback;
+        session.bleHeartRateDataCallback = this.bleHeartRateDataCallback;
+        session.bleBoxingDataCallback = this.bleBoxingDataCallback;
+        session.bleBoxingHeartRateDataCallback = this.bleBoxingHeartRateDataCallback;
+        session.sampleListeners = this.sampleListeners;
+        return session;
+    }
+    
     public synchronized void onDataReceived(final byte[] bytes, final AckBackCallback callback) {
         this.lastTime = System.currentTimeMillis();
+        if (this.parent != null) {
+            this.parent.lastTime = this.lastTime;
+        }
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        final HubMetrics metrics = this.metrics;
+        final long decodeStart = (metrics != null) ? System.nanoTime() : 0L;
+        if (metrics != null) {
+            metrics.onBytesReceived(bytes.length);
+        }
         try {
             final String msg = d.v(bytes).replaceAll(" ", "");
-            if (HubManager.messageCache.length() == 0 && !"7E".equals(msg.substring(0, 2))) {
+            if (this.messageCache.length() == 0 && !"7E".equals(msg.substring(0, 2))) {
                 final byte[] newMessage = d.a(msg);
                 int indexOf7e = 0;
-                while (true) {
-                    for (int i = 0, limit = newMessage.length; i < limit; ++i) {
-                        if (newMessage[i] == 126) {
-                            indexOf7e = i;
-                            if (indexOf7e != 0) {
-                                final byte[] copyBytes = new byte[newMessage.length - indexOf7e];
-                                System.arraycopy(newMessage, indexOf7e, copyBytes, 0, newMessage.length - indexOf7e);
-                                this.packingMessageCache(d.v(copyBytes), HubManager.messageCache);
-                            }
-                            return;
+                for (int i = 0, limit = newMessage.length; i < limit; ++i) {
+                    if (newMessage[i] == 126) {
+                        indexOf7e = i;
+                        if (indexOf7e != 0) {
+                            final byte[] copyBytes = new byte[newMessage.length - indexOf7e];
+                            System.arraycopy(newMessage, indexOf7e, copyBytes, 0, newMessage.length - indexOf7e);
+                            this.packingMessageCache(d.v(copyBytes), this.messageCache);
                         }
+                        return;
                     }
-                    continue;
                 }
+                this.reportError(DataErrorCode.NO_FRAME_START, HubMetrics.UNKNOWN_HUB, 0, bytes);
+                return;
             }
             if (!"7F".equals(msg.substring(msg.length() - 2))) {
                 if ("7E".equals(msg.substring(0, 2))) {
-                    HubManager.messageCache.setLength(0);
+                    this.messageCache.setLength(0);
                 }
-                this.packingMessageCache(msg, HubManager.messageCache);
+                this.packingMessageCache(msg, this.messageCache);
             }
             else {
-                this.packingMessageCache(msg, HubManager.messageCache);
-                final byte[] srcByte = d.a(HubManager.messageCache.toString());
+                this.packingMessageCache(msg, this.messageCache);
+                final byte[] srcByte = d.a(this.messageCache.toString());
                 int indexOf7e2 = 0;
                 boolean bol = false;
                 for (int len = srcByte.length, i2 = 0; i2 < len; ++i2) {
@@ -121,13 +185,26 @@ public final class HubManager
                         final byte[] destBytes = new byte[i2 - indexOf7e2 + 1];
                         System.arraycopy(srcByte, indexOf7e2, destBytes, 0, i2 - indexOf7e2 + 1);
                         bol = false;
+                        final long frameStart = HubEvents.isFrameDecodedEnabled() ? System.nanoTime() : 0L;
                         if (this.rawDataCallback != null) {
                             this.rawDataCallback.onRawData(destBytes);
                         }
                         final byte[] content = com.hub900.a.a.d(destBytes);
-                        if (com.hub900.a.a.c(content)) {
+                        final int invalidEscape = com.hub900.a.a.g(content);
+                        if (invalidEscape < 0) {
                             final byte[] mergeBytes = com.hub900.a.a.a(content);
-                            if (this.isCheckNumValid(mergeBytes)) {
+                            if (mergeBytes.length < 22) {
+                                if (metrics != null) {
+                                    metrics.unknownHub().onFrame();
+                                }
+                                this.reportError(DataErrorCode.TRUNCATED_HEADER, hubIdOf(mergeBytes), mergeBytes.length, mergeBytes);
+                            }
+                            else if (this.isCheckNumValid(mergeBytes)) {
+                                this.frameHubId = hubIdOf(mergeBytes);
+                                this.frameHub = this.hubRegistry.lookup(mergeBytes);
+                                if (metrics != null) {
+                                    this.metricsHub(metrics, this.frameHubId).onFrame();
+                                }
                                 final int applicationDataLen = mergeBytes.length - 22;
                                 int keyHeaderTotal = 0;
                                 int mergeBytesSrcPos = 20;
@@ -137,7 +214,11 @@ public final class HubManager
                                 switch (mergeBytes[19] & 0xFF) {
                                     case 1: {
                                         while (keyHeaderTotal < applicationDataLen) {
-                                            final int keyHeader = ((mergeBytes[mergeBytesIndex + 1] & 0xFF) << 8) + (mergeBytes[mergeBytesIndex + 2] & 0xFF);
+                                            final int keyHeader = blockLength(mergeBytes, mergeBytesIndex);
+                                            if (keyHeader < 0) {
+                                                this.reportError(DataErrorCode.TRUNCATED_BLOCK, this.frameHubId, mergeBytesIndex, mergeBytes);
+                                                break;
+                                            }
                                             mergeBytesIndex = mergeBytesIndex + 3 + keyHeader;
                                             keyHeaderTotal = keyHeaderTotal + keyHeader + 3;
                                             final int mergeBytesSrcPos2 = mergeBytesSrcPos + 2;
@@ -153,13 +234,20 @@ public final class HubManager
                                                     dataLen += 15;
                                                     this.buildAntPacket(mergeBytes, data, callback);
                                                 }
+                                                if (packetDataSrcPos != packetData.length) {
+                                                    this.reportError(DataErrorCode.TRUNCATED_RECORD, this.frameHubId, mergeBytesSrcPos2 + 1 + packetDataSrcPos, mergeBytes);
+                                                }
                                             }
                                         }
                                         break;
                                     }
                                     case 2: {
                                         while (keyHeaderTotal < applicationDataLen) {
-                                            final int keyHeader2 = ((mergeBytes[mergeBytesIndex + 1] & 0xFF) << 8) + (mergeBytes[mergeBytesIndex + 2] & 0xFF);
+                                            final int keyHeader2 = blockLength(mergeBytes, mergeBytesIndex);
+                                            if (keyHeader2 < 0) {
+                                                this.reportError(DataErrorCode.TRUNCATED_BLOCK, this.frameHubId, mergeBytesIndex, mergeBytes);
+                                                break;
+                                            }
                                             keyHeaderTotal = keyHeaderTotal + keyHeader2 + 3;
                                             final int mergeBytesSrcPos3 = mergeBytesSrcPos + 2;
                                             mergeBytesIndex = mergeBytesIndex + 3 + keyHeader2;
@@ -170,6 +258,15 @@ public final class HubManager
                                                 int bytesCount = 0;
                                                 while (bytesCount < packetData2.length) {
                                                     final int bytesLen = (packetData2[packetDataSrcPos2] & 0xFF) + 1;
+                                                    if (packetDataSrcPos2 + bytesLen > packetData2.length) {
+                                                        this.reportError(DataErrorCode.TRUNCATED_RECORD, this.frameHubId, mergeBytesSrcPos3 + 1 + packetDataSrcPos2, mergeBytes);
+                                                        break;
+                                                    }
+                                                    if (this.deviceFilter != null && !this.deviceFilter.acceptBle(packetData2, packetDataSrcPos2, bytesLen)) {
+                                                        packetDataSrcPos2 += bytesLen;
+                                                        bytesCount += bytesLen;
+                                                        continue;
+                                                    }
                                                     final byte[] data2 = new byte[bytesLen];
                                                     System.arraycopy(packetData2, packetDataSrcPos2, data2, 0, bytesLen);
                                                     packetDataSrcPos2 += bytesLen;
@@ -183,16 +280,25 @@ public final class HubManager
                                     }
                                     case 4: {
                                         while (keyHeaderTotal < applicationDataLen) {
-                                            final int keyHeader3 = ((mergeBytes[mergeBytesIndex + 1] & 0xFF) << 8) + (mergeBytes[mergeBytesIndex + 2] & 0xFF);
+                                            final int keyHeader3 = blockLength(mergeBytes, mergeBytesIndex);
+                                            if (keyHeader3 < 0) {
+                                                this.reportError(DataErrorCode.TRUNCATED_BLOCK, this.frameHubId, mergeBytesIndex, mergeBytes);
+                                                break;
+                                            }
                                             keyHeaderTotal = keyHeaderTotal + keyHeader3 + 3;
                                             final int mergeBytesSrcPos4 = mergeBytesSrcPos + 2;
                                             mergeBytesIndex = mergeBytesIndex + 3 + keyHeader3;
                                             if (key == 1) {
                                                 final byte[] packetData3 = new byte[keyHeader3];
                                                 System.arraycopy(mergeBytes, mergeBytesSrcPos4 + 1, packetData3, 0, keyHeader3);
-                                                final HeartBeatData beatData = new HeartBeatData(mergeBytes, packetData3, callback, this.dataErrorCallback);
+                                                final HeartBeatData beatData = new HeartBeatData(this.frameHub, mergeBytes, packetData3, callback, this.dataErrorCallback);
+                                                if (metrics != null && callback != null) {
+                                                    this.metricsHub.onAckSent();
+                                                }
                                                 if (this.heartBeatDataCallback != null) {
+                                                    final long callbackStart = this.callbackStart();
                                                     this.heartBeatDataCallback.onHeartBeatData(beatData);
+                                                    this.callbackDone(SampleType.HEART_BEAT, callbackStart);
                                                 }
                                             }
                                             mergeBytesSrcPos = mergeBytesSrcPos4 + keyHeader3 + 1;
@@ -200,24 +306,104 @@ public final class HubManager
                                         break;
                                     }
                                 }
+                                if (frameStart != 0L) {
+                                    HubEvents.frameDecoded(this.frameHubId, mergeBytes[19] & 0xFF, mergeBytes.length, System.nanoTime() - frameStart);
+                                }
                             }
-                            else if (this.dataErrorCallback != null) {
-                                this.dataErrorCallback.onDataError("Verification error !!!", mergeBytes);
+                            else {
+                                if (metrics != null) {
+                                    metrics.unknownHub().onFrame();
+                                    metrics.unknownHub().onChecksumFailure();
+                                }
+                                HubEvents.checksumFailure(hubIdOf(mergeBytes), (mergeBytes.length > 19) ? (mergeBytes[19] & 0xFF) : -1, mergeBytes.length);
+                                this.reportError(DataErrorCode.CHECKSUM_MISMATCH, hubIdOf(mergeBytes), mergeBytes.length - 2, mergeBytes);
                             }
                         }
-                        else if (this.dataErrorCallback != null) {
-                            this.dataErrorCallback.onDataError("Abnormal data !!!", content);
+                        else {
+                            if (metrics != null) {
+                                metrics.unknownHub().onFrame();
+                                metrics.unknownHub().onEscapeFailure();
+                            }
+                            this.reportError(DataErrorCode.INVALID_ESCAPE, HubMetrics.UNKNOWN_HUB, invalidEscape, content);
                         }
                     }
                 }
-                HubManager.messageCache.setLength(0);
+                this.messageCache.setLength(0);
             }
         }
         catch (Exception e) {
+            if (metrics != null) {
+                metrics.onException();
+            }
             if (this.dataErrorCallback != null) {
                 this.dataErrorCallback.onDataError(e.toString(), bytes);
             }
-            HubManager.messageCache.setLength(0);
+            this.messageCache.setLength(0);
+        }
+        finally {
+            if (metrics != null) {
+                metrics.onDecoded(System.nanoTime() - decodeStart);
+            }
+        }
+    }
+    
+    private HubCounters metricsHub(final HubMetrics metrics, final int hubId) {
+        if (this.metricsHub == null || this.metricsHubId != hubId) {
+            this.metricsHub = metrics.hub(hubId);
+            this.metricsHubId = hubId;
+        }
+        return this.metricsHub;
+    }
+    
+    private void reportError(final DataErrorCode code, final int hubId, final int offset, final byte[] data) {
+        if (this.dataErrorCallback != null) {
+            this.dataErrorCallback.onDataError(code, hubId, offset, data);
+        }
+    }
+    
+    private static int blockLength(final byte[] mergeBytes, final int index) {
+        if (index + 3 > mergeBytes.length - 2) {
+            return -1;
+        }
+        final int length = ((mergeBytes[index + 1] & 0xFF) << 8) + (mergeBytes[index + 2] & 0xFF);
+        return (index + 3 + length > mergeBytes.length - 2) ? -1 : length;
+    }
+    
+    private static int hubIdOf(final byte[] mergeBytes) {
+        if (mergeBytes.length < 5) {
+            return HubMetrics.UNKNOWN_HUB;
+        }
+        return ((mergeBytes[1] & 0xFF) << 24) + ((mergeBytes[2] & 0xFF) << 16) + ((mergeBytes[3] & 0xFF) << 8) + (mergeBytes[4] & 0xFF);
+    }
+    
+    private void notifySampleListeners(final SampleType type, final AbstractData sample, final byte[] data) {
+        for (final SampleListener listener : this.sampleListeners) {
+            try {
+                listener.onSample(type, sample);
+            }
+            catch (RuntimeException e) {
+                if (this.dataErrorCallback != null) {
+                    this.dataErrorCallback.onDataError("SampleListener:" + e, data);
+                }
+            }
+        }
+    }
+    
+    private long callbackStart() {
+        return (this.metrics != null || HubEvents.isCallbackSlowEnabled()) ? System.nanoTime() : 0L;
+    }
+    
+    private void callbackDone(final SampleType type, final long callbackStart) {
+        if (callbackStart == 0L) {
+            return;
+        }
+        final long callbackNanos = System.nanoTime() - callbackStart;
+        if (this.metrics != null) {
+            this.metrics.onCallback(type, callbackNanos);
+            this.metricsHub.onSample(type);
+        }
+        if (callbackNanos > this.slowCallbackThreshold && HubEvents.isCallbackSlowEnabled()) {
+            HubEvents.callbackSlow(this.frameHubId, type.getLabel(), callbackNanos, this.slowCallbackThreshold);
         }
     }
     
@@ -238,22 +424,43 @@ public final class HubManager
     private synchronized void buildAntPacket(final byte[] mergeBytes, final byte[] data, final AckBackCallback callback) {
         switch (b.a(data[0])) {
             case 120: {
-                if (this.antHeartRateDataCallback != null) {
-                    this.antHeartRateDataCallback.onAntHeartRateData(new AntHeartRateData(mergeBytes, data, callback, this.dataErrorCallback));
+                if (this.antHeartRateDataCallback != null || this.sampleListeners.length != 0) {
+                    final AntHeartRateData antHeartRateData = (this.entityPooling ? EntityPool.ANT_HEART_RATE.acquire().reinit(this.frameHub, mergeBytes, data, callback, this.dataErrorCallback) : new AntHeartRateData(this.frameHub, mergeBytes, data, callback, this.dataErrorCallback));
+                    if (this.antBeatTracker != null) {
+                        this.antBeatTracker.track(antHeartRateData, this.lastTime);
+                    }
+                    final long callbackStart = this.callbackStart();
+                    this.notifySampleListeners(SampleType.ANT_HEART_RATE, antHeartRateData, data);
+                    if (this.antHeartRateDataCallback != null) {
+                        this.antHeartRateDataCallback.onAntHeartRateData(antHeartRateData);
+                    }
+                    this.callbackDone(SampleType.ANT_HEART_RATE, callbackStart);
                     break;
                 }
                 break;
             }
             case 122: {
-                if (this.antCadenceDataCallback != null) {
-                    this.antCadenceDataCallback.onAntCadenceData(new AntCadenceDta(mergeBytes, data, callback, this.dataErrorCallback));
+                if (this.antCadenceDataCallback != null || this.sampleListeners.length != 0) {
+                    final AntCadenceDta antCadenceDta = (this.entityPooling ? EntityPool.ANT_CADENCE.acquire().reinit(this.frameHub, mergeBytes, data, callback, this.dataErrorCallback) : new AntCadenceDta(this.frameHub, mergeBytes, data, callback, this.dataErrorCallback));
+                    final long callbackStart = this.callbackStart();
+                    this.notifySampleListeners(SampleType.ANT_CADENCE, antCadenceDta, data);
+                    if (this.antCadenceDataCallback != null) {
+                        this.antCadenceDataCallback.onAntCadenceData(antCadenceDta);
+                    }
+                    this.callbackDone(SampleType.ANT_CADENCE, callbackStart);
                     break;
                 }
                 break;
             }
             case 123: {
-                if (this.antSpeedDataCallback != null) {
-                    this.antSpeedDataCallback.onAntSpeedData(new AntSpeedData(mergeBytes, data, callback, this.dataErrorCallback, this.perimeter));
+                if (this.antSpeedDataCallback != null || this.sampleListeners.length != 0) {
+                    final AntSpeedData antSpeedData = (this.entityPooling ? EntityPool.ANT_SPEED.acquire().reinit(this.frameHub, mergeBytes, data, callback, this.dataErrorCallback, this.perimeter) : new AntSpeedData(this.frameHub, mergeBytes, data, callback, this.dataErrorCallback, this.perimeter));
+                    final long callbackStart = this.callbackStart();
+                    this.notifySampleListeners(SampleType.ANT_SPEED, antSpeedData, data);
+                    if (this.antSpeedDataCallback != null) {
+                        this.antSpeedDataCallback.onAntSpeedData(antSpeedData);
+                    }
+                    this.callbackDone(SampleType.ANT_SPEED, callbackStart);
                     break;
                 }
                 break;
@@ -264,51 +471,103 @@ public final class HubManager
     private synchronized void buildBlePacket(final byte[] bytes, final byte[] data, final AckBackCallback callback) {
         final int bleLen = data[0] & 0xFF;
         if (bleLen > 10) {
-            final int advType = b.a(data[5]);
-            switch (advType) {
-                case 161:
-                case 162: {
-                    if (this.bleHeartRateDataCallback != null) {
-                        this.bleHeartRateDataCallback.onBleHeartRateData(new BleHeartRateData(bytes, data, callback, this.dataErrorCallback));
-                        break;
-                    }
-                    break;
+            final BleDecoder decoder = this.bleDecoders.find(data);
+            if (decoder == null) {
+                if (this.metrics != null) {
+                    this.metricsHub.onUnknownAdvType();
                 }
-                case 164: {
-                    if (this.bleBoxingDataCallback != null) {
-                        this.bleBoxingDataCallback.onBleBoxingData(new BleBoxingData(bytes, data, callback, this.dataErrorCallback));
+                return;
+            }
+            final SampleType type = decoder.getSampleType();
+            switch (type) {
+                case BLE_HEART_RATE: {
+                    if (this.bleHeartRateDataCallback != null || this.sampleListeners.length != 0) {
+                        final BleHeartRateData bleHeartRateData = this.decodeBle(decoder, BleHeartRateData.class, bytes, data, callback);
+                        if (bleHeartRateData == null) {
+                            break;
+                        }
+                        final long callbackStart = this.callbackStart();
+                        this.notifySampleListeners(type, bleHeartRateData, data);
+                        if (this.bleHeartRateDataCallback != null) {
+                            this.bleHeartRateDataCallback.onBleHeartRateData(bleHeartRateData);
+                        }
+                        this.callbackDone(type, callbackStart);
                         break;
                     }
                     break;
                 }
-                case 165: {
-                    if (this.bleBoxingHeartRateDataCallback != null) {
-                        this.bleBoxingHeartRateDataCallback.onBleBoxingHeartRateData(new BleBoxingHeartRateData(bytes, data, callback, this.dataErrorCallback));
+                case BLE_BOXING: {
+                    if (this.bleBoxingDataCallback != null || this.sampleListeners.length != 0) {
+                        final BleBoxingData bleBoxingData = this.decodeBle(decoder, BleBoxingData.class, bytes, data, callback);
+                        if (bleBoxingData == null) {
+                            break;
+                        }
+                        final long callbackStart = this.callbackStart();
+                        this.notifySampleListeners(type, bleBoxingData, data);
+                        if (this.bleBoxingDataCallback != null) {
+                            this.bleBoxingDataCallback.onBleBoxingData(bleBoxingData);
+                        }
+                        this.callbackDone(type, callbackStart);
                         break;
                     }
                     break;
                 }
-                default: {
-                    if (data[6] == 13 && data[7] == 24) {
-                        if (this.bleHeartRateDataCallback != null) {
-                            this.bleHeartRateDataCallback.onBleHeartRateData(new BleHeartRateData(bytes, data, callback, this.dataErrorCallback, this.bleSOSCallback));
+                case BLE_BOXING_HEART_RATE: {
+                    if (this.bleBoxingHeartRateDataCallback != null || this.sampleListeners.length != 0) {
+                        final BleBoxingHeartRateData bleBoxingHeartRateData = this.decodeBle(decoder, BleBoxingHeartRateData.class, bytes, data, callback);
+                        if (bleBoxingHeartRateData == null) {
                             break;
                         }
+                        final long callbackStart = this.callbackStart();
+                        this.notifySampleListeners(type, bleBoxingHeartRateData, data);
+                        if (this.bleBoxingHeartRateDataCallback != null) {
+                            this.bleBoxingHeartRateDataCallback.onBleBoxingHeartRateData(bleBoxingHeartRateData);
+                        }
+                        this.callbackDone(type, callbackStart);
                         break;
                     }
-                    else {
-                        if (data[6] == 22 && data[7] == 24 && this.bleCadenceDataCallback != null) {
-                            this.bleCadenceDataCallback.onBleCadenceData(new BleCadenceDta(bytes, data, callback, this.dataErrorCallback));
+                    break;
+                }
+                case BLE_CADENCE: {
+                    if (this.bleCadenceDataCallback != null || this.sampleListeners.length != 0) {
+                        final BleCadenceDta bleCadenceDta = this.decodeBle(decoder, BleCadenceDta.class, bytes, data, callback);
+                        if (bleCadenceDta == null) {
                             break;
                         }
+                        final long callbackStart = this.callbackStart();
+                        this.notifySampleListeners(type, bleCadenceDta, data);
+                        if (this.bleCadenceDataCallback != null) {
+                            this.bleCadenceDataCallback.onBleCadenceData(bleCadenceDta);
+                        }
+                        this.callbackDone(type, callbackStart);
                         break;
                     }
                     break;
                 }
+                default: {
+                    if (this.metrics != null) {
+                        this.metricsHub.onUnknownAdvType();
+                    }
+                    break;
+                }
             }
         }
     }
     
+    private <T extends AbstractData> T decodeBle(final BleDecoder decoder, final Class<T> entityType, final byte[] bytes, final byte[] data, final AckBackCallback callback) {
+        final AbstractData decoded = decoder.decode(this.bleRecord(bytes, data, callback));
+        if (decoded == null || entityType.isInstance(decoded)) {
+            return entityType.cast(decoded);
+        }
+        decoded.release();
+        this.reportError(DataErrorCode.DECODER_TYPE_MISMATCH, this.frameHubId, 0, data);
+        return null;
+    }
+    
+    private BleRecord bleRecord(final byte[] bytes, final byte[] data, final AckBackCallback callback) {
+        return this.bleRecord.set(this.frameHub, bytes, data, callback, this.dataErrorCallback, this.bleSOSCallback, this.entityPooling, this.advertisementCache, (this.metrics != null) ? this.metricsHub : null, this.lastTime);
+    }
+    
     public HubManager setBleSOSCallback(final BleSOSCallback callback) {
         this.bleSOSCallback = callback;
         return this;
@@ -359,6 +618,34 @@ public final class HubManager
         return this;
     }
     
+    public synchronized HubManager addSampleListener(final SampleListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        final SampleListener[] listeners = Arrays.copyOf(this.sampleListeners, this.sampleListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        this.sampleListeners = listeners;
+        return this;
+    }
+    
+    public synchronized HubManager removeSampleListener(final SampleListener listener) {
+        final SampleListener[] listeners = this.sampleListeners;
+        for (int i = 0; i < listeners.length; ++i) {
+            if (listeners[i] == listener) {
+                final SampleListener[] remaining = new SampleListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, listeners.length - i - 1);
+                this.sampleListeners = ((remaining.length == 0) ? HubManager.NO_LISTENERS : remaining);
+                break;
+            }
+        }
+        return this;
+    }
+    
+    public List<SampleListener> getSampleListeners() {
+        return Collections.unmodifiableList(Arrays.asList(this.sampleListeners));
+    }
+    
     public HubManager setErrorDataCallback(final DataErrorCallback callback) {
         this.dataErrorCallback = callback;
         return this;
@@ -374,9 +661,76 @@ public final class HubManager
         return this;
     }
     
+    public synchronized HubManager setMetrics(final HubMetrics metrics) {
+        this.metrics = metrics;
+        this.metricsHub = null;
+        return this;
+    }
+    
+    public HubManager setEntityPooling(final boolean entityPooling) {
+        this.entityPooling = entityPooling;
+        return this;
+    }
+    
+    public boolean isEntityPooling() {
+        return this.entityPooling;
+    }
+    
+    public HubManager setDeviceFilter(final DeviceFilter deviceFilter) {
+        this.deviceFilter = deviceFilter;
+        return this;
+    }
+    
+    public DeviceFilter getDeviceFilter() {
+        return this.deviceFilter;
+    }
+    
+    public HubManager setAdvertisementCache(final AdvertisementCache advertisementCache) {
+        this.advertisementCache = advertisementCache;
+        return this;
+    }
+    
+    public AdvertisementCache getAdvertisementCache() {
+        return this.advertisementCache;
+    }
+    
+    public HubManager setAntBeatTracker(final AntBeatTracker antBeatTracker) {
+        this.antBeatTracker = antBeatTracker;
+        return this;
+    }
+    
+    public AntBeatTracker getAntBeatTracker() {
+        return this.antBeatTracker;
+    }
+    
+    public HubManager setBleDecoders(final BleDecoderRegistry bleDecoders) {
+        if (bleDecoders == null) {
+            throw new IllegalArgumentException("bleDecoders must not be null");
+        }
+        this.bleDecoders = bleDecoders;
+        return this;
+    }
+    
+    public BleDecoderRegistry getBleDecoders() {
+        return this.bleDecoders;
+    }
+    
+    public HubRegistry getHubRegistry() {
+        return this.hubRegistry;
+    }
+    
+    public HubMetrics getMetrics() {
+        return this.metrics;
+    }
+    
+    public HubManager setSlowCallbackThreshold(final long slowCallbackThresholdNanos) {
+        this.slowCallbackThreshold = slowCallbackThresholdNanos;
+        return this;
+    }
+    
     static {
         HubManager.instance = null;
-        messageCache = new StringBuffer();
+        NO_LISTENERS = new SampleListener[0];
     }
     
     private static class a extends TimerTask
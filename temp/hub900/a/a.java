@@ -17,15 +17,15 @@ public class a
             else if (bb[i] == 125) {
                 switch (bb[i + 1]) {
                     case 1: {
-                        byteList.add((Byte)125);
+                        byteList.add((byte)125);
                         break;
                     }
                     case 2: {
-                        byteList.add((Byte)126);
+                        byteList.add((byte)126);
                         break;
                     }
                     case 3: {
-                        byteList.add((Byte)127);
+                        byteList.add((byte)127);
                         break;
                     }
                 }
@@ -63,12 +63,16 @@ public class a
     }
     
     public static boolean c(final byte[] content) {
+        return g(content) < 0;
+    }
+    
+    public static int g(final byte[] content) {
         for (int i = 0; i < content.length; ++i) {
-            if (content[i] == 125 && content[i + 1] != 1 && content[i + 1] != 2 && content[i + 1] != 3) {
-                return false;
+            if (content[i] == 125 && (i + 1 >= content.length || (content[i + 1] != 1 && content[i + 1] != 2 && content[i + 1] != 3))) {
+                return i;
             }
         }
-        return true;
+        return -1;
     }
     
     public static byte[] d(final byte[] bytes) {
@@ -41,15 +41,15 @@ public class c
             else if (bytes[i] == 125) {
                 switch (bytes[i + 1]) {
                     case 1: {
-                        list.add((Byte)125);
+                        list.add((byte)125);
                         break;
                     }
                     case 2: {
-                        list.add((Byte)126);
+                        list.add((byte)126);
                         break;
                     }
                     case 3: {
-                        list.add((Byte)127);
+                        list.add((byte)127);
                         break;
                     }
                 }
@@ -68,22 +68,22 @@ public class c
     
     public static byte[] r(final byte[] bytes) {
         final List<Byte> list = new ArrayList<Byte>();
-        list.add((Byte)126);
+        list.add((byte)126);
         for (final byte i : bytes) {
             switch (i) {
                 case 125: {
-                    list.add((Byte)125);
-                    list.add((Byte)1);
+                    list.add((byte)125);
+                    list.add((byte)1);
                     break;
                 }
                 case 126: {
-                    list.add((Byte)125);
-                    list.add((Byte)2);
+                    list.add((byte)125);
+                    list.add((byte)2);
                     break;
                 }
                 case Byte.MAX_VALUE: {
-                    list.add((Byte)125);
-                    list.add((Byte)3);
+                    list.add((byte)125);
+                    list.add((byte)3);
                     break;
                 }
                 default: {
@@ -92,7 +92,7 @@ public class c
                 }
             }
         }
-        list.add((Byte)127);
+        list.add((byte)127);
         final byte[] result = new byte[list.size()];
         for (int j = 0; j < list.size(); ++j) {
             result[j] = list.get(j);
@@ -2,6 +2,7 @@ package com.hub900.a;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class d
 {
@@ -297,9 +298,9 @@ public class d
     
     static {
         d.m = "0123456789abcdef";
-        d.n = new HashMap<String, Double>();
-        d.o = new HashMap<String, Double>();
-        d.p = new HashMap<String, Double>();
-        d.q = new HashMap<String, Long>();
+        d.n = new ConcurrentHashMap<String, Double>();
+        d.o = new ConcurrentHashMap<String, Double>();
+        d.p = new ConcurrentHashMap<String, Double>();
+        d.q = new ConcurrentHashMap<String, Long>();
     }
 }
@@ -0,0 +1,18 @@
+package com.hub900.bench;
+
+import org.openjdk.jmh.profile.*;
+import org.openjdk.jmh.results.format.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+public final class BenchmarkMain
+{
+    private BenchmarkMain() {
+    }
+    
+    public static void main(final String[] args) throws Exception {
+        final String include = (args.length > 0) ? args[0] : "com\\.hub900\\.bench\\..*";
+        final Options options = new OptionsBuilder().include(include).addProfiler(GCProfiler.class).resultFormat(ResultFormatType.JSON).result((args.length > 1) ? args[1] : "hub900-jmh.json").build();
+        new Runner(options).run();
+    }
+}
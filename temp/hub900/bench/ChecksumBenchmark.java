@@ -0,0 +1,45 @@
+package com.hub900.bench;
+
+import java.lang.invoke.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+import com.hub900.*;
+
+@BenchmarkMode({ Mode.Throughput })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ChecksumBenchmark
+{
+    private static final MethodHandle IS_CHECK_NUM_VALID;
+    @Param({ "1", "30" })
+    public int samples;
+    private HubManager hubManager;
+    private byte[] merged;
+    
+    @Setup
+    public void setUp() {
+        this.hubManager = new HubManager();
+        final byte[][] records = new byte[this.samples][];
+        for (int i = 0; i < this.samples; ++i) {
+            records[i] = Frames.bleHeartRate(0x2A000000L + i, 70 + i, 80, 1000L + i, 120, -60);
+        }
+        this.merged = Frames.merge(Frames.header(0x00012F3A, 1, Frames.CMD_BLE), records);
+    }
+    
+    @Benchmark
+    public boolean isCheckNumValid() throws Throwable {
+        return (boolean)ChecksumBenchmark.IS_CHECK_NUM_VALID.invokeExact(this.hubManager, this.merged);
+    }
+    
+    static {
+        try {
+            IS_CHECK_NUM_VALID = MethodHandles.privateLookupIn(HubManager.class, MethodHandles.lookup()).findVirtual(HubManager.class, "isCheckNumValid", MethodType.methodType(boolean.class, byte[].class));
+        }
+        catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
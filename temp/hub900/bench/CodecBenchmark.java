@@ -0,0 +1,83 @@
+package com.hub900.bench;
+
+import java.nio.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+import com.hub900.codec.*;
+import com.hub900.entity.*;
+
+@BenchmarkMode({ Mode.Throughput })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CodecBenchmark
+{
+    private static final int BATCH = 256;
+    private AntHeartRateData antHeartRate;
+    private BleHeartRateData bleHeartRate;
+    private AntSpeedData antSpeed;
+    private ByteBuffer buffer;
+    private SampleRecord record;
+    private SampleJsonWriter json;
+    
+    @Setup
+    public void setUp() {
+        final byte[] antHeartRateRecord = Frames.antHeartRate(0x3E8A0, 128, 7, 20480, 17, -62);
+        final byte[] antSpeedRecord = Frames.antSpeed(0x51C00, 300, 40960, -55);
+        final byte[] bleHeartRateRecord = Frames.bleHeartRate(0x2A000001L, 131, 77, 2048L, 356, -58);
+        this.antHeartRate = new AntHeartRateData(Frames.merge(Frames.header(0x00012F3A, 1, Frames.CMD_ANT), antHeartRateRecord), antHeartRateRecord, null, null);
+        this.antSpeed = new AntSpeedData(Frames.merge(Frames.header(0x00012F3A, 1, Frames.CMD_ANT), antSpeedRecord), antSpeedRecord, null, null, 2340);
+        this.bleHeartRate = new BleHeartRateData(Frames.merge(Frames.header(0x00012F3A, 1, Frames.CMD_BLE), bleHeartRateRecord), bleHeartRateRecord, null, null);
+        this.buffer = ByteBuffer.allocateDirect(SampleCodec.RECORD_SIZE * CodecBenchmark.BATCH).order(ByteOrder.LITTLE_ENDIAN);
+        this.record = new SampleRecord();
+        this.json = new SampleJsonWriter(64 * CodecBenchmark.BATCH);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteBuffer writeAntHeartRate() {
+        this.buffer.clear();
+        for (int i = 0; i < CodecBenchmark.BATCH; ++i) {
+            SampleCodec.write(this.buffer, this.antHeartRate, i);
+        }
+        return this.buffer;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public ByteBuffer writeBleHeartRate() {
+        this.buffer.clear();
+        for (int i = 0; i < CodecBenchmark.BATCH; ++i) {
+            SampleCodec.write(this.buffer, this.bleHeartRate, i);
+        }
+        return this.buffer;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long read() {
+        this.buffer.clear();
+        long checksum = 0L;
+        for (int i = 0; i < CodecBenchmark.BATCH; ++i) {
+            checksum += SampleCodec.read(this.buffer, this.record).getDeviceId();
+        }
+        return checksum;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int ndjsonBleHeartRate() {
+        this.json.reset();
+        for (int i = 0; i < CodecBenchmark.BATCH; ++i) {
+            this.json.appendNdjson(this.bleHeartRate, 1700000000000L + i);
+        }
+        return this.json.size();
+    }
+    
+    @Benchmark
+    public String toStringBaseline() {
+        return this.bleHeartRate.toString();
+    }
+}
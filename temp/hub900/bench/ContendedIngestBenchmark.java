@@ -0,0 +1,63 @@
+package com.hub900.bench;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import org.openjdk.jmh.annotations.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+
+@BenchmarkMode({ Mode.Throughput })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ContendedIngestBenchmark
+{
+    @Param({ "30" })
+    public int samples;
+    private HubManager hubManager;
+    private final LongAdder sink;
+    
+    public ContendedIngestBenchmark() {
+        this.sink = new LongAdder();
+    }
+    
+    @Setup
+    public void setUp() {
+        this.hubManager = new HubManager();
+        this.hubManager.setAntHeartRateDataCallback(data -> this.sink.add(data.getHeartRate())).setBleHeartRateDataCallback(data -> this.sink.add(data.getHeartRate()));
+    }
+    
+    @Benchmark
+    public void ingest(final HubState hub) {
+        this.hubManager.onDataReceived(hub.next(), hub.ackBackCallback);
+    }
+    
+    @State(Scope.Thread)
+    public static class HubState
+    {
+        private static final AtomicInteger NEXT_HUB;
+        private byte[][] frames;
+        private int index;
+        AckBackCallback ackBackCallback;
+        
+        @Setup
+        public void setUp(final ContendedIngestBenchmark benchmark) {
+            final int hubId = 0x00010000 + HubState.NEXT_HUB.incrementAndGet();
+            this.frames = new byte[][] { Frames.antHeartRateFrame(hubId, 1, benchmark.samples), Frames.bleHeartRateFrame(hubId, 2, benchmark.samples) };
+            this.ackBackCallback = ack -> {};
+        }
+        
+        byte[] next() {
+            final byte[] frame = this.frames[this.index];
+            this.index = (this.index + 1) % this.frames.length;
+            return frame;
+        }
+        
+        static {
+            NEXT_HUB = new AtomicInteger();
+        }
+    }
+}
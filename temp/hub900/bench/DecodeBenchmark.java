@@ -0,0 +1,69 @@
+package com.hub900.bench;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+import com.hub900.entity.*;
+
+@BenchmarkMode({ Mode.Throughput })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DecodeBenchmark
+{
+    @Param({ "1", "30" })
+    public int samples;
+    private HubManager hubManager;
+    private AckBackCallback ackBackCallback;
+    private byte[] antHeartRateFrame;
+    private byte[] antSpeedFrame;
+    private byte[] bleHeartRateFrame;
+    private byte[] bleBoxingFrame;
+    private byte[] heartBeatFrame;
+    private long sink;
+    
+    @Setup
+    public void setUp() {
+        this.hubManager = new HubManager();
+        this.hubManager.setAntHeartRateDataCallback(data -> this.sink += data.getHeartRate()).setAntSpeedDataCallback(data -> this.sink += data.getDeviceId()).setBleHeartRateDataCallback(data -> this.sink += data.getHeartRate()).setBleBoxingDataCallback(data -> this.sink += data.getPower()).setHeartBeatDataCallback(data -> this.sink += data.getBattery());
+        this.ackBackCallback = ack -> this.sink += ack.length;
+        this.antHeartRateFrame = Frames.antHeartRateFrame(0x00012F3A, 1, this.samples);
+        this.antSpeedFrame = Frames.antSpeedFrame(0x00012F3A, 1, this.samples);
+        this.bleHeartRateFrame = Frames.bleHeartRateFrame(0x00012F3A, 1, this.samples);
+        this.bleBoxingFrame = Frames.bleBoxingFrame(0x00012F3A, 1, this.samples);
+        this.heartBeatFrame = Frames.heartBeatFrame(0x00012F3A, 1);
+    }
+    
+    @Benchmark
+    public long antHeartRate() {
+        this.hubManager.onDataReceived(this.antHeartRateFrame, this.ackBackCallback);
+        return this.sink;
+    }
+    
+    @Benchmark
+    public long antSpeed() {
+        this.hubManager.onDataReceived(this.antSpeedFrame, this.ackBackCallback);
+        return this.sink;
+    }
+    
+    @Benchmark
+    public long bleHeartRate() {
+        this.hubManager.onDataReceived(this.bleHeartRateFrame, this.ackBackCallback);
+        return this.sink;
+    }
+    
+    @Benchmark
+    public long bleBoxing() {
+        this.hubManager.onDataReceived(this.bleBoxingFrame, this.ackBackCallback);
+        return this.sink;
+    }
+    
+    @Benchmark
+    public long heartBeat() {
+        this.hubManager.onDataReceived(this.heartBeatFrame, this.ackBackCallback);
+        return this.sink;
+    }
+}
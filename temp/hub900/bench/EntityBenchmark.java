@@ -0,0 +1,96 @@
+package com.hub900.bench;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+import com.hub900.entity.*;
+
+@BenchmarkMode({ Mode.Throughput })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EntityBenchmark
+{
+    private byte[] antHeader;
+    private byte[] bleHeader;
+    private byte[] heartBeatHeader;
+    private byte[] antHeartRate;
+    private byte[] antSpeed;
+    private byte[] bleHeartRate;
+    private byte[] bleBoxing;
+    private byte[] heartBeat;
+    private HubDescriptor hub;
+    private AdvertisementCache advertisementCache;
+    
+    @Setup
+    public void setUp() {
+        this.antHeartRate = Frames.antHeartRate(0x3E8A0, 128, 4, 20480, 17, -62);
+        this.antSpeed = Frames.antSpeed(0x51C00, 300, 40960, -55);
+        this.bleHeartRate = Frames.bleHeartRate(0x2A000001L, 131, 77, 2048L, 356, -58);
+        this.bleBoxing = Frames.bleBoxing(0x2F3A, 0x2B000001L, 2, 240, 41, -49);
+        this.heartBeat = Frames.heartBeat(80, 2, -40);
+        this.antHeader = Frames.merge(Frames.header(0x00012F3A, 1, Frames.CMD_ANT), this.antHeartRate);
+        this.bleHeader = Frames.merge(Frames.header(0x00012F3A, 1, Frames.CMD_BLE), this.bleHeartRate);
+        this.heartBeatHeader = Frames.merge(Frames.header(0x00012F3A, 1, Frames.CMD_HEART_BEAT), this.heartBeat);
+        this.hub = HubRegistry.shared().lookup(this.antHeader);
+        this.advertisementCache = new AdvertisementCache(64);
+    }
+    
+    @Benchmark
+    public AntHeartRateData antHeartRateData() {
+        return new AntHeartRateData(this.antHeader, this.antHeartRate, null, null);
+    }
+    
+    @Benchmark
+    public AntSpeedData antSpeedData() {
+        return new AntSpeedData(this.antHeader, this.antSpeed, null, null, 2340);
+    }
+    
+    @Benchmark
+    public BleHeartRateData bleHeartRateData() {
+        return new BleHeartRateData(this.bleHeader, this.bleHeartRate, null, null);
+    }
+    
+    @Benchmark
+    public BleBoxingData bleBoxingData() {
+        return new BleBoxingData(this.bleHeader, this.bleBoxing, null, null);
+    }
+    
+    @Benchmark
+    public int antHeartRateDataPooled() {
+        final AntHeartRateData data = EntityPool.ANT_HEART_RATE.acquire().reinit(this.hub, this.antHeader, this.antHeartRate, null, null);
+        final int heartRate = data.getHeartRate();
+        data.release();
+        return heartRate;
+    }
+    
+    @Benchmark
+    public int bleHeartRateDataPooled() {
+        final BleHeartRateData data = EntityPool.BLE_HEART_RATE.acquire().reinit(this.hub, this.bleHeader, this.bleHeartRate, null, null, null);
+        final int heartRate = data.getHeartRate();
+        data.release();
+        return heartRate;
+    }
+    
+    @Benchmark
+    public int bleBoxingDataPooled() {
+        final BleBoxingData data = EntityPool.BLE_BOXING.acquire().reinit(this.hub, this.bleHeader, this.bleBoxing, null, null);
+        final int power = data.getPower();
+        data.release();
+        return power;
+    }
+    
+    @Benchmark
+    public int bleHeartRateDataCached() {
+        final BleHeartRateData data = this.advertisementCache.heartRate(this.hub, this.bleHeader, this.bleHeartRate, null, null, null, true, 0L);
+        final int heartRate = data.getHeartRate();
+        data.release();
+        return heartRate;
+    }
+    
+    @Benchmark
+    public HeartBeatData heartBeatData() {
+        return new HeartBeatData(this.heartBeatHeader, this.heartBeat, null, null);
+    }
+}
@@ -0,0 +1,49 @@
+package com.hub900.bench;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+import com.hub900.a.*;
+
+@BenchmarkMode({ Mode.Throughput })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EscapeBenchmark
+{
+    @Param({ "1", "30" })
+    public int samples;
+    private byte[] merged;
+    private byte[] escaped;
+    
+    @Setup
+    public void setUp() {
+        final byte[][] records = new byte[this.samples][];
+        for (int i = 0; i < this.samples; ++i) {
+            records[i] = Frames.bleHeartRate(0x7D7E7F00L + i, 126, 125, 127L + i, 0x7E7D, -60);
+        }
+        this.merged = Frames.merge(Frames.header(0x007E7D7F, 0x7E7F, Frames.CMD_BLE), records);
+        this.escaped = a.d(Frames.frame(this.merged));
+    }
+    
+    @Benchmark
+    public byte[] unescapeA() {
+        return a.a(this.escaped);
+    }
+    
+    @Benchmark
+    public byte[] unescapeC() {
+        return c.q(this.escaped);
+    }
+    
+    @Benchmark
+    public byte[] escapeC() {
+        return c.r(this.merged);
+    }
+    
+    @Benchmark
+    public boolean escapeValid() {
+        return a.c(this.escaped);
+    }
+}
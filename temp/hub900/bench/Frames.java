@@ -0,0 +1,255 @@
+package com.hub900.bench;
+
+import com.hub900.a.*;
+
+public final class Frames
+{
+    public static final int MAGIC = 0xAA;
+    public static final int CMD_ANT = 1;
+    public static final int CMD_BLE = 2;
+    public static final int CMD_HEART_BEAT = 4;
+    public static final int KEY_DATA = 1;
+    private static final byte[] USB_VERSION;
+    
+    private Frames() {
+    }
+    
+    public static byte[] header(final int hubId, final int serial, final int cmd) {
+        final byte[] header = new byte[20];
+        header[0] = (byte)MAGIC;
+        header[1] = (byte)(hubId >>> 24);
+        header[2] = (byte)(hubId >>> 16);
+        header[3] = (byte)(hubId >>> 8);
+        header[4] = (byte)hubId;
+        header[5] = (byte)(serial >>> 8);
+        header[6] = (byte)serial;
+        header[7] = 1;
+        System.arraycopy(Frames.USB_VERSION, 0, header, 10, 3);
+        final byte[] mac = hubMac(hubId);
+        for (int i = 0; i < 6; ++i) {
+            header[13 + i] = mac[5 - i];
+        }
+        header[19] = (byte)cmd;
+        return header;
+    }
+    
+    public static byte[] hubMac(final int hubId) {
+        return new byte[] { (byte)0xC8, (byte)0x2E, (byte)(hubId >>> 24), (byte)(hubId >>> 16), (byte)(hubId >>> 8), (byte)hubId };
+    }
+    
+    public static byte[] deviceMac(final long deviceId) {
+        return new byte[] { (byte)0xE4, (byte)(deviceId >>> 32), (byte)(deviceId >>> 24), (byte)(deviceId >>> 16), (byte)(deviceId >>> 8), (byte)deviceId };
+    }
+    
+    public static byte[] antHeartRate(final long deviceId, final int heartRate, final int page, final int beatTime, final int beatCount, final int rssi) {
+        final byte[] data = new byte[15];
+        data[0] = 120;
+        data[1] = 1;
+        putInt(data, 2, (int)deviceId);
+        data[6] = (byte)page;
+        data[7] = (byte)((page == 7) ? 85 : 0);
+        data[10] = (byte)beatTime;
+        data[11] = (byte)(beatTime >>> 8);
+        data[12] = (byte)beatCount;
+        data[13] = (byte)heartRate;
+        data[14] = (byte)rssi;
+        return data;
+    }
+    
+    public static byte[] antCadence(final long deviceId, final int eventTime, final int revolutions, final int rssi) {
+        return antBikePage(122, deviceId, eventTime, revolutions, rssi);
+    }
+    
+    public static byte[] antSpeed(final long deviceId, final int revolutions, final int eventTime, final int rssi) {
+        return antBikePage(123, deviceId, revolutions, eventTime, rssi);
+    }
+    
+    private static byte[] antBikePage(final int deviceType, final long deviceId, final int first, final int second, final int rssi) {
+        final byte[] data = new byte[15];
+        data[0] = (byte)deviceType;
+        data[1] = 1;
+        putInt(data, 2, (int)deviceId);
+        data[6] = (byte)first;
+        data[7] = (byte)(first >>> 8);
+        data[8] = (byte)second;
+        data[9] = (byte)(second >>> 8);
+        data[14] = (byte)rssi;
+        return data;
+    }
+    
+    public static byte[] bleHeartRate(final long deviceId, final int heartRate, final int battery, final long steps, final int calories, final int rssi) {
+        final byte[] adv = new byte[17];
+        adv[0] = 16;
+        adv[1] = -1;
+        adv[2] = 0x59;
+        adv[3] = 0x00;
+        adv[4] = (byte)161;
+        putInt(adv, 5, (int)deviceId);
+        adv[9] = (byte)heartRate;
+        adv[10] = (byte)battery;
+        put24(adv, 11, (int)steps);
+        put24(adv, 14, calories);
+        return bleRecord(adv, deviceMac(deviceId), rssi);
+    }
+    
+    public static byte[] bleStandardHeartRate(final long deviceId, final String name, final int heartRate, final int battery, final int rssi) {
+        final byte[] nameBytes = name.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        final byte[] adv = new byte[16 + 2 + nameBytes.length];
+        adv[0] = 2;
+        adv[1] = 1;
+        adv[2] = 6;
+        adv[3] = 3;
+        adv[4] = 3;
+        adv[5] = 13;
+        adv[6] = 24;
+        adv[7] = 8;
+        adv[8] = -1;
+        adv[9] = 0x59;
+        adv[10] = 0x00;
+        adv[12] = (byte)battery;
+        adv[14] = (byte)heartRate;
+        adv[16] = (byte)(nameBytes.length + 1);
+        adv[17] = 9;
+        System.arraycopy(nameBytes, 0, adv, 18, nameBytes.length);
+        return bleRecord(adv, deviceMac(deviceId), rssi);
+    }
+    
+    public static byte[] bleBoxing(final int hubId, final long deviceId, final int hand, final int power, final int speed, final int rssi) {
+        final byte[] adv = new byte[30];
+        adv[0] = 29;
+        adv[1] = -1;
+        adv[2] = 0x59;
+        adv[3] = 0x00;
+        adv[4] = (byte)164;
+        adv[5] = (byte)(hubId >>> 8);
+        adv[6] = (byte)hubId;
+        adv[7] = 1;
+        putInt(adv, 8, (int)deviceId);
+        adv[12] = (byte)hand;
+        final int trains = (power & 0x1FF) << 7 | (speed & 0x7F);
+        adv[13] = (byte)(trains >>> 8);
+        adv[14] = (byte)trains;
+        adv[16] = 60;
+        adv[17] = 90;
+        return bleRecord(adv, deviceMac(deviceId), rssi);
+    }
+    
+    public static byte[] bleBoxingHeartRate(final int hubId, final long deviceId, final int heartRate, final int battery, final int rssi) {
+        final byte[] adv = new byte[21];
+        adv[0] = 20;
+        adv[1] = -1;
+        adv[2] = 0x59;
+        adv[3] = 0x00;
+        adv[4] = (byte)165;
+        adv[5] = (byte)(hubId >>> 8);
+        adv[6] = (byte)hubId;
+        adv[7] = 1;
+        putInt(adv, 8, (int)deviceId);
+        adv[12] = (byte)heartRate;
+        adv[13] = (byte)battery;
+        return bleRecord(adv, deviceMac(deviceId), rssi);
+    }
+    
+    public static byte[] heartBeat(final int battery, final int frequency, final int rssi) {
+        final byte[] data = new byte[10];
+        data[0] = (byte)battery;
+        data[1] = (byte)frequency;
+        data[2] = 1;
+        data[6] = (byte)rssi;
+        data[7] = 1;
+        return data;
+    }
+    
+    private static byte[] bleRecord(final byte[] adv, final byte[] mac, final int rssi) {
+        final byte[] data = new byte[adv.length + 8];
+        data[0] = (byte)(data.length - 1);
+        System.arraycopy(adv, 0, data, 1, adv.length);
+        data[adv.length + 1] = (byte)rssi;
+        System.arraycopy(mac, 0, data, adv.length + 2, 6);
+        return data;
+    }
+    
+    public static byte[] merge(final byte[] header, final byte[]... records) {
+        int payloadLen = 0;
+        for (final byte[] record : records) {
+            payloadLen += record.length;
+        }
+        final byte[] merged = new byte[header.length + 3 + payloadLen + 2];
+        System.arraycopy(header, 0, merged, 0, header.length);
+        merged[8] = (byte)(merged.length >>> 8);
+        merged[9] = (byte)merged.length;
+        merged[20] = KEY_DATA;
+        merged[21] = (byte)(payloadLen >>> 8);
+        merged[22] = (byte)payloadLen;
+        int pos = 23;
+        for (final byte[] record : records) {
+            System.arraycopy(record, 0, merged, pos, record.length);
+            pos += record.length;
+        }
+        int sum = 0;
+        for (int i = 0; i < merged.length - 2; ++i) {
+            sum += (merged[i] & 0xFF);
+        }
+        final int check = (-sum ^ 0x3A3A) & 0xFFFF;
+        merged[merged.length - 2] = (byte)(check >>> 8);
+        merged[merged.length - 1] = (byte)check;
+        return merged;
+    }
+    
+    public static byte[] frame(final byte[] merged) {
+        return c.r(merged);
+    }
+    
+    public static byte[] antHeartRateFrame(final int hubId, final int serial, final int samples) {
+        final byte[][] records = new byte[samples][];
+        for (int i = 0; i < samples; ++i) {
+            records[i] = antHeartRate(0x3E8A0 + i, 70 + i % 90, (i % 4 == 0) ? 7 : 4, serial * 1024 + i * 37, serial + i, -60 - i % 30);
+        }
+        return frame(merge(header(hubId, serial, CMD_ANT), records));
+    }
+    
+    public static byte[] antSpeedFrame(final int hubId, final int serial, final int samples) {
+        final byte[][] records = new byte[samples][];
+        for (int i = 0; i < samples; ++i) {
+            records[i] = antSpeed(0x51C00 + i, serial * 3 + i, serial * 2048, -55 - i % 30);
+        }
+        return frame(merge(header(hubId, serial, CMD_ANT), records));
+    }
+    
+    public static byte[] bleHeartRateFrame(final int hubId, final int serial, final int samples) {
+        final byte[][] records = new byte[samples][];
+        for (int i = 0; i < samples; ++i) {
+            records[i] = bleHeartRate(0x2A000000L + i, 70 + i % 90, 90 - i % 50, serial * 2 + i, serial + i, -50 - i % 40);
+        }
+        return frame(merge(header(hubId, serial, CMD_BLE), records));
+    }
+    
+    public static byte[] bleBoxingFrame(final int hubId, final int serial, final int samples) {
+        final byte[][] records = new byte[samples][];
+        for (int i = 0; i < samples; ++i) {
+            records[i] = bleBoxing(hubId, 0x2B000000L + i, i % 6, 120 + i, 30 + i % 60, -50 - i % 40);
+        }
+        return frame(merge(header(hubId, serial, CMD_BLE), records));
+    }
+    
+    public static byte[] heartBeatFrame(final int hubId, final int serial) {
+        return frame(merge(header(hubId, serial, CMD_HEART_BEAT), heartBeat(80, 2, -40)));
+    }
+    
+    private static void putInt(final byte[] dest, final int pos, final int value) {
+        dest[pos] = (byte)(value >>> 24);
+        dest[pos + 1] = (byte)(value >>> 16);
+        dest[pos + 2] = (byte)(value >>> 8);
+        dest[pos + 3] = (byte)value;
+    }
+    
+    private static void put24(final byte[] dest, final int pos, final int value) {
+        dest[pos] = (byte)(value >>> 16);
+        dest[pos + 1] = (byte)(value >>> 8);
+        dest[pos + 2] = (byte)value;
+    }
+    
+    static {
+        USB_VERSION = new byte[] { 2, 1, 7 };
+    }
+}
@@ -0,0 +1,107 @@
+package com.hub900.bench;
+
+import java.io.*;
+import java.lang.management.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import com.hub900.*;
+import com.hub900.server.*;
+
+public final class IngestThreadingBenchmark
+{
+    private final int connections;
+    private final int frames;
+    private final int sensors;
+    private final int clientThreads;
+    
+    public IngestThreadingBenchmark(final int connections, final int frames, final int sensors, final int clientThreads) {
+        this.connections = connections;
+        this.frames = frames;
+        this.sensors = sensors;
+        this.clientThreads = Math.max(1, Math.min(clientThreads, connections));
+    }
+    
+    public void run(final boolean virtualThreads) throws Exception {
+        final LongAdder samples = new LongAdder();
+        final HubManager hubManager = new HubManager();
+        hubManager.setAntHeartRateDataCallback(data -> samples.increment()).setBleHeartRateDataCallback(data -> samples.increment());
+        final HubServerConfig config = new HubServerConfig().setBindAddress(InetAddress.getLoopbackAddress()).setTcpPort(0).setUdpPort(HubServerConfig.DISABLED).setMaxConnections(this.connections);
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        try (final BlockingIngestServer server = new BlockingIngestServer(hubManager, config, virtualThreads).start()) {
+            if (virtualThreads && !server.isVirtual()) {
+                System.out.println("virtual threads unavailable on this JVM, skipping");
+                return;
+            }
+            threads.resetPeakThreadCount();
+            final Socket[] sockets = new Socket[this.connections];
+            for (int i = 0; i < this.connections; ++i) {
+                sockets[i] = new Socket(InetAddress.getLoopbackAddress(), server.getTcpPort());
+                sockets[i].setTcpNoDelay(true);
+            }
+            while (server.getConnectionCount() < this.connections) {
+                Thread.sleep(10L);
+            }
+            System.gc();
+            final long heapBefore = memory.getHeapMemoryUsage().getUsed();
+            final long expected = (long)this.connections * this.frames * this.sensors;
+            final ExecutorService clients = Executors.newFixedThreadPool(this.clientThreads);
+            final long start = System.nanoTime();
+            for (int t = 0; t < this.clientThreads; ++t) {
+                final int first = t;
+                clients.execute(() -> this.send(sockets, first));
+            }
+            while (samples.sum() < expected && System.nanoTime() - start < TimeUnit.MINUTES.toNanos(5L)) {
+                Thread.sleep(1L);
+            }
+            final long elapsed = System.nanoTime() - start;
+            final long heapAfter = memory.getHeapMemoryUsage().getUsed();
+            clients.shutdown();
+            clients.awaitTermination(1L, TimeUnit.MINUTES);
+            for (final Socket socket : sockets) {
+                socket.close();
+            }
+            System.out.printf("mode=%s connections=%d samples=%d/%d elapsed=%.1fms throughput=%.0f samples/s peakThreads=%d heapDelta=%dKB%n", virtualThreads ? "virtual" : "platform", this.connections, samples.sum(), expected, elapsed / 1000000.0, samples.sum() * 1.0E9 / elapsed, threads.getPeakThreadCount(), (heapAfter - heapBefore) / 1024L);
+        }
+    }
+    
+    private void send(final Socket[] sockets, final int first) {
+        try {
+            final List<OutputStream> outputs = new ArrayList<OutputStream>();
+            final List<byte[]> payloads = new ArrayList<byte[]>();
+            for (int i = first; i < sockets.length; i += this.clientThreads) {
+                outputs.add(sockets[i].getOutputStream());
+                final int hubId = 0x00010000 + i;
+                payloads.add(((i & 0x1) == 0x0) ? Frames.antHeartRateFrame(hubId, i, this.sensors) : Frames.bleHeartRateFrame(hubId, i, this.sensors));
+            }
+            for (int f = 0; f < this.frames; ++f) {
+                for (int i = 0; i < outputs.size(); ++i) {
+                    outputs.get(i).write(payloads.get(i));
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public static void main(final String[] args) throws Exception {
+        final Map<String, String> options = new HashMap<String, String>();
+        for (final String arg : args) {
+            final int eq = arg.indexOf(61);
+            if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        final IngestThreadingBenchmark benchmark = new IngestThreadingBenchmark(Integer.parseInt(options.getOrDefault("connections", "2000")), Integer.parseInt(options.getOrDefault("frames", "200")), Integer.parseInt(options.getOrDefault("sensors", "10")), Integer.parseInt(options.getOrDefault("clients", "8")));
+        final String mode = options.getOrDefault("mode", "both");
+        if (!"virtual".equals(mode)) {
+            benchmark.run(false);
+        }
+        if (!"platform".equals(mode)) {
+            benchmark.run(true);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.hub900.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+import org.HdrHistogram.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+
+public final class LatencyHarness
+{
+    private static final ThreadLocal<Sender> CURRENT;
+    private final int hubs;
+    private final int sensors;
+    private final double frameRate;
+    private final int threads;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final long targetNanos;
+    private final HubManager hubManager;
+    
+    public LatencyHarness(final int hubs, final int sensors, final double frameRate, final int threads, final int warmupSeconds, final int durationSeconds, final int targetMillis) {
+        this.hubs = hubs;
+        this.sensors = sensors;
+        this.frameRate = frameRate;
+        this.threads = Math.max(1, Math.min(threads, hubs));
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        this.hubManager = new HubManager();
+        this.hubManager.setAntHeartRateDataCallback(data -> LatencyHarness.CURRENT.get().onSample()).setBleHeartRateDataCallback(data -> LatencyHarness.CURRENT.get().onSample()).setErrorDataCallback((message, bytes) -> LatencyHarness.CURRENT.get().onError());
+    }
+    
+    public Histogram run() throws InterruptedException {
+        final List<Sender> senders = new ArrayList<Sender>();
+        for (int t = 0; t < this.threads; ++t) {
+            final List<byte[]> frames = new ArrayList<byte[]>();
+            for (int hub = t; hub < this.hubs; hub += this.threads) {
+                final int hubId = 0x00010000 + hub;
+                frames.add(((hub & 0x1) == 0x0) ? Frames.antHeartRateFrame(hubId, hub, this.sensors) : Frames.bleHeartRateFrame(hubId, hub, this.sensors));
+            }
+            final long interval = (long)(1.0E9 / (this.frameRate * frames.size()));
+            senders.add(new Sender(frames.toArray(new byte[0][]), interval, t * interval / this.threads));
+        }
+        final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100L);
+        final List<Thread> workers = new ArrayList<Thread>();
+        for (final Sender sender : senders) {
+            final Thread worker = new Thread(() -> sender.run(start), "hub-sender-" + workers.size());
+            workers.add(worker);
+            worker.start();
+        }
+        final Histogram total = new Histogram(TimeUnit.SECONDS.toNanos(60L), 3);
+        long errors = 0L;
+        for (int i = 0; i < workers.size(); ++i) {
+            workers.get(i).join();
+            total.add(senders.get(i).histogram);
+            errors += senders.get(i).errors;
+        }
+        if (errors > 0L) {
+            System.out.println("decode errors: " + errors);
+        }
+        return total;
+    }
+    
+    public boolean report(final Histogram histogram) {
+        final double offered = this.hubs * this.frameRate * this.sensors;
+        final long seconds = TimeUnit.NANOSECONDS.toSeconds(this.durationNanos);
+        System.out.printf("hubs=%d sensors=%d frameRate=%.2f/s threads=%d offered=%.0f samples/s%n", this.hubs, this.sensors, this.frameRate, this.threads, offered);
+        System.out.printf("samples=%d achieved=%.0f samples/s%n", histogram.getTotalCount(), (seconds > 0L) ? (histogram.getTotalCount() / (double)seconds) : 0.0);
+        System.out.printf("p50=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms%n", millis(histogram.getValueAtPercentile(50.0)), millis(histogram.getValueAtPercentile(99.0)), millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        final boolean pass = histogram.getValueAtPercentile(99.9) <= this.targetNanos;
+        System.out.printf("target p99.9<=%.0fms: %s%n", millis(this.targetNanos), pass ? "PASS" : "FAIL");
+        return pass;
+    }
+    
+    private static double millis(final long nanos) {
+        return nanos / 1000000.0;
+    }
+    
+    public static void main(final String[] args) throws InterruptedException {
+        final Map<String, String> options = new HashMap<String, String>();
+        for (final String arg : args) {
+            final int eq = arg.indexOf(61);
+            if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        final LatencyHarness harness = new LatencyHarness(Integer.parseInt(options.getOrDefault("hubs", "40")), Integer.parseInt(options.getOrDefault("sensors", "30")), Double.parseDouble(options.getOrDefault("rate", "2")), Integer.parseInt(options.getOrDefault("threads", "4")), Integer.parseInt(options.getOrDefault("warmup", "10")), Integer.parseInt(options.getOrDefault("duration", "60")), Integer.parseInt(options.getOrDefault("target", "100")));
+        if (!harness.report(harness.run())) {
+            System.exit(1);
+        }
+    }
+    
+    static {
+        CURRENT = new ThreadLocal<Sender>();
+    }
+    
+    private final class Sender
+    {
+        private final byte[][] frames;
+        private final long interval;
+        private final long phase;
+        private final Histogram histogram;
+        private long intendedStart;
+        private boolean recording;
+        private long errors;
+        
+        Sender(final byte[][] frames, final long interval, final long phase) {
+            this.frames = frames;
+            this.interval = interval;
+            this.phase = phase;
+            this.histogram = new Histogram(TimeUnit.SECONDS.toNanos(60L), 3);
+        }
+        
+        void run(final long start) {
+            LatencyHarness.CURRENT.set(this);
+            final AckBackCallback ackBackCallback = ack -> {};
+            final long measureFrom = start + LatencyHarness.this.warmupNanos;
+            final long end = measureFrom + LatencyHarness.this.durationNanos;
+            long k = 0L;
+            while (true) {
+                final long intended = start + this.phase + k * this.interval;
+                if (intended >= end) {
+                    break;
+                }
+                long now;
+                while ((now = System.nanoTime()) < intended) {
+                    final long remaining = intended - now;
+                    if (remaining > 50000L) {
+                        LockSupport.parkNanos(remaining - 50000L);
+                    }
+                    else {
+                        Thread.onSpinWait();
+                    }
+                }
+                this.intendedStart = intended;
+                this.recording = intended >= measureFrom;
+                LatencyHarness.this.hubManager.onDataReceived(this.frames[(int)(k % this.frames.length)], ackBackCallback);
+                ++k;
+            }
+            LatencyHarness.CURRENT.remove();
+        }
+        
+        void onSample() {
+            if (this.recording) {
+                this.histogram.recordValue(System.nanoTime() - this.intendedStart);
+            }
+        }
+        
+        void onError() {
+            ++this.errors;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.hub900.bench;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+import com.hub900.entity.*;
+import com.hub900.state.*;
+
+@BenchmarkMode({ Mode.Throughput })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Group)
+public class LatestValueBenchmark
+{
+    @Param({ "600" })
+    public int devices;
+    private LatestValueTable table;
+    
+    @Setup
+    public void setUp() {
+        this.table = new LatestValueTable(this.devices * 2);
+        for (int d = 0; d < this.devices; ++d) {
+            this.table.update(SampleType.BLE_HEART_RATE, 0x2A000000L + d, 0x00012F3A, 90, 80, -60, 0L, 0.0f, Float.NaN, 0L);
+        }
+    }
+    
+    @Benchmark
+    @Group("dashboard")
+    @GroupThreads(2)
+    public void write(final WriterState writer) {
+        final long n = ++writer.sequence;
+        this.table.update(SampleType.BLE_HEART_RATE, 0x2A000000L + n % this.devices, 0x00012F3A, (int)(60L + n % 140L), 80, -60, n, n / 10.0f, Float.NaN, n);
+    }
+    
+    @Benchmark
+    @Group("dashboard")
+    @GroupThreads(6)
+    public int pollAll(final ReaderState reader) {
+        return this.table.forEach(reader.scratch, reading -> reader.sum += reading.getHeartRate());
+    }
+    
+    @State(Scope.Thread)
+    public static class WriterState
+    {
+        long sequence;
+    }
+    
+    @State(Scope.Thread)
+    public static class ReaderState
+    {
+        final SensorReading scratch;
+        long sum;
+        
+        public ReaderState() {
+            this.scratch = new SensorReading();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.hub900.bench;
+
+import java.nio.file.*;
+import java.util.*;
+import com.hub900.entity.*;
+import com.hub900.tsdb.*;
+
+public final class TimeSeriesFootprint
+{
+    public static void main(final String[] args) throws Exception {
+        final Map<String, String> options = new HashMap<String, String>();
+        for (final String arg : args) {
+            final int eq = arg.indexOf(61);
+            if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        final int devices = Integer.parseInt(options.getOrDefault("devices", "600"));
+        final int minutes = Integer.parseInt(options.getOrDefault("minutes", "45"));
+        final double rate = Double.parseDouble(options.getOrDefault("rate", "4"));
+        final Path dir = Files.createTempDirectory("hub900-tsdb");
+        final long start = 1760000000000L;
+        final long interval = (long)(1000.0 / rate);
+        final int samples = (int)(minutes * 60 * rate);
+        final Random random = new Random(42L);
+        final int[] heartRate = new int[devices];
+        Arrays.fill(heartRate, 90);
+        final int[] expectedFirst = new int[samples];
+        long total = 0L;
+        final long begin = System.nanoTime();
+        try (final TimeSeriesStore store = new TimeSeriesStore(dir).open()) {
+            for (int i = 0; i < samples; ++i) {
+                for (int d = 0; d < devices; ++d) {
+                    heartRate[d] = Math.max(60, Math.min(200, heartRate[d] + random.nextInt(5) - 2));
+                    final long time = start + i * interval + random.nextInt(11) - 5;
+                    store.append((d % 2 == 0) ? SampleType.ANT_HEART_RATE : SampleType.BLE_HEART_RATE, 100000 + d, time, heartRate[d], -60 - random.nextInt(4));
+                    if (d == 0) {
+                        expectedFirst[i] = heartRate[d];
+                    }
+                    ++total;
+                }
+            }
+            store.flush();
+            final double seconds = (System.nanoTime() - begin) / 1.0E9;
+            System.out.printf("devices=%d samples/device=%d ingest=%.0f samples/s on one thread%n", devices, samples, total / seconds);
+            System.out.printf("disk=%dKB perDeviceSession=%.1fKB (raw 16B/sample would be %.1fKB)%n", store.diskBytes() / 1024L, store.diskBytes() / 1024.0 / devices, samples * 16 / 1024.0);
+        }
+        boolean ok;
+        try (final TimeSeriesStore store2 = new TimeSeriesStore(dir).open()) {
+            final int[] index = { 0 };
+            final boolean[] match = { true };
+            final int count = store2.scan(TimeSeriesStore.seriesKey(SampleType.ANT_HEART_RATE, 100000L), Long.MIN_VALUE, Long.MAX_VALUE, (time, value, rssi) -> {
+                match[0] &= (index[0] < expectedFirst.length && expectedFirst[index[0]] == value);
+                ++index[0];
+            });
+            ok = (count == samples && match[0]);
+            System.out.println("reopen round trip: " + (ok ? "PASS" : "FAIL") + " (" + count + " samples)");
+            final SeriesQuery query = new SeriesQuery(store2);
+            final List<Long> classKeys = new ArrayList<Long>();
+            for (int d2 = 0; d2 < Math.min(30, devices); ++d2) {
+                classKeys.add(TimeSeriesStore.seriesKey((d2 % 2 == 0) ? SampleType.ANT_HEART_RATE : SampleType.BLE_HEART_RATE, 100000 + d2));
+            }
+            final long end = start + minutes * 60000L;
+            for (int round = 0; round < 5; ++round) {
+                final long t0 = System.nanoTime();
+                final Map<Long, SeriesPoints> chart = query.lttb(classKeys, start, end, 500);
+                final long t2 = System.nanoTime();
+                final Rollup rollup = query.rollup(classKeys, start, end, 60000L);
+                final long t3 = System.nanoTime();
+                if (round == 4) {
+                    System.out.printf("class chart (%d students, LTTB 500 pts): %.2fms, class 1-min rollup: %.2fms (%d buckets, first avg %.1f)%n", chart.size(), (t2 - t0) / 1000000.0, (t3 - t2) / 1000000.0, rollup.size(), rollup.getAvg(0));
+                }
+            }
+            final long before = store2.diskBytes();
+            store2.setBlockSize(4096).compact((int)Math.floorDiv(start, 86400000L));
+            System.out.printf("compaction to 4096-sample blocks: %dKB -> %dKB%n", before / 1024L, store2.diskBytes() / 1024L);
+            store2.setRetentionDays(30);
+            System.out.println("retention removed " + store2.applyRetention(start + 31L * 86400000L) + " segment(s), disk=" + store2.diskBytes() + "B");
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.hub900.ble;
+
+import com.hub900.entity.*;
+
+public final class BleBoxingDecoder implements BleDecoder
+{
+    private final BleMatchKey[] matchKeys;
+    
+    public BleBoxingDecoder() {
+        this(new BleMatchKey[] { BleMatchKey.advType(164) });
+    }
+    
+    public BleBoxingDecoder(final BleMatchKey... matchKeys) {
+        this.matchKeys = matchKeys.clone();
+    }
+    
+    @Override
+    public BleMatchKey[] getMatchKeys() {
+        return this.matchKeys.clone();
+    }
+    
+    @Override
+    public SampleType getSampleType() {
+        return SampleType.BLE_BOXING;
+    }
+    
+    @Override
+    public BleBoxingData decode(final BleRecord record) {
+        return record.boxing();
+    }
+}
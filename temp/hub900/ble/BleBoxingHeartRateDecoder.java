@@ -0,0 +1,31 @@
+package com.hub900.ble;
+
+import com.hub900.entity.*;
+
+public final class BleBoxingHeartRateDecoder implements BleDecoder
+{
+    private final BleMatchKey[] matchKeys;
+    
+    public BleBoxingHeartRateDecoder() {
+        this(new BleMatchKey[] { BleMatchKey.advType(165) });
+    }
+    
+    public BleBoxingHeartRateDecoder(final BleMatchKey... matchKeys) {
+        this.matchKeys = matchKeys.clone();
+    }
+    
+    @Override
+    public BleMatchKey[] getMatchKeys() {
+        return this.matchKeys.clone();
+    }
+    
+    @Override
+    public SampleType getSampleType() {
+        return SampleType.BLE_BOXING_HEART_RATE;
+    }
+    
+    @Override
+    public BleBoxingHeartRateData decode(final BleRecord record) {
+        return record.boxingHeartRate();
+    }
+}
@@ -0,0 +1,31 @@
+package com.hub900.ble;
+
+import com.hub900.entity.*;
+
+public final class BleCadenceDecoder implements BleDecoder
+{
+    private final BleMatchKey[] matchKeys;
+    
+    public BleCadenceDecoder() {
+        this(new BleMatchKey[] { BleMatchKey.serviceUuid(0x1816) });
+    }
+    
+    public BleCadenceDecoder(final BleMatchKey... matchKeys) {
+        this.matchKeys = matchKeys.clone();
+    }
+    
+    @Override
+    public BleMatchKey[] getMatchKeys() {
+        return this.matchKeys.clone();
+    }
+    
+    @Override
+    public SampleType getSampleType() {
+        return SampleType.BLE_CADENCE;
+    }
+    
+    @Override
+    public BleCadenceDta decode(final BleRecord record) {
+        return record.cadence();
+    }
+}
@@ -0,0 +1,12 @@
+package com.hub900.ble;
+
+import com.hub900.entity.*;
+
+public interface BleDecoder
+{
+    BleMatchKey[] getMatchKeys();
+    
+    SampleType getSampleType();
+    
+    AbstractData decode(final BleRecord p0);
+}
@@ -0,0 +1,276 @@
+package com.hub900.ble;
+
+import java.util.*;
+import com.hub900.entity.*;
+
+public final class BleDecoderRegistry
+{
+    private static volatile BleDecoderRegistry shared;
+    private final Map<BleMatchKey, BleDecoder> mappings;
+    private final BleDecoder[] byAdvType;
+    private final int[] uuidKeys;
+    private final BleDecoder[] uuidDecoders;
+    private final int[] companyKeys;
+    private final BleDecoder[] companyDecoders;
+    private final byte[][] prefixKeys;
+    private final BleDecoder[] prefixDecoders;
+    private final int[] prefixLengths;
+    
+    private BleDecoderRegistry(final Map<BleMatchKey, BleDecoder> mappings) {
+        this.mappings = Collections.unmodifiableMap(new LinkedHashMap<BleMatchKey, BleDecoder>(mappings));
+        this.byAdvType = new BleDecoder[256];
+        int uuids = 0;
+        int companies = 0;
+        int prefixes = 0;
+        final TreeSet<Integer> lengths = new TreeSet<Integer>(Comparator.reverseOrder());
+        for (final Map.Entry<BleMatchKey, BleDecoder> entry : mappings.entrySet()) {
+            final BleMatchKey key = entry.getKey();
+            switch (key.getKind()) {
+                case BleMatchKey.ADV_TYPE: {
+                    this.byAdvType[key.getValue()] = entry.getValue();
+                    break;
+                }
+                case BleMatchKey.SERVICE_UUID: {
+                    ++uuids;
+                    break;
+                }
+                case BleMatchKey.COMPANY_ID: {
+                    ++companies;
+                    break;
+                }
+                default: {
+                    ++prefixes;
+                    lengths.add(key.prefixBytes().length);
+                    break;
+                }
+            }
+        }
+        this.uuidKeys = ((uuids == 0) ? null : newKeys(uuids));
+        this.uuidDecoders = ((uuids == 0) ? null : new BleDecoder[this.uuidKeys.length]);
+        this.companyKeys = ((companies == 0) ? null : newKeys(companies));
+        this.companyDecoders = ((companies == 0) ? null : new BleDecoder[this.companyKeys.length]);
+        this.prefixKeys = ((prefixes == 0) ? null : new byte[tableSize(prefixes)][]);
+        this.prefixDecoders = ((prefixes == 0) ? null : new BleDecoder[this.prefixKeys.length]);
+        this.prefixLengths = new int[lengths.size()];
+        int i = 0;
+        for (final Integer length : lengths) {
+            this.prefixLengths[i++] = length;
+        }
+        for (final Map.Entry<BleMatchKey, BleDecoder> entry : mappings.entrySet()) {
+            final BleMatchKey key = entry.getKey();
+            switch (key.getKind()) {
+                case BleMatchKey.SERVICE_UUID: {
+                    putInt(this.uuidKeys, this.uuidDecoders, key.getValue(), entry.getValue());
+                    break;
+                }
+                case BleMatchKey.COMPANY_ID: {
+                    putInt(this.companyKeys, this.companyDecoders, key.getValue(), entry.getValue());
+                    break;
+                }
+                case BleMatchKey.NAME_PREFIX: {
+                    final byte[] prefix = key.prefixBytes();
+                    int slot = hash(prefix, 0, prefix.length) & this.prefixKeys.length - 1;
+                    while (this.prefixKeys[slot] != null) {
+                        slot = (slot + 1 & this.prefixKeys.length - 1);
+                    }
+                    this.prefixKeys[slot] = prefix;
+                    this.prefixDecoders[slot] = entry.getValue();
+                    break;
+                }
+            }
+        }
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public static BleDecoderRegistry defaults() {
+        return builder().addDefaults().build();
+    }
+    
+    public static BleDecoderRegistry load(final ClassLoader classLoader) {
+        final Builder builder = builder().addDefaults();
+        for (final BleDecoder decoder : ServiceLoader.load(BleDecoder.class, classLoader)) {
+            builder.add(decoder);
+        }
+        return builder.build();
+    }
+    
+    public static BleDecoderRegistry shared() {
+        BleDecoderRegistry registry = BleDecoderRegistry.shared;
+        if (registry == null) {
+            synchronized (BleDecoderRegistry.class) {
+                registry = BleDecoderRegistry.shared;
+                if (registry == null) {
+                    registry = load(Thread.currentThread().getContextClassLoader());
+                    BleDecoderRegistry.shared = registry;
+                }
+            }
+        }
+        return registry;
+    }
+    
+    public Builder toBuilder() {
+        final Builder builder = new Builder();
+        builder.mappings.putAll(this.mappings);
+        return builder;
+    }
+    
+    public BleDecoder find(final byte[] data) {
+        if (data.length < 8) {
+            return null;
+        }
+        final BleDecoder byAdvType = this.byAdvType[data[5] & 0xFF];
+        if (byAdvType != null) {
+            return byAdvType;
+        }
+        if (this.prefixKeys != null || this.companyKeys != null) {
+            final int end = Math.min((data[0] & 0xFF) - 6, data.length);
+            int nameOffset = -1;
+            int nameLength = 0;
+            int companyId = -1;
+            int index = 1;
+            while (index + 1 < end) {
+                final int length = data[index] & 0xFF;
+                if (length == 0 || index + length >= end) {
+                    break;
+                }
+                final int type = data[index + 1] & 0xFF;
+                if ((type == 8 || type == 9) && nameOffset < 0) {
+                    nameOffset = index + 2;
+                    nameLength = length - 1;
+                }
+                else if (type == 255 && length >= 3 && companyId < 0) {
+                    companyId = ((data[index + 2] & 0xFF) | (data[index + 3] & 0xFF) << 8);
+                }
+                index += length + 1;
+            }
+            if (nameOffset >= 0 && this.prefixKeys != null) {
+                final BleDecoder byName = this.findPrefix(data, nameOffset, nameLength);
+                if (byName != null) {
+                    return byName;
+                }
+            }
+            if (companyId >= 0 && this.companyKeys != null) {
+                final BleDecoder byCompany = getInt(this.companyKeys, this.companyDecoders, companyId);
+                if (byCompany != null) {
+                    return byCompany;
+                }
+            }
+        }
+        if (this.uuidKeys != null) {
+            return getInt(this.uuidKeys, this.uuidDecoders, (data[6] & 0xFF) | (data[7] & 0xFF) << 8);
+        }
+        return null;
+    }
+    
+    public Map<BleMatchKey, BleDecoder> getMappings() {
+        return this.mappings;
+    }
+    
+    public int size() {
+        return this.mappings.size();
+    }
+    
+    private BleDecoder findPrefix(final byte[] data, final int offset, final int length) {
+        final int mask = this.prefixKeys.length - 1;
+        for (final int prefixLength : this.prefixLengths) {
+            if (prefixLength > length) {
+                continue;
+            }
+            int slot = hash(data, offset, prefixLength) & mask;
+            byte[] key;
+            while ((key = this.prefixKeys[slot]) != null) {
+                if (key.length == prefixLength && Arrays.equals(key, 0, prefixLength, data, offset, offset + prefixLength)) {
+                    return this.prefixDecoders[slot];
+                }
+                slot = (slot + 1 & mask);
+            }
+        }
+        return null;
+    }
+    
+    private static int[] newKeys(final int count) {
+        final int[] keys = new int[tableSize(count)];
+        Arrays.fill(keys, -1);
+        return keys;
+    }
+    
+    private static int tableSize(final int count) {
+        return Math.max(8, Integer.highestOneBit(count * 2 - 1) << 1);
+    }
+    
+    private static void putInt(final int[] keys, final BleDecoder[] decoders, final int key, final BleDecoder decoder) {
+        final int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != -1) {
+            slot = (slot + 1 & mask);
+        }
+        keys[slot] = key;
+        decoders[slot] = decoder;
+    }
+    
+    private static BleDecoder getInt(final int[] keys, final BleDecoder[] decoders, final int key) {
+        final int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        int current;
+        while ((current = keys[slot]) != -1) {
+            if (current == key) {
+                return decoders[slot];
+            }
+            slot = (slot + 1 & mask);
+        }
+        return null;
+    }
+    
+    private static int mix(final int key) {
+        final int h = key * -1640531527;
+        return h ^ h >>> 16;
+    }
+    
+    private static int hash(final byte[] bytes, final int offset, final int length) {
+        int hash = -2128831035;
+        for (int i = offset; i < offset + length; ++i) {
+            hash = (hash ^ (bytes[i] & 0xFF)) * 16777619;
+        }
+        return hash ^ hash >>> 16;
+    }
+    
+    public static final class Builder
+    {
+        private final LinkedHashMap<BleMatchKey, BleDecoder> mappings;
+    
+        private Builder() {
+            this.mappings = new LinkedHashMap<BleMatchKey, BleDecoder>();
+        }
+    
+        public Builder addDefaults() {
+            return this.add(new BleHeartRateDecoder()).add(new BleBoxingDecoder()).add(new BleBoxingHeartRateDecoder()).add(new BleCadenceDecoder());
+        }
+    
+        public Builder add(final BleDecoder decoder) {
+            final BleMatchKey[] keys = decoder.getMatchKeys();
+            if (keys == null || keys.length == 0) {
+                throw new IllegalArgumentException(decoder.getClass().getName() + " declares no match keys");
+            }
+            final SampleType type = decoder.getSampleType();
+            if (type != SampleType.BLE_HEART_RATE && type != SampleType.BLE_CADENCE && type != SampleType.BLE_BOXING && type != SampleType.BLE_BOXING_HEART_RATE) {
+                throw new IllegalArgumentException(decoder.getClass().getName() + " declares a non-BLE sample type: " + type);
+            }
+            for (final BleMatchKey key : keys) {
+                this.mappings.put(key, decoder);
+            }
+            return this;
+        }
+    
+        public Builder remove(final BleMatchKey key) {
+            this.mappings.remove(key);
+            return this;
+        }
+    
+        public BleDecoderRegistry build() {
+            return new BleDecoderRegistry(this.mappings);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.hub900.ble;
+
+import com.hub900.entity.*;
+
+public final class BleHeartRateDecoder implements BleDecoder
+{
+    private final BleMatchKey[] matchKeys;
+    
+    public BleHeartRateDecoder() {
+        this(new BleMatchKey[] { BleMatchKey.advType(161), BleMatchKey.advType(162), BleMatchKey.serviceUuid(0x180D) });
+    }
+    
+    public BleHeartRateDecoder(final BleMatchKey... matchKeys) {
+        this.matchKeys = matchKeys.clone();
+    }
+    
+    @Override
+    public BleMatchKey[] getMatchKeys() {
+        return this.matchKeys.clone();
+    }
+    
+    @Override
+    public SampleType getSampleType() {
+        return SampleType.BLE_HEART_RATE;
+    }
+    
+    @Override
+    public BleHeartRateData decode(final BleRecord record) {
+        return record.heartRate();
+    }
+}
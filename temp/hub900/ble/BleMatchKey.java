@@ -0,0 +1,101 @@
+package com.hub900.ble;
+
+import java.util.*;
+import java.nio.charset.*;
+
+public final class BleMatchKey
+{
+    public static final int ADV_TYPE = 1;
+    public static final int SERVICE_UUID = 2;
+    public static final int COMPANY_ID = 3;
+    public static final int NAME_PREFIX = 4;
+    private final int kind;
+    private final int value;
+    private final byte[] prefix;
+    
+    private BleMatchKey(final int kind, final int value, final byte[] prefix) {
+        this.kind = kind;
+        this.value = value;
+        this.prefix = prefix;
+    }
+    
+    public static BleMatchKey advType(final int advType) {
+        if (advType < 0 || advType > 255) {
+            throw new IllegalArgumentException("adv type out of range: " + advType);
+        }
+        return new BleMatchKey(ADV_TYPE, advType, null);
+    }
+    
+    public static BleMatchKey serviceUuid(final int uuid16) {
+        if (uuid16 < 0 || uuid16 > 65535) {
+            throw new IllegalArgumentException("16-bit service uuid out of range: " + uuid16);
+        }
+        return new BleMatchKey(SERVICE_UUID, uuid16, null);
+    }
+    
+    public static BleMatchKey companyId(final int companyId) {
+        if (companyId < 0 || companyId > 65535) {
+            throw new IllegalArgumentException("company id out of range: " + companyId);
+        }
+        return new BleMatchKey(COMPANY_ID, companyId, null);
+    }
+    
+    public static BleMatchKey namePrefix(final String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("name prefix must not be empty");
+        }
+        final byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 29) {
+            throw new IllegalArgumentException("name prefix longer than an advertisement: " + prefix);
+        }
+        return new BleMatchKey(NAME_PREFIX, 0, bytes);
+    }
+    
+    public int getKind() {
+        return this.kind;
+    }
+    
+    public int getValue() {
+        return this.value;
+    }
+    
+    public String getPrefix() {
+        return (this.prefix == null) ? null : new String(this.prefix, StandardCharsets.UTF_8);
+    }
+    
+    byte[] prefixBytes() {
+        return this.prefix;
+    }
+    
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof BleMatchKey)) {
+            return false;
+        }
+        final BleMatchKey other = (BleMatchKey)o;
+        return this.kind == other.kind && this.value == other.value && Arrays.equals(this.prefix, other.prefix);
+    }
+    
+    @Override
+    public int hashCode() {
+        return (this.kind * 31 + this.value) * 31 + Arrays.hashCode(this.prefix);
+    }
+    
+    @Override
+    public String toString() {
+        switch (this.kind) {
+            case ADV_TYPE: {
+                return "advType=" + this.value;
+            }
+            case SERVICE_UUID: {
+                return "serviceUuid=0x" + String.format("%04X", this.value);
+            }
+            case COMPANY_ID: {
+                return "companyId=0x" + String.format("%04X", this.value);
+            }
+            default: {
+                return "namePrefix=" + this.getPrefix();
+            }
+        }
+    }
+}
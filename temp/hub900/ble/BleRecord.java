@@ -0,0 +1,94 @@
+package com.hub900.ble;
+
+import com.hub900.callback.*;
+import com.hub900.entity.*;
+import com.hub900.metrics.*;
+
+public final class BleRecord
+{
+    private HubDescriptor hub;
+    private byte[] frame;
+    private byte[] data;
+    private AckBackCallback ackCallback;
+    private DataErrorCallback errorCallback;
+    private BleSOSCallback sosCallback;
+    private boolean pooling;
+    private AdvertisementCache advertisementCache;
+    private HubCounters counters;
+    private long receivedAt;
+    
+    public BleRecord set(final HubDescriptor hub, final byte[] frame, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback, final BleSOSCallback sosCallback, final boolean pooling, final AdvertisementCache advertisementCache, final HubCounters counters, final long receivedAt) {
+        this.hub = hub;
+        this.frame = frame;
+        this.data = data;
+        this.ackCallback = ackCallback;
+        this.errorCallback = errorCallback;
+        this.sosCallback = sosCallback;
+        this.pooling = pooling;
+        this.advertisementCache = advertisementCache;
+        this.counters = counters;
+        this.receivedAt = receivedAt;
+        return this;
+    }
+    
+    public BleHeartRateData heartRate() {
+        final AdvertisementCache cache = this.advertisementCache;
+        if (cache == null) {
+            return this.pooling ? EntityPool.BLE_HEART_RATE.acquire().reinit(this.hub, this.frame, this.data, this.ackCallback, this.errorCallback, this.sosCallback) : new BleHeartRateData(this.hub, this.frame, this.data, this.ackCallback, this.errorCallback, this.sosCallback);
+        }
+        final BleHeartRateData bleHeartRateData = cache.heartRate(this.hub, this.frame, this.data, this.ackCallback, this.errorCallback, this.sosCallback, this.pooling, this.receivedAt);
+        if (this.counters != null) {
+            if (cache.wasHit()) {
+                this.counters.onAdvCacheHit();
+            }
+            else {
+                this.counters.onAdvCacheMiss();
+            }
+        }
+        return bleHeartRateData;
+    }
+    
+    public BleBoxingData boxing() {
+        return this.pooling ? EntityPool.BLE_BOXING.acquire().reinit(this.hub, this.frame, this.data, this.ackCallback, this.errorCallback) : new BleBoxingData(this.hub, this.frame, this.data, this.ackCallback, this.errorCallback);
+    }
+    
+    public BleBoxingHeartRateData boxingHeartRate() {
+        return this.pooling ? EntityPool.BLE_BOXING_HEART_RATE.acquire().reinit(this.hub, this.frame, this.data, this.ackCallback, this.errorCallback) : new BleBoxingHeartRateData(this.hub, this.frame, this.data, this.ackCallback, this.errorCallback);
+    }
+    
+    public BleCadenceDta cadence() {
+        return new BleCadenceDta(this.hub, this.frame, this.data, this.ackCallback, this.errorCallback);
+    }
+    
+    public HubDescriptor getHub() {
+        return this.hub;
+    }
+    
+    public byte[] getFrame() {
+        return this.frame;
+    }
+    
+    public byte[] getData() {
+        return this.data;
+    }
+    
+    public AckBackCallback getAckCallback() {
+        return this.ackCallback;
+    }
+    
+    public DataErrorCallback getErrorCallback() {
+        return this.errorCallback;
+    }
+    
+    public BleSOSCallback getSosCallback() {
+        return this.sosCallback;
+    }
+    
+    public boolean isPooling() {
+        return this.pooling;
+    }
+    
+    public long getReceivedAt() {
+        return this.receivedAt;
+    }
+}
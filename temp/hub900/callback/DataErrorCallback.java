@@ -1,6 +1,12 @@
 package com.hub900.callback;
 
+import com.hub900.entity.*;
+
 public interface DataErrorCallback
 {
     void onDataError(final String p0, final byte[] p1);
+    
+    default void onDataError(final DataErrorCode code, final int hubId, final int offset, final byte[] data) {
+        this.onDataError(code.getMessage(), data);
+    }
 }
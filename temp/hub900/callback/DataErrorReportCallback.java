@@ -0,0 +1,8 @@
+package com.hub900.callback;
+
+import com.hub900.entity.*;
+
+public interface DataErrorReportCallback
+{
+    void onDataErrorReport(final DataErrorReport p0);
+}
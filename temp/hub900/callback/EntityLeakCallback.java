@@ -0,0 +1,6 @@
+package com.hub900.callback;
+
+public interface EntityLeakCallback
+{
+    void onEntityLeak(final String p0, final Throwable p1);
+}
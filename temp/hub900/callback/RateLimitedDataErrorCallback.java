@@ -0,0 +1,203 @@
+package com.hub900.callback;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import com.hub900.entity.*;
+
+public final class RateLimitedDataErrorCallback implements DataErrorCallback, Closeable
+{
+    private static final int SAMPLE_BYTES = 64;
+    private final DataErrorReportCallback reportCallback;
+    private final long windowNanos;
+    private final int maxKeys;
+    private final Map<Long, Window> windows;
+    private boolean expiryPending;
+    private long nextExpiryNanos;
+    private ScheduledExecutorService ticker;
+    
+    public RateLimitedDataErrorCallback(final DataErrorReportCallback reportCallback) {
+        this(reportCallback, 1000L, 1024);
+    }
+    
+    public RateLimitedDataErrorCallback(final DataErrorReportCallback reportCallback, final long windowMillis, final int maxKeys) {
+        this.reportCallback = reportCallback;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxKeys = maxKeys;
+        this.windows = new HashMap<Long, Window>();
+    }
+    
+    @Override
+    public void onDataError(final String message, final byte[] data) {
+        this.record(DataErrorCode.EXCEPTION, DataErrorReport.UNKNOWN_HUB, -1, data, message);
+    }
+    
+    @Override
+    public void onDataError(final DataErrorCode code, final int hubId, final int offset, final byte[] data) {
+        this.record(code, hubId, offset, data, code.getMessage());
+    }
+    
+    public synchronized RateLimitedDataErrorCallback start() {
+        if (this.ticker == null) {
+            final long period = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(this.windowNanos));
+            this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "hub900-error-summary");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.ticker.scheduleAtFixedRate(this::tick, period, period, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+    
+    public void tick() {
+        final List<DataErrorReport> reports = new ArrayList<DataErrorReport>();
+        synchronized (this) {
+            final long now = System.nanoTime();
+            if (this.expiryPending && now - this.nextExpiryNanos >= 0L) {
+                this.expire(now, reports);
+            }
+        }
+        this.deliver(reports);
+    }
+    
+    @Override
+    public void close() {
+        final ScheduledExecutorService ticker;
+        synchronized (this) {
+            ticker = this.ticker;
+            this.ticker = null;
+        }
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        this.flush();
+    }
+    
+    private void record(final DataErrorCode code, final int hubId, final int offset, final byte[] data, final String message) {
+        final List<DataErrorReport> reports = new ArrayList<DataErrorReport>();
+        synchronized (this) {
+            this.record(code, hubId, offset, data, message, reports);
+        }
+        this.deliver(reports);
+    }
+    
+    private void record(final DataErrorCode code, final int hubId, final int offset, final byte[] data, final String message, final List<DataErrorReport> reports) {
+        final long now = System.nanoTime();
+        if (this.expiryPending && now - this.nextExpiryNanos >= 0L) {
+            this.expire(now, reports);
+        }
+        int windowHubId = hubId;
+        Long key = (long)hubId << 32 | (long)code.ordinal();
+        Window window = this.windows.get(key);
+        if (window == null) {
+            if (this.windows.size() >= this.maxKeys) {
+                this.expire(now, reports);
+            }
+            if (this.windows.size() >= this.maxKeys) {
+                windowHubId = DataErrorReport.UNKNOWN_HUB;
+                key = (long)windowHubId << 32 | (long)code.ordinal();
+                window = this.windows.get(key);
+            }
+            if (window == null) {
+                window = new Window(code, windowHubId);
+                this.windows.put(key, window);
+            }
+        }
+        else if (now - window.startNanos >= this.windowNanos) {
+            this.summarise(window, reports);
+        }
+        if (window.count == 0L) {
+            window.startNanos = now;
+            window.firstMillis = System.currentTimeMillis();
+            window.count = 1L;
+            if (!this.expiryPending || now + this.windowNanos - this.nextExpiryNanos < 0L) {
+                this.nextExpiryNanos = now + this.windowNanos;
+                this.expiryPending = true;
+            }
+            reports.add(new DataErrorReport(code, window.hubId, offset, 1L, window.firstMillis, window.firstMillis, sample(data, (data == null) ? 0 : data.length), message));
+        }
+        else {
+            ++window.count;
+            window.lastMillis = System.currentTimeMillis();
+            window.lastOffset = offset;
+            window.lastLength = (data == null) ? 0 : Math.min(data.length, SAMPLE_BYTES);
+            if (window.lastLength > 0) {
+                System.arraycopy(data, 0, window.lastSample, 0, window.lastLength);
+            }
+            window.lastMessage = message;
+        }
+    }
+    
+    public void flush() {
+        final List<DataErrorReport> reports = new ArrayList<DataErrorReport>();
+        synchronized (this) {
+            for (final Window window : this.windows.values()) {
+                this.summarise(window, reports);
+            }
+            this.windows.clear();
+            this.expiryPending = false;
+        }
+        this.deliver(reports);
+    }
+    
+    private void expire(final long now, final List<DataErrorReport> reports) {
+        boolean pending = false;
+        long next = 0L;
+        final Iterator<Window> it = this.windows.values().iterator();
+        while (it.hasNext()) {
+            final Window window = it.next();
+            if (now - window.startNanos >= this.windowNanos) {
+                this.summarise(window, reports);
+                it.remove();
+            }
+            else if (window.count > 0L && (!pending || window.startNanos + this.windowNanos - next < 0L)) {
+                next = window.startNanos + this.windowNanos;
+                pending = true;
+            }
+        }
+        this.expiryPending = pending;
+        this.nextExpiryNanos = next;
+    }
+    
+    private void summarise(final Window window, final List<DataErrorReport> reports) {
+        if (window.count > 1L) {
+            reports.add(new DataErrorReport(window.code, window.hubId, window.lastOffset, window.count - 1L, window.firstMillis, window.lastMillis, sample(window.lastSample, window.lastLength), window.lastMessage));
+        }
+        window.count = 0L;
+        window.lastMessage = null;
+    }
+    
+    private void deliver(final List<DataErrorReport> reports) {
+        for (final DataErrorReport report : reports) {
+            this.reportCallback.onDataErrorReport(report);
+        }
+    }
+    
+    private static byte[] sample(final byte[] data, final int length) {
+        if (data == null) {
+            return new byte[0];
+        }
+        return Arrays.copyOf(data, Math.min(length, SAMPLE_BYTES));
+    }
+    
+    private static final class Window
+    {
+        final DataErrorCode code;
+        final int hubId;
+        long startNanos;
+        long firstMillis;
+        long lastMillis;
+        long count;
+        int lastOffset;
+        final byte[] lastSample;
+        int lastLength;
+        String lastMessage;
+    
+        Window(final DataErrorCode code, final int hubId) {
+            this.code = code;
+            this.hubId = hubId;
+            this.lastSample = new byte[SAMPLE_BYTES];
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.hub900.callback;
+
+import java.util.*;
+import java.util.function.*;
+import com.hub900.entity.*;
+
+public interface SampleListener
+{
+    void onSample(final SampleType p0, final AbstractData p1);
+    
+    static SampleListener forTypes(final Consumer<AbstractData> consumer, final SampleType first, final SampleType... rest) {
+        final EnumSet<SampleType> types = EnumSet.of(first, rest);
+        return (type, data) -> {
+            if (types.contains(type)) {
+                consumer.accept(data);
+            }
+        };
+    }
+}
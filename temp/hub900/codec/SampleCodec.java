@@ -0,0 +1,119 @@
+package com.hub900.codec;
+
+import java.nio.*;
+import com.hub900.entity.*;
+
+public final class SampleCodec
+{
+    public static final int RECORD_SIZE = 40;
+    public static final int OFFSET_TYPE = 0;
+    public static final int OFFSET_BATTERY = 1;
+    public static final int OFFSET_RSSI = 2;
+    public static final int OFFSET_HUB_ID = 4;
+    public static final int OFFSET_DEVICE_ID = 8;
+    public static final int OFFSET_TIMESTAMP = 16;
+    public static final int OFFSET_VALUE = 24;
+    public static final int OFFSET_CALORIES = 28;
+    public static final int OFFSET_STEPS = 32;
+    public static final int OFFSET_AUX = 36;
+    
+    private SampleCodec() {
+    }
+    
+    public static boolean write(final ByteBuffer buffer, final AbstractData data, final long timestamp) {
+        if (data instanceof AntHeartRateData) {
+            final AntHeartRateData antHeartRate = (AntHeartRateData)data;
+            write(buffer, SampleType.ANT_HEART_RATE, antHeartRate.getFrameHubId(), antHeartRate.getDeviceId(), timestamp, antHeartRate.getBattery(), antHeartRate.getRssi(), (float)antHeartRate.getHeartRate(), 0.0f, 0L, antHeartRate.getDeviceType());
+            return true;
+        }
+        if (data instanceof BleHeartRateData) {
+            final BleHeartRateData bleHeartRate = (BleHeartRateData)data;
+            write(buffer, SampleType.BLE_HEART_RATE, bleHeartRate.getFrameHubId(), bleHeartRate.getDeviceKey(), timestamp, bleHeartRate.getBattery(), bleHeartRate.getRssi(), (float)bleHeartRate.getHeartRate(), bleHeartRate.getCalories(), bleHeartRate.getSteps(), bleHeartRate.getAdvType());
+            return true;
+        }
+        if (data instanceof BleBoxingHeartRateData) {
+            final BleBoxingHeartRateData boxingHeartRate = (BleBoxingHeartRateData)data;
+            write(buffer, SampleType.BLE_BOXING_HEART_RATE, boxingHeartRate.getFrameHubId(), boxingHeartRate.getDeviceId(), timestamp, boxingHeartRate.getBattery(), boxingHeartRate.getRssi(), (float)boxingHeartRate.getHeartRate(), boxingHeartRate.getCalories(), boxingHeartRate.getSteps(), boxingHeartRate.getGroup());
+            return true;
+        }
+        if (data instanceof AntSpeedData) {
+            final AntSpeedData antSpeed = (AntSpeedData)data;
+            write(buffer, SampleType.ANT_SPEED, antSpeed.getFrameHubId(), antSpeed.getDeviceId(), timestamp, 0, (int)antSpeed.getRssi(), (float)antSpeed.getSpeed(), 0.0f, 0L, antSpeed.getPerimeter());
+            return true;
+        }
+        if (data instanceof AntCadenceDta) {
+            final AntCadenceDta antCadence = (AntCadenceDta)data;
+            write(buffer, SampleType.ANT_CADENCE, antCadence.getFrameHubId(), antCadence.getDeviceId(), timestamp, 0, antCadence.getRssi(), (float)antCadence.getCadence(), 0.0f, 0L, 0);
+            return true;
+        }
+        return false;
+    }
+    
+    public static void write(final ByteBuffer buffer, final SampleRecord record) {
+        write(buffer, record.getType(), record.getHubId(), record.getDeviceId(), record.getTimestamp(), record.getBattery(), record.getRssi(), record.getValue(), record.getCalories(), record.getSteps(), record.getAux());
+    }
+    
+    public static void write(final ByteBuffer buffer, final SampleType type, final int hubId, final long deviceId, final long timestamp, final int battery, final int rssi, final float value, final float calories, final long steps, final int aux) {
+        final int base = buffer.position();
+        if (buffer.limit() - base < SampleCodec.RECORD_SIZE) {
+            throw new BufferOverflowException();
+        }
+        final boolean swap = buffer.order() != ByteOrder.LITTLE_ENDIAN;
+        buffer.put(base + SampleCodec.OFFSET_TYPE, (byte)type.getCode());
+        buffer.put(base + SampleCodec.OFFSET_BATTERY, (byte)battery);
+        buffer.put(base + SampleCodec.OFFSET_RSSI, (byte)rssi);
+        buffer.put(base + 3, (byte)0);
+        buffer.putInt(base + SampleCodec.OFFSET_HUB_ID, swap ? Integer.reverseBytes(hubId) : hubId);
+        buffer.putLong(base + SampleCodec.OFFSET_DEVICE_ID, swap ? Long.reverseBytes(deviceId) : deviceId);
+        buffer.putLong(base + SampleCodec.OFFSET_TIMESTAMP, swap ? Long.reverseBytes(timestamp) : timestamp);
+        final int valueBits = Float.floatToRawIntBits(value);
+        buffer.putInt(base + SampleCodec.OFFSET_VALUE, swap ? Integer.reverseBytes(valueBits) : valueBits);
+        final int caloriesBits = Float.floatToRawIntBits(calories);
+        buffer.putInt(base + SampleCodec.OFFSET_CALORIES, swap ? Integer.reverseBytes(caloriesBits) : caloriesBits);
+        final int stepBits = (int)Math.min(steps, 4294967295L);
+        buffer.putInt(base + SampleCodec.OFFSET_STEPS, swap ? Integer.reverseBytes(stepBits) : stepBits);
+        buffer.putInt(base + SampleCodec.OFFSET_AUX, swap ? Integer.reverseBytes(aux) : aux);
+        buffer.position(base + SampleCodec.RECORD_SIZE);
+    }
+    
+    public static SampleRecord read(final ByteBuffer buffer, final SampleRecord record) {
+        final int base = buffer.position();
+        if (buffer.limit() - base < SampleCodec.RECORD_SIZE) {
+            throw new BufferUnderflowException();
+        }
+        final boolean swap = buffer.order() != ByteOrder.LITTLE_ENDIAN;
+        final int hubId = buffer.getInt(base + SampleCodec.OFFSET_HUB_ID);
+        final long deviceId = buffer.getLong(base + SampleCodec.OFFSET_DEVICE_ID);
+        final long timestamp = buffer.getLong(base + SampleCodec.OFFSET_TIMESTAMP);
+        final int valueBits = buffer.getInt(base + SampleCodec.OFFSET_VALUE);
+        final int caloriesBits = buffer.getInt(base + SampleCodec.OFFSET_CALORIES);
+        final int steps = buffer.getInt(base + SampleCodec.OFFSET_STEPS);
+        final int aux = buffer.getInt(base + SampleCodec.OFFSET_AUX);
+        record.setType(SampleType.fromCode(buffer.get(base + SampleCodec.OFFSET_TYPE) & 0xFF));
+        record.setBattery(buffer.get(base + SampleCodec.OFFSET_BATTERY) & 0xFF);
+        record.setRssi(buffer.get(base + SampleCodec.OFFSET_RSSI));
+        record.setHubId(swap ? Integer.reverseBytes(hubId) : hubId);
+        record.setDeviceId(swap ? Long.reverseBytes(deviceId) : deviceId);
+        record.setTimestamp(swap ? Long.reverseBytes(timestamp) : timestamp);
+        record.setValue(Float.intBitsToFloat(swap ? Integer.reverseBytes(valueBits) : valueBits));
+        record.setCalories(Float.intBitsToFloat(swap ? Integer.reverseBytes(caloriesBits) : caloriesBits));
+        record.setSteps((swap ? Integer.reverseBytes(steps) : steps) & 0xFFFFFFFFL);
+        record.setAux(swap ? Integer.reverseBytes(aux) : aux);
+        buffer.position(base + SampleCodec.RECORD_SIZE);
+        return record;
+    }
+    
+    public static SampleType type(final ByteBuffer buffer, final int offset) {
+        return SampleType.fromCode(buffer.get(offset + SampleCodec.OFFSET_TYPE) & 0xFF);
+    }
+    
+    public static int hubId(final ByteBuffer buffer, final int offset) {
+        final int hubId = buffer.getInt(offset + SampleCodec.OFFSET_HUB_ID);
+        return (buffer.order() != ByteOrder.LITTLE_ENDIAN) ? Integer.reverseBytes(hubId) : hubId;
+    }
+    
+    public static long deviceId(final ByteBuffer buffer, final int offset) {
+        final long deviceId = buffer.getLong(offset + SampleCodec.OFFSET_DEVICE_ID);
+        return (buffer.order() != ByteOrder.LITTLE_ENDIAN) ? Long.reverseBytes(deviceId) : deviceId;
+    }
+}
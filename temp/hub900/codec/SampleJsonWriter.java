@@ -0,0 +1,539 @@
+package com.hub900.codec;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import com.hub900.entity.*;
+
+public final class SampleJsonWriter
+{
+    private static final byte[] DIGITS;
+    private static final byte[] OPEN_DATA;
+    private static final byte[] TS;
+    private static final byte[] TECH_ANT;
+    private static final byte[] TECH_BLE;
+    private static final byte[] SENSOR_ID;
+    private static final byte[] SENSOR_ID_NUMBER;
+    private static final byte[] BPM;
+    private static final byte[] DEVICE_ID;
+    private static final byte[] ANT_DEVICE_ID;
+    private static final byte[] ANT_DEVICE_ID_HEX;
+    private static final byte[] ANT_DEVICE_TYPE;
+    private static final byte[] BLE_ADV_TYPE;
+    private static final byte[] BLE_DEVICE_ID_HEX;
+    private static final byte[] BLE_BATTERY;
+    private static final byte[] BLE_STEPS;
+    private static final byte[] BLE_CALORIES;
+    private static final byte[] BLE_TEMPERATURE_C;
+    private static final byte[] BLE_OXYGEN;
+    private static final byte[] BATTERY_PERCENT;
+    private static final byte[] BATTERY_RAW;
+    private static final byte[] RSSI;
+    private static final byte[] HUB_ID;
+    private static final byte[] HUB_MAC;
+    private static final byte[] USB_VERSION;
+    private static final byte[] CMD;
+    private static final byte[] SOURCE;
+    private static final byte[] FORMAT_ANT;
+    private static final byte[] FORMAT_BLE;
+    private static final byte[] NULL;
+    private static final byte[] SSE_DATA;
+    private byte[] buffer;
+    private int size;
+    
+    public SampleJsonWriter() {
+        this(4096);
+    }
+    
+    public SampleJsonWriter(final int initialCapacity) {
+        this.buffer = new byte[Math.max(64, initialCapacity)];
+    }
+    
+    public SampleJsonWriter reset() {
+        this.size = 0;
+        return this;
+    }
+    
+    public int size() {
+        return this.size;
+    }
+    
+    public byte[] getBuffer() {
+        return this.buffer;
+    }
+    
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.size);
+    }
+    
+    public void writeTo(final OutputStream out) throws IOException {
+        out.write(this.buffer, 0, this.size);
+    }
+    
+    @Override
+    public String toString() {
+        return new String(this.buffer, 0, this.size, StandardCharsets.UTF_8);
+    }
+    
+    public boolean write(final AbstractData data, final long timestamp) {
+        if (data instanceof AntHeartRateData) {
+            this.writeAntHeartRate((AntHeartRateData)data, timestamp);
+            return true;
+        }
+        if (data instanceof BleHeartRateData) {
+            this.writeBleHeartRate((BleHeartRateData)data, timestamp);
+            return true;
+        }
+        if (data instanceof BleBoxingHeartRateData) {
+            this.writeBleBoxingHeartRate((BleBoxingHeartRateData)data, timestamp);
+            return true;
+        }
+        return false;
+    }
+    
+    public boolean appendNdjson(final AbstractData data, final long timestamp) {
+        final int mark = this.size;
+        if (!this.write(data, timestamp)) {
+            this.size = mark;
+            return false;
+        }
+        this.put((byte)10);
+        return true;
+    }
+    
+    public boolean appendSse(final AbstractData data, final long timestamp) {
+        final int mark = this.size;
+        this.put(SampleJsonWriter.SSE_DATA);
+        if (!this.write(data, timestamp)) {
+            this.size = mark;
+            return false;
+        }
+        this.put((byte)10);
+        this.put((byte)10);
+        return true;
+    }
+    
+    public SampleJsonWriter writeAntHeartRate(final AntHeartRateData data, final long timestamp) {
+        final long deviceId = data.getDeviceId();
+        final int batteryRaw = data.getBattery();
+        this.open(timestamp);
+        this.put(SampleJsonWriter.TECH_ANT);
+        this.put(SampleJsonWriter.SENSOR_ID);
+        this.put((byte)34);
+        this.putLong(deviceId);
+        this.put((byte)34);
+        this.put(SampleJsonWriter.SENSOR_ID_NUMBER);
+        this.putLong(deviceId);
+        this.put(SampleJsonWriter.BPM);
+        this.putLong(data.getHeartRate());
+        this.put(SampleJsonWriter.DEVICE_ID);
+        this.putMacCompact(data.getHubMac());
+        this.put(SampleJsonWriter.ANT_DEVICE_ID);
+        this.putLong(deviceId);
+        this.put(SampleJsonWriter.ANT_DEVICE_ID_HEX);
+        this.put((byte)34);
+        this.putHex(deviceId, 1);
+        this.put((byte)34);
+        this.put(SampleJsonWriter.ANT_DEVICE_TYPE);
+        this.putLong(data.getDeviceType());
+        this.put(SampleJsonWriter.BATTERY_PERCENT);
+        this.putBatteryPercent(batteryRaw);
+        this.put(SampleJsonWriter.BATTERY_RAW);
+        this.putPositiveOrNull(batteryRaw);
+        this.put(SampleJsonWriter.RSSI);
+        this.putLong(data.getRssi());
+        this.putHub(data);
+        this.put(SampleJsonWriter.FORMAT_ANT);
+        this.put((byte)125);
+        return this;
+    }
+    
+    public SampleJsonWriter writeBleHeartRate(final BleHeartRateData data, final long timestamp) {
+        final int advType = data.getAdvType();
+        final boolean vendor = data.isVendorAdvert();
+        final long sensorId = sensorId(data, vendor);
+        this.open(timestamp);
+        this.put(SampleJsonWriter.TECH_BLE);
+        if (sensorId >= 0L) {
+            this.put(SampleJsonWriter.SENSOR_ID);
+            this.put((byte)34);
+            this.putLong(sensorId);
+            this.put((byte)34);
+        }
+        this.put(SampleJsonWriter.SENSOR_ID_NUMBER);
+        if (sensorId >= 0L) {
+            this.putLong(sensorId);
+        }
+        else {
+            this.put(SampleJsonWriter.NULL);
+        }
+        this.put(SampleJsonWriter.BPM);
+        this.putLong(data.getHeartRate());
+        this.put(SampleJsonWriter.BLE_ADV_TYPE);
+        this.putLong(advType);
+        this.put(SampleJsonWriter.BLE_DEVICE_ID_HEX);
+        this.put((byte)34);
+        if (vendor) {
+            this.putHex(data.getDeviceId() & 0xFFFFFFFFL, 8);
+        }
+        else if (data.getBleMac() != null) {
+            this.putHex(data.getBleMacValue(), 12);
+        }
+        this.put((byte)34);
+        this.put(SampleJsonWriter.BLE_BATTERY);
+        this.putLong(data.getBattery());
+        this.put(SampleJsonWriter.BLE_STEPS);
+        if (vendor) {
+            this.putLong(data.getSteps());
+        }
+        else {
+            this.put(SampleJsonWriter.NULL);
+        }
+        this.put(SampleJsonWriter.BLE_CALORIES);
+        if (vendor) {
+            this.putTenths(data.getCalories());
+        }
+        else {
+            this.put(SampleJsonWriter.NULL);
+        }
+        this.put(SampleJsonWriter.BLE_TEMPERATURE_C);
+        if (advType == 162) {
+            this.putTenths(data.getTemperature());
+        }
+        else {
+            this.put(SampleJsonWriter.NULL);
+        }
+        this.put(SampleJsonWriter.BLE_OXYGEN);
+        if (advType == 162) {
+            this.putLong(data.getOxygen());
+        }
+        else {
+            this.put(SampleJsonWriter.NULL);
+        }
+        this.put(SampleJsonWriter.BATTERY_PERCENT);
+        this.putBatteryPercent(data.getBattery());
+        this.put(SampleJsonWriter.BATTERY_RAW);
+        this.putLong(data.getBattery());
+        this.put(SampleJsonWriter.RSSI);
+        this.putLong(data.getRssi());
+        this.putHub(data);
+        this.put(SampleJsonWriter.FORMAT_BLE);
+        this.put((byte)125);
+        return this;
+    }
+    
+    public SampleJsonWriter writeBleBoxingHeartRate(final BleBoxingHeartRateData data, final long timestamp) {
+        this.open(timestamp);
+        this.put(SampleJsonWriter.TECH_BLE);
+        this.put(SampleJsonWriter.BPM);
+        this.putLong(data.getHeartRate());
+        this.put(SampleJsonWriter.BLE_ADV_TYPE);
+        this.putLong(data.getAdvType());
+        this.put(SampleJsonWriter.BLE_DEVICE_ID_HEX);
+        this.put((byte)34);
+        this.putHex(data.getDeviceId() & 0xFFFFFFFFL, 8);
+        this.put((byte)34);
+        this.put(SampleJsonWriter.BLE_BATTERY);
+        this.putLong(data.getBattery());
+        this.put(SampleJsonWriter.BLE_STEPS);
+        this.putLong(data.getSteps());
+        this.put(SampleJsonWriter.BLE_CALORIES);
+        this.putTenths(data.getCalories());
+        this.put(SampleJsonWriter.BATTERY_PERCENT);
+        this.putBatteryPercent(data.getBattery());
+        this.put(SampleJsonWriter.BATTERY_RAW);
+        this.putLong(data.getBattery());
+        this.put(SampleJsonWriter.RSSI);
+        this.putLong(data.getRssi());
+        this.putHub(data);
+        this.put(SampleJsonWriter.FORMAT_BLE);
+        this.put((byte)125);
+        return this;
+    }
+    
+    private static long sensorId(final BleHeartRateData data, final boolean vendor) {
+        final long fromName = nameSensorId(data.getBleName());
+        if (fromName >= 0L) {
+            return fromName;
+        }
+        long fromDevice = -1L;
+        if (vendor) {
+            final long id = data.getDeviceId() & 0xFFFFFFFFL;
+            fromDevice = ((id <= 9999999L) ? id : ((id & 0xFFFFFFL) % 10000000L));
+        }
+        final long fromMac = (data.getBleMac() != null) ? ((data.getBleMacValue() & 0xFFFFFFL) % 10000000L) : -1L;
+        final boolean smallDevice = fromDevice >= 0L && fromDevice < 1000000L;
+        final boolean smallMac = fromMac >= 0L && fromMac < 1000000L;
+        if (smallMac && !smallDevice) {
+            return fromMac;
+        }
+        return (fromDevice >= 0L) ? fromDevice : fromMac;
+    }
+    
+    private static long nameSensorId(final String name) {
+        if (name == null) {
+            return -1L;
+        }
+        long six = -1L;
+        for (int at = 0; at + 6 <= name.length(); ++at) {
+            if (!name.regionMatches(true, at, "CL831-", 0, 6)) {
+                continue;
+            }
+            long id = 0L;
+            int digits = 0;
+            for (int i = at + 6; i < name.length() && digits < 7; ++i) {
+                final char c = name.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                id = id * 10L + (c - '0');
+                ++digits;
+            }
+            if (digits == 7) {
+                return id;
+            }
+            if (digits == 6 && six < 0L) {
+                six = id;
+            }
+        }
+        return six;
+    }
+    
+    private void open(final long timestamp) {
+        this.put(SampleJsonWriter.OPEN_DATA);
+        this.put(SampleJsonWriter.TS);
+        this.put((byte)34);
+        this.putIsoInstant(timestamp);
+        this.put((byte)34);
+    }
+    
+    private void putHub(final AbstractData data) {
+        this.put(SampleJsonWriter.HUB_ID);
+        this.putLong(data.getFrameHubId());
+        this.put(SampleJsonWriter.HUB_MAC);
+        this.putAscii(data.getHubMac(), false);
+        this.put(SampleJsonWriter.USB_VERSION);
+        this.putAscii(data.getUsbVersion(), true);
+        this.put(SampleJsonWriter.CMD);
+        this.putLong(data.getCmd());
+        this.put(SampleJsonWriter.SOURCE);
+    }
+    
+    private void putBatteryPercent(final int raw) {
+        if (raw <= 0) {
+            this.put(SampleJsonWriter.NULL);
+            return;
+        }
+        final int v = Math.min(255, raw);
+        this.putLong((v <= 100) ? v : Math.round(v / 255.0f * 100.0f));
+    }
+    
+    private void putPositiveOrNull(final long value) {
+        if (value > 0L) {
+            this.putLong(value);
+        }
+        else {
+            this.put(SampleJsonWriter.NULL);
+        }
+    }
+    
+    private void putAscii(final String value, final boolean skipDots) {
+        if (value == null) {
+            this.put(SampleJsonWriter.NULL);
+            return;
+        }
+        this.ensure(value.length() * 6 + 2);
+        this.buffer[this.size++] = 34;
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            if (skipDots && c == '.') {
+                continue;
+            }
+            if (c == '\"' || c == '\\') {
+                this.buffer[this.size++] = 92;
+                this.buffer[this.size++] = (byte)c;
+            }
+            else if (c < ' ' || c > '~') {
+                this.buffer[this.size++] = 92;
+                this.buffer[this.size++] = 117;
+                this.buffer[this.size++] = SampleJsonWriter.DIGITS[c >> 12 & 0xF];
+                this.buffer[this.size++] = SampleJsonWriter.DIGITS[c >> 8 & 0xF];
+                this.buffer[this.size++] = SampleJsonWriter.DIGITS[c >> 4 & 0xF];
+                this.buffer[this.size++] = SampleJsonWriter.DIGITS[c & 0xF];
+            }
+            else {
+                this.buffer[this.size++] = (byte)c;
+            }
+        }
+        this.buffer[this.size++] = 34;
+    }
+    
+    private void putMacCompact(final String mac) {
+        if (mac == null) {
+            this.put(SampleJsonWriter.NULL);
+            return;
+        }
+        this.ensure(mac.length() + 2);
+        this.buffer[this.size++] = 34;
+        for (int i = 0; i < mac.length(); ++i) {
+            final char c = mac.charAt(i);
+            if (c != ':') {
+                this.buffer[this.size++] = (byte)Character.toLowerCase(c);
+            }
+        }
+        this.buffer[this.size++] = 34;
+    }
+    
+    private void putHex(final long value, final int minDigits) {
+        int digits = Math.max(minDigits, (64 - Long.numberOfLeadingZeros(value) + 3) / 4);
+        this.ensure(digits);
+        while (digits > 0) {
+            --digits;
+            this.buffer[this.size++] = SampleJsonWriter.DIGITS[(int)(value >>> digits * 4) & 0xF];
+        }
+    }
+    
+    private void putTenths(final float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            this.put(SampleJsonWriter.NULL);
+            return;
+        }
+        long tenths = Math.round(value * 10.0);
+        if (tenths < 0L) {
+            this.put((byte)45);
+            tenths = -tenths;
+        }
+        this.putLong(tenths / 10L);
+        if (tenths % 10L != 0L) {
+            this.put((byte)46);
+            this.put(SampleJsonWriter.DIGITS[(int)(tenths % 10L)]);
+        }
+    }
+    
+    private void putLong(long value) {
+        this.ensure(20);
+        if (value < 0L) {
+            if (value == Long.MIN_VALUE) {
+                this.put("-9223372036854775808".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            this.buffer[this.size++] = 45;
+            value = -value;
+        }
+        final int end = this.size + stringSize(value);
+        int pos = end;
+        do {
+            this.buffer[--pos] = (byte)(48 + value % 10L);
+            value /= 10L;
+        } while (value != 0L);
+        this.size = end;
+    }
+    
+    private static int stringSize(final long value) {
+        long p = 10L;
+        for (int i = 1; i < 19; ++i) {
+            if (value < p) {
+                return i;
+            }
+            p *= 10L;
+        }
+        return 19;
+    }
+    
+    private void putIsoInstant(final long millis) {
+        this.ensure(24);
+        final long days = Math.floorDiv(millis, 86400000L);
+        final int millisOfDay = (int)Math.floorMod(millis, 86400000L);
+        final long z = days + 719468L;
+        final long era = Math.floorDiv(z, 146097L);
+        final long doe = z - era * 146097L;
+        final long yoe = (doe - doe / 1460L + doe / 36524L - doe / 146096L) / 365L;
+        final long doy = doe - (365L * yoe + yoe / 4L - yoe / 100L);
+        final long mp = (5L * doy + 2L) / 153L;
+        final int day = (int)(doy - (153L * mp + 2L) / 5L + 1L);
+        final int month = (int)((mp < 10L) ? (mp + 3L) : (mp - 9L));
+        final long year = yoe + era * 400L + ((month <= 2) ? 1 : 0);
+        this.putPadded(year, 4);
+        this.buffer[this.size++] = 45;
+        this.putPadded(month, 2);
+        this.buffer[this.size++] = 45;
+        this.putPadded(day, 2);
+        this.buffer[this.size++] = 84;
+        this.putPadded(millisOfDay / 3600000, 2);
+        this.buffer[this.size++] = 58;
+        this.putPadded(millisOfDay / 60000 % 60, 2);
+        this.buffer[this.size++] = 58;
+        this.putPadded(millisOfDay / 1000 % 60, 2);
+        this.buffer[this.size++] = 46;
+        this.putPadded(millisOfDay % 1000, 3);
+        this.buffer[this.size++] = 90;
+    }
+    
+    private void putPadded(long value, final int width) {
+        int pos = this.size + width;
+        this.size = pos;
+        for (int i = 0; i < width; ++i) {
+            this.buffer[--pos] = (byte)(48 + value % 10L);
+            value /= 10L;
+        }
+    }
+    
+    private void put(final byte b) {
+        this.ensure(1);
+        this.buffer[this.size++] = b;
+    }
+    
+    private void put(final byte[] bytes) {
+        this.ensure(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.size, bytes.length);
+        this.size += bytes.length;
+    }
+    
+    private void ensure(final int extra) {
+        if (this.size + extra > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + extra));
+        }
+    }
+    
+    private static byte[] ascii(final String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    private static byte[] field(final String name) {
+        return ascii(",\"" + name + "\":");
+    }
+    
+    static {
+        DIGITS = ascii("0123456789abcdef");
+        OPEN_DATA = ascii("{\"type\":\"data\"");
+        TS = field("ts");
+        TECH_ANT = ascii(",\"tech\":\"ANT\"");
+        TECH_BLE = ascii(",\"tech\":\"BLE\"");
+        SENSOR_ID = field("sensor_id");
+        SENSOR_ID_NUMBER = field("sensor_id_number");
+        BPM = field("bpm");
+        DEVICE_ID = field("device_id");
+        ANT_DEVICE_ID = field("ant_device_id");
+        ANT_DEVICE_ID_HEX = field("ant_device_id_hex");
+        ANT_DEVICE_TYPE = field("ant_device_type");
+        BLE_ADV_TYPE = field("ble_adv_type");
+        BLE_DEVICE_ID_HEX = field("ble_device_id_hex");
+        BLE_BATTERY = field("ble_battery");
+        BLE_STEPS = field("ble_steps");
+        BLE_CALORIES = field("ble_calories");
+        BLE_TEMPERATURE_C = field("ble_temperature_c");
+        BLE_OXYGEN = field("ble_oxygen");
+        BATTERY_PERCENT = field("battery_percent");
+        BATTERY_RAW = field("battery_raw");
+        RSSI = field("rssi");
+        HUB_ID = field("hub_id");
+        HUB_MAC = field("hub_mac");
+        USB_VERSION = field("usb_version");
+        CMD = field("cmd");
+        SOURCE = ascii(",\"source\":\"hub900\"");
+        FORMAT_ANT = ascii(",\"format\":\"ant\"");
+        FORMAT_BLE = ascii(",\"format\":\"ble\"");
+        NULL = ascii("null");
+        SSE_DATA = ascii("data: ");
+    }
+}
@@ -0,0 +1,112 @@
+package com.hub900.codec;
+
+import com.hub900.entity.*;
+
+public final class SampleRecord
+{
+    private SampleType type;
+    private int hubId;
+    private long deviceId;
+    private long timestamp;
+    private int battery;
+    private int rssi;
+    private float value;
+    private float calories;
+    private long steps;
+    private int aux;
+    
+    public SampleType getType() {
+        return this.type;
+    }
+    
+    public SampleRecord setType(final SampleType type) {
+        this.type = type;
+        return this;
+    }
+    
+    public int getHubId() {
+        return this.hubId;
+    }
+    
+    public SampleRecord setHubId(final int hubId) {
+        this.hubId = hubId;
+        return this;
+    }
+    
+    public long getDeviceId() {
+        return this.deviceId;
+    }
+    
+    public SampleRecord setDeviceId(final long deviceId) {
+        this.deviceId = deviceId;
+        return this;
+    }
+    
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+    
+    public SampleRecord setTimestamp(final long timestamp) {
+        this.timestamp = timestamp;
+        return this;
+    }
+    
+    public int getBattery() {
+        return this.battery;
+    }
+    
+    public SampleRecord setBattery(final int battery) {
+        this.battery = battery;
+        return this;
+    }
+    
+    public int getRssi() {
+        return this.rssi;
+    }
+    
+    public SampleRecord setRssi(final int rssi) {
+        this.rssi = rssi;
+        return this;
+    }
+    
+    public float getValue() {
+        return this.value;
+    }
+    
+    public SampleRecord setValue(final float value) {
+        this.value = value;
+        return this;
+    }
+    
+    public float getCalories() {
+        return this.calories;
+    }
+    
+    public SampleRecord setCalories(final float calories) {
+        this.calories = calories;
+        return this;
+    }
+    
+    public long getSteps() {
+        return this.steps;
+    }
+    
+    public SampleRecord setSteps(final long steps) {
+        this.steps = steps;
+        return this;
+    }
+    
+    public int getAux() {
+        return this.aux;
+    }
+    
+    public SampleRecord setAux(final int aux) {
+        this.aux = aux;
+        return this;
+    }
+    
+    @Override
+    public String toString() {
+        return "SampleRecord{type=" + this.type + ", hubId=" + this.hubId + ", deviceId=" + this.deviceId + ", timestamp=" + this.timestamp + ", battery=" + this.battery + ", rssi=" + this.rssi + ", value=" + this.value + ", calories=" + this.calories + ", steps=" + this.steps + ", aux=" + this.aux + '}';
+    }
+}
@@ -2,6 +2,7 @@ package com.hub900.entity;
 
 import com.hub900.callback.*;
 import com.hub900.a.*;
+import com.hub900.jfr.*;
 
 public abstract class AbstractData
 {
@@ -14,45 +15,51 @@ public abstract class AbstractData
     private String hubMac;
     private int cmd;
     private String usbVersion;
+    private boolean malformed;
+    private HubDescriptor hub;
+    private EntityPool<?> pool;
+    private EntityPool.LeakTrace leakTrace;
+    private boolean released;
     
     public AbstractData(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        this(HubRegistry.shared().lookup(bytes), bytes, data, ackCallback, errorCallback);
+    }
+    
+    public AbstractData(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        this.decodeHeader(hub, bytes, ackCallback, errorCallback);
+    }
+    
+    protected AbstractData() {
+    }
+    
+    protected final void decodeHeader(final HubDescriptor hub, final byte[] bytes, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        this.hub = null;
+        this.magicData = 0;
+        this.hubId = 0;
+        this.packetSerialNumber = 0;
+        this.version = 0;
+        this.packetLen = 0;
+        this.ack = 0;
+        this.hubMac = null;
+        this.cmd = 0;
+        this.usbVersion = null;
+        this.malformed = false;
         try {
+            if (bytes.length < 20 || hub == null) {
+                this.reportError(errorCallback, DataErrorCode.TRUNCATED_HEADER, bytes.length, bytes);
+                return;
+            }
+            this.hub = hub;
             this.magicData = (bytes[0] & 0xFF);
-            this.hubId = a.b(bytes[1], bytes[2], bytes[3], bytes[4]);
+            this.hubId = hub.getHubId();
             this.packetSerialNumber = a.b(bytes[5], bytes[6]);
             this.version = (bytes[7] & 0xFF);
             this.packetLen = a.b(bytes[8], bytes[9]);
-            final byte[] usbVersionByte = new byte[3];
-            System.arraycopy(bytes, 10, usbVersionByte, 0, 3);
-            final StringBuffer builder = new StringBuffer(d.C(usbVersionByte));
-            builder.insert(2, ".");
-            builder.insert(5, ".");
-            this.usbVersion = builder.toString();
             this.cmd = (bytes[19] & 0xFF);
-            final byte[] macBytes = new byte[6];
-            System.arraycopy(bytes, 13, macBytes, 0, 6);
-            final byte[] bb = new byte[macBytes.length];
-            for (int j = 0; j < macBytes.length; ++j) {
-                bb[j] = macBytes[macBytes.length - j - 1];
-            }
-            this.hubMac = d.z(bb);
-            if (this.cmd == 4) {
-                final String msg = "7EAA";
-                final byte[] hubIdByte = new byte[4];
-                System.arraycopy(bytes, 1, hubIdByte, 0, 4);
-                final String hubId = b.e(d.v(hubIdByte));
-                final String header = "000035001B000000";
-                final String macStr = b.e(this.hubMac.replaceAll(":", ""));
-                final String appData = "640100020000";
-                final String sum = "AA" + hubId + header + macStr + appData;
-                final byte[] result = d.a(sum);
-                final int sum2 = d.B(result);
-                final long ifCheck = d.a(sum2);
-                final String check = msg + hubId + header + macStr + appData + d.v(d.a(ifCheck)) + "7F";
-                final byte[] callbackMessage = d.a(check);
-                if (ackCallback != null) {
-                    ackCallback.onAckBack(callbackMessage);
-                }
+            if (this.cmd == 4 && ackCallback != null) {
+                final byte[] callbackMessage = hub.ackMessage();
+                ackCallback.onAckBack(callbackMessage);
+                HubEvents.ackSent(this.hubId, callbackMessage.length);
             }
         }
         catch (Exception e) {
@@ -62,6 +69,53 @@ public abstract class AbstractData
         }
     }
     
+    final void pooled(final EntityPool<?> pool, final EntityPool.LeakTrace leakTrace) {
+        this.pool = pool;
+        this.leakTrace = leakTrace;
+        this.released = false;
+    }
+    
+    public void release() {
+        if (this.pool == null) {
+            return;
+        }
+        if (this.released) {
+            throw new IllegalStateException(this.getClass().getSimpleName() + " released twice");
+        }
+        this.released = true;
+        if (this.leakTrace != null) {
+            this.leakTrace.close();
+            this.leakTrace = null;
+        }
+        this.pool.recycle(this);
+    }
+    
+    public boolean isReleased() {
+        return this.released;
+    }
+    
+    protected void reportError(final DataErrorCallback errorCallback, final DataErrorCode code, final int offset, final byte[] data) {
+        this.malformed = true;
+        if (errorCallback != null) {
+            errorCallback.onDataError(code, this.hubId, offset, data);
+        }
+    }
+    
+    protected boolean requireLength(final DataErrorCallback errorCallback, final byte[] data, final int length) {
+        if (this.malformed) {
+            return false;
+        }
+        if (data.length < length) {
+            this.reportError(errorCallback, DataErrorCode.TRUNCATED_RECORD, data.length, data);
+            return false;
+        }
+        return true;
+    }
+    
+    public boolean isMalformed() {
+        return this.malformed;
+    }
+    
     public int getPacketLen() {
         return this.packetLen;
     }
@@ -78,6 +132,10 @@ public abstract class AbstractData
         this.hubId = hubId2;
     }
     
+    public final int getFrameHubId() {
+        return (this.hub != null) ? this.hub.getHubId() : this.hubId;
+    }
+    
     public int getMagicData() {
         return this.magicData;
     }
@@ -110,8 +168,12 @@ public abstract class AbstractData
         this.ack = ack2;
     }
     
+    public HubDescriptor getHub() {
+        return this.hub;
+    }
+    
     public String getHubMac() {
-        return this.hubMac;
+        return (this.hubMac != null || this.hub == null) ? this.hubMac : this.hub.getMac();
     }
     
     public void setHubMac(final String hubMac2) {
@@ -127,7 +189,7 @@ public abstract class AbstractData
     }
     
     public String getUsbVersion() {
-        return this.usbVersion;
+        return (this.usbVersion != null || this.hub == null) ? this.usbVersion : this.hub.getUsbVersion();
     }
     
     public void setUsbVersion(final String usbVersion) {
@@ -135,6 +197,6 @@ public abstract class AbstractData
     }
     
     public String getPackageString() {
-        return "{magicData=" + this.magicData + ", hubId=" + this.hubId + ", packetSerialNumber=" + this.packetSerialNumber + ", version=" + this.version + ", packetLen=" + this.packetLen + ", ack=" + this.ack + ", hubMac=" + this.hubMac + ", cmd=" + this.cmd + ", usbVersion=" + this.usbVersion + '}';
+        return "{magicData=" + this.magicData + ", hubId=" + this.hubId + ", packetSerialNumber=" + this.packetSerialNumber + ", version=" + this.version + ", packetLen=" + this.packetLen + ", ack=" + this.ack + ", hubMac=" + this.getHubMac() + ", cmd=" + this.cmd + ", usbVersion=" + this.getUsbVersion() + '}';
     }
 }
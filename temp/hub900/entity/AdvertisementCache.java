@@ -0,0 +1,177 @@
+package com.hub900.entity;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import com.hub900.callback.*;
+
+public final class AdvertisementCache
+{
+    private static final int MAX_PROBES = 8;
+    private final int mask;
+    private final long[] macs;
+    private final Entry[] entries;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private boolean lastHit;
+    
+    public AdvertisementCache(final int capacity) {
+        this(capacity, new LongAdder(), new LongAdder());
+    }
+    
+    private AdvertisementCache(final int capacity, final LongAdder hits, final LongAdder misses) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        final int size = Integer.highestOneBit(Math.max(MAX_PROBES, capacity - 1) << 1);
+        this.mask = size - 1;
+        this.macs = new long[size];
+        this.entries = new Entry[size];
+        this.hits = hits;
+        this.misses = misses;
+    }
+    
+    public AdvertisementCache fork() {
+        return new AdvertisementCache(this.entries.length, this.hits, this.misses);
+    }
+    
+    public BleHeartRateData heartRate(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback, final BleSOSCallback sosCallback, final boolean pooled, final long now) {
+        final int bleLen = data[0] & 0xFF;
+        if (bleLen < 12 || data.length < bleLen + 1) {
+            this.lastHit = false;
+            return pooled ? EntityPool.BLE_HEART_RATE.acquire().reinit(hub, bytes, data, ackCallback, errorCallback, sosCallback) : new BleHeartRateData(hub, bytes, data, ackCallback, errorCallback, sosCallback);
+        }
+        final int rssiIndex = bleLen - 6;
+        final long mac = readMac(data, rssiIndex + 1);
+        final int hash = hash(data, rssiIndex);
+        final Entry entry = this.entry(mac, now);
+        entry.lastSeen = now;
+        if (entry.decoded != null && entry.hash == hash && entry.length == data.length && Arrays.equals(data, 0, rssiIndex, entry.data, 0, rssiIndex) && Arrays.equals(data, rssiIndex + 1, data.length, entry.data, rssiIndex + 1, data.length)) {
+            this.hits.increment();
+            this.lastHit = true;
+            final BleHeartRateData target = pooled ? EntityPool.BLE_HEART_RATE.acquire() : new BleHeartRateData();
+            return target.reuse(hub, bytes, data, ackCallback, errorCallback, sosCallback, entry.decoded);
+        }
+        this.misses.increment();
+        this.lastHit = false;
+        final BleHeartRateData decoded = pooled ? EntityPool.BLE_HEART_RATE.acquire().reinit(hub, bytes, data, ackCallback, errorCallback, sosCallback) : new BleHeartRateData(hub, bytes, data, ackCallback, errorCallback, sosCallback);
+        if (decoded.isMalformed()) {
+            entry.decoded = null;
+            return decoded;
+        }
+        if (entry.decoded == null) {
+            entry.decoded = new BleHeartRateData();
+        }
+        entry.decoded.copyFrom(decoded);
+        if (entry.data == null || entry.data.length < data.length) {
+            entry.data = new byte[Math.max(32, data.length)];
+        }
+        System.arraycopy(data, 0, entry.data, 0, data.length);
+        entry.length = data.length;
+        entry.hash = hash;
+        return decoded;
+    }
+    
+    public boolean wasHit() {
+        return this.lastHit;
+    }
+    
+    public long lastSeen(final long mac) {
+        int index = mix(mac) & this.mask;
+        for (int probe = 0; probe < MAX_PROBES; ++probe) {
+            final Entry entry = this.entries[index];
+            if (entry == null) {
+                return -1L;
+            }
+            if (this.macs[index] == mac) {
+                return entry.lastSeen;
+            }
+            index = (index + 1 & this.mask);
+        }
+        return -1L;
+    }
+    
+    public long getHits() {
+        return this.hits.sum();
+    }
+    
+    public long getMisses() {
+        return this.misses.sum();
+    }
+    
+    public double getHitRatio() {
+        final long hits = this.hits.sum();
+        final long total = hits + this.misses.sum();
+        return (total == 0L) ? 0.0 : (hits / (double)total);
+    }
+    
+    public int getCapacity() {
+        return this.entries.length;
+    }
+    
+    public void clear() {
+        Arrays.fill(this.macs, 0L);
+        Arrays.fill(this.entries, null);
+    }
+    
+    private Entry entry(final long mac, final long now) {
+        final int start = mix(mac) & this.mask;
+        int index = start;
+        int oldest = start;
+        for (int probe = 0; probe < MAX_PROBES; ++probe) {
+            final Entry entry = this.entries[index];
+            if (entry == null) {
+                final Entry created = new Entry();
+                this.macs[index] = mac;
+                this.entries[index] = created;
+                return created;
+            }
+            if (this.macs[index] == mac) {
+                return entry;
+            }
+            if (entry.lastSeen < this.entries[oldest].lastSeen) {
+                oldest = index;
+            }
+            index = (index + 1 & this.mask);
+        }
+        final Entry evicted = this.entries[oldest];
+        this.macs[oldest] = mac;
+        evicted.decoded = null;
+        evicted.length = 0;
+        evicted.hash = 0;
+        evicted.lastSeen = now;
+        return evicted;
+    }
+    
+    private static int hash(final byte[] data, final int rssiIndex) {
+        int hash = data.length;
+        for (int i = 0; i < rssiIndex; ++i) {
+            hash = hash * 31 + data[i];
+        }
+        for (int i = rssiIndex + 1; i < data.length; ++i) {
+            hash = hash * 31 + data[i];
+        }
+        return hash;
+    }
+    
+    private static long readMac(final byte[] data, final int offset) {
+        long mac = 0L;
+        for (int i = 0; i < 6; ++i) {
+            mac = (mac << 8 | (long)(data[offset + i] & 0xFF));
+        }
+        return mac;
+    }
+    
+    private static int mix(final long mac) {
+        final long h = mac * -7046029254386353131L;
+        return (int)(h ^ h >>> 32);
+    }
+    
+    private static final class Entry
+    {
+        int hash;
+        int length;
+        byte[] data;
+        long lastSeen;
+        BleHeartRateData decoded;
+    }
+}
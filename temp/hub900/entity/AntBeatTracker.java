@@ -0,0 +1,107 @@
+package com.hub900.entity;
+
+import java.util.*;
+
+public final class AntBeatTracker
+{
+    private static final int MAX_PROBES = 8;
+    private static final long STALE_MILLIS = 60000L;
+    private final int mask;
+    private final long[] deviceIds;
+    private final boolean[] used;
+    private final int[] beatCounts;
+    private final int[] beatTimes;
+    private final long[] seenAt;
+    private long intervals;
+    
+    public AntBeatTracker(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        final int size = Integer.highestOneBit(Math.max(MAX_PROBES, capacity - 1) << 1);
+        this.mask = size - 1;
+        this.deviceIds = new long[size];
+        this.used = new boolean[size];
+        this.beatCounts = new int[size];
+        this.beatTimes = new int[size];
+        this.seenAt = new long[size];
+    }
+    
+    public AntBeatTracker fork() {
+        return new AntBeatTracker(this.deviceIds.length);
+    }
+    
+    public int track(final AntHeartRateData data, final long now) {
+        if (data.isMalformed()) {
+            return 0;
+        }
+        final int rrInterval = this.track(data.getDeviceId(), data.getBeatCount(), data.getBeatEventTime(), data.getPreviousBeatEventTime(), now);
+        data.setRrInterval(rrInterval);
+        return rrInterval;
+    }
+    
+    public int track(final long deviceId, final int beatCount, final int beatEventTime, final int previousBeatEventTime, final long now) {
+        final int start = mix(deviceId) & this.mask;
+        int index = start;
+        int oldest = start;
+        for (int probe = 0; probe < MAX_PROBES; ++probe) {
+            if (!this.used[index]) {
+                this.used[index] = true;
+                this.deviceIds[index] = deviceId;
+                this.store(index, beatCount, beatEventTime, now);
+                return 0;
+            }
+            if (this.deviceIds[index] == deviceId) {
+                final int beats = beatCount - this.beatCounts[index] & 0xFF;
+                if (beats == 0) {
+                    this.seenAt[index] = now;
+                    return 0;
+                }
+                int rrInterval = 0;
+                if (now - this.seenAt[index] <= STALE_MILLIS) {
+                    if (previousBeatEventTime >= 0) {
+                        rrInterval = (beatEventTime - previousBeatEventTime & 0xFFFF);
+                    }
+                    else if (beats == 1) {
+                        rrInterval = (beatEventTime - this.beatTimes[index] & 0xFFFF);
+                    }
+                }
+                this.store(index, beatCount, beatEventTime, now);
+                if (rrInterval != 0) {
+                    ++this.intervals;
+                }
+                return rrInterval;
+            }
+            if (this.seenAt[index] < this.seenAt[oldest]) {
+                oldest = index;
+            }
+            index = (index + 1 & this.mask);
+        }
+        this.deviceIds[oldest] = deviceId;
+        this.store(oldest, beatCount, beatEventTime, now);
+        return 0;
+    }
+    
+    public long getIntervals() {
+        return this.intervals;
+    }
+    
+    public int getCapacity() {
+        return this.deviceIds.length;
+    }
+    
+    public void clear() {
+        Arrays.fill(this.used, false);
+    }
+    
+    private void store(final int index, final int beatCount, final int beatEventTime, final long now) {
+        this.beatCounts[index] = beatCount;
+        this.beatTimes[index] = beatEventTime;
+        this.seenAt[index] = now;
+    }
+    
+    private static int mix(final long deviceId) {
+        final long h = deviceId * -7046029254386353131L;
+        return (int)(h ^ h >>> 32);
+    }
+}
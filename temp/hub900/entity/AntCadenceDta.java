@@ -11,8 +11,29 @@ public class AntCadenceDta extends AbstractData
     private int rssi;
     
     public AntCadenceDta(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
-        super(bytes, data, ackCallback, errorCallback);
+        this(HubRegistry.shared().lookup(bytes), bytes, data, ackCallback, errorCallback);
+    }
+    
+    public AntCadenceDta(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        super(hub, bytes, data, ackCallback, errorCallback);
+        this.decode(data, errorCallback);
+    }
+    
+    AntCadenceDta() {
+    }
+    
+    public AntCadenceDta reinit(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        this.clear();
+        this.decodeHeader(hub, bytes, ackCallback, errorCallback);
+        this.decode(data, errorCallback);
+        return this;
+    }
+    
+    private void decode(final byte[] data, final DataErrorCallback errorCallback) {
         try {
+            if (!this.requireLength(errorCallback, data, 15)) {
+                return;
+            }
             final byte[] deviceID = new byte[4];
             final long devi = d.f(data, 0, 2);
             System.arraycopy(data, 2, deviceID, 0, 4);
@@ -85,6 +106,12 @@ public class AntCadenceDta extends AbstractData
         }
     }
     
+    private void clear() {
+        this.cadence = 0L;
+        this.deviceId = 0L;
+        this.rssi = 0;
+    }
+    
     public int getRssi() {
         return this.rssi;
     }
@@ -10,10 +10,52 @@ public class AntHeartRateData extends AbstractData
     private int heartRate;
     private int battery;
     private int rssi;
+    private int dataPage;
+    private int beatEventTime;
+    private int beatCount;
+    private int previousBeatEventTime;
+    private int rrInterval;
+    private long operatingTime;
+    private int manufacturerId;
+    private int serialNumber;
+    private int hardwareVersion;
+    private int softwareVersion;
+    private int modelNumber;
+    private int intervalAverageHeartRate;
+    private int intervalMaxHeartRate;
+    private int sessionAverageHeartRate;
+    private int featuresSupported;
+    private int featuresEnabled;
+    private float batteryVoltage;
+    private int batteryStatus;
+    private static final Page[] PAGES;
     
     public AntHeartRateData(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
-        super(bytes, data, ackCallback, errorCallback);
+        this(HubRegistry.shared().lookup(bytes), bytes, data, ackCallback, errorCallback);
+    }
+    
+    public AntHeartRateData(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        super(hub, bytes, data, ackCallback, errorCallback);
+        this.previousBeatEventTime = -1;
+        this.decode(data, errorCallback);
+    }
+    
+    AntHeartRateData() {
+        this.previousBeatEventTime = -1;
+    }
+    
+    public AntHeartRateData reinit(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        this.clear();
+        this.decodeHeader(hub, bytes, ackCallback, errorCallback);
+        this.decode(data, errorCallback);
+        return this;
+    }
+    
+    private void decode(final byte[] data, final DataErrorCallback errorCallback) {
         try {
+            if (!this.requireLength(errorCallback, data, 15)) {
+                return;
+            }
             this.deviceType = (data[0] & 0xFF);
             final byte[] deviceID = new byte[4];
             final long devi = d.f(data, 0, 2);
@@ -29,12 +71,12 @@ public class AntHeartRateData extends AbstractData
             else {
                 this.deviceId = d.b(deviceID);
             }
-            switch (data[6] & 0xFF) {
-                case 7: {
-                    this.battery = (data[7] & 0xFF);
-                    break;
-                }
+            this.dataPage = (data[6] & 0x7F);
+            if (this.dataPage < AntHeartRateData.PAGES.length) {
+                AntHeartRateData.PAGES[this.dataPage].decode(this, data);
             }
+            this.beatEventTime = ((data[10] & 0xFF) | (data[11] & 0xFF) << 8);
+            this.beatCount = (data[12] & 0xFF);
             this.heartRate = (data[13] & 0xFF);
             this.rssi = (data[data.length - 1] & 0xFF) - 256;
         }
@@ -45,6 +87,32 @@ public class AntHeartRateData extends AbstractData
         }
     }
     
+    private void clear() {
+        this.deviceId = 0L;
+        this.deviceType = 0;
+        this.heartRate = 0;
+        this.battery = 0;
+        this.rssi = 0;
+        this.dataPage = 0;
+        this.beatEventTime = 0;
+        this.beatCount = 0;
+        this.previousBeatEventTime = -1;
+        this.rrInterval = 0;
+        this.operatingTime = 0L;
+        this.manufacturerId = 0;
+        this.serialNumber = 0;
+        this.hardwareVersion = 0;
+        this.softwareVersion = 0;
+        this.modelNumber = 0;
+        this.intervalAverageHeartRate = 0;
+        this.intervalMaxHeartRate = 0;
+        this.sessionAverageHeartRate = 0;
+        this.featuresSupported = 0;
+        this.featuresEnabled = 0;
+        this.batteryVoltage = 0.0f;
+        this.batteryStatus = 0;
+    }
+    
     public long getDeviceId() {
         return this.deviceId;
     }
@@ -85,8 +153,124 @@ public class AntHeartRateData extends AbstractData
         this.rssi = rssi2;
     }
     
+    public int getDataPage() {
+        return this.dataPage;
+    }
+    
+    public int getBeatEventTime() {
+        return this.beatEventTime;
+    }
+    
+    public int getBeatCount() {
+        return this.beatCount;
+    }
+    
+    public int getPreviousBeatEventTime() {
+        return this.previousBeatEventTime;
+    }
+    
+    public int getRrInterval() {
+        return this.rrInterval;
+    }
+    
+    public double getRrIntervalMillis() {
+        return this.rrInterval * 1000.0 / 1024.0;
+    }
+    
+    void setRrInterval(final int rrInterval) {
+        this.rrInterval = rrInterval;
+    }
+    
+    public long getOperatingTime() {
+        return this.operatingTime;
+    }
+    
+    public int getManufacturerId() {
+        return this.manufacturerId;
+    }
+    
+    public int getSerialNumber() {
+        return this.serialNumber;
+    }
+    
+    public int getHardwareVersion() {
+        return this.hardwareVersion;
+    }
+    
+    public int getSoftwareVersion() {
+        return this.softwareVersion;
+    }
+    
+    public int getModelNumber() {
+        return this.modelNumber;
+    }
+    
+    public int getIntervalAverageHeartRate() {
+        return this.intervalAverageHeartRate;
+    }
+    
+    public int getIntervalMaxHeartRate() {
+        return this.intervalMaxHeartRate;
+    }
+    
+    public int getSessionAverageHeartRate() {
+        return this.sessionAverageHeartRate;
+    }
+    
+    public int getFeaturesSupported() {
+        return this.featuresSupported;
+    }
+    
+    public int getFeaturesEnabled() {
+        return this.featuresEnabled;
+    }
+    
+    public float getBatteryVoltage() {
+        return this.batteryVoltage;
+    }
+    
+    public int getBatteryStatus() {
+        return this.batteryStatus;
+    }
+    
     @Override
     public String toString() {
         return "AntHeartRateData{deviceId=" + this.deviceId + ", deviceType=" + this.deviceType + ", heartRate=" + this.heartRate + ", Battery=" + this.battery + ", rssi=" + this.rssi + '}';
     }
+    
+    static {
+        PAGES = new Page[8];
+        AntHeartRateData.PAGES[0] = (target, data) -> {};
+        AntHeartRateData.PAGES[1] = (target, data) -> target.operatingTime = ((data[7] & 0xFF) | (data[8] & 0xFF) << 8 | (data[9] & 0xFF) << 16) * 2L;
+        AntHeartRateData.PAGES[2] = (target, data) -> {
+            target.manufacturerId = (data[7] & 0xFF);
+            target.serialNumber = ((data[8] & 0xFF) | (data[9] & 0xFF) << 8);
+        };
+        AntHeartRateData.PAGES[3] = (target, data) -> {
+            target.hardwareVersion = (data[7] & 0xFF);
+            target.softwareVersion = (data[8] & 0xFF);
+            target.modelNumber = (data[9] & 0xFF);
+        };
+        AntHeartRateData.PAGES[4] = (target, data) -> target.previousBeatEventTime = ((data[8] & 0xFF) | (data[9] & 0xFF) << 8);
+        AntHeartRateData.PAGES[5] = (target, data) -> {
+            target.intervalAverageHeartRate = (data[7] & 0xFF);
+            target.intervalMaxHeartRate = (data[8] & 0xFF);
+            target.sessionAverageHeartRate = (data[9] & 0xFF);
+        };
+        AntHeartRateData.PAGES[6] = (target, data) -> {
+            target.featuresSupported = (data[8] & 0xFF);
+            target.featuresEnabled = (data[9] & 0xFF);
+        };
+        AntHeartRateData.PAGES[7] = (target, data) -> {
+            target.battery = (data[7] & 0xFF);
+            final int coarse = data[9] & 0xF;
+            target.batteryVoltage = ((coarse == 15) ? 0.0f : (coarse + (data[8] & 0xFF) / 256.0f));
+            target.batteryStatus = (data[9] >> 4 & 0x7);
+        };
+    }
+    
+    private interface Page
+    {
+        void decode(final AntHeartRateData p0, final byte[] p1);
+    }
 }
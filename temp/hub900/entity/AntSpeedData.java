@@ -12,9 +12,31 @@ public class AntSpeedData extends AbstractData
     private int perimeter;
     
     public AntSpeedData(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback, final int perimeter) {
-        super(bytes, data, ackCallback, errorCallback);
+        this(HubRegistry.shared().lookup(bytes), bytes, data, ackCallback, errorCallback, perimeter);
+    }
+    
+    public AntSpeedData(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback, final int perimeter) {
+        super(hub, bytes, data, ackCallback, errorCallback);
+        this.perimeter = perimeter;
+        this.decode(data, errorCallback, perimeter);
+    }
+    
+    AntSpeedData() {
+    }
+    
+    public AntSpeedData reinit(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback, final int perimeter) {
+        this.clear();
         this.perimeter = perimeter;
+        this.decodeHeader(hub, bytes, ackCallback, errorCallback);
+        this.decode(data, errorCallback, perimeter);
+        return this;
+    }
+    
+    private void decode(final byte[] data, final DataErrorCallback errorCallback, final int perimeter) {
         try {
+            if (!this.requireLength(errorCallback, data, 15)) {
+                return;
+            }
             final byte[] deviceIdByte = new byte[4];
             final long devi = d.f(data, 0, 2);
             System.arraycopy(data, 2, deviceIdByte, 0, 4);
@@ -89,6 +111,12 @@ public class AntSpeedData extends AbstractData
         }
     }
     
+    private void clear() {
+        this.deviceId = 0L;
+        this.speed = 0.0;
+        this.rssi = 0L;
+    }
+    
     public double getSpeed() {
         return this.speed;
     }
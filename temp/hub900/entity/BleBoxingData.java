@@ -24,8 +24,29 @@ public class BleBoxingData extends BleBroadcastData
     private int upperCutSpeed;
     
     public BleBoxingData(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
-        super(bytes, data, ackCallback, errorCallback);
+        this(HubRegistry.shared().lookup(bytes), bytes, data, ackCallback, errorCallback);
+    }
+    
+    public BleBoxingData(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        super(hub, bytes, data, ackCallback, errorCallback);
+        this.decode(data, errorCallback);
+    }
+    
+    BleBoxingData() {
+    }
+    
+    public BleBoxingData reinit(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        this.clear();
+        this.reinitBroadcast(hub, bytes, data, ackCallback, errorCallback);
+        this.decode(data, errorCallback);
+        return this;
+    }
+    
+    private void decode(final byte[] data, final DataErrorCallback errorCallback) {
         try {
+            if (!this.requireLength(errorCallback, data, 31)) {
+                return;
+            }
             this.hubId = b.e(data, 6, 2);
             this.group = b.e(data, 8, 1);
             this.deviceId = b.e(data, 9, 4);
@@ -55,6 +76,26 @@ public class BleBoxingData extends BleBroadcastData
         }
     }
     
+    private void clear() {
+        this.hubId = 0;
+        this.group = 0;
+        this.deviceId = 0L;
+        this.hand = 0;
+        this.power = 0;
+        this.speed = 0;
+        this.time = 0;
+        this.battery = 0;
+        this.straight = 0;
+        this.straightPower = 0;
+        this.straightSpeed = 0;
+        this.swing = 0;
+        this.swingSpeed = 0;
+        this.swingPower = 0;
+        this.upperCut = 0;
+        this.upperCutPower = 0;
+        this.upperCutSpeed = 0;
+    }
+    
     public Hand getHand() {
         return ((this.hand & 0x1) == 0x1) ? Hand.RIGHT : Hand.LEFT;
     }
@@ -14,8 +14,29 @@ public class BleBoxingHeartRateData extends BleBroadcastData
     private float calories;
     
     public BleBoxingHeartRateData(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
-        super(bytes, data, ackCallback, errorCallback);
+        this(HubRegistry.shared().lookup(bytes), bytes, data, ackCallback, errorCallback);
+    }
+    
+    public BleBoxingHeartRateData(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        super(hub, bytes, data, ackCallback, errorCallback);
+        this.decode(data, errorCallback);
+    }
+    
+    BleBoxingHeartRateData() {
+    }
+    
+    public BleBoxingHeartRateData reinit(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        this.clear();
+        this.reinitBroadcast(hub, bytes, data, ackCallback, errorCallback);
+        this.decode(data, errorCallback);
+        return this;
+    }
+    
+    private void decode(final byte[] data, final DataErrorCallback errorCallback) {
         try {
+            if (!this.requireLength(errorCallback, data, 21)) {
+                return;
+            }
             this.hubId = b.e(data, 6, 2);
             this.group = b.e(data, 8, 1);
             this.deviceId = b.e(data, 9, 4);
@@ -31,6 +52,16 @@ public class BleBoxingHeartRateData extends BleBroadcastData
         }
     }
     
+    private void clear() {
+        this.hubId = 0;
+        this.group = 0;
+        this.deviceId = 0L;
+        this.heartRate = 0;
+        this.battery = 0;
+        this.steps = 0L;
+        this.calories = 0.0f;
+    }
+    
     @Override
     public int getHubId() {
         return this.hubId;
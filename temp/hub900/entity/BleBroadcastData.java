@@ -11,30 +11,62 @@ public class BleBroadcastData extends AbstractData
     private int bleLen;
     private int bleLimitFind;
     private String bleMac;
+    private long bleMacValue;
     private String bleName;
     private int bleUnSupportEdr;
     protected String manufacturer;
     protected int deviceType;
     protected int rssi;
     private int advLen;
+    private int advType;
     protected String userCustom;
     protected String uuid;
     
     public BleBroadcastData(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
-        super(bytes, data, ackCallback, errorCallback);
+        this(HubRegistry.shared().lookup(bytes), bytes, data, ackCallback, errorCallback);
+    }
+    
+    public BleBroadcastData(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        super(hub, bytes, data, ackCallback, errorCallback);
+        this.decodeBroadcast(data, errorCallback);
+    }
+    
+    protected BleBroadcastData() {
+    }
+    
+    protected void reinitBroadcast(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        this.clearBroadcast();
+        this.decodeHeader(hub, bytes, ackCallback, errorCallback);
+        this.decodeBroadcast(data, errorCallback);
+    }
+    
+    private void decodeBroadcast(final byte[] data, final DataErrorCallback errorCallback) {
         try {
+            if (!this.requireLength(errorCallback, data, 8)) {
+                return;
+            }
+            if ((data[0] & 0xFF) < 7 || data.length < (data[0] & 0xFF) + 1) {
+                this.reportError(errorCallback, DataErrorCode.TRUNCATED_RECORD, 0, data);
+                return;
+            }
             byte[] realData = new byte[0];
             this.bleLen = (data[0] & 0xFF);
             this.advLen = (data[1] & 0xFF);
             final byte[] company = b.c(data, 3, 2);
             this.manufacturer = b.l(b.n(company));
             this.deviceType = b.a(data[3]);
+            this.advType = b.a(data[5]);
             final byte[] bleAdvBytes = new byte[this.bleLen - 7];
             System.arraycopy(data, 1, bleAdvBytes, 0, this.bleLen - 7);
             this.rssi = data[bleAdvBytes.length + 1];
             final byte[] macBytes = new byte[6];
             System.arraycopy(data, bleAdvBytes.length + 2, macBytes, 0, 6);
             this.bleMac = d.z(macBytes);
+            long macValue = 0L;
+            for (final byte macByte : macBytes) {
+                macValue = (macValue << 8 | (long)(macByte & 0xFF));
+            }
+            this.bleMacValue = macValue;
             if (bleAdvBytes.length > 0) {
                 int index = 0;
                 for (int i2 = 0; i2 < bleAdvBytes.length; i2 = index + 1) {
@@ -43,11 +75,19 @@ public class BleBroadcastData extends AbstractData
                     if (bleAdvLen == 0 || bleAdvBytes.length <= bleAdvLen) {
                         return;
                     }
+                    if (i2 + bleAdvLen >= bleAdvBytes.length) {
+                        this.reportError(errorCallback, DataErrorCode.TRUNCATED_ADV, i2 + 1, data);
+                        return;
+                    }
                     final int bleAdvType = bleAdvBytes[i3] & 0xFF;
                     final byte[] temp = new byte[bleAdvLen - 1];
                     System.arraycopy(bleAdvBytes, i3 + 1, temp, 0, temp.length);
                     switch (bleAdvType) {
                         case 1: {
+                            if (temp.length == 0) {
+                                index = i3;
+                                break;
+                            }
                             this.bleLimitFind = (a.a(0, temp[0]) ? 1 : 0);
                             this.bleGeneralFind = (a.a(1, temp[0]) ? 1 : 0);
                             this.bleUnSupportEdr = (a.a(2, temp[0]) ? 1 : 0);
@@ -66,7 +106,9 @@ public class BleBroadcastData extends AbstractData
                                     count = 0;
                                 }
                             }
-                            this.uuid = str.deleteCharAt(str.length() - 1).toString();
+                            if (str.length() > 0) {
+                                this.uuid = str.deleteCharAt(str.length() - 1).toString();
+                            }
                             index = i3 + temp.length;
                             break;
                         }
@@ -80,7 +122,9 @@ public class BleBroadcastData extends AbstractData
                                     count2 = 0;
                                 }
                             }
-                            this.uuid = str2.deleteCharAt(str2.length() - 1).toString();
+                            if (str2.length() > 0) {
+                                this.uuid = str2.deleteCharAt(str2.length() - 1).toString();
+                            }
                             index = i3 + temp.length;
                             break;
                         }
@@ -94,7 +138,9 @@ public class BleBroadcastData extends AbstractData
                                     count3 = 0;
                                 }
                             }
-                            this.uuid = str3.deleteCharAt(str3.length() - 1).toString();
+                            if (str3.length() > 0) {
+                                this.uuid = str3.deleteCharAt(str3.length() - 1).toString();
+                            }
                             index = i3 + temp.length;
                             break;
                         }
@@ -136,6 +182,44 @@ public class BleBroadcastData extends AbstractData
         }
     }
     
+    protected final void copyBroadcast(final BleBroadcastData source) {
+        this.bleControllerEdr = source.bleControllerEdr;
+        this.bleGeneralFind = source.bleGeneralFind;
+        this.bleHostEdr = source.bleHostEdr;
+        this.bleLen = source.bleLen;
+        this.bleLimitFind = source.bleLimitFind;
+        this.bleMac = source.bleMac;
+        this.bleMacValue = source.bleMacValue;
+        this.bleName = source.bleName;
+        this.bleUnSupportEdr = source.bleUnSupportEdr;
+        this.manufacturer = source.manufacturer;
+        this.deviceType = source.deviceType;
+        this.rssi = source.rssi;
+        this.advLen = source.advLen;
+        this.advType = source.advType;
+        this.userCustom = source.userCustom;
+        this.uuid = source.uuid;
+    }
+    
+    private void clearBroadcast() {
+        this.bleControllerEdr = 0;
+        this.bleGeneralFind = 0;
+        this.bleHostEdr = 0;
+        this.bleLen = 0;
+        this.bleLimitFind = 0;
+        this.bleMac = null;
+        this.bleMacValue = 0L;
+        this.bleName = null;
+        this.bleUnSupportEdr = 0;
+        this.manufacturer = null;
+        this.deviceType = 0;
+        this.rssi = 0;
+        this.advLen = 0;
+        this.advType = 0;
+        this.userCustom = null;
+        this.uuid = null;
+    }
+    
     public int getRssi() {
         return this.rssi;
     }
@@ -152,6 +236,10 @@ public class BleBroadcastData extends AbstractData
         this.bleMac = bleMac2;
     }
     
+    public long getBleMacValue() {
+        return this.bleMacValue;
+    }
+    
     public int getBleLen() {
         return this.bleLen;
     }
@@ -240,6 +328,14 @@ public class BleBroadcastData extends AbstractData
         this.deviceType = deviceType;
     }
     
+    public int getAdvType() {
+        return this.advType;
+    }
+    
+    public void setAdvType(final int advType) {
+        this.advType = advType;
+    }
+    
     public String getBleString() {
         return "{bleControllerEdr=" + this.bleControllerEdr + ", bleGeneralFind=" + this.bleGeneralFind + ", bleHostEdr=" + this.bleHostEdr + ", bleLen=" + this.bleLen + ", bleLimitFind=" + this.bleLimitFind + ", bleMac=" + this.bleMac + ", bleName=" + this.bleName + ", bleUnSupportEdr=" + this.bleUnSupportEdr + ", manufacturer=" + this.manufacturer + ", deviceType=" + this.deviceType + ", advLen=" + this.advLen + ", userCustom=" + this.userCustom + ", uuid=" + this.uuid + ", rssi=" + this.rssi + '}';
     }
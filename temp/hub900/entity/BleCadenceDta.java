@@ -9,8 +9,15 @@ public class BleCadenceDta extends BleBroadcastData
     private int time;
     
     public BleCadenceDta(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
-        super(bytes, data, ackCallback, errorCallback);
+        this(HubRegistry.shared().lookup(bytes), bytes, data, ackCallback, errorCallback);
+    }
+    
+    public BleCadenceDta(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        super(hub, bytes, data, ackCallback, errorCallback);
         try {
+            if (!this.requireLength(errorCallback, data, 17)) {
+                return;
+            }
             final byte[] bytes2 = b.c(data, 12, 3);
             final byte[] bytes3 = b.c(data, 15, 2);
             this.wheel = b.e(b.n(bytes2), 0, 3);
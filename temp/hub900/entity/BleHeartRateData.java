@@ -12,16 +12,63 @@ public class BleHeartRateData extends BleBroadcastData
     private float calories;
     private float temperature;
     private int oxygen;
+    private boolean sos;
     
     public BleHeartRateData(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
         this(bytes, data, ackCallback, errorCallback, null);
     }
     
     public BleHeartRateData(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback, final BleSOSCallback sosCallback) {
-        super(bytes, data, ackCallback, errorCallback);
+        this(HubRegistry.shared().lookup(bytes), bytes, data, ackCallback, errorCallback, sosCallback);
+    }
+    
+    public BleHeartRateData(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback, final BleSOSCallback sosCallback) {
+        super(hub, bytes, data, ackCallback, errorCallback);
+        this.decode(data, errorCallback, sosCallback);
+    }
+    
+    BleHeartRateData() {
+    }
+    
+    public BleHeartRateData reinit(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback, final BleSOSCallback sosCallback) {
+        this.clear();
+        this.reinitBroadcast(hub, bytes, data, ackCallback, errorCallback);
+        this.decode(data, errorCallback, sosCallback);
+        return this;
+    }
+    
+    BleHeartRateData reuse(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback, final BleSOSCallback sosCallback, final BleHeartRateData decoded) {
+        this.decodeHeader(hub, bytes, ackCallback, errorCallback);
+        this.copyFrom(decoded);
+        this.rssi = data[(data[0] & 0xFF) - 6];
+        if (this.sos && sosCallback != null) {
+            sosCallback.onBleSOS(this);
+        }
+        return this;
+    }
+    
+    void copyFrom(final BleHeartRateData source) {
+        this.copyBroadcast(source);
+        this.deviceId = source.deviceId;
+        this.heartRate = source.heartRate;
+        this.battery = source.battery;
+        this.steps = source.steps;
+        this.calories = source.calories;
+        this.temperature = source.temperature;
+        this.oxygen = source.oxygen;
+        this.sos = source.sos;
+    }
+    
+    private void decode(final byte[] data, final DataErrorCallback errorCallback, final BleSOSCallback sosCallback) {
         try {
+            if (!this.requireLength(errorCallback, data, 16)) {
+                return;
+            }
             final int type = b.a(data[5]);
             if (type == 161 || type == 162) {
+                if (!this.requireLength(errorCallback, data, (type == 162) ? 20 : 18)) {
+                    return;
+                }
                 this.deviceId = b.e(data, 6, 4);
                 this.heartRate = b.e(data, 10, 1);
                 this.battery = b.e(data, 11, 1);
@@ -41,8 +88,9 @@ public class BleHeartRateData extends BleBroadcastData
                 this.battery = b.a(data[13]);
                 this.heartRate = b.a(data[15]);
                 final String name = this.getBleName();
-                if (name != null && name.startsWith("XW100") && length >= 8) {
+                if (name != null && name.startsWith("XW100") && length >= 8 && data.length > 16) {
                     final boolean sos = b.a(data[16]) == 1;
+                    this.sos = sos;
                     if (sosCallback != null && sos) {
                         sosCallback.onBleSOS(this);
                     }
@@ -56,6 +104,17 @@ public class BleHeartRateData extends BleBroadcastData
         }
     }
     
+    private void clear() {
+        this.deviceId = 0L;
+        this.heartRate = 0;
+        this.battery = 0;
+        this.steps = 0L;
+        this.calories = 0.0f;
+        this.temperature = 0.0f;
+        this.oxygen = 0;
+        this.sos = false;
+    }
+    
     public long getDeviceId() {
         return this.deviceId;
     }
@@ -64,6 +123,15 @@ public class BleHeartRateData extends BleBroadcastData
         this.deviceId = deviceId;
     }
     
+    public boolean isVendorAdvert() {
+        final int advType = this.getAdvType();
+        return advType == 161 || advType == 162;
+    }
+    
+    public long getDeviceKey() {
+        return this.isVendorAdvert() ? this.deviceId : this.getBleMacValue();
+    }
+    
     public int getHeartRate() {
         return this.heartRate;
     }
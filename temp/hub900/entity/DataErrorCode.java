@@ -0,0 +1,24 @@
+package com.hub900.entity;
+
+public enum DataErrorCode
+{
+    NO_FRAME_START("No frame start !!!"), 
+    INVALID_ESCAPE("Abnormal data !!!"), 
+    CHECKSUM_MISMATCH("Verification error !!!"), 
+    TRUNCATED_HEADER("Truncated header !!!"), 
+    TRUNCATED_BLOCK("Truncated block !!!"), 
+    TRUNCATED_RECORD("Truncated record !!!"), 
+    TRUNCATED_ADV("Truncated advertisement !!!"), 
+    DECODER_TYPE_MISMATCH("Decoder returned the wrong entity type !!!"), 
+    EXCEPTION("Exception !!!");
+    
+    private final String message;
+    
+    private DataErrorCode(final String message) {
+        this.message = message;
+    }
+    
+    public String getMessage() {
+        return this.message;
+    }
+}
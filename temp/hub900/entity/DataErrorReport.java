@@ -0,0 +1,64 @@
+package com.hub900.entity;
+
+import java.util.*;
+
+public class DataErrorReport
+{
+    public static final int UNKNOWN_HUB = -1;
+    private final DataErrorCode code;
+    private final int hubId;
+    private final int offset;
+    private final long count;
+    private final long firstMillis;
+    private final long lastMillis;
+    private final byte[] sample;
+    private final String message;
+    
+    public DataErrorReport(final DataErrorCode code, final int hubId, final int offset, final long count, final long firstMillis, final long lastMillis, final byte[] sample, final String message) {
+        this.code = code;
+        this.hubId = hubId;
+        this.offset = offset;
+        this.count = count;
+        this.firstMillis = firstMillis;
+        this.lastMillis = lastMillis;
+        this.sample = sample;
+        this.message = message;
+    }
+    
+    public DataErrorCode getCode() {
+        return this.code;
+    }
+    
+    public int getHubId() {
+        return this.hubId;
+    }
+    
+    public int getOffset() {
+        return this.offset;
+    }
+    
+    public long getCount() {
+        return this.count;
+    }
+    
+    public long getFirstMillis() {
+        return this.firstMillis;
+    }
+    
+    public long getLastMillis() {
+        return this.lastMillis;
+    }
+    
+    public byte[] getSample() {
+        return this.sample;
+    }
+    
+    public String getMessage() {
+        return this.message;
+    }
+    
+    @Override
+    public String toString() {
+        return "DataErrorReport{code=" + this.code + ", hubId=" + this.hubId + ", offset=" + this.offset + ", count=" + this.count + ", firstMillis=" + this.firstMillis + ", lastMillis=" + this.lastMillis + ", message=" + this.message + ", sample=" + Arrays.toString(this.sample) + '}';
+    }
+}
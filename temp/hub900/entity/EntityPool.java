@@ -0,0 +1,148 @@
+package com.hub900.entity;
+
+import java.lang.ref.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import com.hub900.callback.*;
+
+public final class EntityPool<T extends AbstractData>
+{
+    public static final EntityPool<AntHeartRateData> ANT_HEART_RATE;
+    public static final EntityPool<AntCadenceDta> ANT_CADENCE;
+    public static final EntityPool<AntSpeedData> ANT_SPEED;
+    public static final EntityPool<BleHeartRateData> BLE_HEART_RATE;
+    public static final EntityPool<BleBoxingData> BLE_BOXING;
+    public static final EntityPool<BleBoxingHeartRateData> BLE_BOXING_HEART_RATE;
+    private static final ReferenceQueue<AbstractData> LEAK_QUEUE;
+    private static final Set<LeakTrace> LIVE_TRACES;
+    private static volatile boolean leakDetection;
+    private static volatile EntityLeakCallback leakCallback;
+    private final String name;
+    private final Class<T> type;
+    private final Supplier<T> factory;
+    private final ThreadLocal<ArrayDeque<T>> free;
+    private final LongAdder created;
+    private final LongAdder reused;
+    private final LongAdder leaked;
+    private volatile int maxPerThread;
+    
+    private EntityPool(final String name, final Class<T> type, final Supplier<T> factory) {
+        this.name = name;
+        this.type = type;
+        this.factory = factory;
+        this.free = ThreadLocal.withInitial(ArrayDeque::new);
+        this.created = new LongAdder();
+        this.reused = new LongAdder();
+        this.leaked = new LongAdder();
+        this.maxPerThread = 256;
+    }
+    
+    public T acquire() {
+        if (EntityPool.leakDetection) {
+            checkLeaks();
+        }
+        T entity = this.free.get().pollLast();
+        if (entity == null) {
+            entity = this.factory.get();
+            this.created.increment();
+        }
+        else {
+            this.reused.increment();
+        }
+        entity.pooled(this, EntityPool.leakDetection ? new LeakTrace(entity, this) : null);
+        return entity;
+    }
+    
+    void recycle(final AbstractData entity) {
+        final ArrayDeque<T> deque = this.free.get();
+        if (deque.size() < this.maxPerThread) {
+            deque.addLast(this.type.cast(entity));
+        }
+    }
+    
+    public String getName() {
+        return this.name;
+    }
+    
+    public long getCreated() {
+        return this.created.sum();
+    }
+    
+    public long getReused() {
+        return this.reused.sum();
+    }
+    
+    public long getLeaked() {
+        return this.leaked.sum();
+    }
+    
+    public int getMaxPerThread() {
+        return this.maxPerThread;
+    }
+    
+    public EntityPool<T> setMaxPerThread(final int maxPerThread) {
+        this.maxPerThread = Math.max(0, maxPerThread);
+        return this;
+    }
+    
+    public static boolean isLeakDetection() {
+        return EntityPool.leakDetection;
+    }
+    
+    public static void setLeakDetection(final boolean leakDetection) {
+        EntityPool.leakDetection = leakDetection;
+    }
+    
+    public static void setLeakCallback(final EntityLeakCallback leakCallback) {
+        EntityPool.leakCallback = leakCallback;
+    }
+    
+    public static int checkLeaks() {
+        int found = 0;
+        Reference<? extends AbstractData> reference;
+        while ((reference = EntityPool.LEAK_QUEUE.poll()) != null) {
+            final LeakTrace trace = (LeakTrace)reference;
+            if (EntityPool.LIVE_TRACES.remove(trace)) {
+                ++found;
+                trace.pool.leaked.increment();
+                final EntityLeakCallback callback = EntityPool.leakCallback;
+                if (callback != null) {
+                    callback.onEntityLeak(trace.pool.name, trace.acquiredAt);
+                }
+            }
+        }
+        return found;
+    }
+    
+    static {
+        LEAK_QUEUE = new ReferenceQueue<AbstractData>();
+        LIVE_TRACES = ConcurrentHashMap.newKeySet();
+        EntityPool.leakDetection = Boolean.getBoolean("hub900.pool.leakDetection");
+        ANT_HEART_RATE = new EntityPool<AntHeartRateData>("AntHeartRateData", AntHeartRateData.class, AntHeartRateData::new);
+        ANT_CADENCE = new EntityPool<AntCadenceDta>("AntCadenceDta", AntCadenceDta.class, AntCadenceDta::new);
+        ANT_SPEED = new EntityPool<AntSpeedData>("AntSpeedData", AntSpeedData.class, AntSpeedData::new);
+        BLE_HEART_RATE = new EntityPool<BleHeartRateData>("BleHeartRateData", BleHeartRateData.class, BleHeartRateData::new);
+        BLE_BOXING = new EntityPool<BleBoxingData>("BleBoxingData", BleBoxingData.class, BleBoxingData::new);
+        BLE_BOXING_HEART_RATE = new EntityPool<BleBoxingHeartRateData>("BleBoxingHeartRateData", BleBoxingHeartRateData.class, BleBoxingHeartRateData::new);
+    }
+    
+    static final class LeakTrace extends WeakReference<AbstractData>
+    {
+        private final EntityPool<?> pool;
+        private final Throwable acquiredAt;
+        
+        LeakTrace(final AbstractData entity, final EntityPool<?> pool) {
+            super(entity, EntityPool.LEAK_QUEUE);
+            this.pool = pool;
+            this.acquiredAt = new Throwable(pool.name + " acquired here and never released");
+            EntityPool.LIVE_TRACES.add(this);
+        }
+        
+        void close() {
+            EntityPool.LIVE_TRACES.remove(this);
+            this.clear();
+        }
+    }
+}
@@ -28,8 +28,15 @@ public class HeartBeatData extends AbstractData
     private int softwareLen;
     
     public HeartBeatData(final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
-        super(bytes, data, ackCallback, errorCallback);
+        this(HubRegistry.shared().lookup(bytes), bytes, data, ackCallback, errorCallback);
+    }
+    
+    public HeartBeatData(final HubDescriptor hub, final byte[] bytes, final byte[] data, final AckBackCallback ackCallback, final DataErrorCallback errorCallback) {
+        super(hub, bytes, data, ackCallback, errorCallback);
         try {
+            if (!this.requireLength(errorCallback, data, 10)) {
+                return;
+            }
             final int totalLen = data.length;
             this.Battery = (data[0] & 0xFF);
             this.sendFrequency = this.returnSendFrequency(data[1] & 0xFF);
@@ -0,0 +1,87 @@
+package com.hub900.entity;
+
+import com.hub900.a.*;
+
+public final class HubDescriptor
+{
+    private final int hubId;
+    private final long macValue;
+    private final int usbVersionCode;
+    private final String mac;
+    private final String usbVersion;
+    private volatile byte[] ackMessage;
+    
+    HubDescriptor(final byte[] bytes) {
+        this.hubId = a.b(bytes[1], bytes[2], bytes[3], bytes[4]);
+        this.macValue = macValue(bytes);
+        this.usbVersionCode = usbVersionCode(bytes);
+        final byte[] usbVersionByte = new byte[3];
+        System.arraycopy(bytes, 10, usbVersionByte, 0, 3);
+        final StringBuilder builder = new StringBuilder(d.C(usbVersionByte));
+        builder.insert(2, ".");
+        builder.insert(5, ".");
+        this.usbVersion = builder.toString().intern();
+        final byte[] macBytes = new byte[6];
+        for (int j = 0; j < 6; ++j) {
+            macBytes[j] = bytes[18 - j];
+        }
+        this.mac = d.z(macBytes).intern();
+    }
+    
+    boolean matches(final byte[] bytes) {
+        return this.macValue == macValue(bytes) && this.usbVersionCode == usbVersionCode(bytes);
+    }
+    
+    public int getHubId() {
+        return this.hubId;
+    }
+    
+    public long getMacValue() {
+        return this.macValue;
+    }
+    
+    public String getMac() {
+        return this.mac;
+    }
+    
+    public int getUsbVersionCode() {
+        return this.usbVersionCode;
+    }
+    
+    public String getUsbVersion() {
+        return this.usbVersion;
+    }
+    
+    public byte[] ackMessage() {
+        byte[] message = this.ackMessage;
+        if (message == null) {
+            final byte[] hubIdByte = { (byte)(this.hubId >>> 24), (byte)(this.hubId >>> 16), (byte)(this.hubId >>> 8), (byte)this.hubId };
+            final String hubId = b.e(d.v(hubIdByte));
+            final String header = "000035001B000000";
+            final String macStr = b.e(this.mac.replaceAll(":", ""));
+            final String appData = "640100020000";
+            final String sum = "AA" + hubId + header + macStr + appData;
+            final long ifCheck = d.a(d.B(d.a(sum)));
+            message = d.a("7EAA" + hubId + header + macStr + appData + d.v(d.a(ifCheck)) + "7F");
+            this.ackMessage = message;
+        }
+        return message.clone();
+    }
+    
+    static long macValue(final byte[] bytes) {
+        long value = 0L;
+        for (int i = 18; i >= 13; --i) {
+            value = (value << 8 | (long)(bytes[i] & 0xFF));
+        }
+        return value;
+    }
+    
+    static int usbVersionCode(final byte[] bytes) {
+        return (bytes[10] & 0xFF) << 16 | (bytes[11] & 0xFF) << 8 | (bytes[12] & 0xFF);
+    }
+    
+    @Override
+    public String toString() {
+        return "HubDescriptor{hubId=" + this.hubId + ", mac=" + this.mac + ", usbVersion=" + this.usbVersion + '}';
+    }
+}
@@ -0,0 +1,51 @@
+package com.hub900.entity;
+
+import java.util.concurrent.*;
+
+public final class HubRegistry
+{
+    private static final HubRegistry SHARED;
+    private final ConcurrentHashMap<Integer, HubDescriptor> hubs;
+    
+    public HubRegistry() {
+        this.hubs = new ConcurrentHashMap<Integer, HubDescriptor>();
+    }
+    
+    public static HubRegistry shared() {
+        return HubRegistry.SHARED;
+    }
+    
+    public HubDescriptor lookup(final byte[] bytes) {
+        if (bytes == null || bytes.length < 20) {
+            return null;
+        }
+        final int hubId = ((bytes[1] & 0xFF) << 24) + ((bytes[2] & 0xFF) << 16) + ((bytes[3] & 0xFF) << 8) + (bytes[4] & 0xFF);
+        final HubDescriptor hub = this.hubs.get(hubId);
+        if (hub != null && hub.matches(bytes)) {
+            return hub;
+        }
+        final HubDescriptor created = new HubDescriptor(bytes);
+        this.hubs.put(hubId, created);
+        return created;
+    }
+    
+    public HubDescriptor get(final int hubId) {
+        return this.hubs.get(hubId);
+    }
+    
+    public int size() {
+        return this.hubs.size();
+    }
+    
+    public void remove(final int hubId) {
+        this.hubs.remove(hubId);
+    }
+    
+    public void clear() {
+        this.hubs.clear();
+    }
+    
+    static {
+        SHARED = new HubRegistry();
+    }
+}
@@ -0,0 +1,42 @@
+package com.hub900.entity;
+
+public enum SampleType
+{
+    ANT_HEART_RATE("ant_heart_rate", 1), 
+    ANT_CADENCE("ant_cadence", 2), 
+    ANT_SPEED("ant_speed", 3), 
+    BLE_HEART_RATE("ble_heart_rate", 4), 
+    BLE_CADENCE("ble_cadence", 5), 
+    BLE_BOXING("ble_boxing", 6), 
+    BLE_BOXING_HEART_RATE("ble_boxing_heart_rate", 7), 
+    HEART_BEAT("heart_beat", 8);
+    
+    private static final SampleType[] BY_CODE;
+    private final String label;
+    private final int code;
+    
+    private SampleType(final String label, final int code) {
+        this.label = label;
+        this.code = code;
+    }
+    
+    public String getLabel() {
+        return this.label;
+    }
+    
+    public int getCode() {
+        return this.code;
+    }
+    
+    public static SampleType fromCode(final int code) {
+        return (code > 0 && code < SampleType.BY_CODE.length) ? SampleType.BY_CODE[code] : null;
+    }
+    
+    static {
+        final SampleType[] values = values();
+        BY_CODE = new SampleType[values.length + 1];
+        for (final SampleType type : values) {
+            SampleType.BY_CODE[type.code] = type;
+        }
+    }
+}
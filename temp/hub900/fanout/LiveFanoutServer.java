@@ -0,0 +1,541 @@
+package com.hub900.fanout;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+import java.util.function.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+import com.hub900.codec.*;
+import com.hub900.entity.*;
+
+public final class LiveFanoutServer implements Closeable
+{
+    public static final String PATH = "/live/";
+    private static final int MAX_REQUEST_BYTES = 8192;
+    private static final byte[] REQUEST_END;
+    private static final byte[] STREAM_HEADERS;
+    private static final byte[] DELTA_PREFIX;
+    private static final byte[] DELTA_SUFFIX;
+    private static final byte[] KEEP_ALIVE;
+    private final Map<String, LiveTable> tables;
+    private final Set<Subscriber> subscribers;
+    private final ThreadLocal<SampleJsonWriter> writers;
+    private final AtomicInteger nextLoop;
+    private final LongAdder conflatedTicks;
+    private final LongAdder evictedSubscribers;
+    private final LongAdder failedAccepts;
+    private volatile Function<AbstractData, String> groupResolver;
+    private long defaultIntervalMillis;
+    private long minIntervalMillis;
+    private long keepAliveMillis;
+    private long staleMillis;
+    private long writeTimeoutMillis;
+    private int maxPendingBytes;
+    private int senderThreads;
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+    private SenderLoop[] loops;
+    private ScheduledExecutorService ticker;
+    private volatile boolean running;
+    
+    public LiveFanoutServer() {
+        this.tables = new ConcurrentHashMap<String, LiveTable>();
+        this.subscribers = ConcurrentHashMap.newKeySet();
+        this.writers = ThreadLocal.withInitial(() -> new SampleJsonWriter(512));
+        this.nextLoop = new AtomicInteger();
+        this.conflatedTicks = new LongAdder();
+        this.evictedSubscribers = new LongAdder();
+        this.failedAccepts = new LongAdder();
+        this.groupResolver = data -> "hub-" + data.getFrameHubId();
+        this.defaultIntervalMillis = 1000L;
+        this.minIntervalMillis = 100L;
+        this.keepAliveMillis = 15000L;
+        this.staleMillis = 300000L;
+        this.writeTimeoutMillis = 10000L;
+        this.maxPendingBytes = 262144;
+        this.senderThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    }
+    
+    public LiveFanoutServer setGroupResolver(final Function<AbstractData, String> groupResolver) {
+        this.groupResolver = groupResolver;
+        return this;
+    }
+    
+    public LiveFanoutServer setDefaultIntervalMillis(final long defaultIntervalMillis) {
+        this.defaultIntervalMillis = defaultIntervalMillis;
+        return this;
+    }
+    
+    public LiveFanoutServer setMinIntervalMillis(final long minIntervalMillis) {
+        this.minIntervalMillis = minIntervalMillis;
+        return this;
+    }
+    
+    public LiveFanoutServer setKeepAliveMillis(final long keepAliveMillis) {
+        this.keepAliveMillis = keepAliveMillis;
+        return this;
+    }
+    
+    public LiveFanoutServer setStaleMillis(final long staleMillis) {
+        this.staleMillis = staleMillis;
+        return this;
+    }
+    
+    public LiveFanoutServer setWriteTimeoutMillis(final long writeTimeoutMillis) {
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        return this;
+    }
+    
+    public LiveFanoutServer setMaxPendingBytes(final int maxPendingBytes) {
+        this.maxPendingBytes = maxPendingBytes;
+        return this;
+    }
+    
+    public LiveFanoutServer setSenderThreads(final int senderThreads) {
+        this.senderThreads = senderThreads;
+        return this;
+    }
+    
+    public LiveFanoutServer attach(final HubManager hubManager) {
+        hubManager.addSampleListener(SampleListener.forTypes(this::publish, SampleType.ANT_HEART_RATE, SampleType.BLE_HEART_RATE, SampleType.BLE_BOXING_HEART_RATE));
+        return this;
+    }
+    
+    public void publish(final AbstractData data) {
+        final String group = this.groupResolver.apply(data);
+        if (group == null) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final SampleJsonWriter writer = this.writers.get().reset();
+        if (!writer.write(data, now)) {
+            return;
+        }
+        this.table(group).update(deviceKey(data), writer.toByteArray(), now);
+    }
+    
+    public LiveTable table(final String group) {
+        return this.tables.computeIfAbsent(group, LiveTable::new);
+    }
+    
+    public int getGroupCount() {
+        return this.tables.size();
+    }
+    
+    public int getSubscriberCount() {
+        return this.subscribers.size();
+    }
+    
+    public long getConflatedTicks() {
+        return this.conflatedTicks.sum();
+    }
+    
+    public long getEvictedSubscribers() {
+        return this.evictedSubscribers.sum();
+    }
+    
+    public long getFailedAccepts() {
+        return this.failedAccepts.sum();
+    }
+    
+    public synchronized LiveFanoutServer start(final InetSocketAddress address) throws IOException {
+        if (this.running) {
+            return this;
+        }
+        final int threads = Math.max(1, this.senderThreads);
+        this.loops = new SenderLoop[threads];
+        for (int i = 0; i < threads; ++i) {
+            this.loops[i] = new SenderLoop(i);
+        }
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        try {
+            this.serverChannel.bind(address, 1024);
+        }
+        catch (IOException e) {
+            closeQuietly(this.serverChannel);
+            for (final SenderLoop loop : this.loops) {
+                closeQuietly(loop.selector);
+            }
+            throw e;
+        }
+        this.running = true;
+        for (final SenderLoop loop : this.loops) {
+            loop.thread.start();
+        }
+        (this.acceptor = new Thread(this::acceptLoop, "hub900-live-accept")).setDaemon(true);
+        this.acceptor.start();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(daemon("hub900-live-ticker"));
+        this.ticker.scheduleAtFixedRate(this::evict, 1L, 1L, TimeUnit.SECONDS);
+        return this;
+    }
+    
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress)this.serverChannel.getLocalAddress();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (!this.running) {
+            return;
+        }
+        this.running = false;
+        this.ticker.shutdownNow();
+        closeQuietly(this.serverChannel);
+        for (final SenderLoop loop : this.loops) {
+            loop.selector.wakeup();
+        }
+        try {
+            this.acceptor.join(5000L);
+            for (final SenderLoop loop : this.loops) {
+                loop.thread.join(5000L);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void acceptLoop() {
+        long backoff = 0L;
+        while (this.running) {
+            final SocketChannel socket;
+            try {
+                socket = this.serverChannel.accept();
+                backoff = 0L;
+            }
+            catch (IOException e) {
+                if (!this.running) {
+                    return;
+                }
+                this.failedAccepts.increment();
+                backoff = Math.min(1000L, Math.max(10L, backoff * 2L));
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoff));
+                continue;
+            }
+            final SenderLoop loop = this.loops[Math.floorMod(this.nextLoop.getAndIncrement(), this.loops.length)];
+            loop.execute(() -> {
+                try {
+                    socket.configureBlocking(false);
+                    socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    final Subscriber subscriber = new Subscriber(loop, socket);
+                    subscriber.key = socket.register(loop.selector, SelectionKey.OP_READ, subscriber);
+                }
+                catch (IOException e) {
+                    closeQuietly(socket);
+                }
+            });
+        }
+    }
+    
+    private void evict() {
+        final long before = System.currentTimeMillis() - this.staleMillis;
+        for (final LiveTable table : this.tables.values()) {
+            table.evict(before);
+        }
+    }
+    
+    private static long deviceKey(final AbstractData data) {
+        if (data instanceof AntHeartRateData) {
+            return ((AntHeartRateData)data).getDeviceId();
+        }
+        if (data instanceof BleHeartRateData) {
+            return 0x100000000000000L | ((BleHeartRateData)data).getDeviceKey();
+        }
+        if (data instanceof BleBoxingHeartRateData) {
+            return 0x200000000000000L | ((BleBoxingHeartRateData)data).getDeviceId();
+        }
+        return 0L;
+    }
+    
+    private static ThreadFactory daemon(final String name) {
+        final AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            final Thread thread = new Thread(task, name + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            }
+            catch (IOException ex) {}
+        }
+    }
+    
+    private static int indexOf(final ByteBuffer buffer, final byte[] pattern) {
+        for (int i = 0, n = buffer.position() - pattern.length; i <= n; ++i) {
+            int j = 0;
+            while (j < pattern.length && buffer.get(i + j) == pattern[j]) {
+                ++j;
+            }
+            if (j == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    static {
+        REQUEST_END = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        STREAM_HEADERS = "HTTP/1.1 200 OK\r\nContent-Type: text/event-stream; charset=utf-8\r\nCache-Control: no-cache\r\nX-Accel-Buffering: no\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        DELTA_PREFIX = "event: delta\ndata: [".getBytes(StandardCharsets.US_ASCII);
+        DELTA_SUFFIX = "]\n\n".getBytes(StandardCharsets.US_ASCII);
+        KEEP_ALIVE = ": keep-alive\n\n".getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    private final class SenderLoop implements Runnable
+    {
+        final Selector selector;
+        final Thread thread;
+        final Queue<Runnable> tasks;
+        final ByteBuffer readBuffer;
+    
+        SenderLoop(final int index) throws IOException {
+            this.selector = Selector.open();
+            this.tasks = new ConcurrentLinkedQueue<Runnable>();
+            this.readBuffer = ByteBuffer.allocate(1024);
+            this.thread = new Thread(this, "hub900-live-sender-" + index);
+            this.thread.setDaemon(true);
+        }
+    
+        void execute(final Runnable task) {
+            this.tasks.add(task);
+            this.selector.wakeup();
+        }
+    
+        @Override
+        public void run() {
+            final long tick = Math.max(10L, Math.min(LiveFanoutServer.this.minIntervalMillis, 50L));
+            long nextTick = System.currentTimeMillis() + tick;
+            try {
+                while (LiveFanoutServer.this.running) {
+                    this.selector.select(key -> {
+                        final Subscriber subscriber = (Subscriber)key.attachment();
+                        try {
+                            subscriber.handle(key);
+                        }
+                        catch (IOException | CancelledKeyException e) {
+                            subscriber.close();
+                        }
+                    }, Math.max(1L, nextTick - System.currentTimeMillis()));
+                    Runnable task;
+                    while ((task = this.tasks.poll()) != null) {
+                        task.run();
+                    }
+                    final long now = System.currentTimeMillis();
+                    if (now >= nextTick) {
+                        for (final SelectionKey key : this.selector.keys()) {
+                            if (key.isValid()) {
+                                ((Subscriber)key.attachment()).tick(now);
+                            }
+                        }
+                        nextTick = now + tick;
+                    }
+                }
+            }
+            catch (IOException | ClosedSelectorException ex) {}
+            finally {
+                try {
+                    for (final SelectionKey key : this.selector.keys()) {
+                        ((Subscriber)key.attachment()).close();
+                    }
+                }
+                catch (ClosedSelectorException ex2) {}
+                closeQuietly(this.selector);
+            }
+        }
+    }
+    
+    private final class Subscriber
+    {
+        private final SenderLoop loop;
+        private final SocketChannel channel;
+        private final ArrayDeque<ByteBuffer> writeQueue;
+        private final ByteArrayOutputStream buffer;
+        private final long acceptedAt;
+        private SelectionKey key;
+        private ByteBuffer request;
+        private LiveTable table;
+        private long interval;
+        private long nextDue;
+        private long lastVersion;
+        private long lastWrite;
+        private long lastProgress;
+        private int pendingBytes;
+        private boolean closed;
+    
+        Subscriber(final SenderLoop loop, final SocketChannel channel) {
+            this.loop = loop;
+            this.channel = channel;
+            this.writeQueue = new ArrayDeque<ByteBuffer>();
+            this.buffer = new ByteArrayOutputStream(4096);
+            this.acceptedAt = System.currentTimeMillis();
+            this.request = ByteBuffer.allocate(LiveFanoutServer.MAX_REQUEST_BYTES);
+        }
+    
+        void handle(final SelectionKey key) throws IOException {
+            if (key.isReadable()) {
+                final ByteBuffer target = (this.request != null) ? this.request : this.loop.readBuffer;
+                if (target == this.loop.readBuffer) {
+                    target.clear();
+                }
+                if (this.channel.read(target) < 0) {
+                    this.close();
+                    return;
+                }
+                if (this.request != null) {
+                    this.parseRequest();
+                }
+            }
+            if (key.isValid() && key.isWritable()) {
+                this.flush();
+            }
+        }
+    
+        private void parseRequest() throws IOException {
+            final int end = indexOf(this.request, LiveFanoutServer.REQUEST_END);
+            if (end < 0) {
+                if (!this.request.hasRemaining()) {
+                    this.reject("431 Request Header Fields Too Large");
+                }
+                return;
+            }
+            final String head = new String(this.request.array(), 0, end, StandardCharsets.US_ASCII);
+            this.request = null;
+            final int lineEnd = head.indexOf("\r\n");
+            final String[] line = ((lineEnd < 0) ? head : head.substring(0, lineEnd)).split(" ");
+            if (line.length < 2 || !"GET".equals(line[0])) {
+                this.reject("405 Method Not Allowed");
+                return;
+            }
+            final int question = line[1].indexOf(63);
+            final String path = (question < 0) ? line[1] : line[1].substring(0, question);
+            final LiveTable table = path.startsWith(PATH) ? LiveFanoutServer.this.tables.get(path.substring(PATH.length())) : null;
+            if (table == null) {
+                this.reject("404 Not Found");
+                return;
+            }
+            long interval = LiveFanoutServer.this.defaultIntervalMillis;
+            if (question >= 0) {
+                for (final String param : line[1].substring(question + 1).split("&")) {
+                    if (param.startsWith("interval=")) {
+                        try {
+                            interval = Long.parseLong(param.substring(9));
+                        }
+                        catch (NumberFormatException ex) {}
+                    }
+                }
+            }
+            this.table = table;
+            this.interval = Math.max(LiveFanoutServer.this.minIntervalMillis, interval);
+            this.enqueue(LiveFanoutServer.STREAM_HEADERS, System.currentTimeMillis());
+            LiveFanoutServer.this.subscribers.add(this);
+        }
+    
+        private void reject(final String status) {
+            try {
+                this.channel.write(ByteBuffer.wrap(("HTTP/1.1 " + status + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII)));
+            }
+            catch (IOException ex) {}
+            this.close();
+        }
+    
+        void tick(final long now) {
+            if (this.table == null) {
+                if (now - this.acceptedAt > LiveFanoutServer.this.writeTimeoutMillis) {
+                    this.close();
+                }
+                return;
+            }
+            if (!this.writeQueue.isEmpty() && now - this.lastProgress > LiveFanoutServer.this.writeTimeoutMillis) {
+                LiveFanoutServer.this.evictedSubscribers.increment();
+                this.close();
+                return;
+            }
+            if (now < this.nextDue) {
+                return;
+            }
+            this.nextDue = now + this.interval;
+            this.buffer.reset();
+            this.buffer.write(LiveFanoutServer.DELTA_PREFIX, 0, LiveFanoutServer.DELTA_PREFIX.length);
+            final long version = this.table.collect(this.lastVersion, this.buffer);
+            if (this.buffer.size() > LiveFanoutServer.DELTA_PREFIX.length) {
+                this.buffer.write(LiveFanoutServer.DELTA_SUFFIX, 0, LiveFanoutServer.DELTA_SUFFIX.length);
+            }
+            else {
+                if (now - this.lastWrite < LiveFanoutServer.this.keepAliveMillis) {
+                    return;
+                }
+                this.buffer.reset();
+                this.buffer.write(LiveFanoutServer.KEEP_ALIVE, 0, LiveFanoutServer.KEEP_ALIVE.length);
+            }
+            if (!this.writeQueue.isEmpty() && this.pendingBytes + this.buffer.size() > LiveFanoutServer.this.maxPendingBytes) {
+                LiveFanoutServer.this.conflatedTicks.increment();
+                return;
+            }
+            this.enqueue(this.buffer.toByteArray(), now);
+            this.lastVersion = version;
+            this.lastWrite = now;
+        }
+    
+        private void enqueue(final byte[] bytes, final long now) {
+            if (this.writeQueue.isEmpty()) {
+                this.lastProgress = now;
+            }
+            this.writeQueue.add(ByteBuffer.wrap(bytes));
+            this.pendingBytes += bytes.length;
+            try {
+                this.flush();
+            }
+            catch (IOException | CancelledKeyException e) {
+                this.close();
+            }
+        }
+    
+        private void flush() throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = this.writeQueue.peek()) != null) {
+                final int written = this.channel.write(buffer);
+                if (written > 0) {
+                    this.pendingBytes -= written;
+                    this.lastProgress = System.currentTimeMillis();
+                }
+                if (buffer.hasRemaining()) {
+                    this.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                this.writeQueue.poll();
+            }
+            this.key.interestOps(SelectionKey.OP_READ);
+        }
+    
+        void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            LiveFanoutServer.this.subscribers.remove(this);
+            if (this.key != null) {
+                this.key.cancel();
+            }
+            closeQuietly(this.channel);
+            this.writeQueue.clear();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.hub900.fanout;
+
+import java.io.*;
+import java.util.*;
+
+public final class LiveTable
+{
+    private final String group;
+    private final Map<Long, Entry> entries;
+    private long version;
+    
+    public LiveTable(final String group) {
+        this.group = group;
+        this.entries = new HashMap<Long, Entry>();
+    }
+    
+    public String getGroup() {
+        return this.group;
+    }
+    
+    public synchronized long getVersion() {
+        return this.version;
+    }
+    
+    public synchronized int size() {
+        return this.entries.size();
+    }
+    
+    public synchronized void update(final long key, final byte[] json, final long now) {
+        final long next = ++this.version;
+        final Entry entry = this.entries.get(key);
+        if (entry == null) {
+            this.entries.put(key, new Entry(json, next, now));
+        }
+        else {
+            entry.json = json;
+            entry.version = next;
+            entry.updated = now;
+        }
+    }
+    
+    public synchronized long collect(final long since, final ByteArrayOutputStream out) {
+        boolean first = true;
+        for (final Entry entry : this.entries.values()) {
+            if (entry.version > since) {
+                if (!first) {
+                    out.write(44);
+                }
+                out.write(entry.json, 0, entry.json.length);
+                first = false;
+            }
+        }
+        return this.version;
+    }
+    
+    public synchronized int evict(final long updatedBefore) {
+        final int before = this.entries.size();
+        this.entries.values().removeIf(entry -> entry.updated < updatedBefore);
+        return before - this.entries.size();
+    }
+    
+    private static final class Entry
+    {
+        private byte[] json;
+        private long version;
+        private long updated;
+        
+        Entry(final byte[] json, final long version, final long updated) {
+            this.json = json;
+            this.version = version;
+            this.updated = updated;
+        }
+    }
+}
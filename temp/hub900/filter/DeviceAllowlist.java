@@ -0,0 +1,140 @@
+package com.hub900.filter;
+
+import com.hub900.roster.*;
+
+public final class DeviceAllowlist
+{
+    static final long KIND_DEVICE_ID = 72057594037927936L;
+    static final long KIND_MAC = 144115188075855872L;
+    private final long[] keys;
+    private final int mask;
+    private final long[] bits;
+    private final int bitMask;
+    private final int hashes;
+    private final int size;
+    
+    private DeviceAllowlist(final long[] keys, final long[] bits, final int hashes, final int size) {
+        this.keys = keys;
+        this.mask = (keys != null) ? (keys.length - 1) : 0;
+        this.bits = bits;
+        this.bitMask = (bits != null) ? (bits.length * 64 - 1) : 0;
+        this.hashes = hashes;
+        this.size = size;
+    }
+    
+    public static DeviceAllowlist exact(final long[] deviceIds, final long[] macs) {
+        final int total = deviceIds.length + macs.length;
+        final int length = Integer.highestOneBit(Math.max(2, total * 2 - 1)) << 1;
+        final long[] keys = new long[length];
+        int size = 0;
+        for (int pass = 0; pass < 2; ++pass) {
+            final long[] values = (pass == 0) ? deviceIds : macs;
+            for (final long value : values) {
+                final long key = (pass == 0) ? deviceKey(value) : macKey(value);
+                int i = (int)mix(key) & length - 1;
+                while (keys[i] != 0L && keys[i] != key) {
+                    i = (i + 1 & length - 1);
+                }
+                if (keys[i] == 0L) {
+                    keys[i] = key;
+                    ++size;
+                }
+            }
+        }
+        return new DeviceAllowlist(keys, null, 0, size);
+    }
+    
+    public static DeviceAllowlist of(final StudentRoster roster) {
+        return exact(roster.deviceIds(), roster.macs());
+    }
+    
+    public static DeviceAllowlist bloom(final long[] deviceIds, final long[] macs, final double falsePositiveRate) {
+        if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        final int total = Math.max(1, deviceIds.length + macs.length);
+        final double ln2 = Math.log(2.0);
+        final long wanted = (long)Math.ceil(-total * Math.log(falsePositiveRate) / (ln2 * ln2));
+        final long bitCount = Math.max(64L, Long.highestOneBit(wanted - 1L) << 1);
+        if (bitCount > 2147483648L) {
+            throw new IllegalArgumentException("Bloom filter too large for " + total + " devices");
+        }
+        final int hashes = Math.max(1, (int)Math.round(bitCount / (double)total * ln2));
+        final DeviceAllowlist allowlist = new DeviceAllowlist(null, new long[(int)(bitCount / 64L)], Math.min(hashes, 16), deviceIds.length + macs.length);
+        for (final long deviceId : deviceIds) {
+            allowlist.add(deviceKey(deviceId));
+        }
+        for (final long mac : macs) {
+            allowlist.add(macKey(mac));
+        }
+        return allowlist;
+    }
+    
+    public boolean containsDeviceId(final long deviceId) {
+        return this.contains(deviceKey(deviceId));
+    }
+    
+    public boolean containsMac(final long mac) {
+        return this.contains(macKey(mac));
+    }
+    
+    public boolean isBloom() {
+        return this.bits != null;
+    }
+    
+    public int size() {
+        return this.size;
+    }
+    
+    private boolean contains(final long key) {
+        if (this.bits == null) {
+            final long[] keys = this.keys;
+            int i = (int)mix(key) & this.mask;
+            long current;
+            while ((current = keys[i]) != 0L) {
+                if (current == key) {
+                    return true;
+                }
+                i = (i + 1 & this.mask);
+            }
+            return false;
+        }
+        final long h = mix(key);
+        final int h2 = (int)h;
+        final int h3 = (int)(h >>> 32) | 0x1;
+        for (int k = 0; k < this.hashes; ++k) {
+            final int bit = h2 + k * h3 & this.bitMask;
+            if ((this.bits[bit >>> 6] & 1L << bit) == 0x0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void add(final long key) {
+        final long h = mix(key);
+        final int h2 = (int)h;
+        final int h3 = (int)(h >>> 32) | 0x1;
+        for (int k = 0; k < this.hashes; ++k) {
+            final int bit = h2 + k * h3 & this.bitMask;
+            final long[] bits = this.bits;
+            final int n = bit >>> 6;
+            bits[n] |= 1L << bit;
+        }
+    }
+    
+    private static long deviceKey(final long deviceId) {
+        return DeviceAllowlist.KIND_DEVICE_ID | (deviceId & 0xFFFFFFFFFFFFFFL);
+    }
+    
+    private static long macKey(final long mac) {
+        return DeviceAllowlist.KIND_MAC | (mac & 0xFFFFFFFFFFFFL);
+    }
+    
+    private static long mix(final long key) {
+        long h = key * -7046029254386353131L;
+        h ^= h >>> 32;
+        h *= -7046029254386353131L;
+        return h ^ h >>> 29;
+    }
+}
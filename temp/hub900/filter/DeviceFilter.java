@@ -0,0 +1,87 @@
+package com.hub900.filter;
+
+import java.util.concurrent.atomic.*;
+
+public final class DeviceFilter
+{
+    private volatile DeviceAllowlist allowlist;
+    private final LongAdder accepted;
+    private final LongAdder dropped;
+    
+    public DeviceFilter(final DeviceAllowlist allowlist) {
+        this.allowlist = allowlist;
+        this.accepted = new LongAdder();
+        this.dropped = new LongAdder();
+    }
+    
+    public DeviceFilter setAllowlist(final DeviceAllowlist allowlist) {
+        this.allowlist = allowlist;
+        return this;
+    }
+    
+    public DeviceAllowlist getAllowlist() {
+        return this.allowlist;
+    }
+    
+    public boolean acceptBle(final byte[] record, final int offset, final int length) {
+        final DeviceAllowlist allowlist = this.allowlist;
+        if (allowlist == null || length < 12) {
+            return true;
+        }
+        final int bleLen = record[offset] & 0xFF;
+        if (bleLen <= 10 || bleLen + 1 > length) {
+            return true;
+        }
+        final long mac = readMac(record, offset + bleLen - 5);
+        final int advType = record[offset + 5] & 0xFF;
+        final boolean accept;
+        switch (advType) {
+            case 161:
+            case 162: {
+                accept = (allowlist.containsDeviceId(readId(record, offset + 6)) || allowlist.containsMac(mac));
+                break;
+            }
+            case 164:
+            case 165: {
+                accept = (length < 13 || allowlist.containsDeviceId(readId(record, offset + 9)) || allowlist.containsMac(mac));
+                break;
+            }
+            default: {
+                final int uuidLow = record[offset + 6];
+                final int uuidHigh = record[offset + 7];
+                if (uuidHigh != 24 || (uuidLow != 13 && uuidLow != 22)) {
+                    return true;
+                }
+                accept = allowlist.containsMac(mac);
+                break;
+            }
+        }
+        if (accept) {
+            this.accepted.increment();
+        }
+        else {
+            this.dropped.increment();
+        }
+        return accept;
+    }
+    
+    public long getAccepted() {
+        return this.accepted.sum();
+    }
+    
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+    
+    private static long readId(final byte[] record, final int offset) {
+        return ((record[offset] & 0xFF) << 24 | (record[offset + 1] & 0xFF) << 16 | (record[offset + 2] & 0xFF) << 8 | (record[offset + 3] & 0xFF)) & 0xFFFFFFFFL;
+    }
+    
+    private static long readMac(final byte[] record, final int offset) {
+        long mac = 0L;
+        for (int i = 0; i < 6; ++i) {
+            mac = (mac << 8 | (long)(record[offset + i] & 0xFF));
+        }
+        return mac;
+    }
+}
@@ -0,0 +1,18 @@
+package com.hub900.jfr;
+
+import jdk.jfr.*;
+
+@Name("com.hub900.HubAckSent")
+@Label("Hub ACK Sent")
+@Category({ "Hub900" })
+@Description("An ACK frame was handed to AckBackCallback")
+@Enabled(false)
+@StackTrace(false)
+public class HubAckSent extends Event
+{
+    @Label("Hub Id")
+    public int hubId;
+    @Label("Length")
+    @DataAmount
+    public int length;
+}
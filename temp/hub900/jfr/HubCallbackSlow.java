@@ -0,0 +1,23 @@
+package com.hub900.jfr;
+
+import jdk.jfr.*;
+
+@Name("com.hub900.HubCallbackSlow")
+@Label("Hub Callback Slow")
+@Category({ "Hub900" })
+@Description("A sample callback ran longer than the HubManager slow callback threshold")
+@Enabled(false)
+@StackTrace(false)
+public class HubCallbackSlow extends Event
+{
+    @Label("Hub Id")
+    public int hubId;
+    @Label("Callback Type")
+    public String callbackType;
+    @Label("Callback Duration")
+    @Timespan
+    public long callbackNanos;
+    @Label("Over Threshold")
+    @Timespan
+    public long overThresholdNanos;
+}
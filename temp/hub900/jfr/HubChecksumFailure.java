@@ -0,0 +1,20 @@
+package com.hub900.jfr;
+
+import jdk.jfr.*;
+
+@Name("com.hub900.HubChecksumFailure")
+@Label("Hub Checksum Failure")
+@Category({ "Hub900" })
+@Description("A frame was dropped because its checksum did not match")
+@Enabled(false)
+@StackTrace(false)
+public class HubChecksumFailure extends Event
+{
+    @Label("Hub Id")
+    public int hubId;
+    @Label("Command")
+    public int cmd;
+    @Label("Length")
+    @DataAmount
+    public int length;
+}
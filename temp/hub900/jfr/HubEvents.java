@@ -0,0 +1,84 @@
+package com.hub900.jfr;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.text.*;
+import jdk.jfr.*;
+
+public final class HubEvents
+{
+    public static final String SETTINGS_RESOURCE = "/com/hub900/jfr/hub900.jfc";
+    private static final HubFrameDecoded FRAME_DECODED;
+    private static final HubChecksumFailure CHECKSUM_FAILURE;
+    private static final HubCallbackSlow CALLBACK_SLOW;
+    private static final HubAckSent ACK_SENT;
+    
+    private HubEvents() {
+    }
+    
+    public static Configuration configuration() throws IOException, ParseException {
+        final InputStream in = HubEvents.class.getResourceAsStream(HubEvents.SETTINGS_RESOURCE);
+        if (in == null) {
+            throw new FileNotFoundException(HubEvents.SETTINGS_RESOURCE);
+        }
+        try (final Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+    
+    public static boolean isFrameDecodedEnabled() {
+        return HubEvents.FRAME_DECODED.isEnabled();
+    }
+    
+    public static boolean isCallbackSlowEnabled() {
+        return HubEvents.CALLBACK_SLOW.isEnabled();
+    }
+    
+    public static void frameDecoded(final int hubId, final int cmd, final int length, final long decodeNanos) {
+        final HubFrameDecoded event = new HubFrameDecoded();
+        if (event.shouldCommit()) {
+            event.hubId = hubId;
+            event.cmd = cmd;
+            event.length = length;
+            event.decodeNanos = decodeNanos;
+            event.commit();
+        }
+    }
+    
+    public static void checksumFailure(final int hubId, final int cmd, final int length) {
+        if (HubEvents.CHECKSUM_FAILURE.isEnabled()) {
+            final HubChecksumFailure event = new HubChecksumFailure();
+            event.hubId = hubId;
+            event.cmd = cmd;
+            event.length = length;
+            event.commit();
+        }
+    }
+    
+    public static void callbackSlow(final int hubId, final String callbackType, final long callbackNanos, final long thresholdNanos) {
+        final HubCallbackSlow event = new HubCallbackSlow();
+        if (event.shouldCommit()) {
+            event.hubId = hubId;
+            event.callbackType = callbackType;
+            event.callbackNanos = callbackNanos;
+            event.overThresholdNanos = callbackNanos - thresholdNanos;
+            event.commit();
+        }
+    }
+    
+    public static void ackSent(final int hubId, final int length) {
+        if (HubEvents.ACK_SENT.isEnabled()) {
+            final HubAckSent event = new HubAckSent();
+            event.hubId = hubId;
+            event.length = length;
+            event.commit();
+        }
+    }
+    
+    static {
+        FRAME_DECODED = new HubFrameDecoded();
+        CHECKSUM_FAILURE = new HubChecksumFailure();
+        CALLBACK_SLOW = new HubCallbackSlow();
+        ACK_SENT = new HubAckSent();
+    }
+}
@@ -0,0 +1,23 @@
+package com.hub900.jfr;
+
+import jdk.jfr.*;
+
+@Name("com.hub900.HubFrameDecoded")
+@Label("Hub Frame Decoded")
+@Category({ "Hub900" })
+@Description("A complete 7E..7F frame was unescaped, verified and dispatched")
+@Enabled(false)
+@StackTrace(false)
+public class HubFrameDecoded extends Event
+{
+    @Label("Hub Id")
+    public int hubId;
+    @Label("Command")
+    public int cmd;
+    @Label("Length")
+    @DataAmount
+    public int length;
+    @Label("Decode Time")
+    @Timespan
+    public long decodeNanos;
+}
@@ -0,0 +1,8 @@
+package com.hub900.journal;
+
+import java.nio.*;
+
+public interface EntryHandler
+{
+    void onEntry(final long p0, final ByteBuffer p1);
+}
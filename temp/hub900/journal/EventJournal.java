@@ -0,0 +1,289 @@
+package com.hub900.journal;
+
+import java.io.*;
+import java.lang.invoke.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+import com.hub900.codec.*;
+import com.hub900.entity.*;
+
+public final class EventJournal implements Closeable
+{
+    static final int HEADER_BYTES = 8;
+    static final int END_OF_SEGMENT = -1;
+    private static final VarHandle INT_VIEW;
+    private static final String SUFFIX = ".journal";
+    private static final String CURSOR_SUFFIX = ".cursor";
+    private final Path directory;
+    private final int segmentSize;
+    private final Map<Long, MappedByteBuffer> segments;
+    private final Map<String, JournalCursor> cursors;
+    private final CRC32C crc;
+    private MappedByteBuffer writeSegment;
+    private long writeSegmentIndex;
+    private int writeOffset;
+    private volatile long writePosition;
+    private boolean open;
+    
+    public EventJournal(final Path directory) {
+        this(directory, 67108864);
+    }
+    
+    public EventJournal(final Path directory, final int segmentSize) {
+        if (segmentSize < 4096 || (segmentSize & 0x7) != 0x0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of 8 and at least 4096: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.segments = new ConcurrentHashMap<Long, MappedByteBuffer>();
+        this.cursors = new ConcurrentHashMap<String, JournalCursor>();
+        this.crc = new CRC32C();
+    }
+    
+    public synchronized EventJournal open() throws IOException {
+        if (this.open) {
+            return this;
+        }
+        Files.createDirectories(this.directory);
+        long last = -1L;
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + EventJournal.SUFFIX)) {
+            for (final Path path : stream) {
+                final String name = path.getFileName().toString();
+                try {
+                    last = Math.max(last, Long.parseLong(name.substring(0, name.length() - EventJournal.SUFFIX.length())));
+                }
+                catch (NumberFormatException ex) {}
+            }
+        }
+        this.writeSegmentIndex = Math.max(0L, last);
+        this.writeSegment = this.segment(this.writeSegmentIndex, true);
+        int offset = 0;
+        while (offset + EventJournal.HEADER_BYTES <= this.segmentSize) {
+            final int length = (int)EventJournal.INT_VIEW.getAcquire(this.writeSegment, offset);
+            if (length == 0 || length == EventJournal.END_OF_SEGMENT || offset + EventJournal.HEADER_BYTES + length > this.segmentSize || !this.valid(this.writeSegment, offset, length)) {
+                break;
+            }
+            offset += align(EventJournal.HEADER_BYTES + length);
+        }
+        if (offset + EventJournal.HEADER_BYTES <= this.segmentSize && (int)EventJournal.INT_VIEW.getAcquire(this.writeSegment, offset) == EventJournal.END_OF_SEGMENT) {
+            ++this.writeSegmentIndex;
+            this.writeSegment = this.segment(this.writeSegmentIndex, true);
+            offset = 0;
+        }
+        for (int i = offset; i < Math.min(this.segmentSize, offset + EventJournal.HEADER_BYTES); ++i) {
+            this.writeSegment.put(i, (byte)0);
+        }
+        this.writeOffset = offset;
+        this.writePosition = this.writeSegmentIndex * this.segmentSize + offset;
+        this.open = true;
+        return this;
+    }
+    
+    public EventJournal attach(final HubManager hubManager) {
+        hubManager.addSampleListener(SampleListener.forTypes(this::appendSample, SampleType.ANT_HEART_RATE, SampleType.BLE_HEART_RATE, SampleType.BLE_BOXING_HEART_RATE, SampleType.ANT_SPEED, SampleType.ANT_CADENCE));
+        return this;
+    }
+    
+    public synchronized long appendSample(final AbstractData data) {
+        final int offset = this.reserve(SampleCodec.RECORD_SIZE);
+        final ByteBuffer slot = this.writeSegment.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        slot.position(offset + EventJournal.HEADER_BYTES);
+        if (!SampleCodec.write(slot, data, System.currentTimeMillis())) {
+            return -1L;
+        }
+        return this.commit(offset, SampleCodec.RECORD_SIZE);
+    }
+    
+    public synchronized long appendRecord(final SampleRecord record) {
+        final int offset = this.reserve(SampleCodec.RECORD_SIZE);
+        final ByteBuffer slot = this.writeSegment.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        slot.position(offset + EventJournal.HEADER_BYTES);
+        SampleCodec.write(slot, record);
+        return this.commit(offset, SampleCodec.RECORD_SIZE);
+    }
+    
+    public synchronized long append(final byte[] payload, final int offset, final int length) {
+        final int at = this.reserve(length);
+        final ByteBuffer slot = this.writeSegment.duplicate();
+        slot.position(at + EventJournal.HEADER_BYTES);
+        slot.put(payload, offset, length);
+        return this.commit(at, length);
+    }
+    
+    public long getWritePosition() {
+        return this.writePosition;
+    }
+    
+    public synchronized void force() {
+        if (this.writeSegment != null) {
+            this.writeSegment.force();
+        }
+    }
+    
+    public JournalCursor cursor(final String name) throws IOException {
+        JournalCursor cursor = this.cursors.get(name);
+        if (cursor == null) {
+            synchronized (this.cursors) {
+                cursor = this.cursors.get(name);
+                if (cursor == null) {
+                    cursor = new JournalCursor(this, name, this.directory.resolve(name + EventJournal.CURSOR_SUFFIX));
+                    this.cursors.put(name, cursor);
+                }
+            }
+        }
+        return cursor;
+    }
+    
+    public int deleteConsumedSegments() throws IOException {
+        long min = this.writePosition;
+        for (final JournalCursor cursor : this.cursors.values()) {
+            min = Math.min(min, cursor.getCommittedPosition());
+        }
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + EventJournal.CURSOR_SUFFIX)) {
+            for (final Path path : stream) {
+                final String name = path.getFileName().toString();
+                final JournalCursor cursor = this.cursors.get(name.substring(0, name.length() - EventJournal.CURSOR_SUFFIX.length()));
+                min = Math.min(min, (cursor != null) ? cursor.getCommittedPosition() : JournalCursor.readPosition(path));
+            }
+        }
+        final long keepFrom = min / this.segmentSize;
+        int deleted = 0;
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + EventJournal.SUFFIX)) {
+            for (final Path path : stream) {
+                final String name = path.getFileName().toString();
+                final long index;
+                try {
+                    index = Long.parseLong(name.substring(0, name.length() - EventJournal.SUFFIX.length()));
+                }
+                catch (NumberFormatException e) {
+                    continue;
+                }
+                if (index < keepFrom) {
+                    this.segments.remove(index);
+                    Files.deleteIfExists(path);
+                    ++deleted;
+                }
+            }
+        }
+        return deleted;
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (!this.open) {
+            return;
+        }
+        this.force();
+        for (final JournalCursor cursor : this.cursors.values()) {
+            cursor.close();
+        }
+        this.cursors.clear();
+        this.segments.clear();
+        this.writeSegment = null;
+        this.open = false;
+    }
+    
+    int read(final long position, final EntryHandler handler, final int maxEntries, final long[] next) throws IOException {
+        long at = position;
+        int delivered = 0;
+        while (delivered < maxEntries && at < this.writePosition) {
+            final long index = at / this.segmentSize;
+            final int offset = (int)(at % this.segmentSize);
+            final MappedByteBuffer segment = this.segment(index, false);
+            if (segment == null) {
+                throw new FileNotFoundException("Journal segment " + index + " was deleted before it was consumed");
+            }
+            final int length = (offset + EventJournal.HEADER_BYTES <= this.segmentSize) ? ((int)EventJournal.INT_VIEW.getAcquire(segment, offset)) : EventJournal.END_OF_SEGMENT;
+            if (length == 0) {
+                break;
+            }
+            if (length == EventJournal.END_OF_SEGMENT) {
+                at = (index + 1L) * this.segmentSize;
+                continue;
+            }
+            final ByteBuffer entry = segment.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            entry.position(offset + EventJournal.HEADER_BYTES).limit(offset + EventJournal.HEADER_BYTES + length);
+            handler.onEntry(at, entry.slice().order(ByteOrder.LITTLE_ENDIAN).asReadOnlyBuffer());
+            at += align(EventJournal.HEADER_BYTES + length);
+            ++delivered;
+        }
+        next[0] = at;
+        return delivered;
+    }
+    
+    private int reserve(final int length) {
+        if (!this.open) {
+            throw new IllegalStateException("Journal is not open");
+        }
+        final int needed = align(EventJournal.HEADER_BYTES + length);
+        if (needed > this.segmentSize) {
+            throw new IllegalArgumentException("Entry of " + length + " bytes exceeds segment size");
+        }
+        if (this.writeOffset + needed > this.segmentSize) {
+            if (this.writeOffset + EventJournal.HEADER_BYTES <= this.segmentSize) {
+                EventJournal.INT_VIEW.setRelease(this.writeSegment, this.writeOffset, EventJournal.END_OF_SEGMENT);
+            }
+            try {
+                ++this.writeSegmentIndex;
+                this.writeSegment = this.segment(this.writeSegmentIndex, true);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.writeOffset = 0;
+            this.writePosition = this.writeSegmentIndex * this.segmentSize;
+        }
+        return this.writeOffset;
+    }
+    
+    private long commit(final int offset, final int length) {
+        this.crc.reset();
+        final ByteBuffer payload = this.writeSegment.duplicate();
+        payload.position(offset + EventJournal.HEADER_BYTES).limit(offset + EventJournal.HEADER_BYTES + length);
+        this.crc.update(payload);
+        this.writeSegment.putInt(offset + 4, (int)this.crc.getValue());
+        EventJournal.INT_VIEW.setRelease(this.writeSegment, offset, length);
+        final long position = this.writeSegmentIndex * this.segmentSize + offset;
+        this.writeOffset = offset + align(EventJournal.HEADER_BYTES + length);
+        this.writePosition = this.writeSegmentIndex * this.segmentSize + this.writeOffset;
+        return position;
+    }
+    
+    private boolean valid(final MappedByteBuffer segment, final int offset, final int length) {
+        this.crc.reset();
+        final ByteBuffer payload = segment.duplicate();
+        payload.position(offset + EventJournal.HEADER_BYTES).limit(offset + EventJournal.HEADER_BYTES + length);
+        this.crc.update(payload);
+        return segment.getInt(offset + 4) == (int)this.crc.getValue();
+    }
+    
+    private MappedByteBuffer segment(final long index, final boolean create) throws IOException {
+        MappedByteBuffer segment = this.segments.get(index);
+        if (segment != null) {
+            return segment;
+        }
+        final Path path = this.directory.resolve(String.format("%020d%s", index, EventJournal.SUFFIX));
+        if (!create && !Files.exists(path)) {
+            return null;
+        }
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0L, this.segmentSize);
+        }
+        final MappedByteBuffer existing = this.segments.putIfAbsent(index, segment);
+        return (existing != null) ? existing : segment;
+    }
+    
+    private static int align(final int length) {
+        return length + 7 & 0xFFFFFFF8;
+    }
+    
+    static {
+        INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    }
+}
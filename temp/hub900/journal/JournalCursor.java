@@ -0,0 +1,98 @@
+package com.hub900.journal;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+public final class JournalCursor implements Closeable
+{
+    private final EventJournal journal;
+    private final String name;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long[] next;
+    private long position;
+    private volatile long committedPosition;
+    
+    JournalCursor(final EventJournal journal, final String name, final Path path) throws IOException {
+        this.journal = journal;
+        this.name = name;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocate(8);
+        this.next = new long[1];
+        if (this.channel.size() >= 8L) {
+            this.channel.read(this.buffer, 0L);
+            this.position = this.buffer.getLong(0);
+        }
+        this.committedPosition = this.position;
+    }
+    
+    public String getName() {
+        return this.name;
+    }
+    
+    public synchronized long getPosition() {
+        return this.position;
+    }
+    
+    public long getCommittedPosition() {
+        return this.committedPosition;
+    }
+    
+    public long getLag() {
+        return this.journal.getWritePosition() - this.committedPosition;
+    }
+    
+    public synchronized int poll(final EntryHandler handler, final int maxEntries) throws IOException {
+        final int delivered = this.journal.read(this.position, handler, maxEntries, this.next);
+        this.position = this.next[0];
+        return delivered;
+    }
+    
+    public synchronized void commit() throws IOException {
+        this.commit(false);
+    }
+    
+    public synchronized void commit(final boolean sync) throws IOException {
+        if (this.position == this.committedPosition && !sync) {
+            return;
+        }
+        this.buffer.clear();
+        this.buffer.putLong(0, this.position);
+        this.channel.write(this.buffer, 0L);
+        if (sync) {
+            this.channel.force(false);
+        }
+        this.committedPosition = this.position;
+    }
+    
+    public synchronized void seek(final long position) {
+        this.position = position;
+    }
+    
+    public synchronized void rewind() {
+        this.position = this.committedPosition;
+    }
+    
+    static long readPosition(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(8);
+            if (channel.read(buffer, 0L) < 8) {
+                return 0L;
+            }
+            return buffer.getLong(0);
+        }
+        catch (NoSuchFileException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        try {
+            this.channel.close();
+        }
+        catch (IOException ex) {}
+    }
+}
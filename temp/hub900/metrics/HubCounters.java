@@ -0,0 +1,106 @@
+package com.hub900.metrics;
+
+import java.util.concurrent.atomic.*;
+import com.hub900.entity.*;
+
+public final class HubCounters
+{
+    private final int hubId;
+    final LongAdder framesReceived;
+    final LongAdder checksumFailures;
+    final LongAdder escapeFailures;
+    final LongAdder unknownAdvTypes;
+    final LongAdder acksSent;
+    final LongAdder advCacheHits;
+    final LongAdder advCacheMisses;
+    final LongAdder[] samples;
+    
+    HubCounters(final int hubId) {
+        this.hubId = hubId;
+        this.framesReceived = new LongAdder();
+        this.checksumFailures = new LongAdder();
+        this.escapeFailures = new LongAdder();
+        this.unknownAdvTypes = new LongAdder();
+        this.acksSent = new LongAdder();
+        this.advCacheHits = new LongAdder();
+        this.advCacheMisses = new LongAdder();
+        this.samples = new LongAdder[SampleType.values().length];
+        for (int i = 0; i < this.samples.length; ++i) {
+            this.samples[i] = new LongAdder();
+        }
+    }
+    
+    public int getHubId() {
+        return this.hubId;
+    }
+    
+    public void onFrame() {
+        this.framesReceived.increment();
+    }
+    
+    public void onChecksumFailure() {
+        this.checksumFailures.increment();
+    }
+    
+    public void onEscapeFailure() {
+        this.escapeFailures.increment();
+    }
+    
+    public void onUnknownAdvType() {
+        this.unknownAdvTypes.increment();
+    }
+    
+    public void onAckSent() {
+        this.acksSent.increment();
+    }
+    
+    public void onAdvCacheHit() {
+        this.advCacheHits.increment();
+    }
+    
+    public void onAdvCacheMiss() {
+        this.advCacheMisses.increment();
+    }
+    
+    public void onSample(final SampleType type) {
+        this.samples[type.ordinal()].increment();
+    }
+    
+    public long getFramesReceived() {
+        return this.framesReceived.sum();
+    }
+    
+    public long getChecksumFailures() {
+        return this.checksumFailures.sum();
+    }
+    
+    public long getEscapeFailures() {
+        return this.escapeFailures.sum();
+    }
+    
+    public long getUnknownAdvTypes() {
+        return this.unknownAdvTypes.sum();
+    }
+    
+    public long getAcksSent() {
+        return this.acksSent.sum();
+    }
+    
+    public long getAdvCacheHits() {
+        return this.advCacheHits.sum();
+    }
+    
+    public long getAdvCacheMisses() {
+        return this.advCacheMisses.sum();
+    }
+    
+    public double getAdvCacheHitRatio() {
+        final long hits = this.advCacheHits.sum();
+        final long total = hits + this.advCacheMisses.sum();
+        return (total == 0L) ? 0.0 : (hits / (double)total);
+    }
+    
+    public long getSamples(final SampleType type) {
+        return this.samples[type.ordinal()].sum();
+    }
+}
@@ -0,0 +1,172 @@
+package com.hub900.metrics;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import com.hub900.entity.*;
+
+public final class HubMetrics
+{
+    public static final int UNKNOWN_HUB = -1;
+    private final LongAdder bytesReceived;
+    private final LongAdder exceptions;
+    private final LatencyHistogram decodeLatency;
+    private final LatencyHistogram[] callbackLatency;
+    private final ConcurrentHashMap<Integer, HubCounters> hubs;
+    private final HubCounters unknownHub;
+    
+    public HubMetrics() {
+        this.bytesReceived = new LongAdder();
+        this.exceptions = new LongAdder();
+        this.decodeLatency = new LatencyHistogram();
+        this.callbackLatency = new LatencyHistogram[SampleType.values().length];
+        for (int i = 0; i < this.callbackLatency.length; ++i) {
+            this.callbackLatency[i] = new LatencyHistogram();
+        }
+        this.hubs = new ConcurrentHashMap<Integer, HubCounters>();
+        this.unknownHub = new HubCounters(UNKNOWN_HUB);
+    }
+    
+    public HubCounters hub(final int hubId) {
+        final HubCounters counters = this.hubs.get(hubId);
+        if (counters != null) {
+            return counters;
+        }
+        return this.hubs.computeIfAbsent(hubId, HubCounters::new);
+    }
+    
+    public HubCounters unknownHub() {
+        return this.unknownHub;
+    }
+    
+    public void onBytesReceived(final int length) {
+        this.bytesReceived.add(length);
+    }
+    
+    public void onException() {
+        this.exceptions.increment();
+    }
+    
+    public void onDecoded(final long nanos) {
+        this.decodeLatency.record(nanos);
+    }
+    
+    public void onCallback(final SampleType type, final long nanos) {
+        this.callbackLatency[type.ordinal()].record(nanos);
+    }
+    
+    public long getBytesReceived() {
+        return this.bytesReceived.sum();
+    }
+    
+    public long getExceptions() {
+        return this.exceptions.sum();
+    }
+    
+    public LatencyHistogram getDecodeLatency() {
+        return this.decodeLatency;
+    }
+    
+    public LatencyHistogram getCallbackLatency(final SampleType type) {
+        return this.callbackLatency[type.ordinal()];
+    }
+    
+    public Collection<HubCounters> getHubs() {
+        return Collections.unmodifiableCollection(this.hubs.values());
+    }
+    
+    public String toPrometheus() {
+        final StringBuilder out = new StringBuilder(4096);
+        this.writePrometheus(out);
+        return out.toString();
+    }
+    
+    public void writePrometheus(final StringBuilder out) {
+        final List<HubCounters> all = new ArrayList<HubCounters>(this.hubs.values());
+        all.sort(Comparator.comparingInt(HubCounters::getHubId));
+        all.add(this.unknownHub);
+        header(out, "hub900_bytes_received_total", "counter", "Bytes handed to HubManager.onDataReceived.");
+        out.append("hub900_bytes_received_total ").append(this.bytesReceived.sum()).append('\n');
+        header(out, "hub900_exceptions_total", "counter", "Exceptions caught while decoding.");
+        out.append("hub900_exceptions_total ").append(this.exceptions.sum()).append('\n');
+        header(out, "hub900_frames_received_total", "counter", "Complete 7E..7F frames received.");
+        for (final HubCounters hub : all) {
+            hubSample(out, "hub900_frames_received_total", hub, hub.framesReceived.sum());
+        }
+        header(out, "hub900_checksum_failures_total", "counter", "Frames dropped on checksum mismatch.");
+        for (final HubCounters hub : all) {
+            hubSample(out, "hub900_checksum_failures_total", hub, hub.checksumFailures.sum());
+        }
+        header(out, "hub900_escape_failures_total", "counter", "Frames dropped on an invalid 7D escape.");
+        for (final HubCounters hub : all) {
+            hubSample(out, "hub900_escape_failures_total", hub, hub.escapeFailures.sum());
+        }
+        header(out, "hub900_unknown_adv_types_total", "counter", "BLE records with an unrecognised advertisement type.");
+        for (final HubCounters hub : all) {
+            hubSample(out, "hub900_unknown_adv_types_total", hub, hub.unknownAdvTypes.sum());
+        }
+        header(out, "hub900_acks_sent_total", "counter", "ACK frames handed to AckBackCallback.");
+        for (final HubCounters hub : all) {
+            hubSample(out, "hub900_acks_sent_total", hub, hub.acksSent.sum());
+        }
+        header(out, "hub900_adv_cache_hits_total", "counter", "BLE adverts served from the identical-advertisement cache.");
+        for (final HubCounters hub : all) {
+            hubSample(out, "hub900_adv_cache_hits_total", hub, hub.advCacheHits.sum());
+        }
+        header(out, "hub900_adv_cache_misses_total", "counter", "BLE adverts decoded after an identical-advertisement cache miss.");
+        for (final HubCounters hub : all) {
+            hubSample(out, "hub900_adv_cache_misses_total", hub, hub.advCacheMisses.sum());
+        }
+        header(out, "hub900_samples_total", "counter", "Decoded samples delivered to callbacks.");
+        for (final HubCounters hub : all) {
+            for (final SampleType type : SampleType.values()) {
+                final long count = hub.samples[type.ordinal()].sum();
+                if (count != 0L) {
+                    out.append("hub900_samples_total{hub=\"").append(hub.getHubId()).append("\",type=\"").append(type.getLabel()).append("\"} ").append(count).append('\n');
+                }
+            }
+        }
+        header(out, "hub900_decode_latency_seconds", "histogram", "Time spent in HubManager.onDataReceived.");
+        histogram(out, "hub900_decode_latency_seconds", "", this.decodeLatency);
+        header(out, "hub900_callback_latency_seconds", "histogram", "Time spent in sample callbacks.");
+        for (final SampleType type : SampleType.values()) {
+            final LatencyHistogram histogram = this.callbackLatency[type.ordinal()];
+            if (histogram.getCount() != 0L) {
+                histogram(out, "hub900_callback_latency_seconds", "type=\"" + type.getLabel() + "\",", histogram);
+            }
+        }
+    }
+    
+    private static void header(final StringBuilder out, final String name, final String type, final String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static void hubSample(final StringBuilder out, final String name, final HubCounters hub, final long value) {
+        if (hub.getHubId() == UNKNOWN_HUB) {
+            out.append(name).append("{hub=\"unknown\"} ").append(value).append('\n');
+        }
+        else {
+            out.append(name).append("{hub=\"").append(hub.getHubId()).append("\"} ").append(value).append('\n');
+        }
+    }
+    
+    private static void histogram(final StringBuilder out, final String name, final String labels, final LatencyHistogram histogram) {
+        final long[] counts = histogram.snapshot();
+        long cumulative = 0L;
+        for (int i = 0; i < counts.length; ++i) {
+            cumulative += counts[i];
+            out.append(name).append("_bucket{").append(labels).append("le=\"");
+            if (i < counts.length - 1) {
+                out.append(LatencyHistogram.upperBoundNanos(i) / 1.0E9);
+            }
+            else {
+                out.append("+Inf");
+            }
+            out.append("\"} ").append(cumulative).append('\n');
+        }
+        final String bare = labels.isEmpty() ? "" : ("{" + labels.substring(0, labels.length() - 1) + "}");
+        out.append(name).append("_sum").append(bare).append(' ').append(histogram.getSumNanos() / 1.0E9).append('\n');
+        out.append(name).append("_count").append(bare).append(' ').append(cumulative).append('\n');
+    }
+}
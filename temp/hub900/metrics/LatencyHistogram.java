@@ -0,0 +1,55 @@
+package com.hub900.metrics;
+
+import java.util.concurrent.atomic.*;
+
+public final class LatencyHistogram
+{
+    static final int MIN_SHIFT = 10;
+    static final int BUCKETS = 22;
+    private final LongAdder[] buckets;
+    private final LongAdder sum;
+    
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            this.buckets[i] = new LongAdder();
+        }
+        this.sum = new LongAdder();
+    }
+    
+    public void record(final long nanos) {
+        this.buckets[bucketIndex(nanos)].increment();
+        this.sum.add(nanos);
+    }
+    
+    static int bucketIndex(final long nanos) {
+        if (nanos <= 1L << MIN_SHIFT) {
+            return 0;
+        }
+        return Math.min(64 - Long.numberOfLeadingZeros(nanos - 1L) - MIN_SHIFT, BUCKETS - 1);
+    }
+    
+    static long upperBoundNanos(final int index) {
+        return (index < BUCKETS - 1) ? (1L << MIN_SHIFT + index) : Long.MAX_VALUE;
+    }
+    
+    public long[] snapshot() {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts[i] = this.buckets[i].sum();
+        }
+        return counts;
+    }
+    
+    public long getSumNanos() {
+        return this.sum.sum();
+    }
+    
+    public long getCount() {
+        long count = 0L;
+        for (final LongAdder bucket : this.buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+}
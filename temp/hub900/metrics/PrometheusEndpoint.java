@@ -0,0 +1,48 @@
+package com.hub900.metrics;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import com.sun.net.httpserver.*;
+
+public final class PrometheusEndpoint implements Closeable
+{
+    public static final String PATH = "/metrics";
+    private final HttpServer server;
+    
+    private PrometheusEndpoint(final HttpServer server) {
+        this.server = server;
+    }
+    
+    public static PrometheusEndpoint start(final HubMetrics metrics, final InetSocketAddress address) throws IOException {
+        final HttpServer server = HttpServer.create(address, 0);
+        server.createContext(PATH, exchange -> {
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1L);
+                    return;
+                }
+                final byte[] body = metrics.toPrometheus().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (final OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        return new PrometheusEndpoint(server);
+    }
+    
+    public InetSocketAddress getAddress() {
+        return this.server.getAddress();
+    }
+    
+    @Override
+    public void close() {
+        this.server.stop(0);
+    }
+}
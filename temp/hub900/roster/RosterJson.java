@@ -0,0 +1,195 @@
+package com.hub900.roster;
+
+import java.util.*;
+
+final class RosterJson
+{
+    private final String text;
+    private int pos;
+    
+    private RosterJson(final String text) {
+        this.text = text;
+    }
+    
+    static Object parse(final String text) {
+        final RosterJson parser = new RosterJson(text);
+        final Object value = parser.value();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw parser.error("Trailing content");
+        }
+        return value;
+    }
+    
+    private Object value() {
+        this.skipWhitespace();
+        if (this.pos >= this.text.length()) {
+            throw this.error("Unexpected end of input");
+        }
+        final char c = this.text.charAt(this.pos);
+        switch (c) {
+            case '{': {
+                return this.object();
+            }
+            case '[': {
+                return this.array();
+            }
+            case '\"': {
+                return this.string();
+            }
+            case 't': {
+                return this.literal("true", Boolean.TRUE);
+            }
+            case 'f': {
+                return this.literal("false", Boolean.FALSE);
+            }
+            case 'n': {
+                return this.literal("null", null);
+            }
+            default: {
+                return this.number();
+            }
+        }
+    }
+    
+    private Map<String, Object> object() {
+        final Map<String, Object> object = new LinkedHashMap<String, Object>();
+        ++this.pos;
+        this.skipWhitespace();
+        if (this.peek() == '}') {
+            ++this.pos;
+            return object;
+        }
+        while (true) {
+            this.skipWhitespace();
+            if (this.peek() != '\"') {
+                throw this.error("Expected object key");
+            }
+            final String key = this.string();
+            this.skipWhitespace();
+            this.expect(':');
+            object.put(key, this.value());
+            this.skipWhitespace();
+            if (this.peek() == ',') {
+                ++this.pos;
+                continue;
+            }
+            this.expect('}');
+            return object;
+        }
+    }
+    
+    private List<Object> array() {
+        final List<Object> array = new ArrayList<Object>();
+        ++this.pos;
+        this.skipWhitespace();
+        if (this.peek() == ']') {
+            ++this.pos;
+            return array;
+        }
+        while (true) {
+            array.add(this.value());
+            this.skipWhitespace();
+            if (this.peek() == ',') {
+                ++this.pos;
+                continue;
+            }
+            this.expect(']');
+            return array;
+        }
+    }
+    
+    private String string() {
+        final StringBuilder builder = new StringBuilder();
+        ++this.pos;
+        while (this.pos < this.text.length()) {
+            final char c = this.text.charAt(this.pos++);
+            if (c == '\"') {
+                return builder.toString();
+            }
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (this.pos >= this.text.length()) {
+                break;
+            }
+            final char e = this.text.charAt(this.pos++);
+            switch (e) {
+                case 'b': {
+                    builder.append('\b');
+                    continue;
+                }
+                case 'f': {
+                    builder.append('\f');
+                    continue;
+                }
+                case 'n': {
+                    builder.append('\n');
+                    continue;
+                }
+                case 'r': {
+                    builder.append('\r');
+                    continue;
+                }
+                case 't': {
+                    builder.append('\t');
+                    continue;
+                }
+                case 'u': {
+                    if (this.pos + 4 > this.text.length()) {
+                        throw this.error("Truncated escape");
+                    }
+                    builder.append((char)Integer.parseInt(this.text.substring(this.pos, this.pos + 4), 16));
+                    this.pos += 4;
+                    continue;
+                }
+                default: {
+                    builder.append(e);
+                    continue;
+                }
+            }
+        }
+        throw this.error("Unterminated string");
+    }
+    
+    private Object number() {
+        final int start = this.pos;
+        while (this.pos < this.text.length() && "+-0123456789.eE".indexOf(this.text.charAt(this.pos)) >= 0) {
+            ++this.pos;
+        }
+        if (start == this.pos) {
+            throw this.error("Unexpected character '" + this.text.charAt(this.pos) + "'");
+        }
+        return Double.valueOf(this.text.substring(start, this.pos));
+    }
+    
+    private Object literal(final String word, final Object value) {
+        if (!this.text.startsWith(word, this.pos)) {
+            throw this.error("Unexpected token");
+        }
+        this.pos += word.length();
+        return value;
+    }
+    
+    private char peek() {
+        return (this.pos < this.text.length()) ? this.text.charAt(this.pos) : '\0';
+    }
+    
+    private void expect(final char c) {
+        if (this.peek() != c) {
+            throw this.error("Expected '" + c + "'");
+        }
+        ++this.pos;
+    }
+    
+    private void skipWhitespace() {
+        while (this.pos < this.text.length() && Character.isWhitespace(this.text.charAt(this.pos))) {
+            ++this.pos;
+        }
+    }
+    
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at offset " + this.pos);
+    }
+}
@@ -0,0 +1,148 @@
+package com.hub900.roster;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.concurrent.*;
+import com.hub900.entity.*;
+import com.hub900.upload.*;
+
+public final class StudentResolver implements StudentLookup, Closeable
+{
+    private final Path snapshot;
+    private volatile StudentRoster roster;
+    private volatile String defaultRecognitionKey;
+    private volatile Exception lastError;
+    private FileTime loadedModified;
+    private long loadedSize;
+    private ScheduledExecutorService watcher;
+    
+    public StudentResolver(final Path snapshot) {
+        this.snapshot = snapshot;
+        this.roster = StudentRoster.empty();
+        this.loadedSize = -1L;
+    }
+    
+    public StudentResolver setDefaultRecognitionKey(final String defaultRecognitionKey) {
+        this.defaultRecognitionKey = defaultRecognitionKey;
+        return this;
+    }
+    
+    public synchronized StudentResolver load() throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(this.snapshot, BasicFileAttributes.class);
+        this.roster = StudentRoster.load(this.snapshot, this.roster, this.defaultRecognitionKey);
+        this.loadedModified = attributes.lastModifiedTime();
+        this.loadedSize = attributes.size();
+        this.lastError = null;
+        return this;
+    }
+    
+    public synchronized boolean reloadIfChanged() throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(this.snapshot, BasicFileAttributes.class);
+        }
+        catch (NoSuchFileException e) {
+            return false;
+        }
+        if (attributes.lastModifiedTime().equals(this.loadedModified) && attributes.size() == this.loadedSize) {
+            return false;
+        }
+        this.load();
+        return true;
+    }
+    
+    public synchronized StudentResolver startWatching(final long intervalMillis) {
+        if (this.watcher == null) {
+            this.watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "hub900-roster-watch");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.watcher.scheduleWithFixedDelay(() -> {
+                try {
+                    this.reloadIfChanged();
+                }
+                catch (Exception e) {
+                    this.lastError = e;
+                }
+            }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+    
+    public StudentRoster getRoster() {
+        return this.roster;
+    }
+    
+    public Exception getLastError() {
+        return this.lastError;
+    }
+    
+    public int resolve(final long deviceId) {
+        return this.roster.find(unsigned(deviceId));
+    }
+    
+    public int resolveMac(final long mac) {
+        return this.roster.findMac(mac);
+    }
+    
+    public int resolveMac(final CharSequence mac) {
+        final long value = StudentRoster.parseMac(mac);
+        return (value < 0L) ? StudentRoster.UNKNOWN : this.roster.findMac(value);
+    }
+    
+    public int resolve(final AbstractData data) {
+        final StudentRoster roster = this.roster;
+        final long deviceId;
+        if (data instanceof AntHeartRateData) {
+            deviceId = ((AntHeartRateData)data).getDeviceId();
+        }
+        else if (data instanceof AntSpeedData) {
+            deviceId = ((AntSpeedData)data).getDeviceId();
+        }
+        else if (data instanceof AntCadenceDta) {
+            deviceId = ((AntCadenceDta)data).getDeviceId();
+        }
+        else if (data instanceof BleHeartRateData) {
+            deviceId = (((BleHeartRateData)data).getDeviceId() & 0xFFFFFFFFL);
+        }
+        else if (data instanceof BleBoxingHeartRateData) {
+            deviceId = (((BleBoxingHeartRateData)data).getDeviceId() & 0xFFFFFFFFL);
+        }
+        else if (data instanceof BleBoxingData) {
+            deviceId = (((BleBoxingData)data).getDeviceId() & 0xFFFFFFFFL);
+        }
+        else {
+            deviceId = 0L;
+        }
+        final int slot = (deviceId != 0L) ? roster.find(deviceId) : StudentRoster.UNKNOWN;
+        if (slot != StudentRoster.UNKNOWN || !(data instanceof BleBroadcastData)) {
+            return slot;
+        }
+        final String mac = ((BleBroadcastData)data).getBleMac();
+        if (mac == null) {
+            return StudentRoster.UNKNOWN;
+        }
+        final long value = StudentRoster.parseMac(mac);
+        return (value < 0L) ? StudentRoster.UNKNOWN : roster.findMac(value);
+    }
+    
+    @Override
+    public IngestItem lookup(final SampleType type, final long deviceId) {
+        final StudentRoster roster = this.roster;
+        return roster.template(roster.find(unsigned(deviceId)));
+    }
+    
+    private static long unsigned(final long deviceId) {
+        return (deviceId < 0L && deviceId >= Integer.MIN_VALUE) ? (deviceId & 0xFFFFFFFFL) : deviceId;
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (this.watcher != null) {
+            this.watcher.shutdownNow();
+            this.watcher = null;
+        }
+    }
+}
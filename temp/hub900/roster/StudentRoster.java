@@ -0,0 +1,354 @@
+package com.hub900.roster;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import com.hub900.upload.*;
+
+public final class StudentRoster
+{
+    public static final int UNKNOWN = -1;
+    static final long KIND_DEVICE_ID = 72057594037927936L;
+    static final long KIND_MAC = 144115188075855872L;
+    private static final StudentRoster EMPTY;
+    private final long version;
+    private final int[] studentNos;
+    private final int[] grades;
+    private final int[] classNos;
+    private final String[] recognitionKeys;
+    private final IngestItem[] templates;
+    private final Map<String, Integer> slotsByStudent;
+    private final long[] indexKeys;
+    private final int[] indexSlots;
+    private final int indexMask;
+    private final int devices;
+    private final List<String> rejectedRows;
+    
+    private StudentRoster(final long version, final List<Row> rows, final StudentRoster previous, final List<String> rejectedRows) {
+        this.version = version;
+        this.rejectedRows = Collections.unmodifiableList(rejectedRows);
+        this.slotsByStudent = (previous != null) ? new HashMap<String, Integer>(previous.slotsByStudent) : new HashMap<String, Integer>();
+        int slotCount = (previous != null) ? previous.studentNos.length : 0;
+        final Map<String, Integer> assigned = new HashMap<String, Integer>();
+        for (final Row row : rows) {
+            final String identity = row.identity();
+            if (!assigned.containsKey(identity)) {
+                Integer slot = this.slotsByStudent.get(identity);
+                if (slot == null) {
+                    slot = slotCount++;
+                    this.slotsByStudent.put(identity, slot);
+                }
+                assigned.put(identity, slot);
+            }
+        }
+        this.studentNos = new int[slotCount];
+        this.grades = new int[slotCount];
+        this.classNos = new int[slotCount];
+        this.recognitionKeys = new String[slotCount];
+        this.templates = new IngestItem[slotCount];
+        Arrays.fill(this.studentNos, StudentRoster.UNKNOWN);
+        final int length = Integer.highestOneBit(Math.max(2, rows.size() * 2 - 1)) << 1;
+        this.indexKeys = new long[length];
+        this.indexSlots = new int[length];
+        this.indexMask = length - 1;
+        int devices = 0;
+        for (final Row row2 : rows) {
+            final int slot2 = assigned.get(row2.identity());
+            this.studentNos[slot2] = row2.studentNo;
+            this.grades[slot2] = row2.grade;
+            this.classNos[slot2] = row2.classNo;
+            this.recognitionKeys[slot2] = row2.recognitionKey;
+            this.templates[slot2] = new IngestItem().setRecognitionKey(row2.recognitionKey).setGrade(row2.grade).setClassNo(row2.classNo).setStudentNo(row2.studentNo);
+            int i = (int)mix(row2.key) & this.indexMask;
+            while (this.indexKeys[i] != 0L && this.indexKeys[i] != row2.key) {
+                i = (i + 1 & this.indexMask);
+            }
+            if (this.indexKeys[i] == 0L) {
+                ++devices;
+            }
+            this.indexKeys[i] = row2.key;
+            this.indexSlots[i] = slot2;
+        }
+        this.devices = devices;
+    }
+    
+    public static StudentRoster empty() {
+        return StudentRoster.EMPTY;
+    }
+    
+    public static StudentRoster load(final Path path, final StudentRoster previous, final String defaultRecognitionKey) throws IOException {
+        final String text = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        final List<Row> rows = new ArrayList<Row>();
+        final List<String> rejected = new ArrayList<String>();
+        if (isJson(text)) {
+            parseJson(text, defaultRecognitionKey, rows, rejected);
+        }
+        else {
+            parseCsv(text, defaultRecognitionKey, rows, rejected);
+        }
+        return new StudentRoster(previous.version + 1L, rows, previous, rejected);
+    }
+    
+    public int find(final long deviceId) {
+        return this.probe(StudentRoster.KIND_DEVICE_ID | (deviceId & 0xFFFFFFFFFFFFFFL));
+    }
+    
+    public int findMac(final long mac) {
+        return this.probe(StudentRoster.KIND_MAC | (mac & 0xFFFFFFFFFFFFL));
+    }
+    
+    private int probe(final long key) {
+        final long[] keys = this.indexKeys;
+        final int mask = this.indexMask;
+        int i = (int)mix(key) & mask;
+        long current;
+        while ((current = keys[i]) != 0L) {
+            if (current == key) {
+                return this.indexSlots[i];
+            }
+            i = (i + 1 & mask);
+        }
+        return StudentRoster.UNKNOWN;
+    }
+    
+    public long getVersion() {
+        return this.version;
+    }
+    
+    public int slotCount() {
+        return this.studentNos.length;
+    }
+    
+    public int deviceCount() {
+        return this.devices;
+    }
+    
+    public int getSkipped() {
+        return this.rejectedRows.size();
+    }
+    
+    public List<String> getRejectedRows() {
+        return this.rejectedRows;
+    }
+    
+    public boolean isActive(final int slot) {
+        return slot >= 0 && slot < this.studentNos.length && this.studentNos[slot] != StudentRoster.UNKNOWN;
+    }
+    
+    public int studentNo(final int slot) {
+        return this.studentNos[slot];
+    }
+    
+    public int grade(final int slot) {
+        return this.grades[slot];
+    }
+    
+    public int classNo(final int slot) {
+        return this.classNos[slot];
+    }
+    
+    public String recognitionKey(final int slot) {
+        return this.recognitionKeys[slot];
+    }
+    
+    public IngestItem template(final int slot) {
+        return (slot >= 0 && slot < this.templates.length) ? this.templates[slot] : null;
+    }
+    
+    public long[] deviceIds() {
+        return this.keys(StudentRoster.KIND_DEVICE_ID, 0xFFFFFFFFFFFFFFL);
+    }
+    
+    public long[] macs() {
+        return this.keys(StudentRoster.KIND_MAC, 0xFFFFFFFFFFFFL);
+    }
+    
+    private long[] keys(final long kind, final long mask) {
+        int count = 0;
+        for (final long key : this.indexKeys) {
+            if (key != 0L && (key & 0xFF00000000000000L) == kind) {
+                ++count;
+            }
+        }
+        final long[] values = new long[count];
+        int n = 0;
+        for (final long key2 : this.indexKeys) {
+            if (key2 != 0L && (key2 & 0xFF00000000000000L) == kind) {
+                values[n++] = (key2 & mask);
+            }
+        }
+        return values;
+    }
+    
+    public static long parseMac(final CharSequence text) {
+        long mac = 0L;
+        int digits = 0;
+        for (int i = 0; i < text.length(); ++i) {
+            final char c = text.charAt(i);
+            final int v = Character.digit(c, 16);
+            if (v >= 0) {
+                mac = (mac << 4 | (long)v);
+                ++digits;
+            }
+            else if (c != ':' && c != '-') {
+                return -1L;
+            }
+        }
+        return (digits == 12) ? mac : -1L;
+    }
+    
+    static long deviceKey(final String deviceId) {
+        final String text = deviceId.trim();
+        if (text.isEmpty()) {
+            return 0L;
+        }
+        boolean separated = false;
+        boolean letters = false;
+        boolean decimal = true;
+        boolean hex = true;
+        for (int i = 0; i < text.length(); ++i) {
+            final char c = text.charAt(i);
+            separated |= (c == ':' || c == '-');
+            letters |= (Character.digit(c, 16) > 9);
+            decimal &= (c >= '0' && c <= '9');
+            hex &= (Character.digit(c, 16) >= 0);
+        }
+        if (separated || (letters && text.length() == 12)) {
+            final long mac = parseMac(text);
+            return (mac < 0L) ? 0L : (StudentRoster.KIND_MAC | mac);
+        }
+        try {
+            if (text.startsWith("0x") || text.startsWith("0X")) {
+                return StudentRoster.KIND_DEVICE_ID | (Long.parseLong(text.substring(2), 16) & 0xFFFFFFFFFFFFFFL);
+            }
+            if (hex && text.length() == 8) {
+                return StudentRoster.KIND_DEVICE_ID | Long.parseLong(text, 16);
+            }
+            if (decimal) {
+                return StudentRoster.KIND_DEVICE_ID | (Long.parseLong(text) & 0xFFFFFFFFFFFFFFL);
+            }
+        }
+        catch (NumberFormatException ex) {}
+        return 0L;
+    }
+    
+    private static boolean isJson(final String text) {
+        for (int i = 0; i < text.length(); ++i) {
+            final char c = text.charAt(i);
+            if (!Character.isWhitespace(c) && c != '\ufeff') {
+                return c == '{' || c == '[';
+            }
+        }
+        return false;
+    }
+    
+    private static void parseJson(final String text, final String defaultRecognitionKey, final List<Row> rows, final List<String> rejected) {
+        final Object root = RosterJson.parse(text);
+        final Object mappings = (root instanceof Map) ? ((Map<?, ?>)root).get("mappings") : root;
+        if (!(mappings instanceof List)) {
+            throw new IllegalArgumentException("Expected a \"mappings\" array");
+        }
+        int index = 0;
+        for (final Object entry : (List<?>)mappings) {
+            ++index;
+            if (!(entry instanceof Map)) {
+                rejected.add("mapping " + index + ": not an object");
+                continue;
+            }
+            final Map<?, ?> map = (Map<?, ?>)entry;
+            try {
+                rows.add(Row.of(text(map.get("device_id")), text(map.get("student_no")), text(map.get("grade")), text(map.get("class_no")), text(map.get("recognition_key")), defaultRecognitionKey));
+            }
+            catch (IllegalArgumentException e) {
+                rejected.add("mapping " + index + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    private static void parseCsv(final String text, final String defaultRecognitionKey, final List<Row> rows, final List<String> rejected) {
+        boolean first = true;
+        int lineNo = 0;
+        for (final String raw : text.split("\r?\n")) {
+            ++lineNo;
+            final String line = raw.replace("\ufeff", "").trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final String[] fields = line.split(",", -1);
+            if (first) {
+                first = false;
+                if (!fields[0].trim().isEmpty() && !Character.isDigit(fields[0].trim().charAt(0))) {
+                    continue;
+                }
+            }
+            try {
+                rows.add(Row.of((fields.length > 1) ? fields[1] : null, fields[0], (fields.length > 2) ? fields[2] : null, (fields.length > 3) ? fields[3] : null, (fields.length > 4) ? fields[4] : null, defaultRecognitionKey));
+            }
+            catch (IllegalArgumentException e) {
+                rejected.add("line " + lineNo + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    private static String text(final Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Double && (Double)value == Math.rint((Double)value)) {
+            return Long.toString(((Double)value).longValue());
+        }
+        return value.toString();
+    }
+    
+    private static long mix(final long key) {
+        final long h = key * -7046029254386353131L;
+        return h ^ h >>> 32;
+    }
+    
+    static {
+        EMPTY = new StudentRoster(0L, Collections.emptyList(), null, Collections.emptyList());
+    }
+    
+    private static final class Row
+    {
+        final long key;
+        final int studentNo;
+        final int grade;
+        final int classNo;
+        final String recognitionKey;
+        
+        private Row(final long key, final int studentNo, final int grade, final int classNo, final String recognitionKey) {
+            this.key = key;
+            this.studentNo = studentNo;
+            this.grade = grade;
+            this.classNo = classNo;
+            this.recognitionKey = recognitionKey;
+        }
+        
+        static Row of(final String deviceId, final String studentNo, final String grade, final String classNo, final String recognitionKey, final String defaultRecognitionKey) {
+            if (deviceId == null || studentNo == null) {
+                throw new IllegalArgumentException("missing " + ((deviceId == null) ? "device_id" : "student_no"));
+            }
+            final long key = StudentRoster.deviceKey(deviceId);
+            if (key == 0L) {
+                throw new IllegalArgumentException("unrecognised device_id \"" + deviceId.trim() + "\"");
+            }
+            try {
+                final String rk = (recognitionKey == null || recognitionKey.trim().isEmpty()) ? defaultRecognitionKey : recognitionKey.trim();
+                return new Row(key, Integer.parseInt(studentNo.trim()), number(grade), number(classNo), rk);
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid number for device_id \"" + deviceId.trim() + "\": " + e.getMessage());
+            }
+        }
+        
+        private static int number(final String text) {
+            return (text == null || text.trim().isEmpty()) ? 0 : Integer.parseInt(text.trim());
+        }
+        
+        String identity() {
+            return this.recognitionKey + ":" + this.grade + ":" + this.classNo + ":" + this.studentNo;
+        }
+    }
+}
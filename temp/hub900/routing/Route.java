@@ -0,0 +1,41 @@
+package com.hub900.routing;
+
+public final class Route
+{
+    private final Tenant tenant;
+    private final String classroom;
+    private final int grade;
+    private final int classNo;
+    
+    public Route(final Tenant tenant, final String classroom, final int grade, final int classNo) {
+        this.tenant = tenant;
+        this.classroom = classroom;
+        this.grade = grade;
+        this.classNo = classNo;
+    }
+    
+    public Tenant getTenant() {
+        return this.tenant;
+    }
+    
+    public String getRecognitionKey() {
+        return this.tenant.getKey();
+    }
+    
+    public String getClassroom() {
+        return this.classroom;
+    }
+    
+    public int getGrade() {
+        return this.grade;
+    }
+    
+    public int getClassNo() {
+        return this.classNo;
+    }
+    
+    @Override
+    public String toString() {
+        return "Route{tenant=" + this.tenant.getKey() + ", classroom=" + this.classroom + ", grade=" + this.grade + ", classNo=" + this.classNo + '}';
+    }
+}
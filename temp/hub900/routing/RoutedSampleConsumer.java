@@ -0,0 +1,8 @@
+package com.hub900.routing;
+
+import com.hub900.codec.*;
+
+public interface RoutedSampleConsumer
+{
+    void onSample(final Route p0, final SampleRecord p1);
+}
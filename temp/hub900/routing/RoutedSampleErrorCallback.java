@@ -0,0 +1,6 @@
+package com.hub900.routing;
+
+public interface RoutedSampleErrorCallback
+{
+    void onSubscriberError(final Route p0, final RoutedSampleConsumer p1, final RuntimeException p2);
+}
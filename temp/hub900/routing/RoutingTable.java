@@ -0,0 +1,206 @@
+package com.hub900.routing;
+
+import java.util.*;
+
+public final class RoutingTable
+{
+    private static final RoutingTable EMPTY;
+    private final long version;
+    private final Map<String, Tenant> tenants;
+    private final Map<Integer, Route> hubRoutes;
+    private final Map<Long, Route> macRoutes;
+    private final int[] hubKeys;
+    private final Route[] hubValues;
+    private final int hubMask;
+    private final long[] macKeys;
+    private final Route[] macValues;
+    private final int macMask;
+    
+    private RoutingTable(final long version, final Map<String, Tenant> tenants, final Map<Integer, Route> hubRoutes, final Map<Long, Route> macRoutes) {
+        this.version = version;
+        this.tenants = Collections.unmodifiableMap(new LinkedHashMap<String, Tenant>(tenants));
+        this.hubRoutes = Collections.unmodifiableMap(new LinkedHashMap<Integer, Route>(hubRoutes));
+        this.macRoutes = Collections.unmodifiableMap(new LinkedHashMap<Long, Route>(macRoutes));
+        final int hubLength = tableLength(hubRoutes.size());
+        this.hubKeys = new int[hubLength];
+        this.hubValues = new Route[hubLength];
+        this.hubMask = hubLength - 1;
+        for (final Map.Entry<Integer, Route> entry : hubRoutes.entrySet()) {
+            int i = mix(entry.getKey()) & this.hubMask;
+            while (this.hubValues[i] != null) {
+                i = (i + 1 & this.hubMask);
+            }
+            this.hubKeys[i] = entry.getKey();
+            this.hubValues[i] = entry.getValue();
+        }
+        final int macLength = tableLength(macRoutes.size());
+        this.macKeys = new long[macLength];
+        this.macValues = new Route[macLength];
+        this.macMask = macLength - 1;
+        for (final Map.Entry<Long, Route> entry2 : macRoutes.entrySet()) {
+            int j = mix(Long.hashCode(entry2.getKey())) & this.macMask;
+            while (this.macValues[j] != null) {
+                j = (j + 1 & this.macMask);
+            }
+            this.macKeys[j] = entry2.getKey();
+            this.macValues[j] = entry2.getValue();
+        }
+    }
+    
+    public static RoutingTable empty() {
+        return RoutingTable.EMPTY;
+    }
+    
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+    
+    public Route route(final int hubId, final long hubMac) {
+        final Route route = this.byHub(hubId);
+        return (route != null || hubMac < 0L) ? route : this.byMac(hubMac);
+    }
+    
+    public Route byHub(final int hubId) {
+        final Route[] values = this.hubValues;
+        int i = mix(hubId) & this.hubMask;
+        Route route;
+        while ((route = values[i]) != null) {
+            if (this.hubKeys[i] == hubId) {
+                return route;
+            }
+            i = (i + 1 & this.hubMask);
+        }
+        return null;
+    }
+    
+    public Route byMac(final long hubMac) {
+        final Route[] values = this.macValues;
+        int i = mix(Long.hashCode(hubMac)) & this.macMask;
+        Route route;
+        while ((route = values[i]) != null) {
+            if (this.macKeys[i] == hubMac) {
+                return route;
+            }
+            i = (i + 1 & this.macMask);
+        }
+        return null;
+    }
+    
+    public long getVersion() {
+        return this.version;
+    }
+    
+    public Map<String, Tenant> getTenants() {
+        return this.tenants;
+    }
+    
+    public Tenant getTenant(final String key) {
+        return this.tenants.get(key);
+    }
+    
+    public Map<Integer, Route> getHubRoutes() {
+        return this.hubRoutes;
+    }
+    
+    public Map<Long, Route> getMacRoutes() {
+        return this.macRoutes;
+    }
+    
+    public static long parseMac(final String mac) {
+        long value = 0L;
+        int digits = 0;
+        for (int i = 0; i < mac.length(); ++i) {
+            final char c = mac.charAt(i);
+            final int v = Character.digit(c, 16);
+            if (v >= 0) {
+                value = (value << 4 | (long)v);
+                ++digits;
+            }
+            else if (c != ':' && c != '-') {
+                throw new IllegalArgumentException("Invalid MAC: " + mac);
+            }
+        }
+        if (digits != 12) {
+            throw new IllegalArgumentException("Invalid MAC: " + mac);
+        }
+        return value;
+    }
+    
+    private static int tableLength(final int entries) {
+        return Integer.highestOneBit(Math.max(2, entries * 2 - 1)) << 1;
+    }
+    
+    private static int mix(final int key) {
+        final int h = key * -1640531527;
+        return h ^ h >>> 16;
+    }
+    
+    static {
+        EMPTY = new RoutingTable(0L, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+    }
+    
+    public static final class Builder
+    {
+        private final long version;
+        private final Map<String, Tenant> tenants;
+        private final Map<Integer, Route> hubRoutes;
+        private final Map<Long, Route> macRoutes;
+        
+        private Builder(final RoutingTable base) {
+            this.version = base.version + 1L;
+            this.tenants = new LinkedHashMap<String, Tenant>(base.tenants);
+            this.hubRoutes = new LinkedHashMap<Integer, Route>(base.hubRoutes);
+            this.macRoutes = new LinkedHashMap<Long, Route>(base.macRoutes);
+        }
+        
+        public Builder tenant(final Tenant tenant) {
+            this.tenants.put(tenant.getKey(), tenant);
+            this.hubRoutes.replaceAll((hubId, route) -> rebind(route, tenant));
+            this.macRoutes.replaceAll((mac, route) -> rebind(route, tenant));
+            return this;
+        }
+        
+        public Builder removeTenant(final String key) {
+            this.tenants.remove(key);
+            this.hubRoutes.values().removeIf(route -> route.getTenant().getKey().equals(key));
+            this.macRoutes.values().removeIf(route -> route.getTenant().getKey().equals(key));
+            return this;
+        }
+        
+        public Builder hub(final int hubId, final String tenantKey, final String classroom, final int grade, final int classNo) {
+            this.hubRoutes.put(hubId, this.route(tenantKey, classroom, grade, classNo));
+            return this;
+        }
+        
+        public Builder mac(final String hubMac, final String tenantKey, final String classroom, final int grade, final int classNo) {
+            this.macRoutes.put(RoutingTable.parseMac(hubMac), this.route(tenantKey, classroom, grade, classNo));
+            return this;
+        }
+        
+        public Builder removeHub(final int hubId) {
+            this.hubRoutes.remove(hubId);
+            return this;
+        }
+        
+        public Builder removeMac(final String hubMac) {
+            this.macRoutes.remove(RoutingTable.parseMac(hubMac));
+            return this;
+        }
+        
+        public RoutingTable build() {
+            return new RoutingTable(this.version, this.tenants, this.hubRoutes, this.macRoutes);
+        }
+        
+        private Route route(final String tenantKey, final String classroom, final int grade, final int classNo) {
+            final Tenant tenant = this.tenants.get(tenantKey);
+            if (tenant == null) {
+                throw new IllegalArgumentException("Unknown tenant: " + tenantKey);
+            }
+            return new Route(tenant, classroom, grade, classNo);
+        }
+        
+        private static Route rebind(final Route route, final Tenant tenant) {
+            return route.getTenant().getKey().equals(tenant.getKey()) ? new Route(tenant, route.getClassroom(), route.getGrade(), route.getClassNo()) : route;
+        }
+    }
+}
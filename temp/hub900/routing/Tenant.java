@@ -0,0 +1,47 @@
+package com.hub900.routing;
+
+public final class Tenant
+{
+    private final String key;
+    private final double samplesPerSecond;
+    private final int burst;
+    private final int queueCapacity;
+    
+    public Tenant(final String key, final double samplesPerSecond, final int burst, final int queueCapacity) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Tenant key is required");
+        }
+        if (samplesPerSecond <= 0.0 || burst <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Tenant quota, burst and queue capacity must be positive: " + key);
+        }
+        this.key = key;
+        this.samplesPerSecond = samplesPerSecond;
+        this.burst = burst;
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public Tenant(final String key, final double samplesPerSecond) {
+        this(key, samplesPerSecond, (int)Math.max(1.0, samplesPerSecond), 8192);
+    }
+    
+    public String getKey() {
+        return this.key;
+    }
+    
+    public double getSamplesPerSecond() {
+        return this.samplesPerSecond;
+    }
+    
+    public int getBurst() {
+        return this.burst;
+    }
+    
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+    
+    @Override
+    public String toString() {
+        return "Tenant{key=" + this.key + ", samplesPerSecond=" + this.samplesPerSecond + ", burst=" + this.burst + ", queueCapacity=" + this.queueCapacity + '}';
+    }
+}
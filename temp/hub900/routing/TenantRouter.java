@@ -0,0 +1,272 @@
+package com.hub900.routing;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import com.hub900.*;
+import com.hub900.codec.*;
+import com.hub900.entity.*;
+
+public final class TenantRouter implements Closeable
+{
+    private final ConcurrentHashMap<String, Partition> partitions;
+    private final LongAdder unrouted;
+    private volatile RoutingTable table;
+    private volatile RoutedSampleErrorCallback errorCallback;
+    private volatile boolean closed;
+    
+    public TenantRouter() {
+        this.partitions = new ConcurrentHashMap<String, Partition>();
+        this.unrouted = new LongAdder();
+        this.table = RoutingTable.empty();
+    }
+    
+    public TenantRouter attach(final HubManager hubManager) {
+        hubManager.addSampleListener((type, data) -> this.dispatch(data));
+        return this;
+    }
+    
+    public TenantRouter setErrorCallback(final RoutedSampleErrorCallback errorCallback) {
+        this.errorCallback = errorCallback;
+        return this;
+    }
+    
+    public RoutingTable getTable() {
+        return this.table;
+    }
+    
+    public synchronized TenantRouter setTable(final RoutingTable table) {
+        if (this.closed) {
+            throw new IllegalStateException("Router is closed");
+        }
+        this.table = table;
+        for (final Tenant tenant : table.getTenants().values()) {
+            this.partitions.compute(tenant.getKey(), (key, partition) -> {
+                if (partition == null) {
+                    return new Partition(this, tenant);
+                }
+                partition.configure(tenant);
+                return partition;
+            });
+        }
+        final Iterator<Map.Entry<String, Partition>> iterator = this.partitions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Partition> entry = iterator.next();
+            if (!table.getTenants().containsKey(entry.getKey())) {
+                iterator.remove();
+                entry.getValue().stop();
+            }
+        }
+        return this;
+    }
+    
+    public synchronized TenantRouter update(final UnaryOperator<RoutingTable.Builder> change) {
+        return this.setTable(change.apply(this.table.toBuilder()).build());
+    }
+    
+    public TenantRouter subscribe(final String tenantKey, final RoutedSampleConsumer consumer) {
+        this.partition(tenantKey).subscribers.add(consumer);
+        return this;
+    }
+    
+    public TenantRouter unsubscribe(final String tenantKey, final RoutedSampleConsumer consumer) {
+        final Partition partition = this.partitions.get(tenantKey);
+        if (partition != null) {
+            partition.subscribers.remove(consumer);
+        }
+        return this;
+    }
+    
+    public boolean dispatch(final AbstractData data) {
+        final HubDescriptor hub = data.getHub();
+        final Route route = this.table.route(data.getFrameHubId(), (hub != null) ? hub.getMacValue() : -1L);
+        if (route == null) {
+            this.unrouted.increment();
+            return false;
+        }
+        final Partition partition = this.partitions.get(route.getTenant().getKey());
+        return partition != null && partition.offer(route, data);
+    }
+    
+    public long getUnrouted() {
+        return this.unrouted.sum();
+    }
+    
+    public long getAccepted(final String tenantKey) {
+        final Partition partition = this.partitions.get(tenantKey);
+        return (partition != null) ? partition.accepted.sum() : 0L;
+    }
+    
+    public long getThrottled(final String tenantKey) {
+        final Partition partition = this.partitions.get(tenantKey);
+        return (partition != null) ? partition.throttled.sum() : 0L;
+    }
+    
+    public long getOverflowed(final String tenantKey) {
+        final Partition partition = this.partitions.get(tenantKey);
+        return (partition != null) ? partition.overflowed.sum() : 0L;
+    }
+    
+    public long getFailed(final String tenantKey) {
+        final Partition partition = this.partitions.get(tenantKey);
+        return (partition != null) ? partition.failed.sum() : 0L;
+    }
+    
+    public int getQueueDepth(final String tenantKey) {
+        final Partition partition = this.partitions.get(tenantKey);
+        return (partition != null) ? partition.queue.size() : 0;
+    }
+    
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        for (final Partition partition : this.partitions.values()) {
+            partition.stop();
+        }
+        this.partitions.clear();
+    }
+    
+    private Partition partition(final String tenantKey) {
+        final Partition partition = this.partitions.get(tenantKey);
+        if (partition == null) {
+            throw new IllegalArgumentException("Unknown tenant: " + tenantKey);
+        }
+        return partition;
+    }
+    
+    private static final class Envelope
+    {
+        final Route route;
+        final ByteBuffer record;
+    
+        Envelope(final Route route, final ByteBuffer record) {
+            this.route = route;
+            this.record = record;
+        }
+    }
+    
+    private static final class Partition implements Runnable
+    {
+        private static final Envelope STOP;
+        final TenantRouter router;
+        final List<RoutedSampleConsumer> subscribers;
+        final BlockingQueue<Envelope> queue;
+        final LongAdder accepted;
+        final LongAdder throttled;
+        final LongAdder overflowed;
+        final LongAdder failed;
+        private final SampleRecord record;
+        private final AtomicLong theoreticalArrival;
+        private final Thread worker;
+        private volatile long intervalNanos;
+        private volatile long toleranceNanos;
+    
+        Partition(final TenantRouter router, final Tenant tenant) {
+            this.router = router;
+            this.subscribers = new CopyOnWriteArrayList<RoutedSampleConsumer>();
+            this.queue = new ArrayBlockingQueue<Envelope>(tenant.getQueueCapacity());
+            this.accepted = new LongAdder();
+            this.throttled = new LongAdder();
+            this.overflowed = new LongAdder();
+            this.failed = new LongAdder();
+            this.record = new SampleRecord();
+            this.theoreticalArrival = new AtomicLong(System.nanoTime());
+            this.configure(tenant);
+            (this.worker = new Thread(this, "hub900-tenant-" + tenant.getKey())).setDaemon(true);
+            this.worker.start();
+        }
+    
+        void configure(final Tenant tenant) {
+            final long interval = Math.max(1L, (long)(1.0E9 / tenant.getSamplesPerSecond()));
+            this.intervalNanos = interval;
+            this.toleranceNanos = interval * (tenant.getBurst() - 1);
+        }
+    
+        boolean offer(final Route route, final AbstractData data) {
+            if (!this.tryAcquire(System.nanoTime())) {
+                this.throttled.increment();
+                return false;
+            }
+            if (this.subscribers.isEmpty()) {
+                this.accepted.increment();
+                return true;
+            }
+            final ByteBuffer record = ByteBuffer.allocate(SampleCodec.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (!SampleCodec.write(record, data, System.currentTimeMillis())) {
+                return false;
+            }
+            record.flip();
+            if (!this.queue.offer(new Envelope(route, record))) {
+                this.overflowed.increment();
+                return false;
+            }
+            this.accepted.increment();
+            return true;
+        }
+    
+        private boolean tryAcquire(final long now) {
+            final long interval = this.intervalNanos;
+            final long tolerance = this.toleranceNanos;
+            while (true) {
+                final long arrival = this.theoreticalArrival.get();
+                final long start = Math.max(arrival, now);
+                if (start - now > tolerance) {
+                    return false;
+                }
+                if (this.theoreticalArrival.compareAndSet(arrival, start + interval)) {
+                    return true;
+                }
+            }
+        }
+    
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    final Envelope envelope = this.queue.take();
+                    if (envelope == Partition.STOP) {
+                        break;
+                    }
+                    SampleCodec.read(envelope.record, this.record);
+                    for (final RoutedSampleConsumer subscriber : this.subscribers) {
+                        try {
+                            subscriber.onSample(envelope.route, this.record);
+                        }
+                        catch (RuntimeException e) {
+                            this.failed.increment();
+                            this.report(envelope.route, subscriber, e);
+                        }
+                    }
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    
+        private void report(final Route route, final RoutedSampleConsumer subscriber, final RuntimeException failure) {
+            final RoutedSampleErrorCallback callback = this.router.errorCallback;
+            if (callback == null) {
+                return;
+            }
+            try {
+                callback.onSubscriberError(route, subscriber, failure);
+            }
+            catch (RuntimeException ex) {}
+        }
+    
+        void stop() {
+            this.queue.clear();
+            if (!this.queue.offer(Partition.STOP)) {
+                this.worker.interrupt();
+            }
+        }
+    
+        static {
+            STOP = new Envelope(null, null);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.hub900.server;
+
+import java.io.*;
+import java.lang.invoke.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+
+public final class BlockingIngestServer implements Closeable
+{
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY;
+    private final HubManager hubManager;
+    private final HubServerConfig config;
+    private final ThreadFactory threadFactory;
+    private final boolean virtual;
+    private final Set<Socket> sockets;
+    private final AtomicInteger connections;
+    private final LongAdder rejectedConnections;
+    private final LongAdder failedAccepts;
+    private volatile IOException lastAcceptError;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+    private volatile boolean running;
+    
+    public BlockingIngestServer(final HubManager hubManager, final HubServerConfig config) {
+        this(hubManager, config, true);
+    }
+    
+    public BlockingIngestServer(final HubManager hubManager, final HubServerConfig config, final boolean virtualThreads) {
+        this.hubManager = hubManager;
+        this.config = config;
+        this.virtual = (virtualThreads && BlockingIngestServer.VIRTUAL_THREAD_FACTORY != null);
+        this.threadFactory = (this.virtual ? BlockingIngestServer.VIRTUAL_THREAD_FACTORY : new PlatformThreadFactory());
+        this.sockets = ConcurrentHashMap.newKeySet();
+        this.connections = new AtomicInteger();
+        this.rejectedConnections = new LongAdder();
+        this.failedAccepts = new LongAdder();
+    }
+    
+    public static boolean isVirtualThreadsAvailable() {
+        return BlockingIngestServer.VIRTUAL_THREAD_FACTORY != null;
+    }
+    
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+    
+    public synchronized BlockingIngestServer start() throws IOException {
+        if (this.running) {
+            return this;
+        }
+        if (this.config.getTcpPort() == HubServerConfig.DISABLED) {
+            throw new IllegalStateException("Blocking ingest requires a TCP port");
+        }
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(this.config.address(this.config.getTcpPort()), 1024);
+        this.running = true;
+        (this.acceptor = new Thread(this::acceptLoop, "hub900-acceptor")).setDaemon(true);
+        this.acceptor.start();
+        return this;
+    }
+    
+    public int getTcpPort() {
+        return (this.serverSocket != null) ? this.serverSocket.getLocalPort() : HubServerConfig.DISABLED;
+    }
+    
+    public int getConnectionCount() {
+        return this.connections.get();
+    }
+    
+    public long getRejectedConnections() {
+        return this.rejectedConnections.sum();
+    }
+    
+    public long getFailedAccepts() {
+        return this.failedAccepts.sum();
+    }
+    
+    public IOException getLastAcceptError() {
+        return this.lastAcceptError;
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (!this.running) {
+            return;
+        }
+        this.running = false;
+        closeQuietly(this.serverSocket);
+        for (final Socket socket : this.sockets) {
+            closeQuietly(socket);
+        }
+        try {
+            this.acceptor.join(5000L);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void acceptLoop() {
+        long backoff = 0L;
+        while (this.running) {
+            final Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+                backoff = 0L;
+            }
+            catch (IOException e) {
+                if (!this.running || this.serverSocket.isClosed()) {
+                    return;
+                }
+                this.failedAccepts.increment();
+                this.lastAcceptError = e;
+                backoff = Math.min(1000L, Math.max(10L, backoff * 2L));
+                try {
+                    Thread.sleep(backoff);
+                }
+                catch (InterruptedException e2) {
+                    return;
+                }
+                continue;
+            }
+            if (this.connections.incrementAndGet() > this.config.getMaxConnections()) {
+                this.connections.decrementAndGet();
+                this.rejectedConnections.increment();
+                closeQuietly(socket);
+                continue;
+            }
+            this.sockets.add(socket);
+            this.threadFactory.newThread(() -> this.serve(socket)).start();
+        }
+    }
+    
+    private void serve(final Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            if (this.config.getIdleTimeoutMillis() > 0L) {
+                socket.setSoTimeout((int)Math.min(this.config.getIdleTimeoutMillis(), 2147483647L));
+            }
+            final InputStream in = socket.getInputStream();
+            final OutputStream out = socket.getOutputStream();
+            final HubManager session = this.hubManager.newSession();
+            final ByteArrayOutputStream pendingAcks = new ByteArrayOutputStream(64);
+            final AckBackCallback ackBackCallback = ack -> pendingAcks.write(ack, 0, ack.length);
+            final byte[] buffer = new byte[this.config.getReadBufferSize()];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                if (read > 0) {
+                    session.onDataReceived(Arrays.copyOf(buffer, read), ackBackCallback);
+                    if (pendingAcks.size() > 0) {
+                        pendingAcks.writeTo(out);
+                        pendingAcks.reset();
+                    }
+                }
+            }
+        }
+        catch (IOException ex) {}
+        finally {
+            closeQuietly(socket);
+            this.sockets.remove(socket);
+            this.connections.decrementAndGet();
+        }
+    }
+    
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            }
+            catch (IOException ex) {}
+        }
+    }
+    
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object builder = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual"))).invoke();
+            final Object named = lookup.findVirtual(builderClass, "name", MethodType.methodType(builderClass, String.class, long.class)).invoke(builder, "hub900-conn-", 0L);
+            return (ThreadFactory)lookup.findVirtual(builderClass, "factory", MethodType.methodType(ThreadFactory.class)).invoke(named);
+        }
+        catch (Throwable e) {
+            return null;
+        }
+    }
+    
+    static {
+        VIRTUAL_THREAD_FACTORY = virtualThreadFactory();
+    }
+    
+    private static final class PlatformThreadFactory implements ThreadFactory
+    {
+        private final AtomicLong counter;
+        
+        PlatformThreadFactory() {
+            this.counter = new AtomicLong();
+        }
+        
+        @Override
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(null, task, "hub900-conn-" + this.counter.getAndIncrement(), 262144L);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.hub900.server;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+
+public final class HubIngestServer implements Closeable
+{
+    private final HubManager hubManager;
+    private final HubServerConfig config;
+    private final AtomicInteger connections;
+    private final AtomicInteger nextLoop;
+    private final LongAdder rejectedConnections;
+    private final LongAdder droppedAcks;
+    private SelectorLoop[] loops;
+    private ServerSocketChannel serverChannel;
+    private DatagramChannel datagramChannel;
+    private volatile boolean running;
+    
+    public HubIngestServer(final HubManager hubManager, final HubServerConfig config) {
+        this.hubManager = hubManager;
+        this.config = config;
+        this.connections = new AtomicInteger();
+        this.nextLoop = new AtomicInteger();
+        this.rejectedConnections = new LongAdder();
+        this.droppedAcks = new LongAdder();
+    }
+    
+    public synchronized HubIngestServer start() throws IOException {
+        if (this.running) {
+            return this;
+        }
+        this.running = true;
+        final int threads = Math.max(1, this.config.getSelectorThreads());
+        this.loops = new SelectorLoop[threads];
+        for (int i = 0; i < threads; ++i) {
+            this.loops[i] = new SelectorLoop(i);
+        }
+        try {
+            if (this.config.getTcpPort() != HubServerConfig.DISABLED) {
+                this.serverChannel = ServerSocketChannel.open();
+                this.serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                this.serverChannel.bind(this.config.address(this.config.getTcpPort()), 1024);
+                this.serverChannel.configureBlocking(false);
+                this.serverChannel.register(this.loops[0].selector, SelectionKey.OP_ACCEPT, new Acceptor(this.serverChannel));
+            }
+            if (this.config.getUdpPort() != HubServerConfig.DISABLED) {
+                this.datagramChannel = DatagramChannel.open();
+                this.datagramChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                this.datagramChannel.setOption(StandardSocketOptions.SO_RCVBUF, Math.max(this.config.getReadBufferSize() * 64, 1048576));
+                this.datagramChannel.bind(this.config.address(this.config.getUdpPort()));
+                this.datagramChannel.configureBlocking(false);
+                final SelectorLoop loop = this.loops[(threads > 1) ? 1 : 0];
+                this.datagramChannel.register(loop.selector, SelectionKey.OP_READ, new UdpEndpoint(loop, this.datagramChannel));
+            }
+        }
+        catch (IOException e) {
+            this.close();
+            throw e;
+        }
+        for (final SelectorLoop loop : this.loops) {
+            loop.thread.start();
+        }
+        return this;
+    }
+    
+    public int getTcpPort() {
+        return (this.serverChannel != null) ? this.serverChannel.socket().getLocalPort() : HubServerConfig.DISABLED;
+    }
+    
+    public int getUdpPort() {
+        return (this.datagramChannel != null) ? this.datagramChannel.socket().getLocalPort() : HubServerConfig.DISABLED;
+    }
+    
+    public int getConnectionCount() {
+        return this.connections.get();
+    }
+    
+    public long getRejectedConnections() {
+        return this.rejectedConnections.sum();
+    }
+    
+    public long getDroppedAcks() {
+        return this.droppedAcks.sum();
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (this.loops == null) {
+            return;
+        }
+        this.running = false;
+        closeQuietly(this.serverChannel);
+        closeQuietly(this.datagramChannel);
+        for (final SelectorLoop loop : this.loops) {
+            loop.selector.wakeup();
+        }
+        for (final SelectorLoop loop : this.loops) {
+            if (loop.thread.isAlive() && loop.thread != Thread.currentThread()) {
+                try {
+                    loop.thread.join(5000L);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            else {
+                closeQuietly(loop.selector);
+            }
+        }
+        this.loops = null;
+    }
+    
+    private boolean reserveConnection() {
+        while (true) {
+            final int current = this.connections.get();
+            if (current >= this.config.getMaxConnections()) {
+                this.rejectedConnections.increment();
+                return false;
+            }
+            if (this.connections.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            }
+            catch (IOException ex) {}
+        }
+    }
+    
+    private interface Handler
+    {
+        void handle(final SelectionKey p0) throws IOException;
+        
+        void close();
+        
+        void expire(final long p0);
+    }
+    
+    private final class SelectorLoop implements Runnable
+    {
+        final Selector selector;
+        final Thread thread;
+        final Queue<Runnable> tasks;
+        final ByteBuffer readBuffer;
+        
+        SelectorLoop(final int index) throws IOException {
+            this.selector = Selector.open();
+            this.tasks = new ConcurrentLinkedQueue<Runnable>();
+            this.readBuffer = ByteBuffer.allocate(HubIngestServer.this.config.getReadBufferSize());
+            this.thread = new Thread(this, "hub900-selector-" + index);
+            this.thread.setDaemon(true);
+        }
+        
+        void execute(final Runnable task) {
+            this.tasks.add(task);
+            this.selector.wakeup();
+        }
+        
+        @Override
+        public void run() {
+            final long idleTimeout = HubIngestServer.this.config.getIdleTimeoutMillis();
+            long nextExpiry = System.currentTimeMillis() + Math.min(idleTimeout, 1000L);
+            try {
+                while (HubIngestServer.this.running) {
+                    this.selector.select(key -> {
+                        final Handler handler = (Handler)key.attachment();
+                        try {
+                            handler.handle(key);
+                        }
+                        catch (IOException | CancelledKeyException e) {
+                            handler.close();
+                        }
+                    }, 1000L);
+                    Runnable task;
+                    while ((task = this.tasks.poll()) != null) {
+                        task.run();
+                    }
+                    final long now = System.currentTimeMillis();
+                    if (idleTimeout > 0L && now >= nextExpiry) {
+                        for (final SelectionKey key : this.selector.keys()) {
+                            if (key.isValid()) {
+                                ((Handler)key.attachment()).expire(now - idleTimeout);
+                            }
+                        }
+                        nextExpiry = now + Math.min(idleTimeout, 1000L);
+                    }
+                }
+            }
+            catch (IOException | ClosedSelectorException ex) {}
+            finally {
+                try {
+                    for (final SelectionKey key : this.selector.keys()) {
+                        ((Handler)key.attachment()).close();
+                    }
+                }
+                catch (ClosedSelectorException ex2) {}
+                closeQuietly(this.selector);
+            }
+        }
+    }
+    
+    private final class Acceptor implements Handler
+    {
+        private final ServerSocketChannel channel;
+        
+        Acceptor(final ServerSocketChannel channel) {
+            this.channel = channel;
+        }
+        
+        @Override
+        public void handle(final SelectionKey key) throws IOException {
+            SocketChannel socket;
+            while ((socket = this.channel.accept()) != null) {
+                if (!HubIngestServer.this.reserveConnection()) {
+                    closeQuietly(socket);
+                    continue;
+                }
+                socket.configureBlocking(false);
+                socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                final SelectorLoop loop = HubIngestServer.this.loops[Math.floorMod(HubIngestServer.this.nextLoop.getAndIncrement(), HubIngestServer.this.loops.length)];
+                final SocketChannel accepted = socket;
+                loop.execute(() -> {
+                    try {
+                        final TcpConnection connection = new TcpConnection(loop, accepted);
+                        connection.key = accepted.register(loop.selector, SelectionKey.OP_READ, connection);
+                    }
+                    catch (IOException e) {
+                        closeQuietly(accepted);
+                        HubIngestServer.this.connections.decrementAndGet();
+                    }
+                });
+            }
+        }
+        
+        @Override
+        public void close() {
+            closeQuietly(this.channel);
+        }
+        
+        @Override
+        public void expire(final long idleBefore) {
+        }
+    }
+    
+    private final class TcpConnection implements Handler, AckBackCallback
+    {
+        private final SelectorLoop loop;
+        private final SocketChannel channel;
+        private final HubManager session;
+        private final ArrayDeque<ByteBuffer> writeQueue;
+        private SelectionKey key;
+        private int pendingBytes;
+        private long lastReadMillis;
+        private boolean closed;
+        
+        TcpConnection(final SelectorLoop loop, final SocketChannel channel) {
+            this.loop = loop;
+            this.channel = channel;
+            this.session = HubIngestServer.this.hubManager.newSession();
+            this.writeQueue = new ArrayDeque<ByteBuffer>();
+            this.lastReadMillis = System.currentTimeMillis();
+        }
+        
+        @Override
+        public void handle(final SelectionKey key) throws IOException {
+            if (key.isReadable()) {
+                final ByteBuffer buffer = this.loop.readBuffer;
+                buffer.clear();
+                final int read = this.channel.read(buffer);
+                if (read < 0) {
+                    this.close();
+                    return;
+                }
+                if (read > 0) {
+                    this.lastReadMillis = System.currentTimeMillis();
+                    this.session.onDataReceived(Arrays.copyOf(buffer.array(), read), this);
+                }
+            }
+            if (key.isValid() && key.isWritable()) {
+                this.flush();
+            }
+        }
+        
+        @Override
+        public void onAckBack(final byte[] ack) {
+            if (this.closed) {
+                return;
+            }
+            if (this.pendingBytes + ack.length > HubIngestServer.this.config.getWriteQueueLimit()) {
+                HubIngestServer.this.droppedAcks.increment();
+                return;
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(ack);
+            try {
+                if (this.writeQueue.isEmpty()) {
+                    this.channel.write(buffer);
+                    if (!buffer.hasRemaining()) {
+                        return;
+                    }
+                }
+                this.writeQueue.add(buffer);
+                this.pendingBytes += buffer.remaining();
+                this.key.interestOps(this.key.interestOps() | SelectionKey.OP_WRITE);
+            }
+            catch (IOException | CancelledKeyException e) {
+                this.close();
+            }
+        }
+        
+        private void flush() throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = this.writeQueue.peek()) != null) {
+                final int before = buffer.remaining();
+                this.channel.write(buffer);
+                this.pendingBytes -= before - buffer.remaining();
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                this.writeQueue.poll();
+            }
+            this.key.interestOps(this.key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+        
+        @Override
+        public void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            if (this.key != null) {
+                this.key.cancel();
+            }
+            closeQuietly(this.channel);
+            this.writeQueue.clear();
+            HubIngestServer.this.connections.decrementAndGet();
+        }
+        
+        @Override
+        public void expire(final long idleBefore) {
+            if (this.lastReadMillis < idleBefore) {
+                this.close();
+            }
+        }
+    }
+    
+    private final class UdpEndpoint implements Handler
+    {
+        private final SelectorLoop loop;
+        private final DatagramChannel channel;
+        private final Map<SocketAddress, UdpSession> sessions;
+        
+        UdpEndpoint(final SelectorLoop loop, final DatagramChannel channel) {
+            this.loop = loop;
+            this.channel = channel;
+            this.sessions = new HashMap<SocketAddress, UdpSession>();
+        }
+        
+        @Override
+        public void handle(final SelectionKey key) throws IOException {
+            final ByteBuffer buffer = this.loop.readBuffer;
+            while (true) {
+                buffer.clear();
+                final SocketAddress remote = this.channel.receive(buffer);
+                if (remote == null) {
+                    break;
+                }
+                if (buffer.position() == 0) {
+                    continue;
+                }
+                UdpSession session = this.sessions.get(remote);
+                if (session == null) {
+                    if (!HubIngestServer.this.reserveConnection()) {
+                        continue;
+                    }
+                    session = new UdpSession(this.channel, remote);
+                    this.sessions.put(remote, session);
+                }
+                session.lastReadMillis = System.currentTimeMillis();
+                session.session.onDataReceived(Arrays.copyOf(buffer.array(), buffer.position()), session);
+            }
+        }
+        
+        @Override
+        public void close() {
+            closeQuietly(this.channel);
+            HubIngestServer.this.connections.addAndGet(-this.sessions.size());
+            this.sessions.clear();
+        }
+        
+        @Override
+        public void expire(final long idleBefore) {
+            final Iterator<UdpSession> it = this.sessions.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().lastReadMillis < idleBefore) {
+                    it.remove();
+                    HubIngestServer.this.connections.decrementAndGet();
+                }
+            }
+        }
+    }
+    
+    private final class UdpSession implements AckBackCallback
+    {
+        private final DatagramChannel channel;
+        private final SocketAddress remote;
+        private final HubManager session;
+        private long lastReadMillis;
+        
+        UdpSession(final DatagramChannel channel, final SocketAddress remote) {
+            this.channel = channel;
+            this.remote = remote;
+            this.session = HubIngestServer.this.hubManager.newSession();
+        }
+        
+        @Override
+        public void onAckBack(final byte[] ack) {
+            try {
+                if (this.channel.send(ByteBuffer.wrap(ack), this.remote) == 0) {
+                    HubIngestServer.this.droppedAcks.increment();
+                }
+            }
+            catch (IOException e) {
+                HubIngestServer.this.droppedAcks.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.hub900.server;
+
+import java.net.*;
+
+public final class HubServerConfig
+{
+    public static final int DISABLED = -1;
+    private InetAddress bindAddress;
+    private int tcpPort;
+    private int udpPort;
+    private int selectorThreads;
+    private int readBufferSize;
+    private int writeQueueLimit;
+    private int maxConnections;
+    private long idleTimeoutMillis;
+    
+    public HubServerConfig() {
+        this.tcpPort = 8088;
+        this.udpPort = 8088;
+        this.selectorThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        this.readBufferSize = 16384;
+        this.writeQueueLimit = 65536;
+        this.maxConnections = 10000;
+        this.idleTimeoutMillis = 120000L;
+    }
+    
+    public InetAddress getBindAddress() {
+        return this.bindAddress;
+    }
+    
+    public HubServerConfig setBindAddress(final InetAddress bindAddress) {
+        this.bindAddress = bindAddress;
+        return this;
+    }
+    
+    public int getTcpPort() {
+        return this.tcpPort;
+    }
+    
+    public HubServerConfig setTcpPort(final int tcpPort) {
+        this.tcpPort = tcpPort;
+        return this;
+    }
+    
+    public int getUdpPort() {
+        return this.udpPort;
+    }
+    
+    public HubServerConfig setUdpPort(final int udpPort) {
+        this.udpPort = udpPort;
+        return this;
+    }
+    
+    public int getSelectorThreads() {
+        return this.selectorThreads;
+    }
+    
+    public HubServerConfig setSelectorThreads(final int selectorThreads) {
+        this.selectorThreads = selectorThreads;
+        return this;
+    }
+    
+    public int getReadBufferSize() {
+        return this.readBufferSize;
+    }
+    
+    public HubServerConfig setReadBufferSize(final int readBufferSize) {
+        this.readBufferSize = readBufferSize;
+        return this;
+    }
+    
+    public int getWriteQueueLimit() {
+        return this.writeQueueLimit;
+    }
+    
+    public HubServerConfig setWriteQueueLimit(final int writeQueueLimit) {
+        this.writeQueueLimit = writeQueueLimit;
+        return this;
+    }
+    
+    public int getMaxConnections() {
+        return this.maxConnections;
+    }
+    
+    public HubServerConfig setMaxConnections(final int maxConnections) {
+        this.maxConnections = maxConnections;
+        return this;
+    }
+    
+    public long getIdleTimeoutMillis() {
+        return this.idleTimeoutMillis;
+    }
+    
+    public HubServerConfig setIdleTimeoutMillis(final long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        return this;
+    }
+    
+    InetSocketAddress address(final int port) {
+        return (this.bindAddress != null) ? new InetSocketAddress(this.bindAddress, port) : new InetSocketAddress(port);
+    }
+}
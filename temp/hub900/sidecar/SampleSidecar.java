@@ -0,0 +1,287 @@
+package com.hub900.sidecar;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+import com.hub900.codec.*;
+import com.hub900.entity.*;
+import com.hub900.server.*;
+
+public final class SampleSidecar implements Closeable
+{
+    public static final int OP_SUBSCRIBE_HUB = 1;
+    public static final int OP_SUBSCRIBE_DEVICE = 2;
+    public static final int OP_UNSUBSCRIBE_HUB = 3;
+    public static final int OP_UNSUBSCRIBE_DEVICE = 4;
+    public static final int OP_CLEAR = 5;
+    public static final int RECORD_LENGTH = SampleCodec.RECORD_SIZE;
+    private final Path socketPath;
+    private final int queueCapacity;
+    private final List<Subscriber> subscribers;
+    private final LongAdder droppedRecords;
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+    private volatile boolean running;
+    
+    public SampleSidecar(final Path socketPath) {
+        this(socketPath, 8192);
+    }
+    
+    public SampleSidecar(final Path socketPath, final int queueCapacity) {
+        this.socketPath = socketPath;
+        this.queueCapacity = queueCapacity;
+        this.subscribers = new CopyOnWriteArrayList<Subscriber>();
+        this.droppedRecords = new LongAdder();
+    }
+    
+    public SampleSidecar attach(final HubManager hubManager) {
+        hubManager.addSampleListener(SampleListener.forTypes(this::publish, SampleType.ANT_HEART_RATE, SampleType.BLE_HEART_RATE, SampleType.BLE_BOXING_HEART_RATE, SampleType.ANT_SPEED, SampleType.ANT_CADENCE));
+        return this;
+    }
+    
+    public synchronized SampleSidecar start() throws IOException {
+        if (this.running) {
+            return this;
+        }
+        Files.deleteIfExists(this.socketPath);
+        this.serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        this.serverChannel.bind(UnixDomainSocketAddress.of(this.socketPath));
+        this.running = true;
+        (this.acceptor = new Thread(this::acceptLoop, "hub900-sidecar-acceptor")).setDaemon(true);
+        this.acceptor.start();
+        return this;
+    }
+    
+    public Path getSocketPath() {
+        return this.socketPath;
+    }
+    
+    public int getSubscriberCount() {
+        return this.subscribers.size();
+    }
+    
+    public long getDroppedRecords() {
+        return this.droppedRecords.sum();
+    }
+    
+    public void publish(final AbstractData data) {
+        if (this.subscribers.isEmpty()) {
+            return;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(4 + SampleSidecar.RECORD_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SampleSidecar.RECORD_LENGTH);
+        if (!SampleCodec.write(buffer, data, System.currentTimeMillis())) {
+            return;
+        }
+        final int hubId = SampleCodec.hubId(buffer, 4);
+        final long deviceId = SampleCodec.deviceId(buffer, 4);
+        for (final Subscriber subscriber : this.subscribers) {
+            if (subscriber.matches(hubId, deviceId) && !subscriber.queue.offer(buffer.array())) {
+                this.droppedRecords.increment();
+            }
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (!this.running) {
+            return;
+        }
+        this.running = false;
+        try {
+            this.serverChannel.close();
+        }
+        catch (IOException ex) {}
+        for (final Subscriber subscriber : this.subscribers) {
+            subscriber.close();
+        }
+        try {
+            this.acceptor.join(5000L);
+            Files.deleteIfExists(this.socketPath);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException ex2) {}
+    }
+    
+    public static void main(final String[] args) throws Exception {
+        final Map<String, String> options = new HashMap<String, String>();
+        for (final String arg : args) {
+            final int eq = arg.indexOf(61);
+            if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        final HubManager hubManager = new HubManager();
+        final SampleSidecar sidecar = new SampleSidecar(Paths.get(options.getOrDefault("socket", "/tmp/hub900.sock"))).attach(hubManager).start();
+        final HubIngestServer server = new HubIngestServer(hubManager, new HubServerConfig().setTcpPort(Integer.parseInt(options.getOrDefault("tcp", "8088"))).setUdpPort(Integer.parseInt(options.getOrDefault("udp", "8088")))).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            sidecar.close();
+        }));
+        System.out.println("hub900 sidecar listening on " + sidecar.getSocketPath() + " tcp=" + server.getTcpPort() + " udp=" + server.getUdpPort());
+        Thread.currentThread().join();
+    }
+    
+    private void acceptLoop() {
+        while (this.running) {
+            try {
+                final Subscriber subscriber = new Subscriber(this.serverChannel.accept());
+                this.subscribers.add(subscriber);
+                subscriber.start();
+            }
+            catch (IOException e) {
+                if (!this.running) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    private final class Subscriber
+    {
+        private final SocketChannel channel;
+        private final BlockingQueue<byte[]> queue;
+        private final Thread reader;
+        private final Thread writer;
+        private volatile int[] hubs;
+        private volatile long[] devices;
+        private volatile boolean closed;
+        
+        Subscriber(final SocketChannel channel) {
+            this.channel = channel;
+            this.queue = new ArrayBlockingQueue<byte[]>(SampleSidecar.this.queueCapacity);
+            this.hubs = new int[0];
+            this.devices = new long[0];
+            (this.reader = new Thread(this::readLoop, "hub900-sidecar-reader")).setDaemon(true);
+            (this.writer = new Thread(this::writeLoop, "hub900-sidecar-writer")).setDaemon(true);
+        }
+        
+        void start() {
+            this.reader.start();
+            this.writer.start();
+        }
+        
+        boolean matches(final int hubId, final long deviceId) {
+            final int[] hubs = this.hubs;
+            final long[] devices = this.devices;
+            return (hubs.length == 0 && devices.length == 0) || Arrays.binarySearch(hubs, hubId) >= 0 || Arrays.binarySearch(devices, deviceId) >= 0;
+        }
+        
+        private void readLoop() {
+            final ByteBuffer buffer = ByteBuffer.allocate(13).order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                while (!this.closed) {
+                    buffer.clear().limit(4);
+                    if (!this.readFully(buffer)) {
+                        break;
+                    }
+                    final int length = buffer.getInt(0);
+                    if (length != 9) {
+                        break;
+                    }
+                    buffer.clear().limit(9);
+                    if (!this.readFully(buffer)) {
+                        break;
+                    }
+                    this.apply(buffer.get(0) & 0xFF, buffer.getLong(1));
+                }
+            }
+            catch (IOException ex) {}
+            this.close();
+        }
+        
+        private boolean readFully(final ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (this.channel.read(buffer) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private synchronized void apply(final int op, final long id) {
+            switch (op) {
+                case 1: {
+                    if (Arrays.binarySearch(this.hubs, (int)id) < 0) {
+                        final int[] hubs = Arrays.copyOf(this.hubs, this.hubs.length + 1);
+                        hubs[hubs.length - 1] = (int)id;
+                        Arrays.sort(hubs);
+                        this.hubs = hubs;
+                    }
+                    break;
+                }
+                case 2: {
+                    if (Arrays.binarySearch(this.devices, id) < 0) {
+                        final long[] devices = Arrays.copyOf(this.devices, this.devices.length + 1);
+                        devices[devices.length - 1] = id;
+                        Arrays.sort(devices);
+                        this.devices = devices;
+                    }
+                    break;
+                }
+                case 3: {
+                    this.hubs = Arrays.stream(this.hubs).filter(hub -> hub != (int)id).toArray();
+                    break;
+                }
+                case 4: {
+                    this.devices = Arrays.stream(this.devices).filter(device -> device != id).toArray();
+                    break;
+                }
+                case 5: {
+                    this.hubs = new int[0];
+                    this.devices = new long[0];
+                    break;
+                }
+            }
+        }
+        
+        private void writeLoop() {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(65536);
+            try {
+                while (!this.closed) {
+                    final byte[] first = this.queue.poll(1L, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    buffer.clear();
+                    buffer.put(first);
+                    byte[] next;
+                    while (buffer.remaining() >= 4 + SampleSidecar.RECORD_LENGTH && (next = this.queue.poll()) != null) {
+                        buffer.put(next);
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        this.channel.write(buffer);
+                    }
+                }
+            }
+            catch (IOException ex) {}
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.close();
+        }
+        
+        void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            SampleSidecar.this.subscribers.remove(this);
+            try {
+                this.channel.close();
+            }
+            catch (IOException ex) {}
+            this.queue.clear();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.hub900;
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import com.hub900.callback.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationBudgetTest
+{
+    private static final int WARMUP_ROUNDS = 20000;
+    private static final int MEASURE_ROUNDS = 5000;
+    private static final int SAMPLES_PER_FRAME = 30;
+    private static final int HUB_ID = 0x00012F3A;
+    
+    @Test
+    void antHeartRate() throws Exception {
+        assertWithinBudget("antHeartRate", 184000L);
+    }
+    
+    @Test
+    void bleHeartRate() throws Exception {
+        assertWithinBudget("bleHeartRate", 332000L);
+    }
+    
+    @Test
+    void bleBoxing() throws Exception {
+        assertWithinBudget("bleBoxing", 476000L);
+    }
+    
+    @Test
+    void antCadenceSpeed() throws Exception {
+        assertWithinBudget("antCadenceSpeed", 206000L);
+    }
+    
+    @Test
+    void heartBeat() throws Exception {
+        assertWithinBudget("heartBeat", 16000L);
+    }
+    
+    private static void assertWithinBudget(final String name, final long defaultBudget) throws Exception {
+        final long perFrame = measureInFreshJvm(name);
+        final long budget = Long.getLong("hub900.budget." + name, defaultBudget);
+        assertTrue(perFrame <= budget, name + " allocated " + perFrame + " B/frame, budget " + budget + " B/frame");
+    }
+    
+    private static long measureInFreshJvm(final String name) throws Exception {
+        final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        final Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Probe.class.getName(), name).redirectErrorStream(true).start();
+        final String output;
+        try (final InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.US_ASCII).trim();
+        }
+        assertTrue(process.waitFor(120L, TimeUnit.SECONDS), name + " probe timed out");
+        assertEquals(0, process.exitValue(), name + " probe failed: " + output);
+        return Long.parseLong(output);
+    }
+    
+    private static byte[][] frames(final String name) {
+        switch (name) {
+            case "antHeartRate": {
+                return new byte[][] { Frames.antHeartRateFrame(HUB_ID, 1, SAMPLES_PER_FRAME), Frames.antHeartRateFrame(HUB_ID, 2, SAMPLES_PER_FRAME) };
+            }
+            case "bleHeartRate": {
+                return new byte[][] { Frames.bleHeartRateFrame(HUB_ID, 1, SAMPLES_PER_FRAME), Frames.bleHeartRateFrame(HUB_ID, 2, SAMPLES_PER_FRAME) };
+            }
+            case "bleBoxing": {
+                return new byte[][] { Frames.bleBoxingFrame(HUB_ID, 1, SAMPLES_PER_FRAME), Frames.bleBoxingFrame(HUB_ID, 2, SAMPLES_PER_FRAME) };
+            }
+            case "antCadenceSpeed": {
+                return new byte[][] { cadenceSpeedFrame(HUB_ID, 1), cadenceSpeedFrame(HUB_ID, 2) };
+            }
+            case "heartBeat": {
+                return new byte[][] { Frames.heartBeatFrame(HUB_ID, 1), Frames.heartBeatFrame(HUB_ID, 2) };
+            }
+            default: {
+                throw new IllegalArgumentException("unknown path: " + name);
+            }
+        }
+    }
+    
+    private static byte[] cadenceSpeedFrame(final int hubId, final int serial) {
+        final byte[][] records = new byte[SAMPLES_PER_FRAME][];
+        for (int i = 0; i < SAMPLES_PER_FRAME; ++i) {
+            records[i] = (((i & 0x1) == 0x0) ? Frames.antSpeed(0x51C00 + i, serial * 3 + i, serial * 2048, -55) : Frames.antCadence(0x52C00 + i, serial * 2048, serial * 2 + i, -57));
+        }
+        return Frames.frame(Frames.merge(Frames.header(hubId, serial, Frames.CMD_ANT), records));
+    }
+    
+    static final class Probe
+    {
+        private static long sink;
+        
+        public static void main(final String[] args) {
+            final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+            threadMXBean.setThreadAllocatedMemoryEnabled(true);
+            final HubManager hubManager = new HubManager();
+            hubManager.setAntHeartRateDataCallback(data -> Probe.sink += data.getHeartRate()).setAntSpeedDataCallback(data -> Probe.sink += data.getDeviceId()).setAntCadenceDataCallback(data -> Probe.sink += data.getCadence()).setBleHeartRateDataCallback(data -> Probe.sink += data.getHeartRate()).setBleBoxingDataCallback(data -> Probe.sink += data.getPower()).setHeartBeatDataCallback(data -> Probe.sink += data.getBattery()).setErrorDataCallback((message, bytes) -> {
+                throw new IllegalStateException(message);
+            });
+            final AckBackCallback ackBackCallback = ack -> Probe.sink += ack.length;
+            final byte[][] frames = frames(args[0]);
+            for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+                hubManager.onDataReceived(frames[i & 0x1], ackBackCallback);
+            }
+            final long threadId = Thread.currentThread().getId();
+            final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURE_ROUNDS; ++i) {
+                hubManager.onDataReceived(frames[i & 0x1], ackBackCallback);
+            }
+            System.out.println((threadMXBean.getThreadAllocatedBytes(threadId) - before) / MEASURE_ROUNDS);
+        }
+    }
+}
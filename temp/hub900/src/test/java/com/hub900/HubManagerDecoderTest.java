@@ -0,0 +1,39 @@
+package com.hub900;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import com.hub900.ble.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HubManagerDecoderTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    
+    @Test
+    void decoderReturningWrongEntityIsReported() {
+        final BleDecoder mismatched = new BleDecoder() {
+            @Override
+            public BleMatchKey[] getMatchKeys() {
+                return new BleMatchKey[] { BleMatchKey.advType(161) };
+            }
+    
+            @Override
+            public SampleType getSampleType() {
+                return SampleType.BLE_HEART_RATE;
+            }
+    
+            @Override
+            public AbstractData decode(final BleRecord record) {
+                return record.cadence();
+            }
+        };
+        final List<String> errors = new ArrayList<String>();
+        final List<AbstractData> delivered = new ArrayList<AbstractData>();
+        final HubManager hubManager = new HubManager().setEntityPooling(true).setBleDecoders(BleDecoderRegistry.builder().addDefaults().add(mismatched).build()).setErrorDataCallback((message, data) -> errors.add(message)).setBleHeartRateDataCallback(delivered::add);
+        hubManager.onDataReceived(Frames.bleHeartRateFrame(HUB_ID, 1, 2), null);
+        assertTrue(delivered.isEmpty());
+        assertEquals(Collections.nCopies(2, DataErrorCode.DECODER_TYPE_MISMATCH.getMessage()), errors);
+    }
+}
@@ -0,0 +1,69 @@
+package com.hub900;
+
+import java.util.*;
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import com.hub900.callback.*;
+import com.hub900.entity.*;
+import com.hub900.state.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HubManagerListenerTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    
+    @Test
+    void attachedConsumersShareTheStream() {
+        final List<Long> callbackDevices = new ArrayList<Long>();
+        final List<SampleType> listenerTypes = new ArrayList<SampleType>();
+        final LatestValueTable table = new LatestValueTable(64);
+        final HubManager hubManager = new HubManager().setAntHeartRateDataCallback(data -> callbackDevices.add(data.getDeviceId()));
+        table.attach(hubManager);
+        hubManager.addSampleListener((type, data) -> listenerTypes.add(type));
+        hubManager.onDataReceived(Frames.antHeartRateFrame(HUB_ID, 1, 3), null);
+        hubManager.onDataReceived(Frames.bleHeartRateFrame(HUB_ID, 2, 2), null);
+        assertEquals(Arrays.asList(0x3E8A0L, 0x3E8A1L, 0x3E8A2L), callbackDevices);
+        assertEquals(Arrays.asList(SampleType.ANT_HEART_RATE, SampleType.ANT_HEART_RATE, SampleType.ANT_HEART_RATE, SampleType.BLE_HEART_RATE, SampleType.BLE_HEART_RATE), listenerTypes);
+        final SensorReading reading = new SensorReading();
+        assertTrue(table.read(SampleType.ANT_HEART_RATE, 0x3E8A1L, reading));
+        assertEquals(71, reading.getHeartRate());
+        assertTrue(table.read(SampleType.BLE_HEART_RATE, 0x2A000001L, reading));
+    }
+    
+    @Test
+    void failingListenerIsReportedAndIsolated() {
+        final List<String> errors = new ArrayList<String>();
+        final int[] delivered = { 0 };
+        final SampleListener failing = (type, data) -> {
+            throw new IllegalStateException("boom");
+        };
+        final HubManager hubManager = new HubManager().setErrorDataCallback((message, data) -> errors.add(message)).addSampleListener(failing).addSampleListener((type, data) -> ++delivered[0]);
+        hubManager.onDataReceived(Frames.antHeartRateFrame(HUB_ID, 1, 2), null);
+        assertEquals(2, delivered[0]);
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(0).startsWith("SampleListener:"), errors.get(0));
+        hubManager.removeSampleListener(failing);
+        assertEquals(1, hubManager.getSampleListeners().size());
+        hubManager.onDataReceived(Frames.antHeartRateFrame(HUB_ID, 2, 2), null);
+        assertEquals(4, delivered[0]);
+        assertEquals(2, errors.size());
+    }
+    
+    @Test
+    void forTypesFiltersSamples() {
+        final List<AbstractData> received = new ArrayList<AbstractData>();
+        final HubManager hubManager = new HubManager().addSampleListener(SampleListener.forTypes(received::add, SampleType.BLE_HEART_RATE));
+        hubManager.onDataReceived(Frames.antHeartRateFrame(HUB_ID, 1, 2), null);
+        hubManager.onDataReceived(Frames.bleHeartRateFrame(HUB_ID, 2, 2), null);
+        assertEquals(2, received.size());
+        assertTrue(received.get(0) instanceof BleHeartRateData);
+    }
+    
+    @Test
+    void sessionsInheritListeners() {
+        final int[] delivered = { 0 };
+        final HubManager session = new HubManager().addSampleListener((type, data) -> ++delivered[0]).newSession();
+        session.onDataReceived(Frames.antHeartRateFrame(HUB_ID, 1, 2), null);
+        assertEquals(2, delivered[0]);
+    }
+}
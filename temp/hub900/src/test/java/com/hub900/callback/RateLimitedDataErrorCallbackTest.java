@@ -0,0 +1,118 @@
+package com.hub900.callback;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitedDataErrorCallbackTest
+{
+    private static final byte[] DATA = { 126, 1, 2, 3 };
+    private final List<DataErrorReport> reports = new ArrayList<DataErrorReport>();
+    
+    @Test
+    void firstErrorIsReportedImmediately() {
+        final RateLimitedDataErrorCallback callback = new RateLimitedDataErrorCallback(this.reports::add, 60000L, 16);
+        callback.onDataError(DataErrorCode.CHECKSUM_MISMATCH, 7, 3, DATA);
+        callback.onDataError(DataErrorCode.CHECKSUM_MISMATCH, 7, 5, DATA);
+        assertEquals(1, this.reports.size());
+        assertEquals(1L, this.reports.get(0).getCount());
+        callback.flush();
+        assertEquals(2, this.reports.size());
+        assertEquals(1L, this.reports.get(1).getCount());
+        assertEquals(5, this.reports.get(1).getOffset());
+    }
+    
+    @Test
+    void tickReportsQuietHubWithArrivalTime() throws InterruptedException {
+        final RateLimitedDataErrorCallback callback = new RateLimitedDataErrorCallback(this.reports::add, 50L, 16);
+        for (int i = 0; i < 5; ++i) {
+            callback.onDataError(DataErrorCode.TRUNCATED_RECORD, 7, i, DATA);
+        }
+        final long lastArrival = System.currentTimeMillis();
+        Thread.sleep(120L);
+        callback.tick();
+        assertEquals(2, this.reports.size());
+        final DataErrorReport summary = this.reports.get(1);
+        assertEquals(4L, summary.getCount());
+        assertTrue(summary.getLastMillis() <= lastArrival, "last " + summary.getLastMillis() + " after arrival " + lastArrival);
+        callback.tick();
+        assertEquals(2, this.reports.size());
+    }
+    
+    @Test
+    void recordExpiresOtherDueWindows() throws InterruptedException {
+        final RateLimitedDataErrorCallback callback = new RateLimitedDataErrorCallback(this.reports::add, 50L, 16);
+        callback.onDataError(DataErrorCode.TRUNCATED_RECORD, 7, 0, DATA);
+        callback.onDataError(DataErrorCode.TRUNCATED_RECORD, 7, 1, DATA);
+        Thread.sleep(120L);
+        callback.onDataError(DataErrorCode.CHECKSUM_MISMATCH, 8, 0, DATA);
+        assertEquals(3, this.reports.size());
+        assertEquals(7, this.reports.get(1).getHubId());
+        assertEquals(1L, this.reports.get(1).getCount());
+        assertEquals(8, this.reports.get(2).getHubId());
+    }
+    
+    @Test
+    void scheduledTickReportsWithoutFurtherErrors() throws InterruptedException {
+        try (final RateLimitedDataErrorCallback callback = new RateLimitedDataErrorCallback(this::report, 20L, 16).start()) {
+            callback.onDataError(DataErrorCode.TRUNCATED_RECORD, 7, 0, DATA);
+            callback.onDataError(DataErrorCode.TRUNCATED_RECORD, 7, 1, DATA);
+            final long deadline = System.currentTimeMillis() + 5000L;
+            synchronized (this.reports) {
+                while (this.reports.size() < 2 && System.currentTimeMillis() < deadline) {
+                    this.reports.wait(50L);
+                }
+                assertEquals(2, this.reports.size());
+            }
+        }
+    }
+    
+    @Test
+    void slowReporterDoesNotBlockOtherHubs() throws Exception {
+        final CountDownLatch reporting = new CountDownLatch(1);
+        final CountDownLatch unblock = new CountDownLatch(1);
+        final RateLimitedDataErrorCallback callback = new RateLimitedDataErrorCallback(report -> {
+            if (report.getHubId() == 7) {
+                reporting.countDown();
+                try {
+                    unblock.await(5L, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            this.report(report);
+        }, 60000L, 16);
+        final Thread slow = new Thread(() -> callback.onDataError(DataErrorCode.CHECKSUM_MISMATCH, 7, 0, DATA));
+        slow.start();
+        try {
+            assertTrue(reporting.await(5L, TimeUnit.SECONDS));
+            final Thread other = new Thread(() -> {
+                callback.onDataError(DataErrorCode.CHECKSUM_MISMATCH, 8, 0, DATA);
+                callback.onDataError(DataErrorCode.CHECKSUM_MISMATCH, 7, 1, DATA);
+            });
+            other.start();
+            other.join(2000L);
+            assertFalse(other.isAlive(), "decoding blocked behind a slow reporter");
+            synchronized (this.reports) {
+                assertEquals(1, this.reports.size());
+                assertEquals(8, this.reports.get(0).getHubId());
+            }
+        }
+        finally {
+            unblock.countDown();
+            slow.join(5000L);
+        }
+        callback.flush();
+        assertEquals(3, this.reports.size());
+    }
+    
+    private void report(final DataErrorReport report) {
+        synchronized (this.reports) {
+            this.reports.add(report);
+            this.reports.notifyAll();
+        }
+    }
+}
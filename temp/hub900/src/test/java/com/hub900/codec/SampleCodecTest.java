@@ -0,0 +1,104 @@
+package com.hub900.codec;
+
+import java.nio.*;
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleCodecTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    private static final long TIMESTAMP = 1700000000000L;
+    
+    @Test
+    void antHeartRate() {
+        final byte[] record = Frames.antHeartRate(0x3E8A0, 128, 7, 20480, 17, -62);
+        final AntHeartRateData data = new AntHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_ANT), record), record, null, null);
+        assertRoundTrip(data, SampleType.ANT_HEART_RATE, data.getDeviceId(), data.getHeartRate(), ByteOrder.LITTLE_ENDIAN);
+        assertRoundTrip(data, SampleType.ANT_HEART_RATE, data.getDeviceId(), data.getHeartRate(), ByteOrder.BIG_ENDIAN);
+    }
+    
+    @Test
+    void bleHeartRate() {
+        final byte[] record = Frames.bleHeartRate(0x2A000001L, 131, 77, 2048L, 356, -58);
+        final BleHeartRateData data = new BleHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), record), record, null, null);
+        final SampleRecord decoded = assertRoundTrip(data, SampleType.BLE_HEART_RATE, data.getDeviceId(), data.getHeartRate(), ByteOrder.BIG_ENDIAN);
+        assertEquals(data.getSteps(), decoded.getSteps());
+        assertEquals(data.getCalories(), decoded.getCalories());
+        assertEquals(data.getBattery(), decoded.getBattery());
+    }
+    
+    @Test
+    void standardBleHeartRateIsKeyedByMac() {
+        final byte[] first = Frames.bleStandardHeartRate(0x11223344L, "HRM-A", 92, 80, -61);
+        final byte[] second = Frames.bleStandardHeartRate(0x11223345L, "HRM-B", 97, 75, -64);
+        final BleHeartRateData a = new BleHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), first), first, null, null);
+        final BleHeartRateData b = new BleHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), second), second, null, null);
+        assertFalse(a.isVendorAdvert());
+        assertEquals(0L, a.getDeviceId());
+        assertEquals(0xE40011223344L, a.getBleMacValue());
+        assertRoundTrip(a, SampleType.BLE_HEART_RATE, 0xE40011223344L, 92.0f, ByteOrder.LITTLE_ENDIAN);
+        assertRoundTrip(b, SampleType.BLE_HEART_RATE, 0xE40011223345L, 97.0f, ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    @Test
+    void bleBoxingHeartRate() {
+        final byte[] record = Frames.bleBoxingHeartRate(0x4D21, 0x2B000007L, 144, 61, -66);
+        final BleBoxingHeartRateData data = new BleBoxingHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), record), record, null, null);
+        assertEquals(0x4D21, data.getHubId());
+        final SampleRecord decoded = assertRoundTrip(data, SampleType.BLE_BOXING_HEART_RATE, data.getDeviceId(), data.getHeartRate(), ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x2B000007L, decoded.getDeviceId());
+        assertEquals(data.getGroup(), decoded.getAux());
+        assertEquals(data.getRssi(), decoded.getRssi());
+    }
+    
+    @Test
+    void antSpeed() {
+        final byte[] record = Frames.antSpeed(0x51C00, 300, 40960, -55);
+        final AntSpeedData data = new AntSpeedData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_ANT), record), record, null, null, 2340);
+        final SampleRecord decoded = assertRoundTrip(data, SampleType.ANT_SPEED, data.getDeviceId(), (float)data.getSpeed(), ByteOrder.LITTLE_ENDIAN);
+        assertEquals(2340, decoded.getAux());
+    }
+    
+    @Test
+    void antCadence() {
+        final byte[] record = Frames.antCadence(0x51C01, 30720, 1200, -57);
+        final AntCadenceDta data = new AntCadenceDta(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_ANT), record), record, null, null);
+        assertRoundTrip(data, SampleType.ANT_CADENCE, data.getDeviceId(), (float)data.getCadence(), ByteOrder.LITTLE_ENDIAN);
+        assertRoundTrip(data, SampleType.ANT_CADENCE, data.getDeviceId(), (float)data.getCadence(), ByteOrder.BIG_ENDIAN);
+    }
+    
+    @Test
+    void unsupportedEntityIsNotWritten() {
+        final ByteBuffer buffer = ByteBuffer.allocate(SampleCodec.RECORD_SIZE);
+        assertFalse(SampleCodec.write(buffer, new HeartBeatData(Frames.header(HUB_ID, 1, Frames.CMD_HEART_BEAT), Frames.heartBeat(90, 1, -60), null, null), TIMESTAMP));
+        assertEquals(0, buffer.position());
+    }
+    
+    @Test
+    void shortBufferIsRejected() {
+        assertThrows(BufferOverflowException.class, () -> SampleCodec.write(ByteBuffer.allocate(SampleCodec.RECORD_SIZE - 1), SampleType.ANT_HEART_RATE, HUB_ID, 1L, TIMESTAMP, 0, 0, 0.0f, 0.0f, 0L, 0));
+        assertThrows(BufferUnderflowException.class, () -> SampleCodec.read(ByteBuffer.allocate(SampleCodec.RECORD_SIZE - 1), new SampleRecord()));
+    }
+    
+    private static SampleRecord assertRoundTrip(final AbstractData data, final SampleType type, final long deviceId, final float value, final ByteOrder order) {
+        final ByteBuffer buffer = ByteBuffer.allocate(SampleCodec.RECORD_SIZE).order(order);
+        assertTrue(SampleCodec.write(buffer, data, TIMESTAMP));
+        final ByteBuffer little = ByteBuffer.wrap(buffer.array()).order(ByteOrder.LITTLE_ENDIAN);
+        final SampleRecord record = SampleCodec.read(little, new SampleRecord());
+        assertEquals(type, record.getType());
+        assertEquals(HUB_ID, record.getHubId());
+        assertEquals(deviceId, record.getDeviceId());
+        assertEquals(value, record.getValue());
+        assertEquals(TIMESTAMP, record.getTimestamp());
+        assertEquals(SampleCodec.RECORD_SIZE, little.position());
+        assertEquals(type, SampleCodec.type(little, 0));
+        assertEquals(HUB_ID, SampleCodec.hubId(little, 0));
+        assertEquals(deviceId, SampleCodec.deviceId(little, 0));
+        final ByteBuffer copy = ByteBuffer.allocate(SampleCodec.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        SampleCodec.write(copy, record);
+        assertEquals(ByteBuffer.wrap(buffer.array()), copy.flip());
+        return record;
+    }
+}
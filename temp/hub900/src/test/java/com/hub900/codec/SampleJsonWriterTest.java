@@ -0,0 +1,58 @@
+package com.hub900.codec;
+
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleJsonWriterTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    private static final long TIMESTAMP = 1700000000000L;
+    
+    @Test
+    void standardAdvertMatchesHeartRateMessage() {
+        final String json = write(Frames.bleStandardHeartRate(0x11223344L, "CL831-0412709", 92, 80, -61));
+        assertTrue(json.contains("\"tech\":\"BLE\",\"sensor_id\":\"412709\",\"sensor_id_number\":412709,\"bpm\":92"), json);
+        assertTrue(json.contains("\"ble_device_id_hex\":\"e40011223344\""), json);
+        assertTrue(json.contains("\"ble_steps\":null,\"ble_calories\":null,\"ble_temperature_c\":null,\"ble_oxygen\":null"), json);
+    }
+    
+    @Test
+    void standardAdvertWithoutNameUsesMac() {
+        final String json = write(Frames.bleStandardHeartRate(0x11223344L, "HRM", 92, 80, -61));
+        final long id = (0x223344L % 10000000L);
+        assertTrue(json.contains("\"sensor_id\":\"" + id + "\",\"sensor_id_number\":" + id + ","), json);
+    }
+    
+    @Test
+    void vendorAdvertKeepsDeviceIdAndCounters() {
+        final String json = write(Frames.bleHeartRate(0x002A0001L, 131, 77, 2048L, 356, -58));
+        assertTrue(json.contains("\"sensor_id\":\"2752513\",\"sensor_id_number\":2752513"), json);
+        assertTrue(json.contains("\"ble_adv_type\":161,\"ble_device_id_hex\":\"002a0001\""), json);
+        assertTrue(json.contains("\"ble_steps\":2048,\"ble_calories\":35.6"), json);
+    }
+    
+    @Test
+    void highBitDeviceIdIsWrittenAsEightHexDigits() {
+        final String json = write(Frames.bleHeartRate(0x8A000001L, 131, 77, 2048L, 356, -58));
+        assertTrue(json.contains("\"ble_device_id_hex\":\"8a000001\""), json);
+        final byte[] record = Frames.bleBoxingHeartRate(7, 0x8B000002L, 130, 70, -58);
+        final BleBoxingHeartRateData data = new BleBoxingHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), record), record, null, null);
+        final String boxing = new SampleJsonWriter().writeBleBoxingHeartRate(data, TIMESTAMP).toString();
+        assertTrue(boxing.contains("\"ble_device_id_hex\":\"8b000002\""), boxing);
+    }
+    
+    @Test
+    void boxingHubIdComesFromFrame() {
+        final byte[] record = Frames.bleBoxingHeartRate(7, 0x2B000001L, 130, 70, -58);
+        final BleBoxingHeartRateData data = new BleBoxingHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), record), record, null, null);
+        final String json = new SampleJsonWriter().writeBleBoxingHeartRate(data, TIMESTAMP).toString();
+        assertTrue(json.contains("\"hub_id\":" + HUB_ID + ","), json);
+    }
+    
+    private static String write(final byte[] record) {
+        final BleHeartRateData data = new BleHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), record), record, null, null);
+        return new SampleJsonWriter().writeBleHeartRate(data, TIMESTAMP).toString();
+    }
+}
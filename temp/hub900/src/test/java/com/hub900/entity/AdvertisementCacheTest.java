@@ -0,0 +1,54 @@
+package com.hub900.entity;
+
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdvertisementCacheTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    private static final int OTHER_HUB_ID = 0x00012F3B;
+    private static final long DEVICE = 0x2A000001L;
+    
+    @Test
+    void hitRefreshesRssiAndHeaderOnly() {
+        final AdvertisementCache cache = new AdvertisementCache(16);
+        final BleHeartRateData first = decode(cache, HUB_ID, 1, Frames.bleHeartRate(DEVICE, 131, 77, 2048L, 356, -58), 0L);
+        assertFalse(cache.wasHit());
+        first.setHeartRate(1);
+        final BleHeartRateData second = decode(cache, OTHER_HUB_ID, 7, Frames.bleHeartRate(DEVICE, 131, 77, 2048L, 356, -71), 250L);
+        assertTrue(cache.wasHit());
+        assertNotSame(first, second);
+        assertEquals(-71, second.getRssi());
+        assertEquals(OTHER_HUB_ID, second.getHubId());
+        assertEquals(7, second.getPacketSerialNumber());
+        assertEquals(131, second.getHeartRate());
+        assertEquals(77, second.getBattery());
+        assertEquals(2048L, second.getSteps());
+        assertEquals(35.6f, second.getCalories(), 0.001f);
+        assertEquals(DEVICE, second.getDeviceId());
+        assertEquals(1L, cache.getHits());
+        assertEquals(1L, cache.getMisses());
+        assertEquals(250L, cache.lastSeen(second.getBleMacValue()));
+    }
+    
+    @Test
+    void changedPayloadIsDecodedAgain() {
+        final AdvertisementCache cache = new AdvertisementCache(16);
+        decode(cache, HUB_ID, 1, Frames.bleHeartRate(DEVICE, 131, 77, 2048L, 356, -58), 0L);
+        final BleHeartRateData changed = decode(cache, HUB_ID, 2, Frames.bleHeartRate(DEVICE, 133, 77, 2050L, 357, -58), 250L);
+        assertFalse(cache.wasHit());
+        assertEquals(133, changed.getHeartRate());
+        assertEquals(2050L, changed.getSteps());
+        final BleHeartRateData repeated = decode(cache, HUB_ID, 3, Frames.bleHeartRate(DEVICE, 133, 77, 2050L, 357, -60), 500L);
+        assertTrue(cache.wasHit());
+        assertEquals(133, repeated.getHeartRate());
+        assertEquals(-60, repeated.getRssi());
+        assertEquals(2L, cache.getMisses());
+    }
+    
+    private static BleHeartRateData decode(final AdvertisementCache cache, final int hubId, final int serial, final byte[] record, final long now) {
+        final byte[] bytes = Frames.merge(Frames.header(hubId, serial, Frames.CMD_BLE), record);
+        return cache.heartRate(HubRegistry.shared().lookup(bytes), bytes, record, null, null, null, false, now);
+    }
+}
@@ -0,0 +1,71 @@
+package com.hub900.entity;
+
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AntBeatTrackerTest
+{
+    private static final long DEVICE = 0x3E8A0L;
+    
+    @Test
+    void firstSampleAndRepeatedCountHaveNoInterval() {
+        final AntBeatTracker tracker = new AntBeatTracker(16);
+        assertEquals(0, tracker.track(DEVICE, 10, 1000, -1, 0L));
+        assertEquals(0, tracker.track(DEVICE, 10, 1000, -1, 250L));
+        assertEquals(820, tracker.track(DEVICE, 11, 1820, -1, 500L));
+        assertEquals(1L, tracker.getIntervals());
+    }
+    
+    @Test
+    void beatCountRollsOverAt256() {
+        final AntBeatTracker tracker = new AntBeatTracker(16);
+        tracker.track(DEVICE, 255, 5000, -1, 0L);
+        assertEquals(900, tracker.track(DEVICE, 0, 5900, -1, 250L));
+    }
+    
+    @Test
+    void eventTimeWrapsAt65536() {
+        final AntBeatTracker tracker = new AntBeatTracker(16);
+        tracker.track(DEVICE, 40, 65000, -1, 0L);
+        assertEquals(1036, tracker.track(DEVICE, 41, 500, -1, 250L));
+    }
+    
+    @Test
+    void pageFourPreviousBeatCoversSkippedBeats() {
+        final AntBeatTracker tracker = new AntBeatTracker(16);
+        tracker.track(DEVICE, 20, 10000, -1, 0L);
+        assertEquals(0, tracker.track(DEVICE, 23, 12400, -1, 250L), "interval guessed across skipped beats");
+        assertEquals(0L, tracker.getIntervals());
+        assertEquals(780, tracker.track(DEVICE, 26, 14800, 14020, 500L));
+        assertEquals(700, tracker.track(DEVICE, 28, 300, 65136, 750L));
+        assertEquals(2L, tracker.getIntervals());
+    }
+    
+    @Test
+    void staleDevicesRestart() {
+        final AntBeatTracker tracker = new AntBeatTracker(16);
+        tracker.track(DEVICE, 1, 1000, -1, 0L);
+        assertEquals(0, tracker.track(DEVICE, 2, 1800, 1000, 120000L));
+        assertEquals(800, tracker.track(DEVICE, 3, 2600, -1, 120250L));
+    }
+    
+    @Test
+    void trackSetsTheEntityInterval() {
+        final AntBeatTracker tracker = new AntBeatTracker(16);
+        assertEquals(0, tracker.track(decode(0, 64000, 254, -1), 0L));
+        final AntHeartRateData data = decode(4, 1000, 1, 65024);
+        assertEquals(1512, tracker.track(data, 250L));
+        assertEquals(1512, data.getRrInterval());
+        assertEquals(1476.5625, data.getRrIntervalMillis());
+    }
+    
+    private static AntHeartRateData decode(final int page, final int beatTime, final int beatCount, final int previousBeatTime) {
+        final byte[] record = Frames.antHeartRate(DEVICE, 72, page, beatTime, beatCount, -60);
+        if (previousBeatTime >= 0) {
+            record[8] = (byte)previousBeatTime;
+            record[9] = (byte)(previousBeatTime >>> 8);
+        }
+        return new AntHeartRateData(Frames.merge(Frames.header(0x00012F3A, 1, Frames.CMD_ANT), record), record, null, null);
+    }
+}
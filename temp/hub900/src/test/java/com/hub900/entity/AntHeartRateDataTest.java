@@ -0,0 +1,70 @@
+package com.hub900.entity;
+
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AntHeartRateDataTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    private static final long DEVICE = 0x3E8A0L;
+    
+    @Test
+    void pagesDecodeIntoTheirFields() {
+        assertEquals(2L * 0x030201, decode(1, 0x01, 0x02, 0x03).getOperatingTime());
+        final AntHeartRateData manufacturer = decode(2, 0x0B, 0x34, 0x12);
+        assertEquals(0x0B, manufacturer.getManufacturerId());
+        assertEquals(0x1234, manufacturer.getSerialNumber());
+        final AntHeartRateData product = decode(3, 4, 5, 6);
+        assertEquals(4, product.getHardwareVersion());
+        assertEquals(5, product.getSoftwareVersion());
+        assertEquals(6, product.getModelNumber());
+        assertEquals(0xFDE8, decode(4, 0, 0xE8, 0xFD).getPreviousBeatEventTime());
+        final AntHeartRateData session = decode(5, 120, 150, 110);
+        assertEquals(120, session.getIntervalAverageHeartRate());
+        assertEquals(150, session.getIntervalMaxHeartRate());
+        assertEquals(110, session.getSessionAverageHeartRate());
+        final AntHeartRateData features = decode(6, 0, 0x03, 0x01);
+        assertEquals(0x03, features.getFeaturesSupported());
+        assertEquals(0x01, features.getFeaturesEnabled());
+        final AntHeartRateData battery = decode(7, 85, 0x80, 0x32);
+        assertEquals(85, battery.getBattery());
+        assertEquals(2.5f, battery.getBatteryVoltage());
+        assertEquals(3, battery.getBatteryStatus());
+        assertEquals(0.0f, decode(7, 85, 0x80, 0x3F).getBatteryVoltage());
+    }
+    
+    @Test
+    void pageToggleBitIsIgnored() {
+        final AntHeartRateData data = decode(0x84, 0, 0x10, 0x00);
+        assertEquals(4, data.getDataPage());
+        assertEquals(0x10, data.getPreviousBeatEventTime());
+    }
+    
+    @Test
+    void previousBeatTimeIsOnlySetByPageFour() {
+        assertEquals(-1, decode(0, 0, 0xE8, 0xFD).getPreviousBeatEventTime());
+        assertEquals(-1, decode(2, 0, 0xE8, 0xFD).getPreviousBeatEventTime());
+        final AntHeartRateData data = EntityPool.ANT_HEART_RATE.acquire();
+        final byte[] page4 = record(4, 0, 0xE8, 0xFD);
+        data.reinit(HubRegistry.shared().lookup(Frames.header(HUB_ID, 1, Frames.CMD_ANT)), Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_ANT), page4), page4, null, null);
+        assertEquals(0xFDE8, data.getPreviousBeatEventTime());
+        final byte[] page0 = record(0, 0, 0xE8, 0xFD);
+        data.reinit(HubRegistry.shared().lookup(Frames.header(HUB_ID, 1, Frames.CMD_ANT)), Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_ANT), page0), page0, null, null);
+        assertEquals(-1, data.getPreviousBeatEventTime());
+        data.release();
+    }
+    
+    private static AntHeartRateData decode(final int page, final int b7, final int b8, final int b9) {
+        final byte[] record = record(page, b7, b8, b9);
+        return new AntHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_ANT), record), record, null, null);
+    }
+    
+    private static byte[] record(final int page, final int b7, final int b8, final int b9) {
+        final byte[] record = Frames.antHeartRate(DEVICE, 72, page, 1024, 9, -60);
+        record[7] = (byte)b7;
+        record[8] = (byte)b8;
+        record[9] = (byte)b9;
+        return record;
+    }
+}
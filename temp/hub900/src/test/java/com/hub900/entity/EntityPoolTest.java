@@ -0,0 +1,50 @@
+package com.hub900.entity;
+
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityPoolTest
+{
+    @Test
+    void releasedEntityIsReused() {
+        final AntHeartRateData first = EntityPool.ANT_HEART_RATE.acquire();
+        first.release();
+        final long reused = EntityPool.ANT_HEART_RATE.getReused();
+        final AntHeartRateData second = EntityPool.ANT_HEART_RATE.acquire();
+        assertSame(first, second);
+        assertFalse(second.isReleased());
+        assertEquals(reused + 1L, EntityPool.ANT_HEART_RATE.getReused());
+        second.release();
+    }
+    
+    @Test
+    void doubleReleaseIsRejected() {
+        final BleHeartRateData data = EntityPool.BLE_HEART_RATE.acquire();
+        data.release();
+        assertTrue(data.isReleased());
+        assertThrows(IllegalStateException.class, data::release);
+        final BleHeartRateData next = EntityPool.BLE_HEART_RATE.acquire();
+        final BleHeartRateData other = EntityPool.BLE_HEART_RATE.acquire();
+        assertNotSame(next, other, "entity was recycled twice");
+        next.release();
+        other.release();
+    }
+    
+    @Test
+    void unpooledReleaseIsIgnored() {
+        final byte[] record = Frames.antHeartRate(0x3E8A0L, 72, 0, 1024, 9, -60);
+        final AntHeartRateData data = new AntHeartRateData(Frames.merge(Frames.header(0x00012F3A, 1, Frames.CMD_ANT), record), record, null, null);
+        data.release();
+        data.release();
+        assertFalse(data.isReleased());
+    }
+    
+    @Test
+    void wrongClassRecycleIsRejected() {
+        assertThrows(ClassCastException.class, () -> EntityPool.ANT_HEART_RATE.recycle(new BleHeartRateData()));
+        final AntHeartRateData data = EntityPool.ANT_HEART_RATE.acquire();
+        assertInstanceOf(AntHeartRateData.class, data);
+        data.release();
+    }
+}
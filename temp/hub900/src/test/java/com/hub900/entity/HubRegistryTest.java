@@ -0,0 +1,50 @@
+package com.hub900.entity;
+
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HubRegistryTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    
+    @Test
+    void unchangedHeaderReusesDescriptor() {
+        final HubRegistry registry = new HubRegistry();
+        final HubDescriptor hub = registry.lookup(Frames.header(HUB_ID, 1, Frames.CMD_ANT));
+        assertEquals(HUB_ID, hub.getHubId());
+        assertEquals(0xC82E00012F3AL, hub.getMacValue());
+        assertSame(hub, registry.lookup(Frames.header(HUB_ID, 2, Frames.CMD_BLE)));
+        assertSame(hub, registry.get(HUB_ID));
+        assertEquals(1, registry.size());
+        assertNull(registry.lookup(new byte[19]));
+    }
+    
+    @Test
+    void macChangeRebuildsDescriptor() {
+        final HubRegistry registry = new HubRegistry();
+        final HubDescriptor hub = registry.lookup(Frames.header(HUB_ID, 1, Frames.CMD_ANT));
+        final byte[] moved = Frames.header(HUB_ID, 2, Frames.CMD_ANT);
+        moved[13] = 0x3B;
+        final HubDescriptor rebuilt = registry.lookup(moved);
+        assertNotSame(hub, rebuilt);
+        assertEquals(0xC82E00012F3BL, rebuilt.getMacValue());
+        assertNotEquals(hub.getMac(), rebuilt.getMac());
+        assertSame(rebuilt, registry.get(HUB_ID));
+        assertEquals(1, registry.size());
+    }
+    
+    @Test
+    void usbVersionChangeRebuildsDescriptor() {
+        final HubRegistry registry = new HubRegistry();
+        final HubDescriptor hub = registry.lookup(Frames.header(HUB_ID, 1, Frames.CMD_ANT));
+        final byte[] upgraded = Frames.header(HUB_ID, 2, Frames.CMD_ANT);
+        ++upgraded[12];
+        final HubDescriptor rebuilt = registry.lookup(upgraded);
+        assertNotSame(hub, rebuilt);
+        assertEquals(hub.getUsbVersionCode() + 1, rebuilt.getUsbVersionCode());
+        assertNotEquals(hub.getUsbVersion(), rebuilt.getUsbVersion());
+        assertEquals(hub.getMacValue(), rebuilt.getMacValue());
+        assertSame(rebuilt, registry.lookup(upgraded));
+    }
+}
@@ -0,0 +1,131 @@
+package com.hub900.fanout;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveFanoutServerTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    private LiveFanoutServer server;
+    
+    @AfterEach
+    void stop() {
+        if (this.server != null) {
+            this.server.close();
+        }
+    }
+    
+    @Test
+    void subscriberReceivesDeltas() throws IOException {
+        this.server = new LiveFanoutServer().setMinIntervalMillis(10L).start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        this.server.table("class-1").update(1L, "{\"hr\":90}".getBytes(StandardCharsets.US_ASCII), System.currentTimeMillis());
+        try (final Socket socket = this.subscribe("/live/class-1?interval=20")) {
+            final String stream = readUntil(socket, "{\"hr\":90}");
+            assertTrue(stream.startsWith("HTTP/1.1 200 OK\r\n"), stream);
+            assertTrue(stream.contains("Content-Type: text/event-stream"), stream);
+            assertTrue(stream.contains("event: delta\ndata: [{\"hr\":90}"), stream);
+            this.server.table("class-1").update(2L, "{\"hr\":101}".getBytes(StandardCharsets.US_ASCII), System.currentTimeMillis());
+            assertFalse(readUntil(socket, "{\"hr\":101}").contains("{\"hr\":90}"), "unchanged entry resent");
+        }
+    }
+    
+    @Test
+    void badRequestsAreRejected() throws IOException {
+        this.server = new LiveFanoutServer().start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        try (final Socket socket = this.subscribe("/live/")) {
+            assertTrue(readUntil(socket, "\r\n\r\n").startsWith("HTTP/1.1 404 "));
+        }
+        try (final Socket socket = this.subscribe("/live/no-such-group")) {
+            assertTrue(readUntil(socket, "\r\n\r\n").startsWith("HTTP/1.1 404 "));
+        }
+        try (final Socket socket = this.connect()) {
+            socket.getOutputStream().write("POST /live/class-1 HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            assertTrue(readUntil(socket, "\r\n\r\n").startsWith("HTTP/1.1 405 "));
+        }
+        assertEquals(0, this.server.getSubscriberCount());
+        assertEquals(0, this.server.getGroupCount());
+    }
+    
+    @Test
+    void boxingSamplesAreGroupedByFrameHub() {
+        final byte[] record = Frames.bleBoxingHeartRate(7, 0x2B000001L, 130, 70, -58);
+        final LiveFanoutServer server = new LiveFanoutServer();
+        server.publish(new BleBoxingHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), record), record, null, null));
+        assertEquals(1, server.getGroupCount());
+        assertEquals(1, server.table("hub-" + HUB_ID).size());
+    }
+    
+    @Test
+    void stalledSubscriberIsEvictedWithoutStallingOthers() throws Exception {
+        this.server = new LiveFanoutServer().setMinIntervalMillis(10L).setWriteTimeoutMillis(300L).setMaxPendingBytes(65536).setSenderThreads(1).start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        final LiveTable table = this.server.table("class-1");
+        final byte[] json = new byte[200];
+        Arrays.fill(json, (byte)120);
+        final AtomicLong received = new AtomicLong();
+        try (final Socket stalled = this.connect(); final Socket healthy = this.subscribe("/live/class-1?interval=10")) {
+            stalled.getOutputStream().write("GET /live/class-1?interval=10 HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            final Thread reader = new Thread(() -> {
+                final byte[] buffer = new byte[65536];
+                try {
+                    int read;
+                    while ((read = healthy.getInputStream().read(buffer)) > 0) {
+                        received.addAndGet(read);
+                    }
+                }
+                catch (IOException ex) {}
+            });
+            reader.setDaemon(true);
+            reader.start();
+            final long deadline = System.currentTimeMillis() + 20000L;
+            while (this.server.getEvictedSubscribers() == 0L && System.currentTimeMillis() < deadline) {
+                for (long key = 0L; key < 2000L; ++key) {
+                    table.update(key, json, System.currentTimeMillis());
+                }
+                Thread.sleep(10L);
+            }
+            assertEquals(1L, this.server.getEvictedSubscribers());
+            assertEquals(1, this.server.getSubscriberCount());
+            final long before = received.get();
+            table.update(1L, json, System.currentTimeMillis());
+            final long quiet = System.currentTimeMillis() + 5000L;
+            while (received.get() == before && System.currentTimeMillis() < quiet) {
+                Thread.sleep(10L);
+            }
+            assertTrue(received.get() > before, "healthy subscriber stopped receiving");
+        }
+    }
+    
+    private Socket connect() throws IOException {
+        final Socket socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.setSoTimeout(5000);
+        socket.connect(this.server.getAddress());
+        return socket;
+    }
+    
+    private Socket subscribe(final String target) throws IOException {
+        final Socket socket = this.connect();
+        socket.getOutputStream().write(("GET " + target + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        return socket;
+    }
+    
+    private static String readUntil(final Socket socket, final String marker) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final InputStream in = socket.getInputStream();
+        int b;
+        while ((b = in.read()) >= 0) {
+            out.write(b);
+            if (out.toString(StandardCharsets.US_ASCII).endsWith(marker)) {
+                break;
+            }
+        }
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,31 @@
+package com.hub900.filter;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+import com.hub900.bench.*;
+import com.hub900.roster.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceFilterTest
+{
+    @TempDir
+    Path dir;
+    
+    @Test
+    void highBitDeviceIdsMatchRosterKeys() throws IOException {
+        final Path path = this.dir.resolve("roster.csv");
+        Files.write(path, "student_no,device_id\n1,8A000001\n2,2A000001\n".getBytes(StandardCharsets.UTF_8));
+        final DeviceFilter filter = new DeviceFilter(DeviceAllowlist.of(StudentRoster.load(path, StudentRoster.empty(), "school-a")));
+        final byte[] high = Frames.bleHeartRate(0x8A000001L, 120, 80, 10L, 5, -60);
+        final byte[] low = Frames.bleHeartRate(0x2A000001L, 120, 80, 10L, 5, -60);
+        final byte[] unknown = Frames.bleHeartRate(0x8A000002L, 120, 80, 10L, 5, -60);
+        assertTrue(filter.acceptBle(high, 0, high.length), "high-bit device id dropped");
+        assertTrue(filter.acceptBle(low, 0, low.length));
+        assertFalse(filter.acceptBle(unknown, 0, unknown.length));
+        assertEquals(2L, filter.getAccepted());
+        assertEquals(1L, filter.getDropped());
+    }
+}
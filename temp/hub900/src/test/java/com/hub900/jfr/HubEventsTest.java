@@ -0,0 +1,21 @@
+package com.hub900.jfr;
+
+import java.util.*;
+import jdk.jfr.*;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HubEventsTest
+{
+    @Test
+    void packagedSettingsEnableHubEvents() throws Exception {
+        final Configuration configuration = HubEvents.configuration();
+        assertEquals("Hub900", configuration.getLabel());
+        final Map<String, String> settings = configuration.getSettings();
+        assertEquals("true", settings.get("com.hub900.HubFrameDecoded#enabled"));
+        assertEquals("true", settings.get("com.hub900.HubChecksumFailure#enabled"));
+        try (final Recording recording = new Recording(configuration)) {
+            assertEquals(settings, recording.getSettings());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.hub900.journal;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+import com.hub900.codec.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest
+{
+    private static final int SEGMENT_SIZE = 1048576;
+    private static final long RECORDS = 200000L;
+    private static final long CRASH_RECORDS = 50000L;
+    @TempDir
+    Path dir;
+    
+    @Test
+    void consumersResumeAtCommittedOffsetsAfterReopen() throws IOException {
+        final SampleRecord record = new SampleRecord();
+        try (final EventJournal journal = new EventJournal(this.dir, EventJournalTest.SEGMENT_SIZE).open()) {
+            final JournalCursor storage = journal.cursor("storage");
+            final JournalCursor alerting = journal.cursor("alerting");
+            for (long i = 0L; i < EventJournalTest.RECORDS; ++i) {
+                journal.appendRecord(sample(record, i));
+            }
+            assertTrue(journal.getWritePosition() > EventJournalTest.SEGMENT_SIZE, "journal did not roll a segment");
+            assertEquals(EventJournalTest.RECORDS, drain(storage, 0L));
+            skip(alerting, EventJournalTest.RECORDS / 2L, 4096);
+            alerting.commit();
+            alerting.poll((position, entry) -> {}, 100);
+            assertTrue(alerting.getLag() > 0L);
+            assertEquals(0L, storage.getLag());
+        }
+        try (final EventJournal journal = new EventJournal(this.dir, EventJournalTest.SEGMENT_SIZE).open()) {
+            final JournalCursor storage = journal.cursor("storage");
+            final JournalCursor alerting = journal.cursor("alerting");
+            assertEquals(0L, drain(storage, EventJournalTest.RECORDS), "caught-up consumer replayed records");
+            assertEquals(EventJournalTest.RECORDS - EventJournalTest.RECORDS / 2L, drain(alerting, EventJournalTest.RECORDS / 2L), "uncommitted records not replayed");
+            journal.appendRecord(sample(record, EventJournalTest.RECORDS));
+            assertEquals(1L, drain(storage, EventJournalTest.RECORDS), "append after reopen lost");
+            assertTrue(journal.deleteConsumedSegments() > 0, "no consumed segment deleted");
+        }
+    }
+    
+    @Test
+    void cursorsOnDiskPinSegmentsUntilReopened() throws IOException {
+        final SampleRecord record = new SampleRecord();
+        try (final EventJournal journal = new EventJournal(this.dir, EventJournalTest.SEGMENT_SIZE).open()) {
+            journal.cursor("alerting").commit(true);
+            for (long i = 0L; i < EventJournalTest.RECORDS; ++i) {
+                journal.appendRecord(sample(record, i));
+            }
+        }
+        try (final EventJournal journal = new EventJournal(this.dir, EventJournalTest.SEGMENT_SIZE).open()) {
+            assertEquals(EventJournalTest.RECORDS, drain(journal.cursor("storage"), 0L));
+            assertEquals(0, journal.deleteConsumedSegments(), "segments deleted under a cursor that was not reopened");
+        }
+        try (final EventJournal journal = new EventJournal(this.dir, EventJournalTest.SEGMENT_SIZE).open()) {
+            assertEquals(EventJournalTest.RECORDS, drain(journal.cursor("alerting"), 0L));
+            assertTrue(journal.deleteConsumedSegments() > 0, "no consumed segment deleted");
+        }
+    }
+    
+    @Test
+    void recoversFromCrashAndTornTail() throws Exception {
+        final Process process = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(), "-cp", System.getProperty("java.class.path"), Child.class.getName(), this.dir.toString(), Long.toString(EventJournalTest.CRASH_RECORDS)).inheritIO().start();
+        assertTrue(process.waitFor(120L, TimeUnit.SECONDS), "child timed out");
+        assertEquals(0, process.exitValue());
+        try (final EventJournal journal = new EventJournal(this.dir, EventJournalTest.SEGMENT_SIZE).open()) {
+            assertEquals(EventJournalTest.CRASH_RECORDS - EventJournalTest.CRASH_RECORDS / 3L, drain(journal.cursor("alerting"), EventJournalTest.CRASH_RECORDS / 3L), "records lost after crash");
+            assertEquals(EventJournalTest.CRASH_RECORDS, drain(journal.cursor("storage"), 0L), "new consumer did not replay the whole journal");
+        }
+        final Path last;
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(this.dir, "*.journal")) {
+            final List<Path> paths = new ArrayList<Path>();
+            stream.forEach(paths::add);
+            Collections.sort(paths);
+            last = paths.get(paths.size() - 1);
+        }
+        final long tail;
+        try (final EventJournal journal = new EventJournal(this.dir, EventJournalTest.SEGMENT_SIZE).open()) {
+            tail = journal.getWritePosition() % EventJournalTest.SEGMENT_SIZE;
+        }
+        try (final FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 127 }), tail - 20L);
+        }
+        try (final EventJournal journal = new EventJournal(this.dir, EventJournalTest.SEGMENT_SIZE).open()) {
+            final JournalCursor audit = journal.cursor("audit");
+            assertEquals(EventJournalTest.CRASH_RECORDS - 1L, drain(audit, 0L), "torn tail record not rejected");
+            journal.appendRecord(sample(new SampleRecord(), EventJournalTest.CRASH_RECORDS - 1L));
+            assertEquals(1L, drain(audit, EventJournalTest.CRASH_RECORDS - 1L), "torn record not overwritten");
+        }
+    }
+    
+    private static SampleRecord sample(final SampleRecord record, final long sequence) {
+        return record.setType(SampleType.ANT_HEART_RATE).setHubId(900).setDeviceId(100000L + sequence % 30L).setTimestamp(1760000000000L + sequence).setRssi(-60).setBattery(80).setValue(60.0f + sequence % 140L).setSteps(sequence);
+    }
+    
+    private static long drain(final JournalCursor cursor, final long expectedFirst) throws IOException {
+        final SampleRecord record = new SampleRecord();
+        final long[] next = { expectedFirst };
+        int polled;
+        do {
+            polled = cursor.poll((position, entry) -> {
+                SampleCodec.read(entry, record);
+                assertEquals(next[0], record.getSteps(), "record out of order");
+                ++next[0];
+            }, 4096);
+            cursor.commit();
+        } while (polled > 0);
+        return next[0] - expectedFirst;
+    }
+    
+    private static void skip(final JournalCursor cursor, final long count, final int batch) throws IOException {
+        long read = 0L;
+        while (read < count) {
+            read += cursor.poll((position, entry) -> {}, (int)Math.min(batch, count - read));
+        }
+    }
+    
+    static final class Child
+    {
+        public static void main(final String[] args) throws IOException {
+            final long count = Long.parseLong(args[1]);
+            final EventJournal journal = new EventJournal(Paths.get(args[0]), EventJournalTest.SEGMENT_SIZE).open();
+            final SampleRecord record = new SampleRecord();
+            for (long i = 0L; i < count; ++i) {
+                journal.appendRecord(sample(record, i));
+            }
+            final JournalCursor cursor = journal.cursor("alerting");
+            skip(cursor, count / 3L, 1024);
+            cursor.commit();
+            Runtime.getRuntime().halt(0);
+        }
+    }
+}
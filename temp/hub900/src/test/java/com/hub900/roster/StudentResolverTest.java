@@ -0,0 +1,35 @@
+package com.hub900.roster;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+import com.hub900.bench.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentResolverTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    @TempDir
+    Path dir;
+    
+    @Test
+    void highBitBleIdsResolve() throws IOException {
+        final Path path = this.dir.resolve("roster.csv");
+        Files.write(path, "student_no,device_id\n1,8A000001\n2,8B000002\n".getBytes(StandardCharsets.UTF_8));
+        try (final StudentResolver resolver = new StudentResolver(path).setDefaultRecognitionKey("school-a").load()) {
+            final StudentRoster roster = resolver.getRoster();
+            final byte[] heartRate = Frames.bleHeartRate(0x8A000001L, 120, 80, 10L, 5, -60);
+            final BleHeartRateData bleHeartRate = new BleHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), heartRate), heartRate, null, null);
+            assertEquals(1, roster.studentNo(resolver.resolve(bleHeartRate)));
+            final byte[] boxing = Frames.bleBoxingHeartRate(7, 0x8B000002L, 130, 70, -58);
+            final BleBoxingHeartRateData boxingHeartRate = new BleBoxingHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), boxing), boxing, null, null);
+            assertEquals(2, roster.studentNo(resolver.resolve(boxingHeartRate)));
+            assertEquals(1, roster.studentNo(resolver.resolve((long)(int)0x8A000001L)));
+            assertEquals(1, roster.studentNo(resolver.resolve(0x8A000001L)));
+            assertEquals(StudentRoster.UNKNOWN, resolver.resolve(0x8A000003L));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.hub900.roster;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentRosterTest
+{
+    @TempDir
+    Path dir;
+    
+    @Test
+    void deviceIdsAreClassified() throws IOException {
+        final StudentRoster roster = this.load("roster.csv", "student_no,device_id,grade,class_no\n1,0a1b2c3d,3,2\n2,12345678,3,2\n3,123456,3,2\n4,E4:00:11:22:33:44,3,2\n5,0x2A000001,3,2\n");
+        assertEquals(1, roster.studentNo(roster.find(0x0A1B2C3DL)));
+        assertEquals(2, roster.studentNo(roster.find(0x12345678L)));
+        assertEquals(StudentRoster.UNKNOWN, roster.find(12345678L));
+        assertEquals(3, roster.studentNo(roster.find(123456L)));
+        assertEquals(4, roster.studentNo(roster.findMac(0xE40011223344L)));
+        assertEquals(5, roster.studentNo(roster.find(0x2A000001L)));
+        assertEquals(0, roster.getSkipped());
+    }
+    
+    @Test
+    void unclassifiableCsvRowsAreReported() throws IOException {
+        final StudentRoster roster = this.load("roster.csv", "student_no,device_id\n1,0a1b2c3d\n2,zz-not-an-id\n3,\nx4,00abcdef\n");
+        assertEquals(1, roster.deviceCount());
+        assertEquals(Arrays.asList("line 3: unrecognised device_id \"zz-not-an-id\"", "line 4: unrecognised device_id \"\""), roster.getRejectedRows().subList(0, 2));
+        assertTrue(roster.getRejectedRows().get(2).startsWith("line 5: invalid number for device_id \"00abcdef\""), roster.getRejectedRows().get(2));
+        assertEquals(3, roster.getSkipped());
+    }
+    
+    @Test
+    void unclassifiableJsonMappingsAreReported() throws IOException {
+        final StudentRoster roster = this.load("roster.json", "{\"mappings\":[{\"device_id\":\"0A1B2C3D\",\"student_no\":9},5,{\"student_no\":3}]}");
+        assertEquals(9, roster.studentNo(roster.find(0x0A1B2C3DL)));
+        assertEquals(Arrays.asList("mapping 2: not an object", "mapping 3: missing device_id"), roster.getRejectedRows());
+    }
+    
+    private StudentRoster load(final String name, final String text) throws IOException {
+        final Path path = this.dir.resolve(name);
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+        return StudentRoster.load(path, StudentRoster.empty(), "school-a");
+    }
+}
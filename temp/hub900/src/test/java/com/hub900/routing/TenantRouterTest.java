@@ -0,0 +1,98 @@
+package com.hub900.routing;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+import com.hub900.*;
+import com.hub900.bench.*;
+import com.hub900.codec.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantRouterTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    private static final int OTHER_HUB_ID = 0x00004D21;
+    private static final String TENANT = "north";
+    private static final String OTHER_TENANT = "south";
+    
+    @Test
+    void failingSubscriberIsCountedAndReported() throws InterruptedException {
+        final List<RuntimeException> errors = new CopyOnWriteArrayList<RuntimeException>();
+        final CountDownLatch delivered = new CountDownLatch(2);
+        final RoutedSampleConsumer failing = (route, data) -> {
+            throw new IllegalStateException("boom");
+        };
+        try (final TenantRouter router = new TenantRouter()) {
+            router.setErrorCallback((route, subscriber, failure) -> {
+                assertSame(failing, subscriber);
+                errors.add(failure);
+                throw new IllegalStateException("callback");
+            });
+            router.setTable(RoutingTable.empty().toBuilder().tenant(new Tenant(TENANT, 1000.0, 10, 16)).hub(HUB_ID, TENANT, "gym", 7, 2).build());
+            router.subscribe(TENANT, failing).subscribe(TENANT, (route, data) -> delivered.countDown());
+            assertTrue(router.dispatch(sample()));
+            assertTrue(router.dispatch(sample()));
+            assertTrue(delivered.await(5L, TimeUnit.SECONDS), "healthy subscriber starved");
+            assertEquals(2L, router.getFailed(TENANT));
+            assertEquals(2, errors.size());
+            assertEquals("boom", errors.get(0).getMessage());
+        }
+    }
+    
+    @Test
+    void boxingAdvertHubIdDoesNotCrossTenants() throws InterruptedException {
+        final BlockingQueue<SampleRecord> north = new LinkedBlockingQueue<SampleRecord>();
+        final BlockingQueue<SampleRecord> south = new LinkedBlockingQueue<SampleRecord>();
+        try (final TenantRouter router = new TenantRouter()) {
+            router.setTable(RoutingTable.empty().toBuilder().tenant(new Tenant(TENANT, 1000.0, 10, 16)).tenant(new Tenant(OTHER_TENANT, 1000.0, 10, 16)).hub(HUB_ID, TENANT, "gym", 7, 2).hub(OTHER_HUB_ID, OTHER_TENANT, "hall", 8, 1).build());
+            router.subscribe(TENANT, (route, record) -> north.add(copy(record))).subscribe(OTHER_TENANT, (route, record) -> south.add(copy(record)));
+            final byte[] record = Frames.bleBoxingHeartRate(OTHER_HUB_ID, 0x2B000001L, 133, 64, -57);
+            final BleBoxingHeartRateData data = new BleBoxingHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), record), record, null, null);
+            assertEquals(OTHER_HUB_ID, data.getHubId());
+            assertTrue(router.dispatch(data));
+            final SampleRecord delivered = north.poll(5L, TimeUnit.SECONDS);
+            assertNotNull(delivered, "boxing sample not routed by frame hub");
+            assertEquals(HUB_ID, delivered.getHubId());
+            assertEquals(133.0f, delivered.getValue());
+            assertEquals(0L, router.getAccepted(OTHER_TENANT));
+            assertTrue(south.isEmpty());
+        }
+    }
+    
+    @Test
+    void pooledEntitiesAreCopiedBeforeQueueing() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Long> devices = new CopyOnWriteArrayList<Long>();
+        final CountDownLatch delivered = new CountDownLatch(3);
+        try (final TenantRouter router = new TenantRouter()) {
+            router.setTable(RoutingTable.empty().toBuilder().tenant(new Tenant(TENANT, 1000.0, 10, 16)).hub(HUB_ID, TENANT, "gym", 7, 2).build());
+            router.subscribe(TENANT, (route, record) -> {
+                try {
+                    release.await(5L, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                devices.add(record.getDeviceId());
+                delivered.countDown();
+            });
+            final HubManager hubManager = new HubManager().setEntityPooling(true);
+            router.attach(hubManager);
+            hubManager.onDataReceived(Frames.antHeartRateFrame(HUB_ID, 1, 3), null);
+            hubManager.onDataReceived(Frames.antHeartRateFrame(HUB_ID, 2, 1), null);
+            release.countDown();
+            assertTrue(delivered.await(5L, TimeUnit.SECONDS), "samples not delivered");
+            assertEquals(Arrays.asList(0x3E8A0L, 0x3E8A1L, 0x3E8A2L), devices.subList(0, 3));
+        }
+    }
+    
+    private static SampleRecord copy(final SampleRecord record) {
+        return new SampleRecord().setType(record.getType()).setHubId(record.getHubId()).setDeviceId(record.getDeviceId()).setValue(record.getValue());
+    }
+    
+    private static AbstractData sample() {
+        final byte[] record = Frames.antHeartRate(0x3E8A0, 128, 7, 20480, 17, -62);
+        return new AntHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_ANT), record), record, null, null);
+    }
+}
@@ -0,0 +1,97 @@
+package com.hub900.state;
+
+import java.util.concurrent.atomic.*;
+import org.junit.jupiter.api.*;
+import com.hub900.bench.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatestValueTableTest
+{
+    private static final int HUB_ID = 0x00012F3A;
+    private static final long DEVICE = 0x2A000001L;
+    
+    @Test
+    void unchangedFieldsKeepPreviousValues() {
+        final LatestValueTable table = new LatestValueTable(16);
+        final SensorReading reading = new SensorReading();
+        assertTrue(table.update(SampleType.BLE_HEART_RATE, DEVICE, HUB_ID, 92, 80, -61, 2048L, 35.5f, 1.5f, 1000L));
+        assertTrue(table.update(SampleType.BLE_HEART_RATE, DEVICE, HUB_ID + 1, LatestValueTable.UNCHANGED, LatestValueTable.UNCHANGED, -70, LatestValueTable.UNCHANGED, Float.NaN, Float.NaN, 2000L));
+        assertTrue(table.read(SampleType.BLE_HEART_RATE, DEVICE, reading));
+        assertEquals(92, reading.getHeartRate());
+        assertEquals(80, reading.getBattery());
+        assertEquals(2048L, reading.getSteps());
+        assertEquals(35.5f, reading.getCalories());
+        assertEquals(1.5f, reading.getValue());
+        assertEquals(-70, reading.getRssi());
+        assertEquals(HUB_ID + 1, reading.getHubId());
+        assertEquals(2000L, reading.getLastSeen());
+        assertEquals(2L, reading.getUpdates());
+    }
+    
+    @Test
+    void fullTableDropsNewDevicesOnly() {
+        final LatestValueTable table = new LatestValueTable(2);
+        final SensorReading reading = new SensorReading();
+        assertTrue(table.update(SampleType.ANT_HEART_RATE, 1L, HUB_ID, 70, 50, -60, LatestValueTable.UNCHANGED, Float.NaN, Float.NaN, 1000L));
+        assertTrue(table.update(SampleType.ANT_HEART_RATE, 2L, HUB_ID, 71, 50, -60, LatestValueTable.UNCHANGED, Float.NaN, Float.NaN, 1000L));
+        assertFalse(table.update(SampleType.ANT_HEART_RATE, 3L, HUB_ID, 72, 50, -60, LatestValueTable.UNCHANGED, Float.NaN, Float.NaN, 1000L));
+        assertFalse(table.update(SampleType.BLE_HEART_RATE, 1L, HUB_ID, 73, 50, -60, LatestValueTable.UNCHANGED, Float.NaN, Float.NaN, 1000L));
+        assertEquals(2L, table.getDropped());
+        assertEquals(2, table.size());
+        assertTrue(table.update(SampleType.ANT_HEART_RATE, 2L, HUB_ID, 75, 50, -60, LatestValueTable.UNCHANGED, Float.NaN, Float.NaN, 2000L));
+        assertTrue(table.read(SampleType.ANT_HEART_RATE, 2L, reading));
+        assertEquals(75, reading.getHeartRate());
+        assertFalse(table.read(SampleType.ANT_HEART_RATE, 3L, reading));
+        assertEquals(-1, table.slotOf(SampleType.ANT_HEART_RATE, 3L));
+    }
+    
+    @Test
+    void boxingSlotsKeepTheFrameHub() {
+        final LatestValueTable table = new LatestValueTable(16);
+        final SensorReading reading = new SensorReading();
+        final byte[] record = Frames.bleBoxingHeartRate(0x4D21, 0x2B000001L, 130, 70, -58);
+        assertTrue(table.record(new BleBoxingHeartRateData(Frames.merge(Frames.header(HUB_ID, 1, Frames.CMD_BLE), record), record, null, null)));
+        assertTrue(table.read(SampleType.BLE_BOXING_HEART_RATE, 0x2B000001L, reading));
+        assertEquals(HUB_ID, reading.getHubId());
+        assertEquals(130, reading.getHeartRate());
+    }
+    
+    @Test
+    void concurrentReadersNeverSeeTornSlots() throws Exception {
+        final int total = 200000;
+        final LatestValueTable table = new LatestValueTable(16);
+        final AtomicReference<String> torn = new AtomicReference<String>();
+        final Thread writer = new Thread(() -> {
+            for (int i = 1; i <= total; ++i) {
+                table.update(SampleType.BLE_HEART_RATE, DEVICE, i, i & 0x7FFF, i & 0x7F, -60, i, (float)i, (float)i, i);
+            }
+        });
+        final Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; ++r) {
+            readers[r] = new Thread(() -> {
+                final SensorReading reading = new SensorReading();
+                long previous = 0L;
+                while (previous < total && torn.get() == null) {
+                    if (!table.read(SampleType.BLE_HEART_RATE, DEVICE, reading)) {
+                        continue;
+                    }
+                    final long i = reading.getSteps();
+                    if (reading.getHubId() != i || reading.getHeartRate() != (i & 0x7FFF) || reading.getBattery() != (i & 0x7F) || reading.getValue() != i || reading.getCalories() != i || reading.getLastSeen() != i || reading.getUpdates() != i || i < previous) {
+                        torn.compareAndSet(null, reading.toString());
+                    }
+                    previous = i;
+                }
+            });
+            readers[r].start();
+        }
+        writer.start();
+        writer.join();
+        for (final Thread reader : readers) {
+            reader.join(10000L);
+            assertFalse(reader.isAlive(), "reader did not observe the final update");
+        }
+        assertNull(torn.get());
+        assertEquals(0L, table.getDropped());
+    }
+}
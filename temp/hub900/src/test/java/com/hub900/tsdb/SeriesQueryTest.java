@@ -0,0 +1,140 @@
+package com.hub900.tsdb;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeriesQueryTest
+{
+    private static final long START = 1760000000000L;
+    private static final long DEVICE = 100000L;
+    private static final long KEY = TimeSeriesStore.seriesKey(SampleType.ANT_HEART_RATE, DEVICE);
+    private static final long BUCKET = 60000L;
+    @TempDir
+    Path dir;
+    
+    @Test
+    void rollupMatchesBruteForceOverAggregatedAndDecodedBlocks() throws IOException {
+        final SeriesPoints points = series(600, 42L);
+        try (final TimeSeriesStore store = new TimeSeriesStore(this.dir).setBlockSize(16).open()) {
+            for (int i = 0; i < 500; ++i) {
+                store.append(SampleType.ANT_HEART_RATE, DEVICE, points.getTime(i), points.getValue(i), -60);
+            }
+            store.flush();
+            for (int i = 500; i < points.size(); ++i) {
+                store.append(SampleType.ANT_HEART_RATE, DEVICE, points.getTime(i), points.getValue(i), -60);
+            }
+            final long from = points.getTime(7) + 1L;
+            final long to = points.getTime(590);
+            int aggregated = 0;
+            int decoded = 0;
+            for (final BlockRef block : store.blocks(KEY, Long.MIN_VALUE, Long.MAX_VALUE)) {
+                if (block.getMinTime() >= from && block.getMaxTime() < to && (block.getMinTime() - from) / BUCKET == (block.getMaxTime() - from) / BUCKET) {
+                    ++aggregated;
+                }
+                else {
+                    ++decoded;
+                }
+            }
+            assertTrue(aggregated > 0 && decoded > 0, aggregated + " aggregated, " + decoded + " decoded");
+            final Rollup rollup = new SeriesQuery(store).rollup(KEY, from, to, BUCKET);
+            final int buckets = (int)((to - from + BUCKET - 1L) / BUCKET);
+            assertEquals(buckets, rollup.size());
+            for (int bucket = 0; bucket < buckets; ++bucket) {
+                int count = 0;
+                int min = Integer.MAX_VALUE;
+                int max = Integer.MIN_VALUE;
+                long sum = 0L;
+                for (int i = 0; i < points.size(); ++i) {
+                    final long time = points.getTime(i);
+                    if (time >= from && time < to && (time - from) / BUCKET == bucket) {
+                        ++count;
+                        min = Math.min(min, points.getValue(i));
+                        max = Math.max(max, points.getValue(i));
+                        sum += points.getValue(i);
+                    }
+                }
+                assertEquals(count, rollup.getCount(bucket), "count in bucket " + bucket);
+                if (count > 0) {
+                    assertEquals(min, rollup.getMin(bucket), "min in bucket " + bucket);
+                    assertEquals(max, rollup.getMax(bucket), "max in bucket " + bucket);
+                    assertEquals(sum / (double)count, rollup.getAvg(bucket), 1.0E-9, "avg in bucket " + bucket);
+                }
+                else {
+                    assertTrue(Double.isNaN(rollup.getAvg(bucket)));
+                }
+            }
+        }
+    }
+    
+    @Test
+    void lttbPicksLargestTriangleInEveryBucket() {
+        final SeriesPoints points = series(1000, 7L);
+        for (final int threshold : new int[] { 3, 10, 97, 500, 999 }) {
+            final SeriesPoints sampled = SeriesQuery.lttb(points, threshold);
+            assertEquals(threshold, sampled.size());
+            assertEquals(points.getTime(0), sampled.getTime(0));
+            assertEquals(points.getTime(points.size() - 1), sampled.getTime(threshold - 1));
+            final double every = (points.size() - 2) / (double)(threshold - 2);
+            int previous = 0;
+            for (int i = 0; i < threshold - 2; ++i) {
+                final int start = (int)(i * every) + 1;
+                final int end = (int)((i + 1) * every) + 1;
+                final int nextEnd = Math.min((int)((i + 2) * every) + 1, points.size());
+                double avgTime = 0.0;
+                double avgValue = 0.0;
+                for (int j = end; j < nextEnd; ++j) {
+                    avgTime += points.getTime(j) / (double)(nextEnd - end);
+                    avgValue += points.getValue(j) / (double)(nextEnd - end);
+                }
+                int best = -1;
+                double bestArea = -1.0;
+                for (int k = start; k < end; ++k) {
+                    final double area = Math.abs(area(points.getTime(previous), points.getValue(previous), points.getTime(k), points.getValue(k), avgTime, avgValue));
+                    if (area > bestArea * (1.0 + 1.0E-12)) {
+                        bestArea = area;
+                        best = k;
+                    }
+                }
+                assertEquals(points.getTime(best), sampled.getTime(i + 1), "threshold " + threshold + " bucket " + i);
+                assertEquals(points.getValue(best), sampled.getValue(i + 1));
+                previous = best;
+            }
+        }
+    }
+    
+    @Test
+    void lttbKeepsSpikesAndShortSeries() {
+        final SeriesPoints flat = new SeriesPoints();
+        for (int i = 0; i < 100; ++i) {
+            flat.add(START + i * 1000L, (i == 53) ? 190 : 70);
+        }
+        final SeriesPoints sampled = SeriesQuery.lttb(flat, 10);
+        boolean spike = false;
+        for (int i = 0; i < sampled.size(); ++i) {
+            spike |= sampled.getValue(i) == 190 && sampled.getTime(i) == START + 53000L;
+        }
+        assertTrue(spike, "spike dropped");
+        assertSame(flat, SeriesQuery.lttb(flat, 100));
+        assertSame(flat, SeriesQuery.lttb(flat, 2));
+    }
+    
+    private static double area(final double ax, final double ay, final double bx, final double by, final double cx, final double cy) {
+        return ((ax - cx) * (by - ay) - (ax - bx) * (cy - ay)) / 2.0;
+    }
+    
+    private static SeriesPoints series(final int count, final long seed) {
+        final Random random = new Random(seed);
+        final SeriesPoints points = new SeriesPoints(count);
+        long time = START;
+        for (int i = 0; i < count; ++i) {
+            time += 250L + random.nextInt(4000);
+            points.add(time, 50 + random.nextInt(150));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,101 @@
+package com.hub900.tsdb;
+
+import java.io.*;
+import java.nio.file.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+import com.hub900.entity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSeriesStoreTest
+{
+    private static final long START = 1760000000000L;
+    private static final long KEY = TimeSeriesStore.seriesKey(SampleType.ANT_HEART_RATE, 100000L);
+    @TempDir
+    Path dir;
+    
+    @Test
+    void samplesStayQueryableWhileSealing() throws IOException {
+        try (final TimeSeriesStore store = new TimeSeriesStore(this.dir).setBlockSize(16).open()) {
+            append(store, 0, 100);
+            assertEquals(100, store.scan(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE, (time, value, rssi) -> {}));
+            store.flush();
+            assertEquals(7, store.blocks(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE).size());
+            assertEquals(100, store.scan(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE, (time, value, rssi) -> {}));
+        }
+        try (final TimeSeriesStore store = new TimeSeriesStore(this.dir).open()) {
+            assertEquals(100, store.scan(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE, (time, value, rssi) -> {}));
+        }
+    }
+    
+    @Test
+    void failedWriteKeepsBlockUntilRetrySucceeds() throws IOException {
+        final Path data = this.dir.resolve("data");
+        try (final TimeSeriesStore store = new TimeSeriesStore(data).setBlockSize(16).setMaxBackoffMillis(20L).open()) {
+            Files.delete(data);
+            Files.createFile(data);
+            append(store, 0, 40);
+            assertThrows(IOException.class, store::flush);
+            assertTrue(store.blocks(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+            assertEquals(40, store.scan(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE, (time, value, rssi) -> {}), "unwritten blocks were dropped");
+            assertTrue(store.getFailedWrites() > 0L);
+            Files.delete(data);
+            Files.createDirectory(data);
+            store.flush();
+            assertEquals(3, store.blocks(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE).size());
+            assertEquals(40, store.scan(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE, (time, value, rssi) -> {}));
+            assertEquals(0L, store.getDroppedBlocks());
+        }
+        try (final TimeSeriesStore store = new TimeSeriesStore(data).open()) {
+            assertEquals(40, store.scan(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE, (time, value, rssi) -> {}));
+        }
+    }
+    
+    @Test
+    void fullHandOffDropsInsteadOfBlocking() throws IOException {
+        final Path data = this.dir.resolve("data");
+        final TimeSeriesStore store = new TimeSeriesStore(data).setBlockSize(16).setMaxPendingBlocks(1).setMaxBackoffMillis(20L).open();
+        Files.delete(data);
+        Files.createFile(data);
+        append(store, 0, 80);
+        assertEquals(3L, store.getDroppedBlocks());
+        assertEquals(32, store.scan(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE, (time, value, rssi) -> {}));
+        Files.delete(data);
+        Files.createDirectory(data);
+        store.close();
+        try (final TimeSeriesStore reopened = new TimeSeriesStore(data).open()) {
+            assertEquals(32, reopened.scan(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE, (time, value, rssi) -> {}));
+        }
+    }
+    
+    @Test
+    void concurrentQueriesSeeEverySampleOnce() throws Exception {
+        final int total = 40000;
+        try (final TimeSeriesStore store = new TimeSeriesStore(this.dir).setBlockSize(16).setMaxPendingBlocks(total).open()) {
+            final SeriesQuery query = new SeriesQuery(store);
+            final Thread writer = new Thread(() -> append(store, 0, total));
+            writer.start();
+            int previous = 0;
+            for (boolean done = false; !done; ) {
+                done = !writer.isAlive();
+                final int scanned = store.scan(TimeSeriesStoreTest.KEY, Long.MIN_VALUE, Long.MAX_VALUE, (time, value, rssi) -> {});
+                final Rollup rollup = query.rollup(TimeSeriesStoreTest.KEY, TimeSeriesStoreTest.START, TimeSeriesStoreTest.START + total * 250L, 3600000L);
+                int rolled = 0;
+                for (int bucket = 0; bucket < rollup.size(); ++bucket) {
+                    rolled += rollup.getCount(bucket);
+                }
+                assertTrue(scanned >= previous && scanned <= total, "scan saw " + scanned + " after " + previous);
+                assertTrue(rolled >= scanned && rolled <= total, "rollup saw " + rolled + " after scan saw " + scanned);
+                previous = scanned;
+            }
+            assertEquals(total, previous);
+            assertEquals(0L, store.getDroppedBlocks());
+        }
+    }
+    
+    private static void append(final TimeSeriesStore store, final int first, final int count) {
+        for (int i = first; i < first + count; ++i) {
+            store.append(SampleType.ANT_HEART_RATE, 100000L, TimeSeriesStoreTest.START + i * 250L, 80 + i % 40, -60);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.hub900.upload;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.regex.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+import com.sun.net.httpserver.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestUploaderTest
+{
+    private static final Pattern KEY;
+    private final Set<String> received;
+    private final AtomicInteger failuresLeft;
+    private final AtomicInteger requests;
+    private HttpServer server;
+    @TempDir
+    Path dir;
+    
+    IngestUploaderTest() {
+        this.received = ConcurrentHashMap.newKeySet();
+        this.failuresLeft = new AtomicInteger();
+        this.requests = new AtomicInteger();
+    }
+    
+    @AfterEach
+    void stopStub() {
+        if (this.server != null) {
+            this.server.stop(0);
+        }
+    }
+    
+    @Test
+    void transientFailuresAreRetried() throws Exception {
+        final URI endpoint = this.startStub(0);
+        this.failuresLeft.set(3);
+        try (final IngestUploader uploader = uploader(endpoint, this.dir.resolve("ingest.spool"))) {
+            for (int i = 1; i <= 25; ++i) {
+                uploader.submit(item("school-a", i));
+            }
+            assertTrue(uploader.flush(10000L), "batches delivered after transient 503s");
+            assertEquals(25, this.received.size());
+            assertTrue(uploader.getFailedRequests() >= 3, "failed requests retried with backoff");
+        }
+    }
+    
+    @Test
+    void deliveredKeysAreDeduplicatedAfterRestart() throws Exception {
+        final URI endpoint = this.startStub(0);
+        final Path spool = this.dir.resolve("ingest.spool");
+        try (final IngestUploader uploader = uploader(endpoint, spool)) {
+            for (int i = 1; i <= 25; ++i) {
+                uploader.submit(item("school-a", i));
+            }
+            assertTrue(uploader.flush(10000L));
+        }
+        final int requests = this.requests.get();
+        try (final IngestUploader uploader = uploader(endpoint, spool)) {
+            for (int i = 1; i <= 25; ++i) {
+                assertFalse(uploader.submit(item("school-a", i)), "key " + i + " accepted twice");
+            }
+            assertEquals(0, uploader.getPendingCount());
+        }
+        assertEquals(requests, this.requests.get());
+    }
+    
+    @Test
+    void pendingItemsAreRecoveredFromSpool() throws Exception {
+        final URI endpoint = this.startStub(0);
+        final int port = this.server.getAddress().getPort();
+        final Path spool = this.dir.resolve("ingest.spool");
+        this.server.stop(0);
+        try (final IngestUploader uploader = uploader(endpoint, spool)) {
+            for (int i = 26; i <= 30; ++i) {
+                uploader.submit(item("school-a", i));
+            }
+            assertFalse(uploader.flush(300L), "flush succeeded with the server down");
+            assertEquals(5, uploader.getPendingCount());
+        }
+        this.startStub(port);
+        try (final IngestUploader uploader = uploader(endpoint, spool)) {
+            assertEquals(5, uploader.getPendingCount());
+            assertTrue(uploader.flush(10000L));
+            assertEquals(5, this.received.size());
+        }
+    }
+    
+    @Test
+    void invalidItemIsRejectedAlone() throws Exception {
+        final URI endpoint = this.startStub(0);
+        try (final IngestUploader uploader = uploader(endpoint, this.dir.resolve("ingest.spool"))) {
+            uploader.submit(item("school-b", 1));
+            uploader.submit(item("invalid", 2));
+            uploader.submit(item("school-b", 3));
+            assertTrue(uploader.flush(10000L), "batch with one invalid item drained");
+            assertEquals(1L, uploader.getRejectedItems());
+            assertEquals(2, this.received.size());
+        }
+    }
+    
+    private URI startStub(final int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext("/api/device/ingest", exchange -> {
+            try {
+                this.requests.incrementAndGet();
+                final String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                final int status;
+                if (this.failuresLeft.getAndDecrement() > 0) {
+                    status = 503;
+                }
+                else if (body.contains("\"recognition_key\":\"invalid\"")) {
+                    status = 400;
+                }
+                else {
+                    final Matcher matcher = IngestUploaderTest.KEY.matcher(body);
+                    while (matcher.find()) {
+                        this.received.add(matcher.group(1));
+                    }
+                    status = 200;
+                }
+                exchange.sendResponseHeaders(status, -1L);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        this.server.start();
+        return URI.create("http://127.0.0.1:" + this.server.getAddress().getPort() + "/api/device/ingest");
+    }
+    
+    private static IngestItem item(final String recognitionKey, final int studentNo) {
+        return new IngestItem().setIdempotencyKey(recognitionKey + ":3:2:" + studentNo + ":endurance:1700000000000").setRecognitionKey(recognitionKey).setYear(2026).setMonth(10).setGrade(3).setClassNo(2).setStudentNo(studentNo).setAvgBpm(121.5).setAvgMaxBpm(168.0).setAvgDurationSeconds(2400.0);
+    }
+    
+    private static IngestUploader uploader(final URI endpoint, final Path spool) throws IOException {
+        return new IngestUploader(endpoint, spool).setBatchSize(10).setLingerMillis(100L).setBackoff(20L, 200L).setRequestTimeoutMillis(2000L).start();
+    }
+    
+    static {
+        KEY = Pattern.compile("\"idempotency_key\":\"([^\"]+)\"");
+    }
+}
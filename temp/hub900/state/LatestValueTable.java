@@ -0,0 +1,234 @@
+package com.hub900.state;
+
+import java.lang.invoke.*;
+import java.util.concurrent.atomic.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+import com.hub900.entity.*;
+
+public final class LatestValueTable
+{
+    public static final int UNCHANGED = -1;
+    private static final int STRIDE = 8;
+    private static final int SEQ = 0;
+    private static final int KEY = 1;
+    private static final int PACKED = 2;
+    private static final int STEPS = 3;
+    private static final int VALUES = 4;
+    private static final int LAST_SEEN = 5;
+    private static final int UPDATES = 6;
+    private final int capacity;
+    private final AtomicLongArray slots;
+    private final AtomicLongArray indexKeys;
+    private final AtomicIntegerArray indexSlots;
+    private final int indexMask;
+    private final AtomicInteger size;
+    private final LongAdder dropped;
+    private final LongAdder readRetries;
+    
+    public LatestValueTable() {
+        this(8192);
+    }
+    
+    public LatestValueTable(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicLongArray(capacity * LatestValueTable.STRIDE);
+        final int indexLength = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        this.indexKeys = new AtomicLongArray(indexLength);
+        this.indexSlots = new AtomicIntegerArray(indexLength);
+        this.indexMask = indexLength - 1;
+        this.size = new AtomicInteger();
+        this.dropped = new LongAdder();
+        this.readRetries = new LongAdder();
+    }
+    
+    public LatestValueTable attach(final HubManager hubManager) {
+        hubManager.addSampleListener(SampleListener.forTypes(this::record, SampleType.ANT_HEART_RATE, SampleType.BLE_HEART_RATE, SampleType.BLE_BOXING_HEART_RATE, SampleType.BLE_BOXING, SampleType.ANT_SPEED, SampleType.ANT_CADENCE));
+        return this;
+    }
+    
+    public boolean record(final AbstractData data) {
+        final long now = System.currentTimeMillis();
+        if (data instanceof AntHeartRateData) {
+            final AntHeartRateData d = (AntHeartRateData)data;
+            return this.update(SampleType.ANT_HEART_RATE, d.getDeviceId(), d.getFrameHubId(), d.getHeartRate(), (d.getBattery() > 0) ? d.getBattery() : LatestValueTable.UNCHANGED, d.getRssi(), LatestValueTable.UNCHANGED, Float.NaN, Float.NaN, now);
+        }
+        if (data instanceof BleHeartRateData) {
+            final BleHeartRateData d2 = (BleHeartRateData)data;
+            return this.update(SampleType.BLE_HEART_RATE, d2.getDeviceKey(), d2.getFrameHubId(), d2.getHeartRate(), d2.getBattery(), d2.getRssi(), d2.getSteps(), d2.getCalories(), Float.NaN, now);
+        }
+        if (data instanceof BleBoxingHeartRateData) {
+            final BleBoxingHeartRateData d3 = (BleBoxingHeartRateData)data;
+            return this.update(SampleType.BLE_BOXING_HEART_RATE, d3.getDeviceId(), d3.getFrameHubId(), d3.getHeartRate(), d3.getBattery(), d3.getRssi(), d3.getSteps(), d3.getCalories(), Float.NaN, now);
+        }
+        if (data instanceof BleBoxingData) {
+            final BleBoxingData d4 = (BleBoxingData)data;
+            return this.update(SampleType.BLE_BOXING, d4.getDeviceId(), d4.getFrameHubId(), LatestValueTable.UNCHANGED, d4.getBattery(), d4.getRssi(), LatestValueTable.UNCHANGED, Float.NaN, d4.getPower(), now);
+        }
+        if (data instanceof AntSpeedData) {
+            final AntSpeedData d5 = (AntSpeedData)data;
+            return this.update(SampleType.ANT_SPEED, d5.getDeviceId(), d5.getFrameHubId(), LatestValueTable.UNCHANGED, LatestValueTable.UNCHANGED, (int)d5.getRssi(), LatestValueTable.UNCHANGED, Float.NaN, (float)d5.getSpeed(), now);
+        }
+        if (data instanceof AntCadenceDta) {
+            final AntCadenceDta d6 = (AntCadenceDta)data;
+            return this.update(SampleType.ANT_CADENCE, d6.getDeviceId(), d6.getFrameHubId(), LatestValueTable.UNCHANGED, LatestValueTable.UNCHANGED, d6.getRssi(), LatestValueTable.UNCHANGED, Float.NaN, (float)d6.getCadence(), now);
+        }
+        return false;
+    }
+    
+    public boolean update(final SampleType type, final long deviceId, final int hubId, final int heartRate, final int battery, final int rssi, final long steps, final float calories, final float value, final long time) {
+        final int slot = this.slotFor(key(type, deviceId), true);
+        if (slot < 0) {
+            this.dropped.increment();
+            return false;
+        }
+        final AtomicLongArray slots = this.slots;
+        final int base = slot * LatestValueTable.STRIDE;
+        long seq;
+        while (((seq = slots.get(base + LatestValueTable.SEQ)) & 0x1L) != 0x0L || !slots.compareAndSet(base + LatestValueTable.SEQ, seq, seq + 1L)) {
+            Thread.onSpinWait();
+        }
+        final long packed = slots.getOpaque(base + LatestValueTable.PACKED);
+        final long hr = (heartRate >= 0) ? (heartRate & 0xFFFF) : (packed & 0xFFFFL);
+        final long bat = (battery >= 0) ? (battery & 0xFF) : (packed >>> 16 & 0xFFL);
+        slots.setOpaque(base + LatestValueTable.PACKED, hr | bat << 16 | (long)(rssi & 0xFF) << 24 | (long)hubId << 32);
+        if (steps >= 0L) {
+            slots.setOpaque(base + LatestValueTable.STEPS, steps);
+        }
+        final long values = slots.getOpaque(base + LatestValueTable.VALUES);
+        final long caloriesBits = Float.isNaN(calories) ? (values & 0xFFFFFFFFL) : (Float.floatToRawIntBits(calories) & 0xFFFFFFFFL);
+        final long valueBits = Float.isNaN(value) ? (values >>> 32) : (Float.floatToRawIntBits(value) & 0xFFFFFFFFL);
+        slots.setOpaque(base + LatestValueTable.VALUES, caloriesBits | valueBits << 32);
+        slots.setOpaque(base + LatestValueTable.LAST_SEEN, time);
+        slots.setOpaque(base + LatestValueTable.UPDATES, slots.getOpaque(base + LatestValueTable.UPDATES) + 1L);
+        slots.setRelease(base + LatestValueTable.SEQ, seq + 2L);
+        return true;
+    }
+    
+    public boolean read(final SampleType type, final long deviceId, final SensorReading out) {
+        final int slot = this.slotFor(key(type, deviceId), false);
+        return slot >= 0 && this.read(slot, out);
+    }
+    
+    public boolean read(final int slot, final SensorReading out) {
+        if (slot < 0 || slot >= this.size.get()) {
+            return false;
+        }
+        final AtomicLongArray slots = this.slots;
+        final int base = slot * LatestValueTable.STRIDE;
+        while (true) {
+            final long seq = slots.getAcquire(base + LatestValueTable.SEQ);
+            if ((seq & 0x1L) == 0x0L) {
+                final long key = slots.getOpaque(base + LatestValueTable.KEY);
+                final long packed = slots.getOpaque(base + LatestValueTable.PACKED);
+                final long steps = slots.getOpaque(base + LatestValueTable.STEPS);
+                final long values = slots.getOpaque(base + LatestValueTable.VALUES);
+                final long lastSeen = slots.getOpaque(base + LatestValueTable.LAST_SEEN);
+                final long updates = slots.getOpaque(base + LatestValueTable.UPDATES);
+                VarHandle.acquireFence();
+                if (slots.getOpaque(base + LatestValueTable.SEQ) == seq) {
+                    if (updates == 0L) {
+                        return false;
+                    }
+                    out.set(slot, key, packed, steps, values, lastSeen, updates);
+                    return true;
+                }
+            }
+            this.readRetries.increment();
+            Thread.onSpinWait();
+        }
+    }
+    
+    public int forEach(final SensorReading scratch, final SensorReadingVisitor visitor) {
+        final int n = this.size.get();
+        int visited = 0;
+        for (int slot = 0; slot < n; ++slot) {
+            if (this.read(slot, scratch)) {
+                visitor.onReading(scratch);
+                ++visited;
+            }
+        }
+        return visited;
+    }
+    
+    public int forEachSeenSince(final long since, final SensorReading scratch, final SensorReadingVisitor visitor) {
+        final int n = this.size.get();
+        int visited = 0;
+        for (int slot = 0; slot < n; ++slot) {
+            if (this.slots.getOpaque(slot * LatestValueTable.STRIDE + LatestValueTable.LAST_SEEN) >= since && this.read(slot, scratch)) {
+                visitor.onReading(scratch);
+                ++visited;
+            }
+        }
+        return visited;
+    }
+    
+    public int slotOf(final SampleType type, final long deviceId) {
+        return this.slotFor(key(type, deviceId), false);
+    }
+    
+    public int size() {
+        return this.size.get();
+    }
+    
+    public int getCapacity() {
+        return this.capacity;
+    }
+    
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+    
+    public long getReadRetries() {
+        return this.readRetries.sum();
+    }
+    
+    private int slotFor(final long key, final boolean create) {
+        int i = (int)mix(key) & this.indexMask;
+        while (true) {
+            final long current = this.indexKeys.get(i);
+            if (current == key) {
+                int slot;
+                while ((slot = this.indexSlots.get(i)) == 0) {
+                    Thread.onSpinWait();
+                }
+                return (slot < 0) ? -1 : (slot - 1);
+            }
+            if (current == 0L) {
+                if (!create) {
+                    return -1;
+                }
+                if (this.size.get() >= this.capacity) {
+                    return -1;
+                }
+                if (this.indexKeys.compareAndSet(i, 0L, key)) {
+                    int slot2;
+                    do {
+                        slot2 = this.size.get();
+                        if (slot2 >= this.capacity) {
+                            this.indexSlots.set(i, -1);
+                            return -1;
+                        }
+                    } while (!this.size.compareAndSet(slot2, slot2 + 1));
+                    this.slots.set(slot2 * LatestValueTable.STRIDE + LatestValueTable.KEY, key);
+                    this.indexSlots.set(i, slot2 + 1);
+                    return slot2;
+                }
+                continue;
+            }
+            i = (i + 1 & this.indexMask);
+        }
+    }
+    
+    private static long key(final SampleType type, final long deviceId) {
+        return (long)type.getCode() << 56 | (deviceId & 0xFFFFFFFFFFFFFFL);
+    }
+    
+    private static long mix(final long key) {
+        final long h = key * -7046029254386353131L;
+        return h ^ h >>> 32;
+    }
+}
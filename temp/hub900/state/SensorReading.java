@@ -0,0 +1,87 @@
+package com.hub900.state;
+
+import com.hub900.entity.*;
+
+public final class SensorReading
+{
+    private int slot;
+    private SampleType type;
+    private long deviceId;
+    private int hubId;
+    private int heartRate;
+    private int battery;
+    private int rssi;
+    private long steps;
+    private float calories;
+    private float value;
+    private long lastSeen;
+    private long updates;
+    
+    void set(final int slot, final long key, final long packed, final long steps, final long values, final long lastSeen, final long updates) {
+        this.slot = slot;
+        this.type = SampleType.fromCode((int)(key >>> 56));
+        this.deviceId = (key & 0xFFFFFFFFFFFFFFL);
+        this.heartRate = (int)(packed & 0xFFFFL);
+        this.battery = (int)(packed >>> 16 & 0xFFL);
+        this.rssi = (byte)(packed >>> 24);
+        this.hubId = (int)(packed >>> 32);
+        this.steps = steps;
+        this.calories = Float.intBitsToFloat((int)values);
+        this.value = Float.intBitsToFloat((int)(values >>> 32));
+        this.lastSeen = lastSeen;
+        this.updates = updates;
+    }
+    
+    public int getSlot() {
+        return this.slot;
+    }
+    
+    public SampleType getType() {
+        return this.type;
+    }
+    
+    public long getDeviceId() {
+        return this.deviceId;
+    }
+    
+    public int getHubId() {
+        return this.hubId;
+    }
+    
+    public int getHeartRate() {
+        return this.heartRate;
+    }
+    
+    public int getBattery() {
+        return this.battery;
+    }
+    
+    public int getRssi() {
+        return this.rssi;
+    }
+    
+    public long getSteps() {
+        return this.steps;
+    }
+    
+    public float getCalories() {
+        return this.calories;
+    }
+    
+    public float getValue() {
+        return this.value;
+    }
+    
+    public long getLastSeen() {
+        return this.lastSeen;
+    }
+    
+    public long getUpdates() {
+        return this.updates;
+    }
+    
+    @Override
+    public String toString() {
+        return "SensorReading{type=" + this.type + ", deviceId=" + this.deviceId + ", hubId=" + this.hubId + ", heartRate=" + this.heartRate + ", battery=" + this.battery + ", rssi=" + this.rssi + ", steps=" + this.steps + ", calories=" + this.calories + ", value=" + this.value + ", lastSeen=" + this.lastSeen + ", updates=" + this.updates + '}';
+    }
+}
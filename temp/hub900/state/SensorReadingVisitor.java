@@ -0,0 +1,6 @@
+package com.hub900.state;
+
+public interface SensorReadingVisitor
+{
+    void onReading(final SensorReading p0);
+}
@@ -0,0 +1,40 @@
+package com.hub900.tsdb;
+
+final class BitReader
+{
+    private final byte[] buffer;
+    private final long limit;
+    private long position;
+    
+    BitReader(final byte[] buffer, final int offset, final int length) {
+        this.buffer = buffer;
+        this.position = (long)offset << 3;
+        this.limit = (long)(offset + length) << 3;
+    }
+    
+    boolean readBit() {
+        if (this.position >= this.limit) {
+            throw new IllegalStateException("Block payload truncated");
+        }
+        final boolean bit = (this.buffer[(int)(this.position >>> 3)] & 128 >>> (int)(this.position & 0x7L)) != 0x0;
+        ++this.position;
+        return bit;
+    }
+    
+    long readBits(final int bits) {
+        if (this.position + bits > this.limit) {
+            throw new IllegalStateException("Block payload truncated");
+        }
+        long value = 0L;
+        int remaining = bits;
+        while (remaining > 0) {
+            final int offset = (int)(this.position & 0x7L);
+            final int take = Math.min(8 - offset, remaining);
+            final int current = this.buffer[(int)(this.position >>> 3)] & 0xFF;
+            value = (value << take | (long)(current >>> 8 - offset - take & (1 << take) - 1));
+            this.position += take;
+            remaining -= take;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,61 @@
+package com.hub900.tsdb;
+
+import java.util.*;
+
+final class BitWriter
+{
+    private byte[] buffer;
+    private long bitLength;
+    
+    BitWriter(final int initialBytes) {
+        this.buffer = new byte[Math.max(16, initialBytes)];
+    }
+    
+    void writeBit(final boolean bit) {
+        this.ensure(1);
+        if (bit) {
+            final byte[] buffer = this.buffer;
+            final int n = (int)(this.bitLength >>> 3);
+            buffer[n] |= (byte)(128 >>> (int)(this.bitLength & 0x7L));
+        }
+        ++this.bitLength;
+    }
+    
+    void writeBits(final long value, final int bits) {
+        this.ensure(bits);
+        int remaining = bits;
+        while (remaining > 0) {
+            final int offset = (int)(this.bitLength & 0x7L);
+            final int take = Math.min(8 - offset, remaining);
+            final int chunk = (int)(value >>> remaining - take) & (1 << take) - 1;
+            final byte[] buffer = this.buffer;
+            final int n = (int)(this.bitLength >>> 3);
+            buffer[n] |= (byte)(chunk << 8 - offset - take);
+            this.bitLength += take;
+            remaining -= take;
+        }
+    }
+    
+    long bitLength() {
+        return this.bitLength;
+    }
+    
+    int byteLength() {
+        return (int)((this.bitLength + 7L) >>> 3);
+    }
+    
+    byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.byteLength());
+    }
+    
+    byte[] buffer() {
+        return this.buffer;
+    }
+    
+    private void ensure(final int bits) {
+        final long needed = (this.bitLength + bits + 7L) >>> 3;
+        if (needed > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, (int)Math.max(needed, this.buffer.length * 2L));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.hub900.tsdb;
+
+final class BlockEncoder
+{
+    private final BitWriter writer;
+    private int count;
+    private long firstTime;
+    private long lastTime;
+    private long lastDelta;
+    private int lastValue;
+    private int lastRssi;
+    private long minTime;
+    private long maxTime;
+    private int minValue;
+    private int maxValue;
+    private long sumValue;
+    
+    BlockEncoder(final int capacity) {
+        this.writer = new BitWriter(Math.max(64, capacity / 2));
+    }
+    
+    void append(final long time, final int value, final int rssi) {
+        if (this.count == 0) {
+            this.writer.writeBits(time, 64);
+            this.writer.writeBits(value, 32);
+            this.writer.writeBits(rssi, 32);
+            this.firstTime = time;
+            this.minTime = time;
+            this.maxTime = time;
+            this.minValue = value;
+            this.maxValue = value;
+        }
+        else {
+            final long delta = time - this.lastTime;
+            writeTimestamp(this.writer, delta - this.lastDelta);
+            writeValue(this.writer, value - this.lastValue);
+            writeValue(this.writer, rssi - this.lastRssi);
+            this.lastDelta = delta;
+            this.minTime = Math.min(this.minTime, time);
+            this.maxTime = Math.max(this.maxTime, time);
+            this.minValue = Math.min(this.minValue, value);
+            this.maxValue = Math.max(this.maxValue, value);
+        }
+        this.lastTime = time;
+        this.lastValue = value;
+        this.lastRssi = rssi;
+        this.sumValue += value;
+        ++this.count;
+    }
+    
+    int count() {
+        return this.count;
+    }
+    
+    long firstTime() {
+        return this.firstTime;
+    }
+    
+    long minTime() {
+        return this.minTime;
+    }
+    
+    long maxTime() {
+        return this.maxTime;
+    }
+    
+    int minValue() {
+        return this.minValue;
+    }
+    
+    int maxValue() {
+        return this.maxValue;
+    }
+    
+    long sumValue() {
+        return this.sumValue;
+    }
+    
+    byte[] payload() {
+        return this.writer.toByteArray();
+    }
+    
+    int payloadBytes() {
+        return this.writer.byteLength();
+    }
+    
+    byte[] buffer() {
+        return this.writer.buffer();
+    }
+    
+    static void decode(final byte[] payload, final int offset, final int length, final int count, final SampleVisitor visitor) {
+        if (count == 0) {
+            return;
+        }
+        final BitReader reader = new BitReader(payload, offset, length);
+        long time = reader.readBits(64);
+        int value = (int)reader.readBits(32);
+        int rssi = (int)reader.readBits(32);
+        long delta = 0L;
+        visitor.visit(time, value, rssi);
+        for (int i = 1; i < count; ++i) {
+            delta += readTimestamp(reader);
+            time += delta;
+            value += (int)readValue(reader);
+            rssi += (int)readValue(reader);
+            visitor.visit(time, value, rssi);
+        }
+    }
+    
+    private static void writeTimestamp(final BitWriter writer, final long dod) {
+        final long zz = dod << 1 ^ dod >> 63;
+        if (zz == 0L) {
+            writer.writeBit(false);
+        }
+        else if (zz < 128L) {
+            writer.writeBits(2L, 2);
+            writer.writeBits(zz, 7);
+        }
+        else if (zz < 512L) {
+            writer.writeBits(6L, 3);
+            writer.writeBits(zz, 9);
+        }
+        else if (zz < 4096L) {
+            writer.writeBits(14L, 4);
+            writer.writeBits(zz, 12);
+        }
+        else {
+            writer.writeBits(15L, 4);
+            writer.writeBits(zz, 64);
+        }
+    }
+    
+    private static long readTimestamp(final BitReader reader) {
+        long zz;
+        if (!reader.readBit()) {
+            zz = 0L;
+        }
+        else if (!reader.readBit()) {
+            zz = reader.readBits(7);
+        }
+        else if (!reader.readBit()) {
+            zz = reader.readBits(9);
+        }
+        else if (!reader.readBit()) {
+            zz = reader.readBits(12);
+        }
+        else {
+            zz = reader.readBits(64);
+        }
+        return zz >>> 1 ^ -(zz & 0x1L);
+    }
+    
+    private static void writeValue(final BitWriter writer, final long delta) {
+        final long zz = delta << 1 ^ delta >> 63;
+        if (zz == 0L) {
+            writer.writeBit(false);
+        }
+        else if (zz < 16L) {
+            writer.writeBits(2L, 2);
+            writer.writeBits(zz, 4);
+        }
+        else if (zz < 256L) {
+            writer.writeBits(6L, 3);
+            writer.writeBits(zz, 8);
+        }
+        else {
+            writer.writeBits(7L, 3);
+            writer.writeBits(zz, 64);
+        }
+    }
+    
+    private static long readValue(final BitReader reader) {
+        long zz;
+        if (!reader.readBit()) {
+            zz = 0L;
+        }
+        else if (!reader.readBit()) {
+            zz = reader.readBits(4);
+        }
+        else if (!reader.readBit()) {
+            zz = reader.readBits(8);
+        }
+        else {
+            zz = reader.readBits(64);
+        }
+        return zz >>> 1 ^ -(zz & 0x1L);
+    }
+}
@@ -0,0 +1,77 @@
+package com.hub900.tsdb;
+
+public final class BlockRef
+{
+    private final long seriesKey;
+    private final int epochDay;
+    private final long offset;
+    private final int length;
+    private final int count;
+    private final long minTime;
+    private final long maxTime;
+    private final int minValue;
+    private final int maxValue;
+    private final long sumValue;
+    
+    BlockRef(final long seriesKey, final int epochDay, final long offset, final int length, final int count, final long minTime, final long maxTime, final int minValue, final int maxValue, final long sumValue) {
+        this.seriesKey = seriesKey;
+        this.epochDay = epochDay;
+        this.offset = offset;
+        this.length = length;
+        this.count = count;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.sumValue = sumValue;
+    }
+    
+    public long getSeriesKey() {
+        return this.seriesKey;
+    }
+    
+    public int getEpochDay() {
+        return this.epochDay;
+    }
+    
+    long getOffset() {
+        return this.offset;
+    }
+    
+    public int getLength() {
+        return this.length;
+    }
+    
+    public int getCount() {
+        return this.count;
+    }
+    
+    public long getMinTime() {
+        return this.minTime;
+    }
+    
+    public long getMaxTime() {
+        return this.maxTime;
+    }
+    
+    public int getMinValue() {
+        return this.minValue;
+    }
+    
+    public int getMaxValue() {
+        return this.maxValue;
+    }
+    
+    public long getSumValue() {
+        return this.sumValue;
+    }
+    
+    public boolean overlaps(final long from, final long to) {
+        return this.maxTime >= from && this.minTime < to;
+    }
+    
+    @Override
+    public String toString() {
+        return "BlockRef{seriesKey=" + this.seriesKey + ", epochDay=" + this.epochDay + ", count=" + this.count + ", minTime=" + this.minTime + ", maxTime=" + this.maxTime + ", length=" + this.length + '}';
+    }
+}
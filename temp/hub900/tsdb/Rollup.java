@@ -0,0 +1,76 @@
+package com.hub900.tsdb;
+
+public final class Rollup
+{
+    private final long from;
+    private final long bucketMillis;
+    private final int[] count;
+    private final int[] min;
+    private final int[] max;
+    private final long[] sum;
+    
+    Rollup(final long from, final long to, final long bucketMillis) {
+        if (bucketMillis <= 0L || to <= from) {
+            throw new IllegalArgumentException("Invalid rollup range " + from + ".." + to + " / " + bucketMillis);
+        }
+        final long buckets = (to - from + bucketMillis - 1L) / bucketMillis;
+        if (buckets > 1000000L) {
+            throw new IllegalArgumentException("Too many buckets: " + buckets);
+        }
+        this.from = from;
+        this.bucketMillis = bucketMillis;
+        this.count = new int[(int)buckets];
+        this.min = new int[(int)buckets];
+        this.max = new int[(int)buckets];
+        this.sum = new long[(int)buckets];
+    }
+    
+    int bucketOf(final long time) {
+        return (int)((time - this.from) / this.bucketMillis);
+    }
+    
+    void add(final long time, final int value) {
+        this.add(this.bucketOf(time), 1, value, value, value);
+    }
+    
+    void add(final int bucket, final int count, final int min, final int max, final long sum) {
+        if (this.count[bucket] == 0) {
+            this.min[bucket] = min;
+            this.max[bucket] = max;
+        }
+        else {
+            this.min[bucket] = Math.min(this.min[bucket], min);
+            this.max[bucket] = Math.max(this.max[bucket], max);
+        }
+        this.count[bucket] += count;
+        this.sum[bucket] += sum;
+    }
+    
+    public int size() {
+        return this.count.length;
+    }
+    
+    public long getBucketStart(final int bucket) {
+        return this.from + bucket * this.bucketMillis;
+    }
+    
+    public long getBucketMillis() {
+        return this.bucketMillis;
+    }
+    
+    public int getCount(final int bucket) {
+        return this.count[bucket];
+    }
+    
+    public int getMin(final int bucket) {
+        return this.min[bucket];
+    }
+    
+    public int getMax(final int bucket) {
+        return this.max[bucket];
+    }
+    
+    public double getAvg(final int bucket) {
+        return (this.count[bucket] == 0) ? Double.NaN : (this.sum[bucket] / (double)this.count[bucket]);
+    }
+}
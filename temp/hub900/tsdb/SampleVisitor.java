@@ -0,0 +1,6 @@
+package com.hub900.tsdb;
+
+public interface SampleVisitor
+{
+    void visit(final long p0, final int p1, final int p2);
+}
@@ -0,0 +1,77 @@
+package com.hub900.tsdb;
+
+import java.util.*;
+
+public final class SeriesPoints implements SampleVisitor
+{
+    private long[] times;
+    private int[] values;
+    private int size;
+    private boolean sorted;
+    
+    public SeriesPoints() {
+        this(256);
+    }
+    
+    public SeriesPoints(final int capacity) {
+        this.times = new long[Math.max(4, capacity)];
+        this.values = new int[Math.max(4, capacity)];
+        this.sorted = true;
+    }
+    
+    @Override
+    public void visit(final long time, final int value, final int rssi) {
+        this.add(time, value);
+    }
+    
+    public void add(final long time, final int value) {
+        if (this.size == this.times.length) {
+            this.times = Arrays.copyOf(this.times, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        if (this.size > 0 && time < this.times[this.size - 1]) {
+            this.sorted = false;
+        }
+        this.times[this.size] = time;
+        this.values[this.size] = value;
+        ++this.size;
+    }
+    
+    public int size() {
+        return this.size;
+    }
+    
+    public long getTime(final int index) {
+        return this.times[index];
+    }
+    
+    public int getValue(final int index) {
+        return this.values[index];
+    }
+    
+    public SeriesPoints sort() {
+        if (this.sorted) {
+            return this;
+        }
+        final Integer[] order = new Integer[this.size];
+        for (int i = 0; i < this.size; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> this.times[i]));
+        final long[] times = new long[this.times.length];
+        final int[] values = new int[this.values.length];
+        for (int j = 0; j < this.size; ++j) {
+            times[j] = this.times[order[j]];
+            values[j] = this.values[order[j]];
+        }
+        this.times = times;
+        this.values = values;
+        this.sorted = true;
+        return this;
+    }
+    
+    @Override
+    public String toString() {
+        return "SeriesPoints{size=" + this.size + ((this.size > 0) ? (", from=" + this.times[0] + ", to=" + this.times[this.size - 1]) : "") + '}';
+    }
+}
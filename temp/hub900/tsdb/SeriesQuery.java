@@ -0,0 +1,112 @@
+package com.hub900.tsdb;
+
+import java.io.*;
+import java.util.*;
+
+public final class SeriesQuery
+{
+    private final TimeSeriesStore store;
+    
+    public SeriesQuery(final TimeSeriesStore store) {
+        this.store = store;
+    }
+    
+    public SeriesPoints range(final long seriesKey, final long from, final long to) throws IOException {
+        final SeriesPoints points = new SeriesPoints();
+        this.store.scan(seriesKey, from, to, points);
+        return points.sort();
+    }
+    
+    public Map<Long, SeriesPoints> range(final Collection<Long> seriesKeys, final long from, final long to) throws IOException {
+        final Map<Long, SeriesPoints> result = new LinkedHashMap<Long, SeriesPoints>();
+        for (final Long key : seriesKeys) {
+            result.put(key, this.range(key, from, to));
+        }
+        return result;
+    }
+    
+    public Rollup rollup(final long seriesKey, final long from, final long to, final long bucketMillis) throws IOException {
+        final Rollup rollup = new Rollup(from, to, bucketMillis);
+        this.rollupInto(rollup, seriesKey, from, to);
+        return rollup;
+    }
+    
+    public Rollup rollup(final Collection<Long> seriesKeys, final long from, final long to, final long bucketMillis) throws IOException {
+        final Rollup rollup = new Rollup(from, to, bucketMillis);
+        for (final Long key : seriesKeys) {
+            this.rollupInto(rollup, key, from, to);
+        }
+        return rollup;
+    }
+    
+    public SeriesPoints lttb(final long seriesKey, final long from, final long to, final int threshold) throws IOException {
+        return lttb(this.range(seriesKey, from, to), threshold);
+    }
+    
+    public Map<Long, SeriesPoints> lttb(final Collection<Long> seriesKeys, final long from, final long to, final int threshold) throws IOException {
+        final Map<Long, SeriesPoints> result = new LinkedHashMap<Long, SeriesPoints>();
+        for (final Long key : seriesKeys) {
+            result.put(key, this.lttb(key, from, to, threshold));
+        }
+        return result;
+    }
+    
+    public static SeriesPoints lttb(final SeriesPoints points, final int threshold) {
+        final int size = points.size();
+        if (threshold >= size || threshold < 3) {
+            return points;
+        }
+        final SeriesPoints sampled = new SeriesPoints(threshold);
+        final double every = (size - 2) / (double)(threshold - 2);
+        int a = 0;
+        sampled.add(points.getTime(0), points.getValue(0));
+        for (int i = 0; i < threshold - 2; ++i) {
+            final int nextStart = (int)Math.floor((i + 1) * every) + 1;
+            final int nextEnd = Math.min((int)Math.floor((i + 2) * every) + 1, size);
+            double avgTime = 0.0;
+            double avgValue = 0.0;
+            for (int j = nextStart; j < nextEnd; ++j) {
+                avgTime += points.getTime(j);
+                avgValue += points.getValue(j);
+            }
+            final int nextLength = nextEnd - nextStart;
+            avgTime /= nextLength;
+            avgValue /= nextLength;
+            final int rangeStart = (int)Math.floor(i * every) + 1;
+            final int rangeEnd = (int)Math.floor((i + 1) * every) + 1;
+            final double pointTime = points.getTime(a);
+            final double pointValue = points.getValue(a);
+            double maxArea = -1.0;
+            int chosen = rangeStart;
+            for (int k = rangeStart; k < rangeEnd; ++k) {
+                final double area = Math.abs((pointTime - avgTime) * (points.getValue(k) - pointValue) - (pointTime - points.getTime(k)) * (avgValue - pointValue));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = k;
+                }
+            }
+            sampled.add(points.getTime(chosen), points.getValue(chosen));
+            a = chosen;
+        }
+        sampled.add(points.getTime(size - 1), points.getValue(size - 1));
+        return sampled;
+    }
+    
+    private void rollupInto(final Rollup rollup, final long seriesKey, final long from, final long to) throws IOException {
+        final SampleVisitor visitor = (time, value, rssi) -> {
+            if (time >= from && time < to) {
+                rollup.add(time, value);
+            }
+        };
+        final TimeSeriesStore.Snapshot snapshot = this.store.snapshot(seriesKey, from, to);
+        for (final BlockRef block : snapshot.blocks()) {
+            if (block.getMinTime() >= from && block.getMaxTime() < to && rollup.bucketOf(block.getMinTime()) == rollup.bucketOf(block.getMaxTime())) {
+                rollup.add(rollup.bucketOf(block.getMinTime()), block.getCount(), block.getMinValue(), block.getMaxValue(), block.getSumValue());
+            }
+            else {
+                this.store.decode(block, visitor);
+            }
+        }
+        snapshot.scanMemory(visitor);
+    }
+}
@@ -0,0 +1,685 @@
+package com.hub900.tsdb;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+import java.util.zip.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+import com.hub900.entity.*;
+
+public final class TimeSeriesStore implements Closeable
+{
+    private static final int MAGIC = 0x48394253;
+    private static final int HEADER_BYTES = 57;
+    private static final long MILLIS_PER_DAY = 86400000L;
+    private static final String SUFFIX = ".tsb";
+    private final Path directory;
+    private final Map<Long, Series> series;
+    private final Map<Integer, Segment> segments;
+    private final ReadWriteLock lock;
+    private final BlockingQueue<Series> sealQueue;
+    private final LongAdder droppedBlocks;
+    private final LongAdder failedWrites;
+    private Thread sealer;
+    private int blockSize;
+    private int retentionDays;
+    private int maxPendingBlocks;
+    private long maxBackoffMillis;
+    private volatile boolean sealing;
+    private boolean open;
+    
+    public TimeSeriesStore(final Path directory) {
+        this.directory = directory;
+        this.series = new ConcurrentHashMap<Long, Series>();
+        this.segments = new ConcurrentHashMap<Integer, Segment>();
+        this.lock = new ReentrantReadWriteLock();
+        this.sealQueue = new LinkedBlockingQueue<Series>();
+        this.droppedBlocks = new LongAdder();
+        this.failedWrites = new LongAdder();
+        this.blockSize = 1024;
+        this.retentionDays = 400;
+        this.maxPendingBlocks = 64;
+        this.maxBackoffMillis = 5000L;
+    }
+    
+    public TimeSeriesStore setBlockSize(final int blockSize) {
+        this.blockSize = Math.max(2, blockSize);
+        return this;
+    }
+    
+    public TimeSeriesStore setRetentionDays(final int retentionDays) {
+        this.retentionDays = retentionDays;
+        return this;
+    }
+    
+    public TimeSeriesStore setMaxPendingBlocks(final int maxPendingBlocks) {
+        this.maxPendingBlocks = Math.max(1, maxPendingBlocks);
+        return this;
+    }
+    
+    public TimeSeriesStore setMaxBackoffMillis(final long maxBackoffMillis) {
+        this.maxBackoffMillis = Math.max(1L, maxBackoffMillis);
+        return this;
+    }
+    
+    public long getDroppedBlocks() {
+        return this.droppedBlocks.sum();
+    }
+    
+    public long getFailedWrites() {
+        return this.failedWrites.sum();
+    }
+    
+    public static long seriesKey(final SampleType type, final long deviceId) {
+        return (long)type.getCode() << 56 | (deviceId & 0xFFFFFFFFFFFFFFL);
+    }
+    
+    public static SampleType typeOf(final long seriesKey) {
+        return SampleType.fromCode((int)(seriesKey >>> 56));
+    }
+    
+    public static long deviceIdOf(final long seriesKey) {
+        return seriesKey & 0xFFFFFFFFFFFFFFL;
+    }
+    
+    public synchronized TimeSeriesStore open() throws IOException {
+        if (this.open) {
+            return this;
+        }
+        Files.createDirectories(this.directory);
+        final Map<Long, List<BlockRef>> loaded = new HashMap<Long, List<BlockRef>>();
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "seg-*" + TimeSeriesStore.SUFFIX)) {
+            for (final Path path : stream) {
+                final String name = path.getFileName().toString();
+                final int epochDay;
+                try {
+                    epochDay = Integer.parseInt(name.substring(4, name.length() - TimeSeriesStore.SUFFIX.length()));
+                }
+                catch (NumberFormatException e) {
+                    continue;
+                }
+                this.load(epochDay, path, loaded);
+            }
+        }
+        for (final Map.Entry<Long, List<BlockRef>> entry : loaded.entrySet()) {
+            entry.getValue().sort(Comparator.comparingLong(BlockRef::getMinTime));
+            this.series.computeIfAbsent(entry.getKey(), Series::new).blocks = new BlockIndex(entry.getValue());
+        }
+        this.sealing = true;
+        (this.sealer = new Thread(this::sealLoop, "hub900-tsdb-sealer")).setDaemon(true);
+        this.sealer.start();
+        this.open = true;
+        return this;
+    }
+    
+    public TimeSeriesStore attach(final HubManager hubManager) {
+        hubManager.addSampleListener(this::append);
+        return this;
+    }
+    
+    private void append(final SampleType type, final AbstractData data) {
+        switch (type) {
+            case ANT_HEART_RATE: {
+                final AntHeartRateData antHeartRate = (AntHeartRateData)data;
+                this.append(type, antHeartRate.getDeviceId(), System.currentTimeMillis(), antHeartRate.getHeartRate(), antHeartRate.getRssi());
+                break;
+            }
+            case BLE_HEART_RATE: {
+                final BleHeartRateData bleHeartRate = (BleHeartRateData)data;
+                this.append(type, bleHeartRate.getDeviceKey(), System.currentTimeMillis(), bleHeartRate.getHeartRate(), bleHeartRate.getRssi());
+                break;
+            }
+            case ANT_SPEED: {
+                final AntSpeedData antSpeed = (AntSpeedData)data;
+                this.append(type, antSpeed.getDeviceId(), System.currentTimeMillis(), (int)Math.round(antSpeed.getSpeed() * 100.0), (int)antSpeed.getRssi());
+                break;
+            }
+            case ANT_CADENCE: {
+                final AntCadenceDta antCadence = (AntCadenceDta)data;
+                this.append(type, antCadence.getDeviceId(), System.currentTimeMillis(), (int)antCadence.getCadence(), antCadence.getRssi());
+                break;
+            }
+        }
+    }
+    
+    public void append(final SampleType type, final long deviceId, final long time, final int value, final int rssi) {
+        final long key = seriesKey(type, deviceId);
+        Series s = this.series.get(key);
+        if (s == null) {
+            s = this.series.computeIfAbsent(key, Series::new);
+        }
+        final int epochDay = (int)Math.floorDiv(time, TimeSeriesStore.MILLIS_PER_DAY);
+        synchronized (s) {
+            if (s.head != null && (s.headDay != epochDay || s.head.count() >= this.blockSize)) {
+                this.seal(s, false);
+            }
+            if (s.head == null) {
+                s.head = new BlockEncoder(this.blockSize);
+                s.headDay = epochDay;
+            }
+            s.head.append(time, value, rssi);
+        }
+    }
+    
+    public void flush() throws IOException {
+        for (final Series s : this.series.values()) {
+            synchronized (s) {
+                if (s.head != null) {
+                    this.seal(s, true);
+                }
+            }
+            this.drain(s);
+        }
+        for (final Segment segment : this.segments.values()) {
+            segment.channel.force(false);
+        }
+    }
+    
+    public Set<Long> seriesKeys() {
+        return Collections.unmodifiableSet(this.series.keySet());
+    }
+    
+    public List<BlockRef> blocks(final long seriesKey, final long from, final long to) {
+        final Series s = this.series.get(seriesKey);
+        if (s == null) {
+            return Collections.emptyList();
+        }
+        return s.blocks.range(from, to);
+    }
+    
+    public int scan(final long seriesKey, final long from, final long to, final SampleVisitor visitor) throws IOException {
+        final int[] matched = { 0 };
+        final SampleVisitor filter = (time, value, rssi) -> {
+            if (time >= from && time < to) {
+                ++matched[0];
+                visitor.visit(time, value, rssi);
+            }
+        };
+        final Snapshot snapshot = this.snapshot(seriesKey, from, to);
+        for (final BlockRef block : snapshot.blocks) {
+            this.decode(block, filter);
+        }
+        snapshot.scanMemory(filter);
+        return matched[0];
+    }
+    
+    public void scanHead(final long seriesKey, final long from, final long to, final SampleVisitor visitor) {
+        this.snapshot(seriesKey, from, to).scanMemory((time, value, rssi) -> {
+            if (time >= from && time < to) {
+                visitor.visit(time, value, rssi);
+            }
+        });
+    }
+    
+    Snapshot snapshot(final long seriesKey, final long from, final long to) {
+        final Snapshot snapshot = new Snapshot();
+        final Series s = this.series.get(seriesKey);
+        if (s == null) {
+            return snapshot;
+        }
+        synchronized (s) {
+            snapshot.blocks = s.blocks.range(from, to);
+            for (final BlockEncoder encoder : s.pending) {
+                if (encoder.maxTime() >= from && encoder.minTime() < to) {
+                    snapshot.pending.add(encoder);
+                }
+            }
+            if (s.head != null && s.head.count() != 0 && s.head.maxTime() >= from && s.head.minTime() < to) {
+                snapshot.head = s.head.payload();
+                snapshot.headCount = s.head.count();
+            }
+        }
+        return snapshot;
+    }
+    
+    public void decode(final BlockRef block, final SampleVisitor visitor) throws IOException {
+        final byte[] payload;
+        this.lock.readLock().lock();
+        try {
+            payload = this.read(block);
+        }
+        finally {
+            this.lock.readLock().unlock();
+        }
+        BlockEncoder.decode(payload, 0, payload.length, block.getCount(), visitor);
+    }
+    
+    public long diskBytes() {
+        long total = 0L;
+        for (final Segment segment : this.segments.values()) {
+            total += segment.size;
+        }
+        return total;
+    }
+    
+    public int applyRetention(final long now) throws IOException {
+        final int oldest = (int)Math.floorDiv(now, TimeSeriesStore.MILLIS_PER_DAY) - this.retentionDays;
+        int removed = 0;
+        this.lock.writeLock().lock();
+        try {
+            final Iterator<Map.Entry<Integer, Segment>> it = this.segments.entrySet().iterator();
+            while (it.hasNext()) {
+                final Map.Entry<Integer, Segment> entry = it.next();
+                if (entry.getKey() < oldest) {
+                    entry.getValue().channel.close();
+                    Files.deleteIfExists(entry.getValue().path);
+                    it.remove();
+                    ++removed;
+                }
+            }
+            if (removed > 0) {
+                for (final Series s : this.series.values()) {
+                    final List<BlockRef> blocks = new ArrayList<BlockRef>(s.blocks.list);
+                    if (blocks.removeIf(block -> block.getEpochDay() < oldest)) {
+                        s.blocks = new BlockIndex(blocks);
+                    }
+                }
+            }
+        }
+        finally {
+            this.lock.writeLock().unlock();
+        }
+        return removed;
+    }
+    
+    public boolean compact(final int epochDay) throws IOException {
+        this.lock.writeLock().lock();
+        try {
+            final Segment segment = this.segments.get(epochDay);
+            if (segment == null) {
+                return false;
+            }
+            final Map<Long, List<BlockRef>> bySeries = new TreeMap<Long, List<BlockRef>>();
+            boolean fragmented = false;
+            for (final Series s : this.series.values()) {
+                final List<BlockRef> blocks = new ArrayList<BlockRef>();
+                for (final BlockRef block : s.blocks.list) {
+                    if (block.getEpochDay() == epochDay) {
+                        blocks.add(block);
+                    }
+                }
+                if (!blocks.isEmpty()) {
+                    bySeries.put(s.key, blocks);
+                    int partial = 0;
+                    for (final BlockRef block : blocks) {
+                        partial += ((block.getCount() < this.blockSize) ? 1 : 0);
+                    }
+                    fragmented |= (partial > 1);
+                }
+            }
+            if (!fragmented) {
+                return false;
+            }
+            final Path temp = this.directory.resolve(segment.path.getFileName() + ".compact");
+            final Map<Long, List<BlockRef>> rewritten = new HashMap<Long, List<BlockRef>>();
+            try (final FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long position = 0L;
+                for (final Map.Entry<Long, List<BlockRef>> entry : bySeries.entrySet()) {
+                    final List<long[]> samples = new ArrayList<long[]>();
+                    for (final BlockRef block : entry.getValue()) {
+                        this.decode(block, (time, value, rssi) -> samples.add(new long[] { time, value, rssi }));
+                    }
+                    samples.sort(Comparator.comparingLong(sample -> sample[0]));
+                    final List<BlockRef> blocks = new ArrayList<BlockRef>();
+                    BlockEncoder encoder = null;
+                    for (final long[] sample : samples) {
+                        if (encoder == null) {
+                            encoder = new BlockEncoder(this.blockSize);
+                        }
+                        encoder.append(sample[0], (int)sample[1], (int)sample[2]);
+                        if (encoder.count() >= this.blockSize) {
+                            blocks.add(writeBlock(out, position, entry.getKey(), epochDay, encoder));
+                            position += TimeSeriesStore.HEADER_BYTES + encoder.payloadBytes();
+                            encoder = null;
+                        }
+                    }
+                    if (encoder != null) {
+                        blocks.add(writeBlock(out, position, entry.getKey(), epochDay, encoder));
+                        position += TimeSeriesStore.HEADER_BYTES + encoder.payloadBytes();
+                    }
+                    rewritten.put(entry.getKey(), blocks);
+                }
+                out.force(true);
+            }
+            segment.channel.close();
+            Files.move(temp, segment.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            final Segment replacement = new Segment(segment.path);
+            this.segments.put(epochDay, replacement);
+            for (final Map.Entry<Long, List<BlockRef>> entry2 : rewritten.entrySet()) {
+                final Series s2 = this.series.get(entry2.getKey());
+                final List<BlockRef> blocks2 = new ArrayList<BlockRef>(s2.blocks.list);
+                blocks2.removeIf(block -> block.getEpochDay() == epochDay);
+                blocks2.addAll(entry2.getValue());
+                blocks2.sort(Comparator.comparingLong(BlockRef::getMinTime));
+                s2.blocks = new BlockIndex(blocks2);
+            }
+            return true;
+        }
+        finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.open) {
+            return;
+        }
+        this.sealing = false;
+        LockSupport.unpark(this.sealer);
+        try {
+            this.sealer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+        this.lock.writeLock().lock();
+        try {
+            for (final Segment segment : this.segments.values()) {
+                segment.channel.close();
+            }
+            this.segments.clear();
+            this.series.clear();
+            this.open = false;
+        }
+        finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+    
+    private void seal(final Series s, final boolean force) {
+        final BlockEncoder head = s.head;
+        s.head = null;
+        if (head.count() == 0) {
+            return;
+        }
+        if (!force && s.pending.size() >= this.maxPendingBlocks) {
+            this.droppedBlocks.increment();
+            return;
+        }
+        s.pending.addLast(head);
+        if (!s.queued) {
+            s.queued = true;
+            this.sealQueue.offer(s);
+        }
+    }
+    
+    private void sealLoop() {
+        long backoff = 0L;
+        while (this.sealing) {
+            final Series s;
+            try {
+                s = this.sealQueue.poll(100L, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+            if (s == null) {
+                continue;
+            }
+            try {
+                this.drain(s);
+                backoff = 0L;
+            }
+            catch (IOException | UncheckedIOException e) {
+                this.sealQueue.offer(s);
+                backoff = Math.min(this.maxBackoffMillis, Math.max(10L, backoff * 2L));
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoff));
+            }
+        }
+    }
+    
+    private void drain(final Series s) throws IOException {
+        synchronized (s.writeLock) {
+            while (true) {
+                final BlockEncoder head;
+                synchronized (s) {
+                    head = s.pending.peekFirst();
+                    if (head == null) {
+                        s.queued = false;
+                        return;
+                    }
+                }
+                try {
+                    this.write(s, head);
+                }
+                catch (IOException | UncheckedIOException e) {
+                    this.failedWrites.increment();
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private void write(final Series s, final BlockEncoder head) throws IOException {
+        final int epochDay = (int)Math.floorDiv(head.minTime(), TimeSeriesStore.MILLIS_PER_DAY);
+        this.lock.readLock().lock();
+        try {
+            final Segment segment = this.segment(epochDay);
+            final BlockRef block;
+            synchronized (segment) {
+                block = writeBlock(segment.channel, segment.size, s.key, epochDay, head);
+                segment.size += TimeSeriesStore.HEADER_BYTES + head.payloadBytes();
+            }
+            synchronized (s) {
+                final List<BlockRef> blocks = new ArrayList<BlockRef>(s.blocks.list.size() + 1);
+                blocks.addAll(s.blocks.list);
+                blocks.add(block);
+                if (blocks.size() > 1 && blocks.get(blocks.size() - 2).getMinTime() > block.getMinTime()) {
+                    blocks.sort(Comparator.comparingLong(BlockRef::getMinTime));
+                }
+                s.blocks = new BlockIndex(blocks);
+                s.pending.pollFirst();
+            }
+        }
+        finally {
+            this.lock.readLock().unlock();
+        }
+    }
+    
+    private Segment segment(final int epochDay) throws IOException {
+        Segment segment = this.segments.get(epochDay);
+        if (segment == null) {
+            synchronized (this.segments) {
+                segment = this.segments.get(epochDay);
+                if (segment == null) {
+                    segment = new Segment(this.directory.resolve("seg-" + epochDay + TimeSeriesStore.SUFFIX));
+                    this.segments.put(epochDay, segment);
+                }
+            }
+        }
+        return segment;
+    }
+    
+    private static BlockRef writeBlock(final FileChannel channel, final long position, final long seriesKey, final int epochDay, final BlockEncoder encoder) throws IOException {
+        final int length = encoder.payloadBytes();
+        final CRC32 crc = new CRC32();
+        crc.update(encoder.buffer(), 0, length);
+        final ByteBuffer buffer = ByteBuffer.allocate(TimeSeriesStore.HEADER_BYTES + length);
+        buffer.putInt(TimeSeriesStore.MAGIC);
+        buffer.put((byte)1);
+        buffer.putLong(seriesKey);
+        buffer.putInt(encoder.count());
+        buffer.putLong(encoder.minTime());
+        buffer.putLong(encoder.maxTime());
+        buffer.putInt(encoder.minValue());
+        buffer.putInt(encoder.maxValue());
+        buffer.putLong(encoder.sumValue());
+        buffer.putInt(length);
+        buffer.putInt((int)crc.getValue());
+        buffer.put(encoder.buffer(), 0, length);
+        buffer.flip();
+        long at = position;
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+        return new BlockRef(seriesKey, epochDay, position + TimeSeriesStore.HEADER_BYTES, length, encoder.count(), encoder.minTime(), encoder.maxTime(), encoder.minValue(), encoder.maxValue(), encoder.sumValue());
+    }
+    
+    private byte[] read(final BlockRef block) throws IOException {
+        final Segment segment = this.segments.get(block.getEpochDay());
+        if (segment == null) {
+            throw new FileNotFoundException("Segment for day " + block.getEpochDay() + " is gone");
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(block.getLength());
+        long at = block.getOffset();
+        while (buffer.hasRemaining()) {
+            final int read = segment.channel.read(buffer, at);
+            if (read < 0) {
+                throw new EOFException("Block truncated at " + at);
+            }
+            at += read;
+        }
+        return buffer.array();
+    }
+    
+    private void load(final int epochDay, final Path path, final Map<Long, List<BlockRef>> loaded) throws IOException {
+        final Segment segment = new Segment(path);
+        final long size = segment.channel.size();
+        final ByteBuffer header = ByteBuffer.allocate(TimeSeriesStore.HEADER_BYTES);
+        long position = 0L;
+        while (position + TimeSeriesStore.HEADER_BYTES <= size) {
+            header.clear();
+            segment.channel.read(header, position);
+            header.flip();
+            if (header.getInt() != TimeSeriesStore.MAGIC || header.get() != 1) {
+                break;
+            }
+            final long seriesKey = header.getLong();
+            final int count = header.getInt();
+            final long minTime = header.getLong();
+            final long maxTime = header.getLong();
+            final int minValue = header.getInt();
+            final int maxValue = header.getInt();
+            final long sumValue = header.getLong();
+            final int length = header.getInt();
+            final int crc = header.getInt();
+            if (length < 0 || position + TimeSeriesStore.HEADER_BYTES + length > size) {
+                break;
+            }
+            final ByteBuffer payload = ByteBuffer.allocate(length);
+            segment.channel.read(payload, position + TimeSeriesStore.HEADER_BYTES);
+            final CRC32 check = new CRC32();
+            check.update(payload.array(), 0, length);
+            if ((int)check.getValue() != crc) {
+                break;
+            }
+            loaded.computeIfAbsent(seriesKey, key -> new ArrayList<BlockRef>()).add(new BlockRef(seriesKey, epochDay, position + TimeSeriesStore.HEADER_BYTES, length, count, minTime, maxTime, minValue, maxValue, sumValue));
+            position += TimeSeriesStore.HEADER_BYTES + length;
+        }
+        if (position < size) {
+            segment.channel.truncate(position);
+        }
+        segment.size = position;
+        this.segments.put(epochDay, segment);
+    }
+    
+    private static final class Series
+    {
+        private final long key;
+        private final ArrayDeque<BlockEncoder> pending;
+        private final Object writeLock;
+        private volatile BlockIndex blocks;
+        private BlockEncoder head;
+        private int headDay;
+        private boolean queued;
+        
+        Series(final long key) {
+            this.key = key;
+            this.pending = new ArrayDeque<BlockEncoder>();
+            this.writeLock = new Object();
+            this.blocks = new BlockIndex(Collections.emptyList());
+        }
+    }
+    
+    private static final class BlockIndex
+    {
+        private final List<BlockRef> list;
+        private final long[] prefixMaxTime;
+        
+        BlockIndex(final List<BlockRef> sorted) {
+            this.list = Collections.unmodifiableList(sorted);
+            this.prefixMaxTime = new long[sorted.size()];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < this.prefixMaxTime.length; ++i) {
+                max = Math.max(max, sorted.get(i).getMaxTime());
+                this.prefixMaxTime[i] = max;
+            }
+        }
+        
+        List<BlockRef> range(final long from, final long to) {
+            final List<BlockRef> result = new ArrayList<BlockRef>();
+            for (int i = this.first(from), n = this.list.size(); i < n; ++i) {
+                final BlockRef block = this.list.get(i);
+                if (block.getMinTime() >= to) {
+                    break;
+                }
+                if (block.getMaxTime() >= from) {
+                    result.add(block);
+                }
+            }
+            return result;
+        }
+        
+        int first(final long from) {
+            int low = 0;
+            int high = this.prefixMaxTime.length;
+            while (low < high) {
+                final int mid = low + high >>> 1;
+                if (this.prefixMaxTime[mid] < from) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+    
+    static final class Snapshot
+    {
+        private final List<BlockEncoder> pending;
+        private List<BlockRef> blocks;
+        private byte[] head;
+        private int headCount;
+        
+        Snapshot() {
+            this.pending = new ArrayList<BlockEncoder>();
+            this.blocks = Collections.emptyList();
+        }
+        
+        List<BlockRef> blocks() {
+            return this.blocks;
+        }
+        
+        void scanMemory(final SampleVisitor visitor) {
+            for (final BlockEncoder encoder : this.pending) {
+                BlockEncoder.decode(encoder.buffer(), 0, encoder.payloadBytes(), encoder.count(), visitor);
+            }
+            if (this.head != null) {
+                BlockEncoder.decode(this.head, 0, this.head.length, this.headCount, visitor);
+            }
+        }
+    }
+    
+    private static final class Segment
+    {
+        private final Path path;
+        private final FileChannel channel;
+        private long size;
+        
+        Segment(final Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = this.channel.size();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.hub900.upload;
+
+public final class IngestItem
+{
+    public static final String ENDURANCE = "endurance";
+    public static final String FLEXIBILITY = "flexibility";
+    public static final String STRENGTH = "strength";
+    private String idempotencyKey;
+    private String recognitionKey;
+    private int year;
+    private int grade;
+    private int classNo;
+    private int studentNo;
+    private String exerciseType;
+    private int month;
+    private Double avgDurationSeconds;
+    private Double avgAccuracy;
+    private Double avgBpm;
+    private Double avgMaxBpm;
+    private Double avgCalories;
+    
+    public IngestItem() {
+        this.exerciseType = IngestItem.ENDURANCE;
+    }
+    
+    public IngestItem copy() {
+        final IngestItem item = new IngestItem();
+        item.idempotencyKey = this.idempotencyKey;
+        item.recognitionKey = this.recognitionKey;
+        item.year = this.year;
+        item.grade = this.grade;
+        item.classNo = this.classNo;
+        item.studentNo = this.studentNo;
+        item.exerciseType = this.exerciseType;
+        item.month = this.month;
+        item.avgDurationSeconds = this.avgDurationSeconds;
+        item.avgAccuracy = this.avgAccuracy;
+        item.avgBpm = this.avgBpm;
+        item.avgMaxBpm = this.avgMaxBpm;
+        item.avgCalories = this.avgCalories;
+        return item;
+    }
+    
+    public String getIdempotencyKey() {
+        return this.idempotencyKey;
+    }
+    
+    public IngestItem setIdempotencyKey(final String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+        return this;
+    }
+    
+    public String getRecognitionKey() {
+        return this.recognitionKey;
+    }
+    
+    public IngestItem setRecognitionKey(final String recognitionKey) {
+        this.recognitionKey = recognitionKey;
+        return this;
+    }
+    
+    public int getYear() {
+        return this.year;
+    }
+    
+    public IngestItem setYear(final int year) {
+        this.year = year;
+        return this;
+    }
+    
+    public int getGrade() {
+        return this.grade;
+    }
+    
+    public IngestItem setGrade(final int grade) {
+        this.grade = grade;
+        return this;
+    }
+    
+    public int getClassNo() {
+        return this.classNo;
+    }
+    
+    public IngestItem setClassNo(final int classNo) {
+        this.classNo = classNo;
+        return this;
+    }
+    
+    public int getStudentNo() {
+        return this.studentNo;
+    }
+    
+    public IngestItem setStudentNo(final int studentNo) {
+        this.studentNo = studentNo;
+        return this;
+    }
+    
+    public String getExerciseType() {
+        return this.exerciseType;
+    }
+    
+    public IngestItem setExerciseType(final String exerciseType) {
+        this.exerciseType = exerciseType;
+        return this;
+    }
+    
+    public int getMonth() {
+        return this.month;
+    }
+    
+    public IngestItem setMonth(final int month) {
+        this.month = month;
+        return this;
+    }
+    
+    public Double getAvgDurationSeconds() {
+        return this.avgDurationSeconds;
+    }
+    
+    public IngestItem setAvgDurationSeconds(final Double avgDurationSeconds) {
+        this.avgDurationSeconds = avgDurationSeconds;
+        return this;
+    }
+    
+    public Double getAvgAccuracy() {
+        return this.avgAccuracy;
+    }
+    
+    public IngestItem setAvgAccuracy(final Double avgAccuracy) {
+        this.avgAccuracy = avgAccuracy;
+        return this;
+    }
+    
+    public Double getAvgBpm() {
+        return this.avgBpm;
+    }
+    
+    public IngestItem setAvgBpm(final Double avgBpm) {
+        this.avgBpm = avgBpm;
+        return this;
+    }
+    
+    public Double getAvgMaxBpm() {
+        return this.avgMaxBpm;
+    }
+    
+    public IngestItem setAvgMaxBpm(final Double avgMaxBpm) {
+        this.avgMaxBpm = avgMaxBpm;
+        return this;
+    }
+    
+    public Double getAvgCalories() {
+        return this.avgCalories;
+    }
+    
+    public IngestItem setAvgCalories(final Double avgCalories) {
+        this.avgCalories = avgCalories;
+        return this;
+    }
+    
+    public String toJson() {
+        final StringBuilder builder = new StringBuilder(320);
+        builder.append("{\"idempotency_key\":");
+        string(builder, this.idempotencyKey);
+        builder.append(",\"recognition_key\":");
+        string(builder, this.recognitionKey);
+        builder.append(",\"year\":").append(this.year);
+        builder.append(",\"grade\":").append(this.grade);
+        builder.append(",\"class_no\":").append(this.classNo);
+        builder.append(",\"student_no\":").append(this.studentNo);
+        builder.append(",\"exercise_type\":");
+        string(builder, this.exerciseType);
+        builder.append(",\"month\":").append(this.month);
+        builder.append(",\"avg_duration_seconds\":");
+        number(builder, this.avgDurationSeconds);
+        builder.append(",\"avg_accuracy\":");
+        number(builder, this.avgAccuracy);
+        builder.append(",\"avg_bpm\":");
+        number(builder, this.avgBpm);
+        builder.append(",\"avg_max_bpm\":");
+        number(builder, this.avgMaxBpm);
+        builder.append(",\"avg_calories\":");
+        number(builder, this.avgCalories);
+        return builder.append('}').toString();
+    }
+    
+    private static void number(final StringBuilder builder, final Double value) {
+        if (value == null || value.isNaN() || value.isInfinite()) {
+            builder.append("null");
+        }
+        else if (value == Math.rint(value) && Math.abs(value) < 1.0E15) {
+            builder.append(value.longValue());
+        }
+        else {
+            builder.append(Math.round(value * 100.0) / 100.0);
+        }
+    }
+    
+    private static void string(final StringBuilder builder, final String value) {
+        if (value == null) {
+            builder.append("null");
+            return;
+        }
+        builder.append('\"');
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            if (c == '\"' || c == '\\') {
+                builder.append('\\').append(c);
+            }
+            else if (c < ' ') {
+                builder.append(String.format("\\u%04x", (int)c));
+            }
+            else {
+                builder.append(c);
+            }
+        }
+        builder.append('\"');
+    }
+    
+    @Override
+    public String toString() {
+        return "IngestItem" + this.toJson();
+    }
+}
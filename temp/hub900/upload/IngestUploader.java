@@ -0,0 +1,370 @@
+package com.hub900.upload;
+
+import java.io.*;
+import java.net.*;
+import java.net.http.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public final class IngestUploader implements Closeable
+{
+    private static final char ADDED = 'A';
+    private static final char DELIVERED = 'D';
+    private static final char REJECTED = 'R';
+    private final URI endpoint;
+    private final Path spool;
+    private final LinkedHashMap<String, String> pending;
+    private final LinkedHashSet<String> completed;
+    private final LongAdder sentItems;
+    private final LongAdder rejectedItems;
+    private final LongAdder failedRequests;
+    private HttpClient client;
+    private Writer journal;
+    private Thread worker;
+    private int batchSize;
+    private long lingerMillis;
+    private long initialBackoffMillis;
+    private long maxBackoffMillis;
+    private long requestTimeoutMillis;
+    private int rememberedKeys;
+    private long compactBytes;
+    private long oldestPending;
+    private long backoffMillis;
+    private long retryAt;
+    private long journalBytes;
+    private boolean flushRequested;
+    private volatile boolean running;
+    
+    public IngestUploader(final URI endpoint, final Path spool) {
+        this.endpoint = endpoint;
+        this.spool = spool;
+        this.pending = new LinkedHashMap<String, String>();
+        this.completed = new LinkedHashSet<String>();
+        this.sentItems = new LongAdder();
+        this.rejectedItems = new LongAdder();
+        this.failedRequests = new LongAdder();
+        this.batchSize = 100;
+        this.lingerMillis = 2000L;
+        this.initialBackoffMillis = 1000L;
+        this.maxBackoffMillis = 60000L;
+        this.requestTimeoutMillis = 10000L;
+        this.rememberedKeys = 10000;
+        this.compactBytes = 1048576L;
+    }
+    
+    public IngestUploader setBatchSize(final int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+    
+    public IngestUploader setLingerMillis(final long lingerMillis) {
+        this.lingerMillis = lingerMillis;
+        return this;
+    }
+    
+    public IngestUploader setBackoff(final long initialBackoffMillis, final long maxBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        return this;
+    }
+    
+    public IngestUploader setRequestTimeoutMillis(final long requestTimeoutMillis) {
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        return this;
+    }
+    
+    public IngestUploader setRememberedKeys(final int rememberedKeys) {
+        this.rememberedKeys = rememberedKeys;
+        return this;
+    }
+    
+    public IngestUploader setCompactBytes(final long compactBytes) {
+        this.compactBytes = compactBytes;
+        return this;
+    }
+    
+    public synchronized IngestUploader start() throws IOException {
+        if (this.running) {
+            return this;
+        }
+        this.recover();
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(this.requestTimeoutMillis)).build();
+        this.running = true;
+        (this.worker = new Thread(this::run, "hub900-ingest-uploader")).setDaemon(true);
+        this.worker.start();
+        return this;
+    }
+    
+    public synchronized boolean submit(final IngestItem item) throws IOException {
+        final String key = item.getIdempotencyKey();
+        if (key == null || key.isEmpty() || key.indexOf(9) >= 0 || key.indexOf(10) >= 0) {
+            throw new IllegalArgumentException("Invalid idempotency_key: " + key);
+        }
+        if (this.pending.containsKey(key) || this.completed.contains(key)) {
+            return false;
+        }
+        final String json = item.toJson();
+        this.append(IngestUploader.ADDED, key, json);
+        if (this.pending.isEmpty()) {
+            this.oldestPending = System.currentTimeMillis();
+        }
+        this.pending.put(key, json);
+        this.notifyAll();
+        return true;
+    }
+    
+    public synchronized int getPendingCount() {
+        return this.pending.size();
+    }
+    
+    public long getSentItems() {
+        return this.sentItems.sum();
+    }
+    
+    public long getRejectedItems() {
+        return this.rejectedItems.sum();
+    }
+    
+    public long getFailedRequests() {
+        return this.failedRequests.sum();
+    }
+    
+    public synchronized boolean flush(final long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        this.flushRequested = true;
+        this.notifyAll();
+        while (!this.pending.isEmpty()) {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0L) {
+                return false;
+            }
+            this.wait(remaining);
+        }
+        return true;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        final Thread worker;
+        synchronized (this) {
+            if (!this.running) {
+                return;
+            }
+            this.running = false;
+            this.notifyAll();
+            worker = this.worker;
+        }
+        try {
+            worker.join(this.requestTimeoutMillis + 1000L);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            this.journal.close();
+        }
+    }
+    
+    private void run() {
+        while (true) {
+            final List<Map.Entry<String, String>> batch;
+            try {
+                batch = this.nextBatch();
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+            if (batch == null) {
+                return;
+            }
+            final int status = this.post(batch);
+            int[] singles = null;
+            if (status == 400 && batch.size() > 1) {
+                singles = new int[batch.size()];
+                for (int i = 0; i < batch.size(); ++i) {
+                    singles[i] = this.post(Collections.singletonList(batch.get(i)));
+                }
+            }
+            synchronized (this) {
+                try {
+                    if (status >= 200 && status < 300) {
+                        this.complete(batch, IngestUploader.DELIVERED);
+                        this.sentItems.add(batch.size());
+                        this.backoffMillis = 0L;
+                    }
+                    else if (singles != null) {
+                        boolean retry = false;
+                        for (int j = 0; j < singles.length; ++j) {
+                            if (singles[j] >= 200 && singles[j] < 300) {
+                                this.complete(Collections.singletonList(batch.get(j)), IngestUploader.DELIVERED);
+                                this.sentItems.increment();
+                            }
+                            else if (singles[j] == 400) {
+                                this.complete(Collections.singletonList(batch.get(j)), IngestUploader.REJECTED);
+                                this.rejectedItems.increment();
+                            }
+                            else {
+                                retry = true;
+                            }
+                        }
+                        if (retry) {
+                            this.backOff();
+                        }
+                    }
+                    else if (status == 400 || status == 415) {
+                        this.complete(batch, IngestUploader.REJECTED);
+                        this.rejectedItems.add(batch.size());
+                    }
+                    else {
+                        this.backOff();
+                    }
+                    if (this.journalBytes > this.compactBytes) {
+                        this.compact();
+                    }
+                }
+                catch (IOException e2) {
+                    this.failedRequests.increment();
+                }
+                this.notifyAll();
+            }
+        }
+    }
+    
+    private void backOff() {
+        this.failedRequests.increment();
+        this.backoffMillis = (this.backoffMillis == 0L) ? this.initialBackoffMillis : Math.min(this.maxBackoffMillis, this.backoffMillis * 2L);
+        this.retryAt = System.currentTimeMillis() + this.backoffMillis / 2L + ThreadLocalRandom.current().nextLong(this.backoffMillis / 2L + 1L);
+    }
+    
+    private synchronized List<Map.Entry<String, String>> nextBatch() throws InterruptedException {
+        while (this.running) {
+            final long now = System.currentTimeMillis();
+            long waitMillis = 0L;
+            if (this.pending.isEmpty()) {
+                this.flushRequested = false;
+            }
+            else if (now < this.retryAt) {
+                waitMillis = this.retryAt - now;
+            }
+            else if (this.pending.size() >= this.batchSize || this.flushRequested || now - this.oldestPending >= this.lingerMillis) {
+                final List<Map.Entry<String, String>> batch = new ArrayList<Map.Entry<String, String>>(Math.min(this.batchSize, this.pending.size()));
+                for (final Map.Entry<String, String> entry : this.pending.entrySet()) {
+                    batch.add(new AbstractMap.SimpleImmutableEntry<String, String>(entry));
+                    if (batch.size() == this.batchSize) {
+                        break;
+                    }
+                }
+                return batch;
+            }
+            else {
+                waitMillis = this.lingerMillis - (now - this.oldestPending);
+            }
+            this.wait(Math.max(waitMillis, 0L));
+        }
+        return null;
+    }
+    
+    private int post(final List<Map.Entry<String, String>> batch) {
+        final StringBuilder body = new StringBuilder(64 + batch.size() * 320).append("{\"items\":[");
+        for (int i = 0; i < batch.size(); ++i) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append(batch.get(i).getValue());
+        }
+        body.append("]}");
+        final HttpRequest request = HttpRequest.newBuilder(this.endpoint).timeout(Duration.ofMillis(this.requestTimeoutMillis)).header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8)).build();
+        try {
+            return this.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+        catch (IOException e) {
+            return -1;
+        }
+        catch (InterruptedException e2) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+    
+    private void complete(final List<Map.Entry<String, String>> batch, final char state) throws IOException {
+        for (final Map.Entry<String, String> entry : batch) {
+            this.append(state, entry.getKey(), null);
+            this.pending.remove(entry.getKey());
+            this.remember(entry.getKey());
+        }
+        this.oldestPending = System.currentTimeMillis();
+    }
+    
+    private void remember(final String key) {
+        this.completed.add(key);
+        if (this.completed.size() > this.rememberedKeys) {
+            final Iterator<String> it = this.completed.iterator();
+            it.next();
+            it.remove();
+        }
+    }
+    
+    private void append(final char state, final String key, final String json) throws IOException {
+        final String line = (json == null) ? (state + "\t" + key + "\n") : (state + "\t" + key + "\t" + json + "\n");
+        this.journal.write(line);
+        this.journal.flush();
+        this.journalBytes += line.length();
+    }
+    
+    private void recover() throws IOException {
+        if (Files.exists(this.spool)) {
+            try (final BufferedReader reader = Files.newBufferedReader(this.spool, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final int tab = line.indexOf(9, 2);
+                    if (line.length() < 3 || line.charAt(1) != '\t') {
+                        continue;
+                    }
+                    final String key = (tab < 0) ? line.substring(2) : line.substring(2, tab);
+                    if (line.charAt(0) == IngestUploader.ADDED && tab > 0) {
+                        if (!this.completed.contains(key)) {
+                            this.pending.put(key, line.substring(tab + 1));
+                        }
+                    }
+                    else if (line.charAt(0) == IngestUploader.DELIVERED || line.charAt(0) == IngestUploader.REJECTED) {
+                        this.pending.remove(key);
+                        this.remember(key);
+                    }
+                }
+            }
+        }
+        this.oldestPending = System.currentTimeMillis() - this.lingerMillis;
+        this.compact();
+    }
+    
+    private void compact() throws IOException {
+        if (this.journal != null) {
+            this.journal.close();
+        }
+        final Path parent = this.spool.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        final Path temp = this.spool.resolveSibling(this.spool.getFileName() + ".tmp");
+        long bytes = 0L;
+        try (final Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (final String key : this.completed) {
+                final String line = IngestUploader.DELIVERED + "\t" + key + "\n";
+                writer.write(line);
+                bytes += line.length();
+            }
+            for (final Map.Entry<String, String> entry : this.pending.entrySet()) {
+                final String line = IngestUploader.ADDED + "\t" + entry.getKey() + "\t" + entry.getValue() + "\n";
+                writer.write(line);
+                bytes += line.length();
+            }
+        }
+        Files.move(temp, this.spool, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.journal = Files.newBufferedWriter(this.spool, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        this.journalBytes = bytes;
+    }
+}
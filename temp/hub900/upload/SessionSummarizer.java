@@ -0,0 +1,140 @@
+package com.hub900.upload;
+
+import java.time.*;
+import java.util.*;
+import com.hub900.*;
+import com.hub900.callback.*;
+import com.hub900.entity.*;
+
+public final class SessionSummarizer
+{
+    private final StudentLookup lookup;
+    private final Map<Long, Accumulator> devices;
+    private ZoneId zone;
+    private int minBpm;
+    private int maxBpm;
+    private long sessionStart;
+    
+    public SessionSummarizer(final StudentLookup lookup) {
+        this.lookup = lookup;
+        this.devices = new HashMap<Long, Accumulator>();
+        this.zone = ZoneId.of("Asia/Seoul");
+        this.minBpm = 30;
+        this.maxBpm = 240;
+        this.sessionStart = System.currentTimeMillis();
+    }
+    
+    public SessionSummarizer setZone(final ZoneId zone) {
+        this.zone = zone;
+        return this;
+    }
+    
+    public SessionSummarizer setBpmRange(final int minBpm, final int maxBpm) {
+        this.minBpm = minBpm;
+        this.maxBpm = maxBpm;
+        return this;
+    }
+    
+    public SessionSummarizer attach(final HubManager hubManager) {
+        hubManager.addSampleListener(this::onSample);
+        return this;
+    }
+    
+    public synchronized void start(final long sessionStart) {
+        this.devices.clear();
+        this.sessionStart = sessionStart;
+    }
+    
+    public synchronized int getDeviceCount() {
+        return this.devices.size();
+    }
+    
+    private void onSample(final SampleType type, final AbstractData data) {
+        switch (type) {
+            case ANT_HEART_RATE: {
+                final AntHeartRateData antHeartRate = (AntHeartRateData)data;
+                this.onSample(type, antHeartRate.getDeviceId(), antHeartRate.getHeartRate(), Float.NaN, System.currentTimeMillis());
+                break;
+            }
+            case BLE_HEART_RATE: {
+                final BleHeartRateData bleHeartRate = (BleHeartRateData)data;
+                this.onSample(type, bleHeartRate.getDeviceKey(), bleHeartRate.getHeartRate(), bleHeartRate.isVendorAdvert() ? bleHeartRate.getCalories() : Float.NaN, System.currentTimeMillis());
+                break;
+            }
+            case BLE_BOXING_HEART_RATE: {
+                final BleBoxingHeartRateData boxingHeartRate = (BleBoxingHeartRateData)data;
+                this.onSample(type, boxingHeartRate.getDeviceId(), boxingHeartRate.getHeartRate(), boxingHeartRate.getCalories(), System.currentTimeMillis());
+                break;
+            }
+        }
+    }
+    
+    public synchronized void onSample(final SampleType type, final long deviceId, final int bpm, final float calories, final long timestamp) {
+        if (bpm < this.minBpm || bpm > this.maxBpm) {
+            return;
+        }
+        final long key = (long)type.getCode() << 56 | (deviceId & 0xFFFFFFFFFFFFFFL);
+        Accumulator accumulator = this.devices.get(key);
+        if (accumulator == null) {
+            accumulator = new Accumulator(type, deviceId, timestamp);
+            this.devices.put(key, accumulator);
+        }
+        accumulator.add(bpm, calories, timestamp);
+    }
+    
+    public synchronized List<IngestItem> finish(final String exerciseType, final long sessionEnd) {
+        final List<IngestItem> items = new ArrayList<IngestItem>(this.devices.size());
+        final LocalDate date = Instant.ofEpochMilli(this.sessionStart).atZone(this.zone).toLocalDate();
+        for (final Accumulator accumulator : this.devices.values()) {
+            final IngestItem template = this.lookup.lookup(accumulator.type, accumulator.deviceId);
+            if (template == null) {
+                continue;
+            }
+            final IngestItem item = template.copy().setExerciseType(exerciseType).setYear(date.getYear()).setMonth(date.getMonthValue());
+            item.setAvgBpm(accumulator.sum / (double)accumulator.count);
+            item.setAvgMaxBpm((double)accumulator.max);
+            item.setAvgDurationSeconds((accumulator.last - accumulator.first) / 1000.0);
+            if (!Float.isNaN(accumulator.firstCalories) && accumulator.lastCalories >= accumulator.firstCalories) {
+                item.setAvgCalories((double)(accumulator.lastCalories - accumulator.firstCalories));
+            }
+            item.setIdempotencyKey(item.getRecognitionKey() + ":" + item.getGrade() + ":" + item.getClassNo() + ":" + item.getStudentNo() + ":" + exerciseType + ":" + this.sessionStart);
+            items.add(item);
+        }
+        this.devices.clear();
+        this.sessionStart = sessionEnd;
+        return items;
+    }
+    
+    private static final class Accumulator
+    {
+        private final SampleType type;
+        private final long deviceId;
+        private final long first;
+        private long last;
+        private long sum;
+        private int count;
+        private int max;
+        private float firstCalories;
+        private float lastCalories;
+        
+        Accumulator(final SampleType type, final long deviceId, final long first) {
+            this.type = type;
+            this.deviceId = deviceId;
+            this.first = first;
+            this.firstCalories = Float.NaN;
+        }
+        
+        void add(final int bpm, final float calories, final long timestamp) {
+            this.sum += bpm;
+            ++this.count;
+            this.max = Math.max(this.max, bpm);
+            this.last = timestamp;
+            if (!Float.isNaN(calories)) {
+                if (Float.isNaN(this.firstCalories)) {
+                    this.firstCalories = calories;
+                }
+                this.lastCalories = calories;
+            }
+        }
+    }
+}
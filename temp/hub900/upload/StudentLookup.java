@@ -0,0 +1,8 @@
+package com.hub900.upload;
+
+import com.hub900.entity.*;
+
+public interface StudentLookup
+{
+    IngestItem lookup(final SampleType p0, final long p1);
+}